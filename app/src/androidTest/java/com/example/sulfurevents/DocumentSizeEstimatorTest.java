@@ -0,0 +1,67 @@
+package com.example.sulfurevents;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link DocumentSizeEstimator}.
+ * <p>
+ * Tests cover:
+ * - Document name sizes
+ * - Field sizes for strings, numbers, booleans, nulls, maps and arrays
+ * - Multi-byte characters counted in UTF-8
+ */
+public class DocumentSizeEstimatorTest {
+
+    /**
+     * Test 1: the name counts each segment plus one, plus 16
+     */
+    @Test
+    public void testNameSize() {
+        // "Profiles"(8+1) + "abc"(3+1) + "notifications"(13+1) + "x1"(2+1) + 16
+        assertEquals(9 + 4 + 14 + 3 + 16, DocumentSizeEstimator.nameSize("Profiles/abc/notifications/x1"));
+    }
+
+    /**
+     * Test 2: a typical notification document
+     */
+    @Test
+    public void testNotificationDocument() {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("type", "WAITING");       // 5 + 8
+        fields.put("timestamp", 1700000000L); // 10 + 8
+        fields.put("read", true);             // 5 + 1
+        fields.put("eventName", null);        // 10 + 1
+
+        long name = DocumentSizeEstimator.nameSize("Profiles/abc/notifications/x1");
+        assertEquals(name + 13 + 18 + 6 + 11 + 32,
+                DocumentSizeEstimator.documentSize("Profiles/abc/notifications/x1", fields));
+    }
+
+    /**
+     * Test 3: nested maps count their keys, arrays only their elements
+     */
+    @Test
+    public void testNestedValues() {
+        Map<String, Object> inner = new HashMap<>();
+        inner.put("a", 1);                   // 2 + 8
+        assertEquals(10, DocumentSizeEstimator.valueSize(inner));
+        assertEquals(2 + 2 + 1, DocumentSizeEstimator.valueSize(Arrays.asList("x", "y", null)));
+    }
+
+    /**
+     * Test 4: strings are measured in UTF-8 bytes
+     */
+    @Test
+    public void testUtf8Strings() {
+        assertEquals(3 + 1, DocumentSizeEstimator.valueSize("→"));
+        assertTrue(DocumentSizeEstimator.valueSize("é") > DocumentSizeEstimator.valueSize("e"));
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.sulfurevents;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link EntrantCounts}.
+ * <p>
+ * Tests cover:
+ * - Counting lists, with duplicate device IDs counted once
+ * - Summing counter shards by field, ignoring non-numeric fields
+ * - Missing statuses and transiently negative shard sums reading as zero
+ * - Applying transition deltas when seeding a counter from the arrays
+ * - Waiting list limit checks, with zero or less meaning no limit
+ */
+public class EntrantCountsTest {
+
+    private static Map<String, Object> shard(Object... pairs) {
+        Map<String, Object> shard = new HashMap<>();
+        for (int i = 0; i < pairs.length; i += 2) shard.put((String) pairs[i], pairs[i + 1]);
+        return shard;
+    }
+
+    /**
+     * Test 1: list sizes become counts and duplicates collapse
+     */
+    @Test
+    public void testFromLists() {
+        Map<String, List<String>> lists = new HashMap<>();
+        lists.put(Memberships.WAITING, Arrays.asList("a", "b", "a"));
+        lists.put(Memberships.ENROLLED, Arrays.asList("c"));
+
+        EntrantCounts counts = EntrantCounts.fromLists(lists);
+
+        assertEquals(2, counts.waiting());
+        assertEquals(1, counts.enrolled());
+        assertEquals(0, counts.invited());
+    }
+
+    /**
+     * Test 2: shards are summed per field and non-numeric fields are skipped
+     */
+    @Test
+    public void testSumShards() {
+        Map<String, Long> totals = EntrantCounts.sumShards(Arrays.asList(
+                shard(Memberships.WAITING, 3L, Memberships.INVITED, 1L),
+                shard(Memberships.WAITING, 2L, "note", "x"),
+                shard(Memberships.INVITED, 1.0)));
+
+        assertEquals(Long.valueOf(5), totals.get(Memberships.WAITING));
+        assertEquals(Long.valueOf(2), totals.get(Memberships.INVITED));
+        assertEquals(2, totals.size());
+    }
+
+    /**
+     * Test 3: a negative sum (decrement landed before its increment) reads as zero
+     */
+    @Test
+    public void testNegativeClampsToZero() {
+        Map<String, Long> totals = EntrantCounts.sumShards(Arrays.asList(
+                shard(Memberships.CANCELLED, -1L),
+                shard(Memberships.WAITING, 4L, Memberships.CANCELLED, 0L)));
+
+        EntrantCounts counts = EntrantCounts.of(totals);
+        assertEquals(0, counts.cancelled());
+        assertEquals(4, counts.waiting());
+    }
+
+    /**
+     * Test 4: deltas are added per status and toMap lists every status
+     */
+    @Test
+    public void testPlusDeltas() {
+        Map<String, List<String>> lists = new HashMap<>();
+        lists.put(Memberships.WAITING, Arrays.asList("a", "b", "c"));
+        Map<String, Long> deltas = new HashMap<>();
+        deltas.put(Memberships.WAITING, -2L);
+        deltas.put(Memberships.INVITED, 2L);
+
+        Map<String, Long> seeded = EntrantCounts.fromLists(lists).plus(deltas).toMap();
+
+        assertEquals(Long.valueOf(1), seeded.get(Memberships.WAITING));
+        assertEquals(Long.valueOf(2), seeded.get(Memberships.INVITED));
+        assertEquals(Long.valueOf(0), seeded.get(Memberships.ENROLLED));
+        assertEquals(4, seeded.size());
+    }
+
+    /**
+     * Test 5: the waiting list has room below its limit and always when unlimited
+     */
+    @Test
+    public void testHasRoomOnWaitingList() {
+        Map<String, Long> totals = new HashMap<>();
+        totals.put(Memberships.WAITING, 3L);
+        EntrantCounts counts = EntrantCounts.of(totals);
+
+        assertTrue(counts.hasRoomOnWaitingList(4));
+        assertFalse(counts.hasRoomOnWaitingList(3));
+        assertTrue(counts.hasRoomOnWaitingList(0));
+        assertTrue(counts.hasRoomOnWaitingList(-1));
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.sulfurevents;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link EventCardState}.
+ * <p>
+ * Tests cover:
+ * - Join button state before, during and after registration (end day inclusive)
+ * - Events with missing or invalid dates
+ * - Display strings and their fallbacks for missing fields
+ */
+public class EventCardStateTest {
+
+    private static EventModel event(String start, String end) {
+        EventModel e = new EventModel();
+        e.setEventId("e1");
+        e.setEventName("Swim Lessons");
+        e.setDescription("Beginner lessons");
+        e.setLocation("Edmonton");
+        e.setLimitGuests("20");
+        e.setStartDate(start);
+        e.setEndDate(end);
+        return e;
+    }
+
+    private static long day(String date) {
+        return EventDates.parseEpochDay(date);
+    }
+
+    /**
+     * Test 1: registration is open from the start day through the end day
+     */
+    @Test
+    public void testJoinableWithinRegistration() {
+        EventModel e = event("03/01/2025", "03/10/2025");
+
+        assertTrue(EventCardState.of(e, day("03/01/2025")).isJoinable());
+        assertTrue(EventCardState.of(e, day("03/05/2025")).isJoinable());
+        assertTrue(EventCardState.of(e, day("03/10/2025")).isJoinable());
+        assertEquals("Join Waiting List", EventCardState.of(e, day("03/05/2025")).buttonText);
+    }
+
+    /**
+     * Test 2: before the start day the button names the opening date; after the end day it is closed
+     */
+    @Test
+    public void testUpcomingAndClosed() {
+        EventModel e = event("03/01/2025", "03/10/2025");
+
+        EventCardState before = EventCardState.of(e, day("02/28/2025"));
+        assertEquals(EventCardState.UPCOMING, before.status);
+        assertFalse(before.isJoinable());
+        assertEquals("Waitlist available on 03/01/2025", before.buttonText);
+
+        EventCardState after = EventCardState.of(e, day("03/11/2025"));
+        assertEquals(EventCardState.CLOSED, after.status);
+        assertEquals("Event registration has passed", after.buttonText);
+    }
+
+    /**
+     * Test 3: missing or impossible dates disable the button
+     */
+    @Test
+    public void testInvalidDates() {
+        long today = day("03/05/2025");
+
+        EventCardState missing = EventCardState.of(event(null, "03/10/2025"), today);
+        assertEquals(EventCardState.INVALID_DATES, missing.status);
+        assertEquals("Invalid date format", missing.buttonText);
+        assertEquals("Date: N/A → 03/10/2025", missing.dateText);
+
+        assertFalse(EventCardState.of(event("02/30/2025", "03/10/2025"), today).isJoinable());
+    }
+
+    /**
+     * Test 4: display strings are prebuilt, with fallbacks for missing fields
+     */
+    @Test
+    public void testDisplayStrings() {
+        EventCardState state = EventCardState.of(event("03/01/2025", "03/10/2025"), day("03/05/2025"));
+        assertEquals("Swim Lessons", state.nameText);
+        assertEquals("Details: Beginner lessons", state.detailsText);
+        assertEquals("Date: 03/01/2025 → 03/10/2025", state.dateText);
+        assertEquals("Location: Edmonton", state.locationText);
+        assertEquals("Capacity: 20", state.capacityText);
+
+        EventCardState empty = EventCardState.of(new EventModel(), day("03/05/2025"));
+        assertEquals("Unnamed Event", empty.nameText);
+        assertEquals("Details: No description available", empty.detailsText);
+        assertEquals("Location: Not specified", empty.locationText);
+        assertEquals("Capacity: Not set", empty.capacityText);
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.sulfurevents;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link EventDates} and {@link EventDateIndex}.
+ * <p>
+ * Tests cover:
+ * - Parsing MM/dd/yyyy and MM/dd/yy strings into epoch days
+ * - Rejecting missing or impossible dates
+ * - "Available on" and "overlaps window" queries, with inclusive boundaries
+ * - Events added incrementally after a query
+ */
+public class EventDateIndexTest {
+
+    private List<EventModel> events;
+
+    private static EventModel event(String name, String start, String end) {
+        EventModel e = new EventModel();
+        e.setEventName(name);
+        e.setStartDate(start);
+        e.setEndDate(end);
+        return e;
+    }
+
+    @Before
+    public void setup() {
+        events = new ArrayList<>();
+        events.add(event("January", "01/15/2025", "01/17/2025"));   // 0
+        events.add(event("Long", "01/01/2025", "12/31/2025"));      // 1
+        events.add(event("Short year", "08/10/25", "08/12/25"));    // 2
+        events.add(event("No dates", null, null));                  // 3
+        events.add(event("March", "03/10/2025", "03/20/2025"));     // 4
+    }
+
+    /**
+     * Test 1: both supported formats resolve to the same day
+     */
+    @Test
+    public void testParseBothYearFormats() {
+        assertEquals(EventDates.toEpochDay(2025, 8, 10), EventDates.parseEpochDay("08/10/2025"));
+        assertEquals(EventDates.toEpochDay(2025, 8, 10), EventDates.parseEpochDay("08/10/25"));
+        assertEquals(0, EventDates.parseEpochDay("01/01/1970"));
+    }
+
+    /**
+     * Test 2: invalid input yields NO_DATE instead of rolling over
+     */
+    @Test
+    public void testParseRejectsInvalidDates() {
+        assertEquals(EventDates.NO_DATE, EventDates.parseEpochDay(null));
+        assertEquals(EventDates.NO_DATE, EventDates.parseEpochDay(""));
+        assertEquals(EventDates.NO_DATE, EventDates.parseEpochDay("invalid-date"));
+        assertEquals(EventDates.NO_DATE, EventDates.parseEpochDay("02/30/2025"));
+        assertEquals(EventDates.NO_DATE, EventDates.parseEpochDay("13/01/2025"));
+    }
+
+    /**
+     * Test 3: EventModel pre-parses its dates when they are set
+     */
+    @Test
+    public void testEventModelPreParsesDates() {
+        EventModel e = events.get(0);
+        assertEquals(EventDates.toEpochDay(2025, 1, 15), e.getStartEpochDay());
+        assertEquals(EventDates.toEpochDay(2025, 1, 17), e.getEndEpochDay());
+        assertEquals(EventDates.NO_DATE, events.get(3).getStartEpochDay());
+    }
+
+    /**
+     * Test 4: available-on query is inclusive at both ends
+     */
+    @Test
+    public void testAvailableOnInclusiveBounds() {
+        EventDateIndex index = EventDateIndex.of(events);
+
+        BitSet onStart = index.availableOn(EventDates.parseEpochDay("01/15/2025"));
+        assertTrue(onStart.get(0));
+        assertTrue(onStart.get(1));
+        assertEquals(2, onStart.cardinality());
+
+        BitSet onEnd = index.availableOn(EventDates.parseEpochDay("01/17/2025"));
+        assertTrue(onEnd.get(0));
+
+        BitSet after = index.availableOn(EventDates.parseEpochDay("01/18/2025"));
+        assertFalse(after.get(0));
+    }
+
+    /**
+     * Test 5: overlap window matches events that start before it ends and end after it starts
+     */
+    @Test
+    public void testOverlappingWindow() {
+        EventDateIndex index = EventDateIndex.of(events);
+
+        BitSet result = index.overlapping(
+                EventDates.parseEpochDay("03/01/2025"),
+                EventDates.parseEpochDay("03/10/2025"));
+
+        assertTrue("Long event overlaps", result.get(1));
+        assertTrue("March event starts on the last day of the window", result.get(4));
+        assertFalse(result.get(0));
+        assertFalse(result.get(2));
+        assertEquals(2, result.cardinality());
+    }
+
+    /**
+     * Test 6: events without parseable dates are never matched but are reported
+     */
+    @Test
+    public void testUnparsedEventsExcluded() {
+        EventDateIndex index = EventDateIndex.of(events);
+
+        BitSet result = index.overlapping(Long.MIN_VALUE + 1, Long.MAX_VALUE);
+        assertFalse(result.get(3));
+        assertTrue(index.unparsedPositions().get(3));
+    }
+
+    /**
+     * Test 7: events appended after a query are picked up by the next query
+     */
+    @Test
+    public void testIncrementalAdd() {
+        EventDateIndex index = EventDateIndex.of(events);
+        long day = EventDates.parseEpochDay("05/05/2026");
+        assertEquals(0, index.availableOn(day).cardinality());
+
+        index.add(event("Later", "05/01/2026", "05/10/2026"));
+
+        BitSet result = index.availableOn(day);
+        assertEquals(1, result.cardinality());
+        assertTrue(result.get(events.size()));
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.sulfurevents;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link EventKeywordIndex}.
+ * Tests US 01.01.04 - Filter events by interests.
+ * <p>
+ * Tests cover:
+ * - Prefix matching on words in name, description and location
+ * - Restricting a search to specific fields
+ * - Multi-word queries, punctuation and symbol-only words
+ * - Events added incrementally after a search
+ */
+public class EventKeywordIndexTest {
+
+    private List<EventModel> events;
+    private EventKeywordIndex index;
+
+    private static EventModel event(String name, String description, String location) {
+        EventModel e = new EventModel();
+        e.setEventName(name);
+        e.setDescription(description);
+        e.setLocation(location);
+        return e;
+    }
+
+    @Before
+    public void setup() {
+        events = new ArrayList<>();
+        events.add(event("Tech Conference 2025", "Annual technology conference", "San Francisco")); // 0
+        events.add(event("Summer Music Festival", "Outdoor music event", "Los Angeles"));           // 1
+        events.add(event("Event & Conference", "Special (invite-only) event", "New York"));         // 2
+        events.add(event(null, null, null));                                                      // 3
+        index = EventKeywordIndex.of(events);
+    }
+
+    /**
+     * Test 1: a word prefix matches longer words, case-insensitively
+     */
+    @Test
+    public void testPrefixMatch() {
+        BitSet result = index.search("TECH");
+
+        assertTrue(result.get(0));
+        assertEquals(1, result.cardinality());
+    }
+
+    /**
+     * Test 2: matching is at word starts, not anywhere in the text
+     */
+    @Test
+    public void testNoMidWordMatch() {
+        assertEquals(0, index.search("ference").cardinality());
+    }
+
+    /**
+     * Test 3: every query word must match
+     */
+    @Test
+    public void testMultiWordQuery() {
+        BitSet result = index.search("music outdoor");
+        assertTrue(result.get(1));
+        assertEquals(1, result.cardinality());
+
+        assertEquals(0, index.search("music conference").cardinality());
+    }
+
+    /**
+     * Test 4: field mask restricts where words are searched
+     */
+    @Test
+    public void testFieldMask() {
+        assertEquals(0, index.search("angeles", EventKeywordIndex.FIELD_NAME).cardinality());
+
+        BitSet result = index.search("angeles", EventKeywordIndex.FIELD_LOCATION);
+        assertTrue(result.get(1));
+        assertEquals(1, result.cardinality());
+    }
+
+    /**
+     * Test 5: punctuation is stripped and symbol-only words stay searchable
+     */
+    @Test
+    public void testPunctuationAndSymbols() {
+        assertTrue(index.search("&").get(2));
+        assertTrue(index.search("invite").get(2));
+        assertTrue(index.search("only").get(2));
+        assertTrue(index.search("(invite-only)").get(2));
+    }
+
+    /**
+     * Test 6: blank queries match everything, including events with no text
+     */
+    @Test
+    public void testBlankQueryMatchesAll() {
+        assertEquals(events.size(), index.search("   ").cardinality());
+        assertEquals(events.size(), index.search(null).cardinality());
+        assertFalse(index.search("event").get(3));
+    }
+
+    /**
+     * Test 7: events appended after a search are found by the next search
+     */
+    @Test
+    public void testIncrementalAdd() {
+        assertEquals(0, index.search("basketball").cardinality());
+
+        index.add(event("Basketball Tournament", "Annual competition", "Chicago"));
+
+        BitSet result = index.search("basket");
+        assertTrue(result.get(events.size()));
+        assertEquals(1, result.cardinality());
+    }
+}
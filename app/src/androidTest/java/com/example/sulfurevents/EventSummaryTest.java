@@ -0,0 +1,104 @@
+package com.example.sulfurevents;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link EventSummary}.
+ * <p>
+ * Tests cover:
+ * - Only the card fields being copied out of an event document
+ * - Fields missing from an update being left out, so a merge keeps them
+ * - A new event's summary starting with zero entrants
+ * - Count field names and values per status
+ */
+public class EventSummaryTest {
+
+    /**
+     * Test 1: entrant arrays and the QR code are not copied into the summary
+     */
+    @Test
+    public void testFieldsOfDropsHeavyFields() {
+        Map<String, Object> event = new HashMap<>();
+        event.put("eventId", "e1");
+        event.put("organizerId", "org");
+        event.put("eventName", "Gala");
+        event.put("posterURL", "https://example.com/p.jpg");
+        event.put("qrCode", "iVBORw0KGgo...");
+        event.put("waiting_list", Arrays.asList("a", "b"));
+        event.put("description", "A long description");
+
+        Map<String, Object> fields = EventSummary.fieldsOf(event);
+
+        assertEquals(4, fields.size());
+        assertEquals("Gala", fields.get("eventName"));
+        assertFalse(fields.containsKey("qrCode"));
+        assertFalse(fields.containsKey("waiting_list"));
+        assertFalse(fields.containsKey("description"));
+    }
+
+    /**
+     * Test 2: an update only carries the summary fields it changes, including cleared ones
+     */
+    @Test
+    public void testFieldsOfUpdate() {
+        Map<String, Object> update = new HashMap<>();
+        update.put("posterURL", "");
+        update.put("organizerEmail", "a@b.c");
+
+        Map<String, Object> fields = EventSummary.fieldsOf(update);
+
+        assertEquals(1, fields.size());
+        assertEquals("", fields.get("posterURL"));
+        assertTrue(EventSummary.fieldsOf(new HashMap<>()).isEmpty());
+    }
+
+    /**
+     * Test 3: a new event's summary copies its card fields and has no entrants
+     */
+    @Test
+    public void testOfNewEvent() {
+        OrganizerEvent event = new OrganizerEvent();
+        event.eventId = "e1";
+        event.organizerId = "org";
+        event.eventName = "Gala";
+        event.startDate = "2025-12-01";
+        event.limitGuests = "50";
+
+        EventSummary summary = EventSummary.of(event);
+
+        assertEquals("e1", summary.getEventId());
+        assertEquals("org", summary.getOrganizerId());
+        assertEquals("50", summary.getLimitGuests());
+        assertNull(summary.getPosterURL());
+        assertEquals(0, summary.getWaitingCount());
+        assertEquals(0, summary.getEnrolledCount());
+    }
+
+    /**
+     * Test 4: counts are stored as one long field per status
+     */
+    @Test
+    public void testCountsOf() {
+        Map<String, Long> counts = new HashMap<>();
+        counts.put(Memberships.WAITING, 12L);
+        counts.put(Memberships.ENROLLED, 3L);
+
+        Map<String, Object> fields = EventSummary.countsOf(EntrantCounts.of(counts));
+
+        assertEquals("waitingCount", EventSummary.countField(Memberships.WAITING));
+        assertEquals(4, fields.size());
+        assertEquals(12L, fields.get("waitingCount"));
+        assertEquals(0L, fields.get("invitedCount"));
+        assertEquals(3L, fields.get("enrolledCount"));
+        assertEquals(0L, fields.get("cancelledCount"));
+    }
+}
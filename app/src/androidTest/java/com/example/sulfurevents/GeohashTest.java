@@ -0,0 +1,81 @@
+package com.example.sulfurevents;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link Geohash}.
+ * <p>
+ * Tests cover:
+ * - Encoding known points
+ * - Viewport cells containing every point inside the viewport
+ * - Viewports crossing the antimeridian and the whole world
+ * - Skipping cells already loaded through a larger cell
+ */
+public class GeohashTest {
+
+    /**
+     * Test 1: well-known geohashes, and shorter hashes being prefixes of longer ones
+     */
+    @Test
+    public void testEncode() {
+        assertEquals("ezs42", Geohash.encode(42.605, -5.603, 5));
+        assertEquals("u4pruydqq", Geohash.encode(57.64911, 10.40744, 9));
+        assertEquals(Geohash.encode(53.5461, -113.4938, 4), Geohash.encode(53.5461, -113.4938, 9).substring(0, 4));
+        assertEquals("", Geohash.encode(0, 0, 0));
+    }
+
+    /**
+     * Test 2: every point of a city-sized viewport falls in one of its cells
+     */
+    @Test
+    public void testCoverContainsViewport() {
+        double south = 53.45, west = -113.65, north = 53.65, east = -113.30;
+        List<String> cells = Geohash.cover(south, west, north, east);
+        assertTrue(cells.size() <= Geohash.MAX_CELLS);
+        for (double lat = south; lat <= north; lat += 0.01) {
+            for (double lng = west; lng <= east; lng += 0.01) {
+                String point = Geohash.encode(lat, lng, Geohash.STORED_PRECISION);
+                assertTrue(point, Geohash.isCovered(point, new HashSet<>(cells)));
+            }
+        }
+        // Cells are as small as the limit allows, not the whole world
+        assertTrue(cells.get(0).length() >= 4);
+    }
+
+    /**
+     * Test 3: a viewport across the antimeridian is covered on both sides; a world view is one query
+     */
+    @Test
+    public void testCoverAntimeridianAndWorld() {
+        List<String> cells = Geohash.cover(-20, 175, -15, -175);
+        Set<String> set = new HashSet<>(cells);
+        assertTrue(Geohash.isCovered(Geohash.encode(-17, 178, 9), set));
+        assertTrue(Geohash.isCovered(Geohash.encode(-17, -178, 9), set));
+        assertFalse(Geohash.isCovered(Geohash.encode(-17, 0, 9), set));
+
+        assertEquals(Arrays.asList(""), Geohash.cover(-85, -180, 85, 180));
+    }
+
+    /**
+     * Test 4: a cell is skipped when it or a larger cell around it is already loaded
+     */
+    @Test
+    public void testIsCovered() {
+        Set<String> loaded = new HashSet<>(Arrays.asList("c3x", "9q8yy"));
+        assertTrue(Geohash.isCovered("c3x29", loaded));
+        assertTrue(Geohash.isCovered("9q8yy", loaded));
+        assertFalse(Geohash.isCovered("9q8y", loaded));
+        assertFalse(Geohash.isCovered("c3p", loaded));
+        assertTrue(Geohash.isCovered("dr5r", new HashSet<>(Arrays.asList(""))));
+        assertTrue(Geohash.rangeEnd("c3x").compareTo("c3xzzzzzz") > 0);
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.sulfurevents;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link LruFiles}.
+ * <p>
+ * Tests cover:
+ * - Nothing being deleted while the directory fits its budget
+ * - The least recently used files being deleted first, only as many as needed
+ * - A touched file counting as recently used
+ */
+public class LruFilesTest {
+
+    private File dir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("lru").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = dir.listFiles();
+        if (files != null) for (File file : files) file.delete();
+        dir.delete();
+    }
+
+    private File file(String name, int bytes, long lastUsed) throws IOException {
+        File file = new File(dir, name);
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(new byte[bytes]);
+        }
+        file.setLastModified(lastUsed);
+        return file;
+    }
+
+    /**
+     * Test 1: a directory within its budget is left alone
+     */
+    @Test
+    public void testWithinBudget() throws IOException {
+        file("a.png", 100, 1_000_000L);
+        file("b.png", 100, 2_000_000L);
+
+        assertEquals(0, LruFiles.trim(dir, 200));
+        assertEquals(2, dir.listFiles().length);
+    }
+
+    /**
+     * Test 2: the oldest files go first, and trimming stops once the budget is met
+     */
+    @Test
+    public void testOldestDeletedFirst() throws IOException {
+        File oldest = file("a.png", 100, 1_000_000L);
+        File middle = file("b.png", 100, 2_000_000L);
+        File newest = file("c.png", 100, 3_000_000L);
+
+        assertEquals(1, LruFiles.trim(dir, 250));
+        assertFalse(oldest.exists());
+        assertTrue(middle.exists());
+        assertTrue(newest.exists());
+    }
+
+    /**
+     * Test 3: touching an old file keeps it over files used after it was written
+     */
+    @Test
+    public void testTouchKeepsFile() throws IOException {
+        File used = file("a.png", 100, 1_000_000L);
+        File unused = file("b.png", 100, 2_000_000L);
+
+        LruFiles.touch(used);
+
+        assertEquals(1, LruFiles.trim(dir, 150));
+        assertTrue(used.exists());
+        assertFalse(unused.exists());
+    }
+}
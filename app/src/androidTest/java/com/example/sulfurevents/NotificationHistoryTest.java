@@ -0,0 +1,165 @@
+package com.example.sulfurevents;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link NotificationHistory}.
+ * <p>
+ * Tests cover:
+ * - Newest-first ordering and merging by document ID
+ * - Deletions detected from a full window, and completeness from a short one
+ * - Unread notifications outside the run kept aside without moving the paging cursor
+ * - Notifications read elsewhere replaced by read copies
+ * - Pages dropping cached notifications the server no longer has
+ * - Paging through notifications that share a timestamp
+ */
+public class NotificationHistoryTest {
+
+    private static NotificationItem item(String id, long timestamp, boolean read) {
+        NotificationItem item = new NotificationItem();
+        item.docId = id;
+        item.eventId = "e1";
+        item.type = "WAITING";
+        item.timestamp = timestamp;
+        item.read = read;
+        return item;
+    }
+
+    private static List<String> ids(List<NotificationItem> items) {
+        List<String> ids = new ArrayList<>();
+        for (NotificationItem item : items) ids.add(item.docId);
+        return ids;
+    }
+
+    /**
+     * Test 1: items are returned newest first and replaced by ID
+     */
+    @Test
+    public void testOrderingAndMerge() {
+        NotificationHistory history = new NotificationHistory();
+        int added = history.putAll(Arrays.asList(item("a", 10, true), item("b", 30, true), item("c", 20, true)));
+        assertEquals(3, added);
+        assertEquals(Arrays.asList("b", "c", "a"), ids(history.getItems()));
+
+        assertEquals(0, history.putAll(Arrays.asList(item("c", 20, false))));
+        assertFalse(history.getItems().get(1).read);
+        assertEquals(30, history.newestTimestamp());
+        assertEquals(10, history.oldestTimestamp());
+    }
+
+    /**
+     * Test 2: a full window removes newer items it no longer contains and keeps older ones
+     */
+    @Test
+    public void testFullWindowDetectsDeletes() {
+        NotificationHistory history = new NotificationHistory();
+        history.putAll(Arrays.asList(item("old", 5, true), item("edge", 20, true),
+                item("gone", 35, true), item("keep", 30, true)));
+
+        // window of 2: "keep" and a new item; "gone" (newer than the window's oldest) was deleted
+        history.applyWindow(Arrays.asList(item("new", 40, false), item("keep", 30, true)), 2);
+
+        assertEquals(Arrays.asList("new", "keep", "edge", "old"), ids(history.getItems()));
+        assertFalse(history.isComplete());
+    }
+
+    /**
+     * Test 3: a window smaller than its limit holds everything, so the history is complete
+     */
+    @Test
+    public void testShortWindowIsComplete() {
+        NotificationHistory history = new NotificationHistory();
+        history.putAll(Arrays.asList(item("stale", 5, true)));
+
+        history.applyWindow(Arrays.asList(item("x", 10, true)), 50);
+
+        assertEquals(Arrays.asList("x"), ids(history.getItems()));
+        assertTrue(history.isComplete());
+    }
+
+    /**
+     * Test 4: an old unread invitation is shown but does not move the paging cursor
+     */
+    @Test
+    public void testUnreadOutsideRun() {
+        NotificationHistory history = new NotificationHistory();
+        history.applyWindow(Arrays.asList(item("n2", 200, true), item("n1", 100, true)), 2);
+
+        NotificationItem invite = item("inv", 1, false);
+        history.applyUnread(Arrays.asList(invite));
+
+        assertEquals(Arrays.asList("n2", "n1", "inv"), ids(history.getItems()));
+        assertEquals(100, history.oldestTimestamp());
+        assertEquals(2, history.size());
+
+        // paging reaches it: it joins the run
+        history.putAll(Arrays.asList(item("n0", 50, true), invite));
+        assertEquals(4, history.size());
+        assertEquals(1, history.oldestTimestamp());
+    }
+
+    /**
+     * Test 5: an unread item missing from the unread snapshot becomes a read copy
+     */
+    @Test
+    public void testReadElsewhere() {
+        NotificationHistory history = new NotificationHistory();
+        NotificationItem unread = item("u", 10, false);
+        history.applyWindow(Arrays.asList(unread), 50);
+
+        history.applyUnread(new ArrayList<>());
+
+        NotificationItem now = history.getItems().get(0);
+        assertTrue(now.read);
+        assertFalse(unread.read);
+        assertEquals("u", now.docId);
+    }
+
+    /**
+     * Test 6: paging from the confirmed part drops a cached notification deleted on the server
+     */
+    @Test
+    public void testPageDropsStaleCache() {
+        NotificationHistory history = new NotificationHistory();
+        history.putAll(Arrays.asList(item("c3", 30, true), item("c2", 20, true), item("c1", 10, true)));
+        history.applyWindow(Arrays.asList(item("n", 40, false)), 1);
+        assertEquals("n", history.pageCursor().docId);
+        assertEquals(4, history.size());
+
+        // the server no longer has c2 (e.g. compacted into a digest)
+        int added = history.applyPage(Arrays.asList(item("c3", 30, true), item("c1", 10, true)), 2);
+        assertEquals(0, added);
+        assertEquals(Arrays.asList("n", "c3", "c1"), ids(history.getItems()));
+        assertEquals("c1", history.pageCursor().docId);
+        assertFalse(history.isComplete());
+
+        history.applyPage(new ArrayList<>(), 2);
+        assertTrue(history.isComplete());
+    }
+
+    /**
+     * Test 7: notifications sharing one timestamp are paged by document ID without stalling
+     */
+    @Test
+    public void testPagingThroughEqualTimestamps() {
+        NotificationHistory history = new NotificationHistory();
+        history.applyWindow(Arrays.asList(item("d", 10, true), item("c", 10, true)), 2);
+        assertEquals("c", history.pageCursor().docId);
+
+        assertEquals(2, history.applyPage(Arrays.asList(item("b", 10, true), item("a", 10, true)), 2));
+        assertEquals("a", history.pageCursor().docId);
+        assertFalse(history.isComplete());
+        assertEquals(Arrays.asList("d", "c", "b", "a"), ids(history.getItems()));
+
+        history.applyPage(new ArrayList<>(), 2);
+        assertTrue(history.isComplete());
+    }
+}
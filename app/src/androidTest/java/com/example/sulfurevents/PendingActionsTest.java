@@ -0,0 +1,116 @@
+package com.example.sulfurevents;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link PendingActions}.
+ * <p>
+ * Tests cover:
+ * - Join and leave cancelling out while unsent, so join, leave, join sends one join
+ * - Repeated actions and changed invitation answers replacing the queued one
+ * - Actions already in flight never being merged
+ * - One action in flight at a time, and released actions being retried first
+ * - Queued actions applied on top of the confirmed statuses
+ */
+public class PendingActionsTest {
+
+    private static final String EVENT = "event1";
+    private static final String DEVICE = "device1";
+
+    /**
+     * Test 1: join, leave, join leaves a single join queued
+     */
+    @Test
+    public void testJoinLeaveJoinCoalesces() {
+        PendingActions pending = new PendingActions();
+        assertTrue(pending.add(EntrantAction.join(EVENT, DEVICE, "Gala")));
+        assertFalse(pending.add(EntrantAction.leave(EVENT, DEVICE, "Gala")));
+        assertEquals(0, pending.size());
+
+        EntrantAction join = EntrantAction.join(EVENT, DEVICE, "Gala");
+        assertTrue(pending.add(join));
+        assertEquals(1, pending.size());
+        assertSame(join, pending.start());
+    }
+
+    /**
+     * Test 2: a decline replaces a queued accept in place; other entrants are untouched
+     */
+    @Test
+    public void testAnswerReplacesAnswer() {
+        PendingActions pending = new PendingActions();
+        pending.add(EntrantAction.accept(EVENT, DEVICE, "Gala"));
+        EntrantAction other = EntrantAction.join("event2", DEVICE, "Fair");
+        pending.add(other);
+        EntrantAction decline = EntrantAction.decline(EVENT, DEVICE, "Gala");
+        pending.add(decline);
+
+        assertEquals(Arrays.asList(decline, other), pending.all());
+    }
+
+    /**
+     * Test 3: a leave after an in-flight join is queued behind it instead of cancelling it
+     */
+    @Test
+    public void testInFlightIsNotMerged() {
+        PendingActions pending = new PendingActions();
+        EntrantAction join = EntrantAction.join(EVENT, DEVICE, "Gala");
+        pending.add(join);
+        assertSame(join, pending.start());
+
+        assertTrue(pending.add(EntrantAction.leave(EVENT, DEVICE, "Gala")));
+        assertEquals(2, pending.size());
+    }
+
+    /**
+     * Test 4: only one action is in flight; a released one is started again before the rest
+     */
+    @Test
+    public void testStartFinishRelease() {
+        PendingActions pending = new PendingActions();
+        EntrantAction first = EntrantAction.join(EVENT, DEVICE, "Gala");
+        EntrantAction second = EntrantAction.join("event2", DEVICE, "Fair");
+        pending.add(first);
+        pending.add(second);
+
+        assertSame(first, pending.start());
+        assertNull(pending.start());
+
+        pending.release(first.id);
+        assertSame(first, pending.start());
+
+        pending.finish(first.id);
+        assertSame(second, pending.start());
+        pending.finish(second.id);
+        assertNull(pending.start());
+    }
+
+    /**
+     * Test 5: queued actions change the statuses shown for their own event only
+     */
+    @Test
+    public void testStatusesOf() {
+        PendingActions pending = new PendingActions();
+        pending.add(EntrantAction.accept(EVENT, DEVICE, "Gala"));
+        pending.add(EntrantAction.leave("event2", DEVICE, "Fair"));
+
+        Set<String> invited = Collections.singleton(Memberships.INVITED);
+        assertEquals(Collections.singleton(Memberships.ENROLLED),
+                pending.statusesOf(EVENT, DEVICE, invited));
+
+        Set<String> waiting = new HashSet<>(Collections.singleton(Memberships.WAITING));
+        assertTrue(pending.statusesOf("event2", DEVICE, waiting).isEmpty());
+        assertEquals(invited, pending.statusesOf("event3", DEVICE, invited));
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.sulfurevents;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Unit tests for {@link PosterVariants}.
+ * <p>
+ * Tests cover:
+ * - Decode subsampling that never drops below the target width
+ * - Downscaling that keeps the aspect ratio and never scales up
+ * - The smallest variant that fills a view being picked
+ * - Falling back to the full poster for events without variants
+ */
+public class PosterVariantsTest {
+
+    private static final String THUMB = "https://example.com/e_thumb.jpg";
+    private static final String CARD = "https://example.com/e_card.jpg";
+    private static final String FULL = "https://example.com/e.jpg";
+
+    /**
+     * Test 1: a 4000 px photo is decoded at half size for a 1600 px target
+     */
+    @Test
+    public void testInSampleSize() {
+        assertEquals(2, PosterVariants.inSampleSize(4000, 1600));
+        assertEquals(4, PosterVariants.inSampleSize(6400, 1600));
+        assertEquals(1, PosterVariants.inSampleSize(3199, 1600));
+        assertEquals(1, PosterVariants.inSampleSize(800, 1600));
+    }
+
+    /**
+     * Test 2: images are scaled down to the width with their aspect ratio, never up
+     */
+    @Test
+    public void testScaledSize() {
+        assertArrayEquals(new int[]{720, 540}, PosterVariants.scaledSize(2000, 1500, 720));
+        assertArrayEquals(new int[]{500, 300}, PosterVariants.scaledSize(500, 300, 720));
+        assertArrayEquals(new int[]{240, 1}, PosterVariants.scaledSize(3000, 5, 240));
+    }
+
+    /**
+     * Test 3: thumbnails for small views, cards for full-width cards, the full poster beyond
+     */
+    @Test
+    public void testPickSmallestThatFits() {
+        assertEquals(THUMB, PosterVariants.pick(240, THUMB, CARD, FULL));
+        assertEquals(CARD, PosterVariants.pick(241, THUMB, CARD, FULL));
+        assertEquals(CARD, PosterVariants.pick(720, THUMB, CARD, FULL));
+        assertEquals(FULL, PosterVariants.pick(1080, THUMB, CARD, FULL));
+        assertEquals(FULL, PosterVariants.pick(0, THUMB, CARD, FULL));
+    }
+
+    /**
+     * Test 4: events created before variants existed keep using their only poster
+     */
+    @Test
+    public void testPickFallbacks() {
+        assertEquals(FULL, PosterVariants.pick(200, null, "", FULL));
+        assertEquals(CARD, PosterVariants.pick(200, "", CARD, FULL));
+        assertEquals(CARD, PosterVariants.pick(1080, THUMB, CARD, null));
+        assertNull(PosterVariants.pick(200, null, null, " "));
+    }
+}
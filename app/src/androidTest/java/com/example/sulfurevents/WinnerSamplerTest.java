@@ -0,0 +1,177 @@
+package com.example.sulfurevents;
+
+import org.junit.Test;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for {@link WinnerSampler}.
+ * <p>
+ * Tests cover:
+ * - Drawing the requested number of distinct winners
+ * - Limits larger than the list, and empty draws
+ * - Repeatable draws with a seeded source
+ * - Reading only k elements and drawing only k random numbers from a 100k list
+ * - Every entrant having a fair chance of being drawn
+ * - Lazy draws matching sample() and drawing one random number per element
+ */
+public class WinnerSamplerTest {
+
+    private static List<String> entrants(int n) {
+        List<String> list = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            list.add("DEV_" + i);
+        }
+        return list;
+    }
+
+    /** List view that counts element reads, to check the sampler never scans the list. */
+    private static final class CountingList extends AbstractList<Integer> {
+        final int size;
+        int reads = 0;
+
+        CountingList(int size) {
+            this.size = size;
+        }
+
+        @Override
+        public Integer get(int index) {
+            reads++;
+            return index;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * Test 1: k distinct winners, all taken from the list, which is left unchanged
+     */
+    @Test
+    public void testDrawsDistinctWinners() {
+        List<String> waiting = entrants(50);
+        List<String> before = new ArrayList<>(waiting);
+
+        List<String> winners = new WinnerSampler(new Random(1)).sample(waiting, 10);
+
+        assertEquals(10, winners.size());
+        assertEquals(10, new HashSet<>(winners).size());
+        assertTrue(waiting.containsAll(winners));
+        assertEquals(before, waiting);
+    }
+
+    /**
+     * Test 2: a limit above the list size returns everyone; zero or negative returns nobody
+     */
+    @Test
+    public void testLimitsOutsideListSize() {
+        List<String> waiting = entrants(5);
+        WinnerSampler sampler = new WinnerSampler(new SplittableRandom(7));
+
+        List<String> all = sampler.sample(waiting, 100);
+        assertEquals(5, all.size());
+        assertEquals(new HashSet<>(waiting), new HashSet<>(all));
+
+        assertTrue(sampler.sample(waiting, 0).isEmpty());
+        assertTrue(sampler.sample(waiting, -3).isEmpty());
+        assertTrue(sampler.sample(new ArrayList<String>(), 3).isEmpty());
+    }
+
+    /**
+     * Test 3: the same seed gives the same draw
+     */
+    @Test
+    public void testSeededDrawIsRepeatable() {
+        List<String> waiting = entrants(1000);
+        List<String> first = new WinnerSampler(new SplittableRandom(42)).sample(waiting, 25);
+        List<String> second = new WinnerSampler(new SplittableRandom(42)).sample(waiting, 25);
+        assertEquals(first, second);
+    }
+
+    /**
+     * Test 4: drawing from 100k entrants reads only the winners and draws k random numbers,
+     * where a full shuffle would draw one per entrant
+     */
+    @Test
+    public void testLargeListCostsOnlyK() {
+        int n = 100_000;
+        int k = 50;
+        Random random = new Random(3);
+        int[] randomDraws = {0};
+
+        CountingList counting = new CountingList(n);
+        List<Integer> winners = new WinnerSampler(bound -> {
+            randomDraws[0]++;
+            return random.nextInt(bound);
+        }).sample(counting, k);
+
+        assertEquals(k, winners.size());
+        assertEquals(k, new HashSet<>(winners).size());
+        assertEquals(k, counting.reads);
+        assertEquals(k, randomDraws[0]);
+    }
+
+    /**
+     * Test 5: each entrant is drawn about equally often over many draws
+     */
+    @Test
+    public void testDrawIsUniform() {
+        int n = 10;
+        int k = 3;
+        int draws = 30_000;
+        List<String> waiting = entrants(n);
+        int[] hits = new int[n];
+
+        WinnerSampler sampler = new WinnerSampler(new SplittableRandom(11));
+        for (int d = 0; d < draws; d++) {
+            for (String id : sampler.sample(waiting, k)) {
+                hits[Integer.parseInt(id.substring(4))]++;
+            }
+        }
+
+        double expected = (double) draws * k / n; // 9000
+        for (int i = 0; i < n; i++) {
+            assertTrue("entrant " + i + " drawn " + hits[i] + " times",
+                    Math.abs(hits[i] - expected) < expected * 0.05);
+        }
+    }
+
+    /**
+     * Test 6: a lazy draw hands out the same order as sample() and draws only what is asked for
+     */
+    @Test
+    public void testLazyDraw() {
+        List<String> waiting = entrants(1000);
+        List<String> sampled = new WinnerSampler(new Random(5)).sample(waiting, 20);
+
+        Random random = new Random(5);
+        int[] randomDraws = {0};
+        WinnerSampler.Draw<String> draw = new WinnerSampler(bound -> {
+            randomDraws[0]++;
+            return random.nextInt(bound);
+        }).draw(waiting);
+        List<String> lazy = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            lazy.add(draw.next());
+        }
+        assertEquals(sampled, lazy);
+        assertEquals(20, randomDraws[0]);
+
+        WinnerSampler.Draw<String> all = new WinnerSampler(new Random(6)).draw(entrants(3));
+        HashSet<String> seen = new HashSet<>();
+        while (all.hasNext()) {
+            seen.add(all.next());
+        }
+        assertEquals(3, seen.size());
+    }
+}
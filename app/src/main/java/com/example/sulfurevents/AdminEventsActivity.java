@@ -17,6 +17,7 @@ import com.google.firebase.firestore.EventListener;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.FirebaseFirestoreException;
 import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.WriteBatch;
 
 import java.util.ArrayList;
 
@@ -90,7 +91,9 @@ public class AdminEventsActivity extends AppCompatActivity {
      * @param eventId ID of the event to delete
      */
     public void deleteEvent(String eventId) {
-        eventsRef.document(eventId).delete()
+        WriteBatch batch = eventsRef.getFirestore().batch();
+        EventSummaries.delete(batch, eventsRef.document(eventId));
+        batch.commit()
                 .addOnSuccessListener(aVoid -> showPopup("Event deleted successfully."))
                 .addOnFailureListener(e -> showPopup("Failed to delete event."));
     }
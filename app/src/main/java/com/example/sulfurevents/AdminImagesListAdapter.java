@@ -13,6 +13,7 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import com.bumptech.glide.Glide;
+import com.bumptech.glide.load.DecodeFormat;
 
 import java.util.List;
 
@@ -57,7 +58,9 @@ public class AdminImagesListAdapter extends ArrayAdapter<EventModel> {
             tvEmail.setText("Organizer: " + event.getOrganizerEmail());
 
             Glide.with(getContext())
-                    .load(event.getPosterURL())
+                    .load(Posters.urlFor(imgThumbnail, event.getPosterThumbURL(),
+                            event.getPosterCardURL(), event.getPosterURL()))
+                    .format(DecodeFormat.PREFER_RGB_565)
                     .placeholder(R.drawable.ic_launcher_background)
                     .error(R.drawable.ic_launcher_background)
                     .into(imgThumbnail);
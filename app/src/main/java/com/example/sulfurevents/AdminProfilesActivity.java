@@ -116,6 +116,7 @@ public class AdminProfilesActivity extends AppCompatActivity {
                             .delete()
                             .addOnSuccessListener(aVoid -> {
                                 progressDialog.dismiss();
+                                ProfileBatchLoader.getInstance().invalidate(profileId);
 
                                 // Popup instead of Toast
                                 new androidx.appcompat.app.AlertDialog.Builder(this)
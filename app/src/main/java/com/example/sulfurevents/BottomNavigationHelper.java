@@ -4,10 +4,20 @@ import android.app.Activity;
 import android.content.Context;
 import android.content.Intent;
 import android.content.res.ColorStateList;
+import android.provider.Settings;
 import android.view.View;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.OptIn;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import com.google.android.material.badge.BadgeDrawable;
+import com.google.android.material.badge.BadgeUtils;
+import com.google.android.material.badge.ExperimentalBadgeUtils;
 import com.google.android.material.bottomnavigation.BottomNavigationView;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
+import com.google.firebase.firestore.ListenerRegistration;
 
 /**
  * This helper class centralizes setup for the bottom navigation bar.
@@ -139,6 +149,7 @@ public class BottomNavigationHelper {
      * Sets up the notification FloatingActionButton (FAB).
      * The FAB is only shown when the BottomNavigationView is present and visible;
      * otherwise, it is hidden. When tapped, it opens the NotificationsActivity.
+     * While the screen is started, a badge on the FAB shows the unread count.
      *
      * @param activity  The activity where the FAB resides
      * @param fabId     The resource ID of the FloatingActionButton
@@ -162,6 +173,57 @@ public class BottomNavigationHelper {
             Intent intent = new Intent(activity, NotificationsActivity.class);
             activity.startActivity(intent);
         });
+
+        attachUnreadBadge(activity, fab);
+    }
+
+    /**
+     * Shows the number of unread notifications as a badge on the FAB.
+     * The count comes from one listener on the profile's counter document
+     * (see {@link NotificationCounters}), attached while the activity is started.
+     *
+     * @param activity the activity that owns the FAB
+     * @param fab      the notification FAB
+     */
+    @OptIn(markerClass = ExperimentalBadgeUtils.class)
+    private static void attachUnreadBadge(Activity activity, FloatingActionButton fab) {
+        if (!(activity instanceof LifecycleOwner)) return;
+
+        String deviceId = Settings.Secure.getString(
+                activity.getContentResolver(), Settings.Secure.ANDROID_ID);
+        if (deviceId == null) return;
+
+        BadgeDrawable badge = BadgeDrawable.create(activity);
+        badge.setBackgroundColor(0xFFD4AF37); // Gold, matching the navigation bar
+        badge.setBadgeTextColor(0xFF000000);
+        badge.setMaxCharacterCount(3);        // 99+
+        badge.setVisible(false);
+
+        // The badge is positioned from the FAB's bounds, so wait until it is laid out
+        fab.post(() -> BadgeUtils.attachBadgeDrawable(badge, fab));
+
+        ((LifecycleOwner) activity).getLifecycle().addObserver(new DefaultLifecycleObserver() {
+            private ListenerRegistration registration;
+
+            @Override
+            public void onStart(@NonNull LifecycleOwner owner) {
+                registration = NotificationCounters.listen(deviceId, (unread, unreadByType) -> {
+                    badge.setNumber((int) Math.min(unread, Integer.MAX_VALUE));
+                    badge.setVisible(unread > 0);
+                    fab.setContentDescription(unread > 0
+                            ? unread + " unread notifications"
+                            : "Notifications");
+                });
+            }
+
+            @Override
+            public void onStop(@NonNull LifecycleOwner owner) {
+                if (registration != null) {
+                    registration.remove();
+                    registration = null;
+                }
+            }
+        });
     }
 
 }
\ No newline at end of file
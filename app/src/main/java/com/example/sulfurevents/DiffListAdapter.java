@@ -0,0 +1,197 @@
+package com.example.sulfurevents;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.AdapterListUpdateCallback;
+import androidx.recyclerview.widget.AsyncDifferConfig;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Base class for the app's list adapters that updates rows incrementally.
+ * <p>
+ * Screens rebuild their backing list on every Firestore snapshot. Instead of
+ * {@code notifyDataSetChanged()}, which rebinds every row and reloads every poster, they
+ * hand the rebuilt list to {@link #submitList(List)}. An {@link AsyncListDiffer} compares it
+ * with the list on screen on a background thread and only the rows that were inserted,
+ * removed, moved or changed are updated.
+ *
+ * <p>Subclasses describe their items with two methods:
+ * <ul>
+ *   <li>{@link #getItemKey(Object)} – the document ID (eventId, deviceId, notification ID)
+ *       that identifies the item across snapshots. It also backs stable item IDs. Items
+ *       without a key are matched by identity, so a re-created keyless item is a new row.</li>
+ *   <li>{@link #areContentsTheSame(Object, Object)} – whether the row would look the same.</li>
+ * </ul>
+ * Both are called on a background thread and must not touch views.
+ *
+ * <p>The submitted list is copied, so callers may keep clearing and refilling their own
+ * list; items repeating an earlier item's key are dropped from the copy, since two rows
+ * cannot share a stable ID. The first submission, including the one made by a constructor,
+ * is applied immediately; later ones are applied once the diff has finished. Stable IDs of
+ * items that leave the list are forgotten.
+ *
+ * @param <T>  item type
+ * @param <VH> view holder type
+ */
+public abstract class DiffListAdapter<T, VH extends RecyclerView.ViewHolder> extends RecyclerView.Adapter<VH> {
+
+    private static final String TAG = "DiffListAdapter";
+
+    private final AsyncListDiffer<T> differ;
+
+    // Stable IDs of the displayed items, by key or, for keyless items, by identity.
+    // IDs come from a counter, so an ID is never handed to a second item.
+    private final Map<String, Long> stableIds = new HashMap<>();
+    private final Map<T, Long> keylessIds = new IdentityHashMap<>();
+    private long nextStableId = 0;
+
+    protected DiffListAdapter() {
+        differ = new AsyncListDiffer<>(new AdapterListUpdateCallback(this),
+                new AsyncDifferConfig.Builder<>(new DiffUtil.ItemCallback<T>() {
+                    @Override
+                    public boolean areItemsTheSame(@NonNull T oldItem, @NonNull T newItem) {
+                        String oldKey = getItemKey(oldItem);
+                        String newKey = getItemKey(newItem);
+                        if (oldKey == null || newKey == null) return oldItem == newItem;
+                        return oldKey.equals(newKey);
+                    }
+
+                    @Override
+                    public boolean areContentsTheSame(@NonNull T oldItem, @NonNull T newItem) {
+                        return DiffListAdapter.this.areContentsTheSame(oldItem, newItem);
+                    }
+                }).build());
+        differ.addListListener((previous, current) -> {
+            forgetRemovedIds(current);
+            onCurrentListChanged(previous, current);
+        });
+        setHasStableIds(true);
+    }
+
+    /**
+     * Called on the main thread whenever a submitted list has been applied.
+     * Subclasses can override it to drop per-item caches.
+     *
+     * @param previousList list displayed before the update
+     * @param currentList  list displayed now
+     */
+    protected void onCurrentListChanged(@NonNull List<T> previousList, @NonNull List<T> currentList) {
+    }
+
+    /**
+     * @param item an item of this adapter
+     * @return the ID that identifies the item across list updates, or null if it has none
+     */
+    @Nullable
+    protected abstract String getItemKey(@NonNull T item);
+
+    /**
+     * @return true if both versions of an item would be displayed identically
+     */
+    protected abstract boolean areContentsTheSame(@NonNull T oldItem, @NonNull T newItem);
+
+    /**
+     * Replaces the displayed list, updating only the rows that differ.
+     *
+     * @param items new contents; null clears the list
+     */
+    public void submitList(@Nullable List<T> items) {
+        submitList(items, null);
+    }
+
+    /**
+     * Replaces the displayed list and runs {@code onCommitted} once it is on screen.
+     *
+     * @param items       new contents; null clears the list
+     * @param onCommitted callback run on the main thread after the update, may be null
+     */
+    public void submitList(@Nullable List<T> items, @Nullable Runnable onCommitted) {
+        differ.submitList(items != null ? withoutDuplicateKeys(items) : null, onCommitted);
+    }
+
+    /** Copies {@code items}, keeping only the first item of each key. */
+    private List<T> withoutDuplicateKeys(List<T> items) {
+        List<T> copy = new ArrayList<>(items.size());
+        Set<String> keys = new HashSet<>();
+        for (T item : items) {
+            String key = getItemKey(item);
+            if (key != null && !keys.add(key)) {
+                Log.w(TAG, "Dropping item with duplicate key " + key);
+                continue;
+            }
+            copy.add(item);
+        }
+        return copy;
+    }
+
+    /**
+     * @return the list currently displayed (read-only)
+     */
+    @NonNull
+    public List<T> getCurrentList() {
+        return differ.getCurrentList();
+    }
+
+    /**
+     * @param position adapter position
+     * @return the item displayed at that position
+     */
+    public T getItem(int position) {
+        return differ.getCurrentList().get(position);
+    }
+
+    @Override
+    public int getItemCount() {
+        return differ.getCurrentList().size();
+    }
+
+    @Override
+    public long getItemId(int position) {
+        T item = getItem(position);
+        String key = getItemKey(item);
+        Long id = key != null ? stableIds.get(key) : keylessIds.get(item);
+        if (id == null) {
+            id = nextStableId++;
+            if (key != null) {
+                stableIds.put(key, id);
+            } else {
+                keylessIds.put(item, id);
+            }
+        }
+        return id;
+    }
+
+    /** Drops the stable IDs of items no longer displayed, so the maps track the list. */
+    private void forgetRemovedIds(List<T> current) {
+        Set<String> keys = new HashSet<>();
+        Set<T> keyless = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (T item : current) {
+            String key = getItemKey(item);
+            if (key != null) {
+                keys.add(key);
+            } else {
+                keyless.add(item);
+            }
+        }
+        stableIds.keySet().retainAll(keys);
+        keylessIds.keySet().retainAll(keyless);
+    }
+
+    /** Null-safe equality helper for {@link #areContentsTheSame(Object, Object)}. */
+    protected static boolean same(Object a, Object b) {
+        return a == null ? b == null : a.equals(b);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.sulfurevents;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Estimates how much storage Firestore bills for a document, following Firestore's
+ * published storage-size rules:
+ * <ul>
+ *   <li>Document name: the UTF-8 size of each path segment plus one, plus 16.</li>
+ *   <li>Each field: the UTF-8 size of its name plus one, plus the size of its value.</li>
+ *   <li>Values: strings take their UTF-8 size plus one; numbers and timestamps 8;
+ *       booleans and nulls 1; arrays and maps the sum of their elements
+ *       (maps counting their keys like field names).</li>
+ *   <li>Every document adds 32 more bytes.</li>
+ * </ul>
+ * Used to report how much a compaction reclaimed; it does not need to match the bill exactly.
+ */
+public final class DocumentSizeEstimator {
+
+    private static final int DOCUMENT_OVERHEAD = 32;
+    private static final int NAME_OVERHEAD = 16;
+
+    private DocumentSizeEstimator() {
+    }
+
+    /**
+     * @param path   document path, e.g. {@code Profiles/abc/notifications/xyz}
+     * @param fields document data
+     * @return estimated stored size in bytes
+     */
+    public static long documentSize(String path, Map<String, ?> fields) {
+        return nameSize(path) + mapSize(fields) + DOCUMENT_OVERHEAD;
+    }
+
+    /**
+     * @param path document path
+     * @return stored size of the document name
+     */
+    static long nameSize(String path) {
+        long size = NAME_OVERHEAD;
+        for (String segment : path.split("/")) {
+            if (!segment.isEmpty()) size += utf8(segment) + 1;
+        }
+        return size;
+    }
+
+    /**
+     * @param value a Firestore field value
+     * @return stored size of the value
+     */
+    static long valueSize(Object value) {
+        if (value == null || value instanceof Boolean) return 1;
+        if (value instanceof String) return utf8((String) value) + 1;
+        if (value instanceof Number) return 8;
+        if (value instanceof Map) return mapSize((Map<?, ?>) value);
+        if (value instanceof List) {
+            long size = 0;
+            for (Object element : (List<?>) value) size += valueSize(element);
+            return size;
+        }
+        // Timestamps, references, geo points and other values: treat as 8-byte scalars
+        return 8;
+    }
+
+    private static long mapSize(Map<?, ?> map) {
+        long size = 0;
+        for (Map.Entry<?, ?> e : map.entrySet()) {
+            size += utf8(String.valueOf(e.getKey())) + 1 + valueSize(e.getValue());
+        }
+        return size;
+    }
+
+    private static long utf8(String s) {
+        return s.getBytes(StandardCharsets.UTF_8).length;
+    }
+}
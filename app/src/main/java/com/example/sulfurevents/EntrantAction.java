@@ -0,0 +1,95 @@
+package com.example.sulfurevents;
+
+import java.util.UUID;
+
+/**
+ * One entrant action waiting in {@link EntrantActionQueue}: joining or leaving a waiting
+ * list, or answering an invitation.
+ * <p>
+ * Every action carries a random ID and is applied by a transaction that first checks the
+ * entrant's current place, so sending the same action twice (e.g. again after the app was
+ * killed mid-request) has the effect of sending it once.
+ */
+public final class EntrantAction {
+
+    /** Kind of action. */
+    public enum Type {
+        /** Join the waiting list. */
+        JOIN,
+        /** Leave the waiting list. */
+        LEAVE,
+        /** Accept an invitation. */
+        ACCEPT,
+        /** Decline an invitation. */
+        DECLINE
+    }
+
+    /** Random ID, unique per action. */
+    public final String id;
+    public final Type type;
+    public final String eventId;
+    public final String deviceId;
+    /** Event name for messages and the notification history; may be empty. */
+    public final String eventName;
+    /** True if a registration location is stored with a join. */
+    public final boolean withLocation;
+    /** Coordinates of the registration location, null if unknown. */
+    public final Double latitude;
+    public final Double longitude;
+    /** When the entrant took the action, in epoch milliseconds. */
+    public final long createdAt;
+
+    EntrantAction(String id, Type type, String eventId, String deviceId, String eventName,
+                  boolean withLocation, Double latitude, Double longitude, long createdAt) {
+        this.id = id;
+        this.type = type;
+        this.eventId = eventId;
+        this.deviceId = deviceId;
+        this.eventName = eventName != null ? eventName : "";
+        this.withLocation = withLocation;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.createdAt = createdAt;
+    }
+
+    private static EntrantAction create(Type type, String eventId, String deviceId, String eventName,
+                                        boolean withLocation, Double latitude, Double longitude) {
+        return new EntrantAction(UUID.randomUUID().toString(), type, eventId, deviceId, eventName,
+                withLocation, latitude, longitude, System.currentTimeMillis());
+    }
+
+    /** @return a join without a registration location */
+    public static EntrantAction join(String eventId, String deviceId, String eventName) {
+        return create(Type.JOIN, eventId, deviceId, eventName, false, null, null);
+    }
+
+    /**
+     * @param latitude  latitude, or null if the location could not be read
+     * @param longitude longitude, or null if the location could not be read
+     * @return a join that also stores the entrant's registration location
+     */
+    public static EntrantAction joinWithLocation(String eventId, String deviceId, String eventName,
+                                                 Double latitude, Double longitude) {
+        return create(Type.JOIN, eventId, deviceId, eventName, true, latitude, longitude);
+    }
+
+    /** @return a waiting list leave */
+    public static EntrantAction leave(String eventId, String deviceId, String eventName) {
+        return create(Type.LEAVE, eventId, deviceId, eventName, false, null, null);
+    }
+
+    /** @return an invitation acceptance */
+    public static EntrantAction accept(String eventId, String deviceId, String eventName) {
+        return create(Type.ACCEPT, eventId, deviceId, eventName, false, null, null);
+    }
+
+    /** @return an invitation decline */
+    public static EntrantAction decline(String eventId, String deviceId, String eventName) {
+        return create(Type.DECLINE, eventId, deviceId, eventName, false, null, null);
+    }
+
+    /** @return true if both actions are by the same entrant in the same event */
+    public boolean sameEntrant(EntrantAction other) {
+        return eventId.equals(other.eventId) && deviceId.equals(other.deviceId);
+    }
+}
@@ -0,0 +1,412 @@
+package com.example.sulfurevents;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Write-behind queue for entrant actions: joining and leaving waiting lists and answering
+ * invitations.
+ * <p>
+ * The screens used to wait for each Firestore write before changing state, which on a poor
+ * connection meant a spinner for seconds. Now a screen {@link #enqueue}s the action,
+ * updates itself at once from {@link #statusesOf} and hears about the outcome later:
+ * <ul>
+ *   <li>Queued actions are saved to a JSON file, so they survive the app being killed and
+ *       are sent on the next start.</li>
+ *   <li>Actions are sent one at a time, oldest first. A join and a leave cancel out while
+ *       neither has been sent (see {@link PendingActions}).</li>
+ *   <li>Every action is applied by a transaction that checks the entrant's current place,
+ *       so replaying an action that already reached the server changes nothing and is not
+ *       reported again.</li>
+ *   <li>An action the event no longer allows (a full waiting list, an invitation that was
+ *       withdrawn, a deleted event) is dropped and reported through
+ *       {@link Listener#onRejected}. Network failures, and events that switched storage
+ *       mode under the action, are retried with growing delays.</li>
+ *   <li>Each action that changed something is recorded in the entrant's notification
+ *       history.</li>
+ * </ul>
+ * Each outcome goes to the most recently added listener only, i.e. the screen on top, so
+ * follow-up work such as drawing a replacement after a decline runs once. Outcomes that
+ * arrive while no screen is listening are kept until the next {@link #addListener}.
+ * Use from the main thread.
+ */
+public final class EntrantActionQueue {
+
+    private static final String TAG = "EntrantActionQueue";
+
+    /** First retry delay after a network failure; it doubles up to {@link #MAX_RETRY_MS}. */
+    static final long FIRST_RETRY_MS = 2000;
+    static final long MAX_RETRY_MS = 60000;
+
+    // File writes run here, one at a time
+    private static final Executor IO = Executors.newSingleThreadExecutor();
+
+    private static EntrantActionQueue instance;
+
+    /**
+     * Receives the outcome of queued actions on the main thread.
+     */
+    public interface Listener {
+        /**
+         * @param action the applied action
+         * @param result counts after a join or leave, null for invitation answers
+         */
+        void onApplied(EntrantAction action, @Nullable WaitlistEngine.Result result);
+
+        /**
+         * @param action the dropped action
+         * @param reason message for the entrant
+         */
+        void onRejected(EntrantAction action, String reason);
+    }
+
+    /** One outcome waiting for a listener. */
+    private interface Delivery {
+        void to(Listener listener);
+    }
+
+    /** What sending one action did. */
+    private static final class Sent {
+        /** True if the action changed the entrant's place, false if it was already applied. */
+        final boolean changed;
+        /** Counts after a join or leave, null for invitation answers. */
+        @Nullable
+        final WaitlistEngine.Result result;
+
+        Sent(boolean changed, @Nullable WaitlistEngine.Result result) {
+            this.changed = changed;
+            this.result = result;
+        }
+    }
+
+    /** The event does not allow the action any more; it is dropped, not retried. */
+    private static final class Rejected extends Exception {
+        Rejected(String message) {
+            super(message);
+        }
+    }
+
+    private final FirebaseFirestore db;
+    private final WaitlistEngine engine;
+    private final File file;
+    private final Handler main = new Handler(Looper.getMainLooper());
+    private final PendingActions pending = new PendingActions();
+    private final List<Listener> listeners = new ArrayList<>();
+    // Outcomes nobody has heard yet
+    private final List<Delivery> undelivered = new ArrayList<>();
+    private long retryDelay = FIRST_RETRY_MS;
+    private boolean retryScheduled = false;
+
+    private EntrantActionQueue(Context context, FirebaseFirestore db) {
+        this.db = db;
+        this.engine = new WaitlistEngine(db);
+        this.file = new File(context.getApplicationContext().getFilesDir(), "entrant_actions.json");
+        // The file holds a handful of actions at most, so it is read right away
+        for (EntrantAction action : readFile()) pending.add(action);
+        drain();
+    }
+
+    /**
+     * @return the app-wide queue; the first call sends any actions left from a previous run
+     */
+    public static synchronized EntrantActionQueue getInstance(Context context) {
+        if (instance == null) {
+            instance = new EntrantActionQueue(context, FirebaseFirestore.getInstance());
+        }
+        return instance;
+    }
+
+    /**
+     * Starts delivering outcomes, including any that arrived while nobody listened.
+     */
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+        List<Delivery> held = new ArrayList<>(undelivered);
+        undelivered.clear();
+        for (Delivery delivery : held) delivery.to(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Queues an action and starts sending it. Returns immediately.
+     */
+    public void enqueue(EntrantAction action) {
+        if (!pending.add(action)) {
+            Log.d(TAG, action.type + " cancelled a queued action for " + action.eventId);
+        }
+        save();
+        retryDelay = FIRST_RETRY_MS;
+        drain();
+    }
+
+    /**
+     * @param confirmed the entrant's statuses as read from Firestore
+     * @return the statuses the screen should show, with queued actions applied
+     */
+    public Set<String> statusesOf(String eventId, String deviceId, Set<String> confirmed) {
+        return pending.statusesOf(eventId, deviceId, confirmed);
+    }
+
+    private void drain() {
+        if (retryScheduled) return;
+        EntrantAction action = pending.start();
+        if (action == null) return;
+
+        apply(action).addOnCompleteListener(task -> {
+            if (task.isSuccessful()) {
+                pending.finish(action.id);
+                save();
+                retryDelay = FIRST_RETRY_MS;
+                Sent sent = task.getResult();
+                if (sent.changed) recordInHistory(action);
+                // An invitation answer applied before a restart already had its follow-up
+                // work; joins and leaves are still reported for their counts
+                if (sent.changed || sent.result != null) {
+                    deliver(l -> l.onApplied(action, sent.result));
+                } else {
+                    Log.d(TAG, action.type + " for " + action.eventId + " was already applied");
+                }
+                drain();
+                return;
+            }
+
+            Exception e = task.getException();
+            if (isRetryable(e)) {
+                Log.w(TAG, "Will retry " + action.type + " for " + action.eventId + " in " + retryDelay + " ms", e);
+                pending.release(action.id);
+                retryScheduled = true;
+                main.postDelayed(() -> {
+                    retryScheduled = false;
+                    drain();
+                }, retryDelay);
+                retryDelay = Math.min(retryDelay * 2, MAX_RETRY_MS);
+                return;
+            }
+
+            Log.w(TAG, "Dropping " + action.type + " for " + action.eventId, e);
+            pending.finish(action.id);
+            save();
+            String reason = e != null && e.getMessage() != null ? e.getMessage() : "Action failed";
+            deliver(l -> l.onRejected(action, reason));
+            drain();
+        });
+    }
+
+    /**
+     * Only connectivity problems and a storage switch during the action are worth retrying;
+     * anything else would fail again. Causes are checked too, since task combinators wrap
+     * the original exception.
+     */
+    private static boolean isRetryable(@Nullable Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof EventStorageChangedException) return true;
+            if (t instanceof FirebaseFirestoreException) {
+                FirebaseFirestoreException.Code code = ((FirebaseFirestoreException) t).getCode();
+                return code == FirebaseFirestoreException.Code.UNAVAILABLE
+                        || code == FirebaseFirestoreException.Code.DEADLINE_EXCEEDED
+                        || code == FirebaseFirestoreException.Code.ABORTED;
+            }
+        }
+        return false;
+    }
+
+    private void deliver(Delivery delivery) {
+        if (listeners.isEmpty()) {
+            undelivered.add(delivery);
+        } else {
+            delivery.to(listeners.get(listeners.size() - 1));
+        }
+    }
+
+    /** Sends one action; fails with {@link Rejected} if the event no longer allows it. */
+    private Task<Sent> apply(EntrantAction action) {
+        switch (action.type) {
+            case JOIN:
+                return engine.join(action.eventId, action.deviceId,
+                        action.withLocation ? locationOf(action) : null).continueWithTask(task -> {
+                    if (!task.isSuccessful()) return Tasks.forException(task.getException());
+                    WaitlistEngine.Result result = task.getResult();
+                    if (result.outcome == WaitlistEngine.Outcome.FULL) {
+                        return Tasks.forException(new Rejected("The waiting list is full"));
+                    }
+                    return Tasks.forResult(new Sent(result.outcome == WaitlistEngine.Outcome.JOINED, result));
+                });
+            case LEAVE:
+                return engine.leave(action.eventId, action.deviceId).continueWith(task -> {
+                    if (!task.isSuccessful()) throw task.getException();
+                    WaitlistEngine.Result result = task.getResult();
+                    return new Sent(result.outcome == WaitlistEngine.Outcome.LEFT, result);
+                });
+            default:
+                String to = action.type == EntrantAction.Type.ACCEPT ? Memberships.ENROLLED : Memberships.CANCELLED;
+                return answerInvitation(action, to);
+        }
+    }
+
+    /**
+     * Moves an invited entrant to {@code to}. Whether the invitation is still open is
+     * decided by the move's own transaction, which skips the entrant unless they are
+     * invited. Only if nothing moved is the event read again from the server, to tell an
+     * answer applied before a restart from an invitation that was withdrawn.
+     */
+    private Task<Sent> answerInvitation(EntrantAction action, String to) {
+        return Memberships.moveCounting(db, action.eventId, Collections.singletonList(action.deviceId),
+                Memberships.INVITED, to).continueWithTask(moved -> {
+            if (!moved.isSuccessful()) return Tasks.forException(moved.getException());
+            if (moved.getResult() > 0) return Tasks.forResult(new Sent(true, null));
+
+            return EventRepository.getInstance().getServerEvent(action.eventId).continueWithTask(read -> {
+                if (!read.isSuccessful()) return Tasks.forException(read.getException());
+                if (!read.getResult().exists()) return Tasks.forException(new Rejected("Event not found"));
+                return EntrantStore.statusesOf(read.getResult(), action.deviceId);
+            }).continueWithTask(task -> {
+                if (!task.isSuccessful()) return Tasks.forException(task.getException());
+                if (task.getResult().contains(to)) return Tasks.forResult(new Sent(false, null));
+                return Tasks.forException(new Rejected("The invitation is no longer open"));
+            });
+        });
+    }
+
+    /** Registration location document stored with a join. */
+    private static Map<String, Object> locationOf(EntrantAction action) {
+        return RegistrationLocations.dataOf(action.deviceId, action.createdAt,
+                action.latitude, action.longitude);
+    }
+
+    /** Adds the applied action to the entrant's notification history. */
+    private static void recordInHistory(EntrantAction action) {
+        String type;
+        String message;
+        switch (action.type) {
+            case JOIN:
+                type = "WAITING";
+                message = "You joined the waiting list for " + action.eventName;
+                break;
+            case LEAVE:
+                type = "LEFT_WAITLIST";
+                message = "You left the waiting list for " + action.eventName;
+                break;
+            case ACCEPT:
+                type = "ENROLLED";
+                message = "You accepted the invitation and are now enrolled in " + action.eventName;
+                break;
+            default:
+                type = "CANCELLED";
+                message = "You declined the invitation for " + action.eventName;
+                break;
+        }
+        Map<String, Object> notif = new HashMap<>();
+        notif.put("eventId", action.eventId);
+        notif.put("eventName", action.eventName);
+        notif.put("type", type);
+        notif.put("message", message);
+        notif.put("timestamp", System.currentTimeMillis());
+        notif.put("read", false);
+        NotificationCounters.send(action.deviceId, notif)
+                .addOnFailureListener(e -> Log.w(TAG, "Failed to record " + type + " notification", e));
+    }
+
+    private void save() {
+        String json;
+        try {
+            JSONArray items = new JSONArray();
+            for (EntrantAction action : pending.all()) {
+                JSONObject o = new JSONObject();
+                o.put("id", action.id);
+                o.put("type", action.type.name());
+                o.put("eventId", action.eventId);
+                o.put("deviceId", action.deviceId);
+                o.put("eventName", action.eventName);
+                o.put("withLocation", action.withLocation);
+                o.putOpt("latitude", action.latitude);
+                o.putOpt("longitude", action.longitude);
+                o.put("createdAt", action.createdAt);
+                items.put(o);
+            }
+            json = new JSONObject().put("actions", items).toString();
+        } catch (JSONException e) {
+            Log.w(TAG, "Failed to encode queued actions", e);
+            return;
+        }
+        IO.execute(() -> writeFile(json));
+    }
+
+    private void writeFile(String json) {
+        // Write to a temporary file first so a crash never leaves half a queue behind
+        File tmp = new File(file.getPath() + ".tmp");
+        try (OutputStream out = new FileOutputStream(tmp)) {
+            out.write(json.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to write queued actions", e);
+            return;
+        }
+        if (!tmp.renameTo(file)) {
+            Log.w(TAG, "Could not replace queued actions file");
+        }
+    }
+
+    private List<EntrantAction> readFile() {
+        List<EntrantAction> actions = new ArrayList<>();
+        if (!file.exists()) return actions;
+        try (InputStream in = new FileInputStream(file)) {
+            byte[] bytes = new byte[(int) file.length()];
+            int read = 0;
+            while (read < bytes.length) {
+                int n = in.read(bytes, read, bytes.length - read);
+                if (n < 0) break;
+                read += n;
+            }
+            JSONArray items = new JSONObject(new String(bytes, 0, read, StandardCharsets.UTF_8))
+                    .getJSONArray("actions");
+            for (int i = 0; i < items.length(); i++) {
+                JSONObject o = items.getJSONObject(i);
+                actions.add(new EntrantAction(
+                        o.getString("id"),
+                        EntrantAction.Type.valueOf(o.getString("type")),
+                        o.getString("eventId"),
+                        o.getString("deviceId"),
+                        o.optString("eventName", ""),
+                        o.optBoolean("withLocation", false),
+                        o.has("latitude") ? o.getDouble("latitude") : null,
+                        o.has("longitude") ? o.getDouble("longitude") : null,
+                        o.optLong("createdAt", System.currentTimeMillis())));
+            }
+        } catch (IOException | JSONException | IllegalArgumentException e) {
+            Log.w(TAG, "Ignoring unreadable queued actions", e);
+            actions.clear();
+        }
+        return actions;
+    }
+}
@@ -2,7 +2,10 @@
 package com.example.sulfurevents;
 
 
+import android.content.BroadcastReceiver;
+import android.content.Context;
 import android.content.Intent;
+import android.content.IntentFilter;
 import android.os.Bundle;
 import android.provider.Settings;
 import android.view.View;
@@ -26,15 +29,11 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.android.material.bottomnavigation.BottomNavigationView;
 import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.QueryDocumentSnapshot;
 
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Date;
+import java.util.BitSet;
 import java.util.List;
-import java.util.Locale;
 
 
 /**
@@ -62,6 +61,21 @@ public class EntrantActivity extends AppCompatActivity {
     private List<EventModel> eventList;
     private List<EventModel> filteredEventList;
 
+    // Paged event feed
+    private static final int PREFETCH_DISTANCE = 5; // rows from the end before loading the next page
+    private static final int MAX_FILL_PAGES = 3; // extra pages pulled to fill a filtered screen
+    private EventFeedPager eventPager;
+    private int fillPagesLoaded = 0;
+
+    // Date index over eventList (same positions) and the cached result for the current window
+    private final EventDateIndex eventDateIndex = new EventDateIndex();
+    private BitSet dateMatches = null;
+
+    // Keyword index over eventList (same positions) and cached results for the current filters
+    private final EventKeywordIndex eventKeywordIndex = new EventKeywordIndex();
+    private BitSet keywordMatches = null;
+    private BitSet locationMatches = null;
+
 
     // Filter variables
     private String filterKeyword = null;
@@ -73,6 +87,14 @@ public class EntrantActivity extends AppCompatActivity {
     // Activity result launcher for filter activity
     private ActivityResultLauncher<Intent> filterActivityLauncher;
 
+    // Refreshes the join buttons when the day rolls over while the feed is open
+    private final BroadcastReceiver clockReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            eventAdapter.onClockTick();
+        }
+    };
+
 
     /**
      * Called when the activity is created.
@@ -114,8 +136,23 @@ public class EntrantActivity extends AppCompatActivity {
         eventList = new ArrayList<>();
         filteredEventList = new ArrayList<>();
         eventAdapter = new EventAdapter(filteredEventList, this);
-        recyclerView.setLayoutManager(new LinearLayoutManager(this));
+        LinearLayoutManager layoutManager = new LinearLayoutManager(this);
+        recyclerView.setLayoutManager(layoutManager);
         recyclerView.setAdapter(eventAdapter);
+        eventAdapter.attachPreloader(recyclerView);
+
+        // Prefetch the next page of events when the user scrolls near the end of the list
+        eventPager = new EventFeedPager(db);
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(RecyclerView rv, int dx, int dy) {
+                if (dy <= 0) return;
+                int lastVisible = layoutManager.findLastVisibleItemPosition();
+                if (lastVisible >= eventAdapter.getItemCount() - PREFETCH_DISTANCE) {
+                    loadNextEventPage();
+                }
+            }
+        });
 
 
         // Setup Bottom Navigation
@@ -136,6 +173,8 @@ public class EntrantActivity extends AppCompatActivity {
 
 
                         applyFilters();
+                        fillPagesLoaded = 0;
+                        fillFirstScreen();
 
 
                         // Show toast with active filters
@@ -200,19 +239,18 @@ public class EntrantActivity extends AppCompatActivity {
 
 
     /**
-     * Checks the user's Firestore notifications collection for unread updates.
-     * Displays a message if new lottery updates are found.
+     * Checks the user's unread-notification counter for unread updates.
+     * Displays a message if new lottery updates are found. Reads the single
+     * counter document kept by {@link NotificationCounters} rather than
+     * querying the notifications collection.
      */
     private void checkForNotifications() {
-        db.collection("Profiles")
-                .document(deviceID)
-                .collection("notifications")
-                .whereEqualTo("read", false)
-                .get()
-                .addOnSuccessListener(q -> {
-                    if (!q.isEmpty()) {
+        NotificationCounters.get(deviceID)
+                .addOnSuccessListener(counts -> {
+                    long unread = NotificationCounters.unreadOf(counts);
+                    if (unread > 0 && !isFinishing()) {
                         new androidx.appcompat.app.AlertDialog.Builder(this)
-                                .setMessage("You have " + q.size() + " lottery update(s).\nOpen the event to respond.")
+                                .setMessage("You have " + unread + " lottery update(s).\nOpen the event to respond.")
                                 .setPositiveButton("OK", null)
                                 .show();
                     }
@@ -222,6 +260,8 @@ public class EntrantActivity extends AppCompatActivity {
 
     /**
      * Loads joinable events from the Firestore "Events" collection.
+     * Only the first page is fetched here; later pages are loaded by
+     * {@link #loadNextEventPage()} as the user scrolls.
      * Updates the RecyclerView or shows a message if no events are available.
      */
     private void loadJoinableEvents() {
@@ -230,39 +270,90 @@ public class EntrantActivity extends AppCompatActivity {
         eventLabel.setVisibility(View.GONE);
         recyclerView.setVisibility(View.GONE);
 
+        eventPager.reset();
+        fillPagesLoaded = 0;
+        loadNextEventPage();
+    }
+
 
-        db.collection("Events")
-                .get()
-                .addOnSuccessListener(querySnapshot -> {
-                    progressBar.setVisibility(View.GONE);
+    /**
+     * Requests the next page of events from {@link EventFeedPager}.
+     * Does nothing if a page is already loading or all events have been loaded.
+     */
+    private void loadNextEventPage() {
+        eventPager.loadNextPage(new EventFeedPager.OnPageLoadedListener() {
+            @Override
+            public void onPageLoaded(List<EventModel> page, boolean firstPage, boolean hasMore) {
+                progressBar.setVisibility(View.GONE);
+
+                if (firstPage) {
                     eventList.clear();
+                    eventDateIndex.clear();
+                    eventKeywordIndex.clear();
+                    eventList.addAll(page);
+                    eventDateIndex.addAll(page);
+                    eventKeywordIndex.addAll(page);
+                    clearFilterMatches();
+                    // Apply any active filters
+                    applyFilters();
+                } else {
+                    int firstPosition = eventList.size();
+                    eventList.addAll(page);
+                    eventDateIndex.addAll(page);
+                    eventKeywordIndex.addAll(page);
+                    clearFilterMatches();
+                    appendFiltered(page, firstPosition);
+                }
 
+                fillFirstScreen();
+            }
 
-                    if (querySnapshot.isEmpty()) {
-                        tvEmpty.setText("No joinable events right now.");
-                        tvEmpty.setVisibility(View.VISIBLE);
-                    } else {
-                        eventLabel.setVisibility(View.VISIBLE);
-                        recyclerView.setVisibility(View.VISIBLE);
+            @Override
+            public void onError(Exception e) {
+                progressBar.setVisibility(View.GONE);
+                if (eventList.isEmpty()) {
+                    tvEmpty.setVisibility(View.VISIBLE);
+                    tvEmpty.setText("Error loading events: " + e.getMessage());
+                }
+                Toast.makeText(EntrantActivity.this, "Failed to load events", Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
 
 
-                        for (QueryDocumentSnapshot document : querySnapshot) {
-                            EventModel event = document.toObject(EventModel.class);
-                            event.setEventId(document.getId());
-                            eventList.add(event);
-                        }
+    /**
+     * When filters hide most of the loaded events the list may be too short to scroll,
+     * which would stop the scroll listener from ever prefetching. Keep pulling pages
+     * until at least one page worth of matches is shown, the feed is exhausted, or
+     * {@link #MAX_FILL_PAGES} extra pages have been read, so a filter matching almost
+     * nothing does not download the whole collection.
+     */
+    private void fillFirstScreen() {
+        if (eventPager.hasMore() && filteredEventList.size() < eventPager.getPageSize()
+                && fillPagesLoaded < MAX_FILL_PAGES) {
+            fillPagesLoaded++;
+            loadNextEventPage();
+        }
+    }
 
 
-                        // Apply any active filters
-                        applyFilters();
-                    }
-                })
-                .addOnFailureListener(e -> {
-                    progressBar.setVisibility(View.GONE);
-                    tvEmpty.setVisibility(View.VISIBLE);
-                    tvEmpty.setText("Error loading events: " + e.getMessage());
-                    Toast.makeText(this, "Failed to load events", Toast.LENGTH_SHORT).show();
-                });
+    /**
+     * Filters a newly loaded page and appends the matching events to the adapter,
+     * without rebinding rows that are already displayed.
+     *
+     * @param page          events from the page that was just loaded
+     * @param firstPosition position of the first page event in {@code eventList}
+     */
+    private void appendFiltered(List<EventModel> page, int firstPosition) {
+        List<EventModel> matches = new ArrayList<>();
+        for (int i = 0; i < page.size(); i++) {
+            if (matchesFilters(page.get(i), firstPosition + i)) {
+                matches.add(page.get(i));
+            }
+        }
+        filteredEventList.addAll(matches);
+        eventAdapter.submitList(filteredEventList);
+        updateEmptyState();
     }
 
 
@@ -271,19 +362,25 @@ public class EntrantActivity extends AppCompatActivity {
      */
     private void applyFilters() {
         filteredEventList.clear();
+        clearFilterMatches();
 
 
-        for (EventModel event : eventList) {
-            if (matchesFilters(event)) {
-                filteredEventList.add(event);
+        for (int i = 0; i < eventList.size(); i++) {
+            if (matchesFilters(eventList.get(i), i)) {
+                filteredEventList.add(eventList.get(i));
             }
         }
 
 
-        eventAdapter.notifyDataSetChanged();
+        eventAdapter.submitList(filteredEventList);
+        updateEmptyState();
+    }
 
 
-        // Update UI visibility
+    /**
+     * Shows the list or the matching empty-state message for the current filtered list.
+     */
+    private void updateEmptyState() {
         if (filteredEventList.isEmpty() && !eventList.isEmpty()) {
             tvEmpty.setVisibility(View.VISIBLE);
             tvEmpty.setText("No events match your filters. Try adjusting your criteria.");
@@ -304,18 +401,18 @@ public class EntrantActivity extends AppCompatActivity {
 
     /**
      * Checks if an event matches all active filters
+     *
+     * @param event    the event to check
+     * @param position the event's position in {@code eventList} (and in both indexes)
      */
-    private boolean matchesFilters(EventModel event) {
+    private boolean matchesFilters(EventModel event, int position) {
         // Keyword filter (searches in event name and description)
         if (filterKeyword != null && !filterKeyword.isEmpty()) {
-            String keyword = filterKeyword.toLowerCase();
-            String eventName = event.getEventName() != null ?
-                    event.getEventName().toLowerCase() : "";
-            String eventDesc = event.getDescription() != null ?
-                    event.getDescription().toLowerCase() : "";
-
-
-            if (!eventName.contains(keyword) && !eventDesc.contains(keyword)) {
+            if (keywordMatches == null) {
+                keywordMatches = eventKeywordIndex.search(filterKeyword,
+                        EventKeywordIndex.FIELD_NAME | EventKeywordIndex.FIELD_DESCRIPTION);
+            }
+            if (!keywordMatches.get(position)) {
                 return false;
             }
         }
@@ -323,11 +420,11 @@ public class EntrantActivity extends AppCompatActivity {
 
         // Location filter
         if (filterLocation != null && !filterLocation.isEmpty()) {
-            String location = event.getLocation() != null ?
-                    event.getLocation().toLowerCase() : "";
-
-
-            if (!location.contains(filterLocation.toLowerCase())) {
+            if (locationMatches == null) {
+                locationMatches = eventKeywordIndex.search(filterLocation,
+                        EventKeywordIndex.FIELD_LOCATION);
+            }
+            if (!locationMatches.get(position)) {
                 return false;
             }
         }
@@ -335,7 +432,7 @@ public class EntrantActivity extends AppCompatActivity {
 
         // Date filter (checks if event falls within user's availability window)
         if (filterStartDate != null && filterEndDate != null) {
-            if (!matchesDateFilter(event)) {
+            if (!matchesDateFilter(position)) {
                 return false;
             }
         }
@@ -346,46 +443,38 @@ public class EntrantActivity extends AppCompatActivity {
 
 
     /**
-     * Checks if event dates fall within the user's availability window
-     * An event matches if it overlaps with the user's availability period
+     * Drops the cached index query results so the next filter check re-runs them.
+     * Called whenever the loaded events or the active filters change.
      */
-    private boolean matchesDateFilter(EventModel event) {
-        try {
-            SimpleDateFormat df = new SimpleDateFormat("MM/dd/yyyy", Locale.US);
-
-
-            Date userStartDate = df.parse(filterStartDate);
-            Date userEndDate = df.parse(filterEndDate);
-
-
-            String eventStartStr = event.getStartDate();
-            String eventEndStr = event.getEndDate();
-
-
-            if (eventStartStr == null || eventEndStr == null) {
-                return false;
-            }
-
-
-            Date eventStartDate = df.parse(eventStartStr);
-            Date eventEndDate = df.parse(eventEndStr);
+    private void clearFilterMatches() {
+        dateMatches = null;
+        keywordMatches = null;
+        locationMatches = null;
+    }
 
 
-            if (userStartDate == null || userEndDate == null ||
-                    eventStartDate == null || eventEndDate == null) {
-                return false;
+    /**
+     * Checks if event dates fall within the user's availability window
+     * An event matches if it overlaps with the user's availability period
+     * (event starts before the window ends AND ends after the window starts).
+     * <p>
+     * The overlap query runs once per filter change against {@link EventDateIndex};
+     * each event check afterwards is a bit lookup.
+     *
+     * @param position the event's position in {@code eventList}
+     */
+    private boolean matchesDateFilter(int position) {
+        if (dateMatches == null) {
+            long userStartDay = EventDates.parseEpochDay(filterStartDate);
+            long userEndDay = EventDates.parseEpochDay(filterEndDate);
+
+            if (userStartDay == EventDates.NO_DATE || userEndDay == EventDates.NO_DATE) {
+                dateMatches = new BitSet();
+            } else {
+                dateMatches = eventDateIndex.overlapping(userStartDay, userEndDay);
             }
-
-
-            // Event should overlap with user's availability window
-            // Event starts before user's availability ends AND event ends after user's availability starts
-            return !eventStartDate.after(userEndDate) && !eventEndDate.before(userStartDate);
-
-
-        } catch (ParseException e) {
-            e.printStackTrace();
-            return false;
         }
+        return dateMatches.get(position);
     }
 
 
@@ -401,10 +490,27 @@ public class EntrantActivity extends AppCompatActivity {
 
     /**
      * Called when the activity resumes.
-     * Currently used to refresh the UI if needed.
+     * Re-evaluates which events are joinable in case the date changed while the
+     * screen was in the background, and listens for date changes while visible.
      */
     @Override
     protected void onResume() {
         super.onResume();
+        eventAdapter.onClockTick();
+
+        IntentFilter filter = new IntentFilter(Intent.ACTION_DATE_CHANGED);
+        filter.addAction(Intent.ACTION_TIME_CHANGED);
+        filter.addAction(Intent.ACTION_TIMEZONE_CHANGED);
+        registerReceiver(clockReceiver, filter);
+    }
+
+
+    /**
+     * Stops listening for date changes while the screen is not visible.
+     */
+    @Override
+    protected void onPause() {
+        super.onPause();
+        unregisterReceiver(clockReceiver);
     }
 }
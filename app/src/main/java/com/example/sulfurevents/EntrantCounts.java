@@ -0,0 +1,121 @@
+package com.example.sulfurevents;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Number of entrants of an event in each {@link Memberships} status.
+ * <p>
+ * Built either from the event's list arrays or from the shards of its
+ * {@link ShardedCounter}. Counts never go below zero, even if a shard briefly holds a
+ * negative value while increments are in flight.
+ */
+public final class EntrantCounts {
+
+    private final Map<String, Long> counts;
+
+    private EntrantCounts(Map<String, Long> counts) {
+        this.counts = counts;
+    }
+
+    /**
+     * @param counts count per status name; missing statuses count as zero
+     */
+    public static EntrantCounts of(Map<String, Long> counts) {
+        return new EntrantCounts(new HashMap<>(counts));
+    }
+
+    /**
+     * Counts the distinct device IDs of each list.
+     *
+     * @param lists entrant IDs per status name
+     */
+    public static EntrantCounts fromLists(Map<String, ? extends Collection<String>> lists) {
+        Map<String, Long> counts = new HashMap<>();
+        for (Map.Entry<String, ? extends Collection<String>> e : lists.entrySet()) {
+            counts.put(e.getKey(), (long) new LinkedHashSet<>(e.getValue()).size());
+        }
+        return new EntrantCounts(counts);
+    }
+
+    /**
+     * Sums the numeric fields of counter shards by name; other fields are ignored.
+     *
+     * @param shards data of each shard document
+     * @return sum per field name
+     */
+    public static Map<String, Long> sumShards(List<Map<String, Object>> shards) {
+        Map<String, Long> totals = new HashMap<>();
+        for (Map<String, Object> shard : shards) {
+            for (Map.Entry<String, Object> e : shard.entrySet()) {
+                if (!(e.getValue() instanceof Number)) continue;
+                Long current = totals.get(e.getKey());
+                long value = ((Number) e.getValue()).longValue();
+                totals.put(e.getKey(), current != null ? current + value : value);
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * @param deltas change per status name
+     * @return new counts with the changes applied
+     */
+    public EntrantCounts plus(Map<String, Long> deltas) {
+        Map<String, Long> sum = new HashMap<>(counts);
+        for (Map.Entry<String, Long> e : deltas.entrySet()) {
+            Long current = sum.get(e.getKey());
+            sum.put(e.getKey(), (current != null ? current : 0L) + e.getValue());
+        }
+        return new EntrantCounts(sum);
+    }
+
+    /**
+     * @return count per status name, suitable for {@link ShardedCounter#reset}
+     */
+    public Map<String, Long> toMap() {
+        Map<String, Long> map = new HashMap<>();
+        for (String status : Memberships.STATUSES) map.put(status, (long) get(status));
+        return map;
+    }
+
+    /**
+     * @param status one of {@link Memberships#STATUSES}
+     * @return number of entrants in that status
+     */
+    public int get(String status) {
+        Long count = counts.get(status);
+        return count != null && count > 0 ? (int) Math.min(count, Integer.MAX_VALUE) : 0;
+    }
+
+    /**
+     * @param waitingListLimit most entrants the waiting list may hold; zero or less means no limit
+     * @return true if one more entrant may join the waiting list
+     */
+    public boolean hasRoomOnWaitingList(int waitingListLimit) {
+        return waitingListLimit <= 0 || waiting() < waitingListLimit;
+    }
+
+    /** @return entrants on the waiting list */
+    public int waiting() {
+        return get(Memberships.WAITING);
+    }
+
+    /** @return entrants invited and not answered yet */
+    public int invited() {
+        return get(Memberships.INVITED);
+    }
+
+    /** @return entrants who accepted */
+    public int enrolled() {
+        return get(Memberships.ENROLLED);
+    }
+
+    /** @return entrants who declined or were cancelled */
+    public int cancelled() {
+        return get(Memberships.CANCELLED);
+    }
+}
@@ -8,17 +8,24 @@ import android.widget.ImageButton;
 import android.widget.ProgressBar;
 import android.widget.TextView;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.google.android.gms.tasks.Tasks;
 import com.google.android.material.bottomnavigation.BottomNavigationView;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Activity that displays the event history for an entrant.
@@ -30,10 +37,12 @@ import java.util.List;
  * <p>
  * Features:
  * - Displays notifications in reverse chronological order
+ * - Loads only the newest entries, paging older ones in on scroll
+ * - Continues with archived notifications (see {@link NotificationCompactor}), one month
+ *   at a time, once the live history is exhausted
  * - Shows empty state when no history exists
  * - Allows navigation to event details
  * - Integrates with bottom navigation
- * - Prevents concurrent data loads with flag
  */
 public class EntrantHistoryActivity extends AppCompatActivity
         implements EventHistoryAdapter.OnHistoryClickListener {
@@ -43,20 +52,28 @@ public class EntrantHistoryActivity extends AppCompatActivity
     private TextView tvEmptyHistory;
     private ProgressBar progressBar;
 
-    // Firebase and data management
-    private FirebaseFirestore db;
+    // Data management
     private String deviceId;
 
     // History data
     private final List<NotificationItem> historyItems = new ArrayList<>();
     private EventHistoryAdapter adapter;
 
-    // Flag to prevent multiple simultaneous loads
-    private boolean isLoadingData = false;
+    // Newest history entries kept live; older ones are paged in on scroll
+    private static final int WINDOW_SIZE = 50;
+    private NotificationWindow historyWindow;
+    private final List<NotificationItem> windowItems = new ArrayList<>();
+    private boolean windowComplete = false;
+
+    // Archived history, newest month first, loaded after the live history
+    private final List<NotificationItem> archivedItems = new ArrayList<>();
+    private String oldestArchivedMonth = null;
+    private boolean archiveLoading = false;
+    private boolean archiveDone = false;
 
     /**
      * Called when the activity is first created.
-     * Initializes UI components, Firebase, and loads history data.
+     * Initializes UI components and the history loader.
      *
      * @param savedInstanceState Bundle containing the activity's previously saved state
      */
@@ -65,9 +82,6 @@ public class EntrantHistoryActivity extends AppCompatActivity
         super.onCreate(savedInstanceState);
         setContentView(R.layout.entrant_history_activity);
 
-        // Initialize Firebase
-        db = FirebaseFirestore.getInstance();
-
         // Get unique device ID for this user
         deviceId = Settings.Secure.getString(
                 getContentResolver(), Settings.Secure.ANDROID_ID);
@@ -96,95 +110,155 @@ public class EntrantHistoryActivity extends AppCompatActivity
             BottomNavigationHelper.setupBottomNavigation(bottomNav, this);
         }
 
-        // Load the history data from Firestore
-        loadHistory();
+        // Page in older history as the user reaches the end of the list
+        rvHistory.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                loadOlderIfAtEnd();
+            }
+        });
+
+        // History is loaded in onStart()
+        historyWindow = new NotificationWindow(this, deviceId, WINDOW_SIZE, false);
     }
 
     /**
-     * Called when the activity is resumed (becomes visible to user).
-     * Reloads history data if not currently loading to show any updates.
+     * Called when the activity becomes visible.
+     * Starts the windowed history loader, which shows the cached history at once
+     * and keeps the newest entries up to date while the screen is visible.
      */
     @Override
-    protected void onResume() {
-        super.onResume();
+    protected void onStart() {
+        super.onStart();
+        loadHistory();
+    }
 
-        // Only reload if we're not currently loading to prevent conflicts
-        if (!isLoadingData) {
-            loadHistory();
-        }
+    /**
+     * Called when the activity is no longer visible.
+     * Stops listening and saves the loaded history to the local cache.
+     */
+    @Override
+    protected void onStop() {
+        super.onStop();
+        historyWindow.stop();
     }
 
     /**
-     * Loads the event history from Firestore.
-     * Fetches all notifications for the current user from their
-     * Firestore notifications subcollection, ordered by timestamp descending.
+     * Loads the event history through a {@link NotificationWindow}.
+     * Only the newest {@value #WINDOW_SIZE} notifications are read from Firestore
+     * (plus anything new since the last visit); older history comes from the local
+     * cache or is paged in as the user scrolls, newest first.
      * <p>
-     * Shows loading spinner during fetch, displays results in RecyclerView,
-     * or shows empty state if no history exists.
+     * Shows loading spinner until the first results arrive, displays results in
+     * RecyclerView, or shows empty state if no history exists.
      */
     private void loadHistory() {
-        // Prevent concurrent loads
-        if (isLoadingData) {
-            return;
-        }
-
-        // Set loading flag and show progress indicator
-        isLoadingData = true;
+        // Show progress indicator until the first results arrive
         progressBar.setVisibility(View.VISIBLE);
         tvEmptyHistory.setVisibility(View.GONE);
 
-        // Clear existing data
+        historyWindow.start(new NotificationWindow.Listener() {
+            @Override
+            public void onNotificationsChanged(List<NotificationItem> items, boolean complete) {
+                progressBar.setVisibility(View.GONE);
+                windowItems.clear();
+                windowItems.addAll(items);
+                windowComplete = complete;
+                showHistory();
+            }
+
+            @Override
+            public void onError(Exception e) {
+                // Handle error by showing failure message
+                progressBar.setVisibility(View.GONE);
+                if (historyItems.isEmpty()) {
+                    tvEmptyHistory.setVisibility(View.VISIBLE);
+                    tvEmptyHistory.setText("Failed to load history.");
+                }
+            }
+        });
+    }
+
+    /**
+     * Shows the live history followed by the archived months loaded so far.
+     */
+    private void showHistory() {
+        // Replace the rows only once the new data is here, so unchanged rows stay bound
         historyItems.clear();
-        adapter.notifyDataSetChanged();
-
-        // Query Firestore for user's notifications
-        db.collection("Profiles")
-                .document(deviceId)
-                .collection("notifications")
-                .orderBy("timestamp", Query.Direction.DESCENDING) // Most recent first
-                .get()
-                .addOnSuccessListener(snapshot -> {
-                    // Reset loading flag and hide progress indicator
-                    isLoadingData = false;
-                    progressBar.setVisibility(View.GONE);
-
-                    // Check if any notifications exist
-                    if (snapshot == null || snapshot.isEmpty()) {
-                        tvEmptyHistory.setVisibility(View.VISIBLE);
-                        tvEmptyHistory.setText(
-                                "You haven't registered for any events yet.");
-                        return;
-                    }
+        List<NotificationItem> all = new ArrayList<>(windowItems);
+        all.addAll(archivedItems);
+        for (NotificationItem item : all) {
+            // Only add notifications with valid event IDs
+            if (item.eventId != null && !item.eventId.isEmpty()) {
+                historyItems.add(item);
+            }
+        }
 
-                    // Process each notification document
-                    for (com.google.firebase.firestore.DocumentSnapshot doc : snapshot) {
-                        NotificationItem item = NotificationItem.fromDoc(doc);
+        // Show appropriate UI based on whether valid items exist
+        if (historyItems.isEmpty() && windowComplete && archiveDone) {
+            tvEmptyHistory.setVisibility(View.VISIBLE);
+            tvEmptyHistory.setText(
+                    "You haven't registered for any events yet.");
+        } else {
+            tvEmptyHistory.setVisibility(View.GONE);
+        }
 
-                        // Only add notifications with valid event IDs
-                        if (item.eventId != null && !item.eventId.isEmpty()) {
-                            historyItems.add(item);
-                        }
-                    }
+        // Update RecyclerView with new data
+        adapter.submitList(historyItems, () -> loadOlderIfAtEnd());
+    }
 
-                    // Show appropriate UI based on whether valid items exist
-                    if (historyItems.isEmpty()) {
-                        tvEmptyHistory.setVisibility(View.VISIBLE);
-                        tvEmptyHistory.setText(
-                                "You haven't registered for any events yet.");
-                    } else {
-                        tvEmptyHistory.setVisibility(View.GONE);
-                    }
+    /**
+     * Requests the next page of older history once the list has been scrolled to its
+     * end (or is too short to scroll): live notifications first, then archived months.
+     */
+    private void loadOlderIfAtEnd() {
+        if (rvHistory.canScrollVertically(1)) return;
+        if (!windowComplete) {
+            historyWindow.loadOlder();
+        } else {
+            loadArchivedMonth();
+        }
+    }
 
-                    // Update RecyclerView with new data
-                    adapter.notifyDataSetChanged();
-                })
-                .addOnFailureListener(e -> {
-                    // Handle error by showing failure message
-                    isLoadingData = false;
-                    progressBar.setVisibility(View.GONE);
-                    tvEmptyHistory.setVisibility(View.VISIBLE);
-                    tvEmptyHistory.setText("Failed to load history.");
-                });
+    /**
+     * Loads every digest of the newest archived month not shown yet. A month may be split
+     * over several digests, so its entries are sorted together, newest first.
+     */
+    private void loadArchivedMonth() {
+        if (archiveLoading || archiveDone) return;
+        archiveLoading = true;
+
+        CollectionReference digests = FirebaseFirestore.getInstance()
+                .collection("Profiles").document(deviceId).collection("notification_digests");
+        Query newest = digests.orderBy("month", Query.Direction.DESCENDING).limit(1);
+        if (oldestArchivedMonth != null) {
+            newest = digests.whereLessThan("month", oldestArchivedMonth)
+                    .orderBy("month", Query.Direction.DESCENDING).limit(1);
+        }
+
+        newest.get().onSuccessTask(latest -> {
+            if (latest.isEmpty()) return Tasks.<QuerySnapshot>forResult(null);
+            oldestArchivedMonth = latest.getDocuments().get(0).getString("month");
+            return digests.whereEqualTo("month", oldestArchivedMonth).get();
+        }).addOnCompleteListener(this, task -> {
+            archiveLoading = false;
+            if (!task.isSuccessful()) return; // tried again on the next scroll
+            if (task.getResult() == null) {
+                archiveDone = true;
+            } else {
+                List<NotificationItem> month = new ArrayList<>();
+                for (DocumentSnapshot digest : task.getResult().getDocuments()) {
+                    Object entries = digest.get("entries");
+                    if (!(entries instanceof List)) continue;
+                    for (Object entry : (List<?>) entries) {
+                        if (entry instanceof Map) month.add(NotificationItem.fromDigestEntry((Map<?, ?>) entry));
+                    }
+                }
+                Collections.sort(month, (a, b) -> Long.compare(b.timestamp, a.timestamp));
+                archivedItems.addAll(month);
+            }
+            showHistory();
+        });
     }
 
     /**
@@ -0,0 +1,53 @@
+package com.example.sulfurevents;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One row of an organizer entrant list: a profile paired with the device ID it belongs to.
+ * <p>
+ * The organizer list screens keep profiles and device IDs in two parallel lists; the
+ * adapters zip them into rows so each row can be identified by its device ID when the
+ * list is updated.
+ */
+public final class EntrantRow {
+
+    /** Device ID of the entrant, used as the row's identity. */
+    public final String deviceId;
+    /** Profile shown in the row. */
+    public final User user;
+
+    public EntrantRow(String deviceId, User user) {
+        this.deviceId = deviceId;
+        this.user = user;
+    }
+
+    /**
+     * Pairs up parallel lists of profiles and device IDs, stopping at the shorter one.
+     *
+     * @param users     profiles
+     * @param deviceIds device IDs in the same order
+     * @return the rows
+     */
+    public static List<EntrantRow> zip(List<User> users, List<String> deviceIds) {
+        int n = Math.min(users.size(), deviceIds.size());
+        List<EntrantRow> rows = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            rows.add(new EntrantRow(deviceIds.get(i), users.get(i)));
+        }
+        return rows;
+    }
+
+    /**
+     * @return true if both rows would display the same name, email and device ID
+     */
+    boolean looksSameAs(EntrantRow other) {
+        return eq(deviceId, other.deviceId)
+                && eq(user.getName(), other.user.getName())
+                && eq(user.getEmail(), other.user.getEmail());
+    }
+
+    private static boolean eq(Object a, Object b) {
+        return a == null ? b == null : a.equals(b);
+    }
+}
@@ -0,0 +1,494 @@
+package com.example.sulfurevents;
+
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.Transaction;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads and writes the entrant lists of an event in either of its two storage modes.
+ * <p>
+ * <b>Arrays</b> (the default): entrants are device IDs in the {@code waiting_list},
+ * {@code invited_list}, {@code enrolled_list} and {@code cancelled_list} arrays of
+ * {@code Events/{eventId}}. Every join rewrites that one document and every reader downloads
+ * all four arrays, so a very popular event runs into Firestore's per-document write rate
+ * and its 1 MiB document limit.
+ * <p>
+ * <b>Sharded</b> ({@code entrantStorage == "sharded"}): each entrant is a document
+ * {@code Events/{eventId}/{status}_list/{deviceId}} holding the time it entered that status,
+ * and the per-status totals live in a {@link ShardedCounter} at
+ * {@code Events/{eventId}/entrant_counts}. A join writes only the entrant's own document
+ * and one counter shard, so concurrent joins no longer contend on the event document.
+ * <p>
+ * Array-mode events keep the same counter once {@link #COUNTED_FIELD} is set: the first
+ * transition written by {@link Memberships#move} or a lottery draw seeds it from the arrays
+ * it has just read, and every later one adds its deltas in the same transaction. Counts
+ * and capacity checks then cost one read per shard in both modes.
+ * <p>
+ * {@link #migrateToSharded(FirebaseFirestore, String)} converts an event; screens read
+ * through {@link #lists}, {@link #statusesOf} and {@link #counts}, which work in both modes.
+ */
+public final class EntrantStore {
+
+    private static final String TAG = "EntrantStore";
+
+    /** Event field naming the storage mode; absent means arrays. */
+    public static final String MODE_FIELD = "entrantStorage";
+
+    /** Value of {@link #MODE_FIELD} for events stored in subcollections. */
+    public static final String MODE_SHARDED = "sharded";
+
+    /** Waiting list size at which an organizer screen migrates the event. */
+    public static final int SHARDING_THRESHOLD = 5000;
+
+    /** Event field set once the counter of an array-mode event is kept in step with its arrays. */
+    public static final String COUNTED_FIELD = "entrantsCounted";
+
+    /** Shards of the per-event counter. */
+    static final int COUNTER_SHARDS = 10;
+
+    /** Entrants per transaction: a delete, a set and an index write each, plus the counter. */
+    static final int IDS_PER_TRANSACTION = 150;
+
+    /** Most list changes the final migration step absorbs before asking for a retry. */
+    private static final int MAX_MIGRATION_FIXUPS = 400;
+
+    // Events with a migration running in this process
+    private static final Set<String> migrating = new HashSet<>();
+
+    private EntrantStore() {
+    }
+
+    /**
+     * @return true if the event keeps its entrants in subcollections
+     */
+    public static boolean isSharded(@Nullable DocumentSnapshot event) {
+        return event != null && MODE_SHARDED.equals(event.getString(MODE_FIELD));
+    }
+
+    /**
+     * @return true if the event's counter is exact, i.e. it is sharded or has been seeded
+     */
+    public static boolean isCounted(@Nullable DocumentSnapshot event) {
+        return isSharded(event) || (event != null && Boolean.TRUE.equals(event.getBoolean(COUNTED_FIELD)));
+    }
+
+    /**
+     * @return the subcollection holding the event's entrants in one status (sharded mode)
+     */
+    public static CollectionReference entrants(FirebaseFirestore db, String eventId, String status) {
+        return db.collection("Events").document(eventId).collection(Memberships.listField(status));
+    }
+
+    /**
+     * @return the counter of the event's entrants per status
+     */
+    public static ShardedCounter counter(FirebaseFirestore db, String eventId) {
+        return new ShardedCounter(db.collection("Events").document(eventId)
+                .collection("entrant_counts"), COUNTER_SHARDS);
+    }
+
+    /**
+     * Reads one list array of an event, accepting the legacy camelCase field name.
+     *
+     * @param status one of {@link Memberships#STATUSES}
+     * @return the device IDs in the array, or an empty list
+     */
+    @SuppressWarnings("unchecked")
+    public static List<String> arrayOf(DocumentSnapshot event, String status) {
+        Object list = event.get(Memberships.listField(status));
+        if (list == null) list = event.get(status + "List");
+        return list instanceof List ? new ArrayList<>((List<String>) list) : new ArrayList<>();
+    }
+
+    /**
+     * Loads all four entrant lists, oldest entry first. In array mode this needs no reads.
+     *
+     * @param event event document
+     * @return task completing with the device IDs per status
+     */
+    public static Task<Map<String, List<String>>> lists(DocumentSnapshot event) {
+        Map<String, List<String>> lists = new LinkedHashMap<>();
+        if (!isSharded(event)) {
+            for (String status : Memberships.STATUSES) lists.put(status, arrayOf(event, status));
+            return Tasks.forResult(lists);
+        }
+
+        FirebaseFirestore db = event.getReference().getFirestore();
+        List<Task<QuerySnapshot>> reads = new ArrayList<>();
+        for (String status : Memberships.STATUSES) {
+            reads.add(entrants(db, event.getId(), status).orderBy("since", Query.Direction.ASCENDING).get());
+        }
+        return Tasks.<QuerySnapshot>whenAllSuccess(reads).continueWith(task -> {
+            if (!task.isSuccessful()) throw task.getException();
+            for (int i = 0; i < Memberships.STATUSES.length; i++) {
+                List<String> ids = new ArrayList<>();
+                for (DocumentSnapshot doc : task.getResult().get(i).getDocuments()) ids.add(doc.getId());
+                lists.put(Memberships.STATUSES[i], ids);
+            }
+            return lists;
+        });
+    }
+
+    /**
+     * Finds the statuses one entrant holds in an event. In sharded mode this reads one
+     * document per status instead of the lists.
+     *
+     * @return task completing with the entrant's statuses, empty if not in the event
+     */
+    public static Task<Set<String>> statusesOf(DocumentSnapshot event, String deviceId) {
+        Set<String> statuses = new HashSet<>();
+        if (!isSharded(event)) {
+            for (String status : Memberships.STATUSES) {
+                if (arrayOf(event, status).contains(deviceId)) statuses.add(status);
+            }
+            return Tasks.forResult(statuses);
+        }
+
+        FirebaseFirestore db = event.getReference().getFirestore();
+        List<Task<DocumentSnapshot>> reads = new ArrayList<>();
+        for (String status : Memberships.STATUSES) {
+            reads.add(entrants(db, event.getId(), status).document(deviceId).get());
+        }
+        return Tasks.<DocumentSnapshot>whenAllSuccess(reads).continueWith(task -> {
+            if (!task.isSuccessful()) throw task.getException();
+            for (int i = 0; i < Memberships.STATUSES.length; i++) {
+                if (task.getResult().get(i).exists()) statuses.add(Memberships.STATUSES[i]);
+            }
+            return statuses;
+        });
+    }
+
+    /**
+     * Counts the entrants per status from the event's counter, or from the arrays of an
+     * event whose counter has not been seeded yet.
+     *
+     * @return task completing with the counts
+     */
+    public static Task<EntrantCounts> counts(DocumentSnapshot event) {
+        if (!isCounted(event)) {
+            Map<String, List<String>> lists = new HashMap<>();
+            for (String status : Memberships.STATUSES) lists.put(status, arrayOf(event, status));
+            return Tasks.forResult(EntrantCounts.fromLists(lists));
+        }
+        return counter(event.getReference().getFirestore(), event.getId()).read()
+                .continueWith(task -> {
+                    if (!task.isSuccessful()) throw task.getException();
+                    return EntrantCounts.of(task.getResult());
+                });
+    }
+
+    /**
+     * Moves entrants between the status subcollections of a sharded event. Each chunk of
+     * {@link #IDS_PER_TRANSACTION} runs in one transaction that reads only the entrants' own
+     * documents, so entrants not in {@code from} (or already in {@code to}) are skipped
+     * and the counter stays exact.
+     *
+     * @return task completing with the number of entrants moved
+     * @see Memberships#move
+     */
+    static Task<Integer> moveSharded(FirebaseFirestore db, String eventId, List<String> ids,
+                                     @Nullable String from, @Nullable String to) {
+        ShardedCounter counter = counter(db, eventId);
+        List<Task<Integer>> commits = new ArrayList<>();
+        for (int start = 0; start < ids.size(); start += IDS_PER_TRANSACTION) {
+            List<String> chunk = ids.subList(start, Math.min(start + IDS_PER_TRANSACTION, ids.size()));
+            commits.add(db.runTransaction(transaction -> {
+                List<DocumentSnapshot> inFrom = new ArrayList<>();
+                List<DocumentSnapshot> inTo = new ArrayList<>();
+                for (String id : chunk) {
+                    if (from != null) inFrom.add(transaction.get(entrants(db, eventId, from).document(id)));
+                    if (to != null) inTo.add(transaction.get(entrants(db, eventId, to).document(id)));
+                }
+
+                long now = System.currentTimeMillis();
+                long left = 0;
+                long entered = 0;
+                for (int i = 0; i < chunk.size(); i++) {
+                    String id = chunk.get(i);
+                    if (from != null && !inFrom.get(i).exists()) continue;
+                    if (from != null) {
+                        transaction.delete(inFrom.get(i).getReference());
+                        left++;
+                    }
+                    if (to != null && !inTo.get(i).exists()) {
+                        transaction.set(inTo.get(i).getReference(), entry(id, now));
+                        entered++;
+                    }
+                    Memberships.record(transaction, db, id, eventId, from, to);
+                }
+
+                Map<String, Long> deltas = new HashMap<>();
+                if (from != null) deltas.put(from, -left);
+                if (to != null) deltas.put(to, entered);
+                counter.add(transaction, deltas);
+                return (int) Math.max(left, entered);
+            }));
+        }
+        return Memberships.sum(commits);
+    }
+
+    /**
+     * Records an array-mode transition in the event's counter and its {@link EventSummary},
+     * inside the transaction that changes the arrays. If the counter has not been seeded yet
+     * both are set to the list sizes after this transition, and {@link #COUNTED_FIELD} is
+     * added to {@code eventUpdate}.
+     *
+     * @param event       the event as read by the transaction, before the change
+     * @param deltas      change of each list's size made by the transaction
+     * @param eventUpdate the transaction's update of the event document
+     */
+    static void countArrayChange(Transaction transaction, DocumentSnapshot event,
+                                 Map<String, Long> deltas, Map<String, Object> eventUpdate) {
+        ShardedCounter counter = counter(event.getReference().getFirestore(), event.getId());
+        if (isCounted(event)) {
+            counter.add(transaction, deltas);
+            EventSummaries.addCounts(transaction, event, deltas);
+            return;
+        }
+        Map<String, List<String>> lists = new HashMap<>();
+        for (String status : Memberships.STATUSES) lists.put(status, arrayOf(event, status));
+        EntrantCounts after = EntrantCounts.fromLists(lists).plus(deltas);
+        counter.reset(transaction, after.toMap());
+        EventSummaries.setCounts(transaction, event, after);
+        eventUpdate.put(COUNTED_FIELD, true);
+    }
+
+    /** @return the document stored for an entrant in a status subcollection */
+    static Map<String, Object> entry(String deviceId, long since) {
+        Map<String, Object> entry = new HashMap<>();
+        entry.put("deviceId", deviceId);
+        entry.put("since", since);
+        return entry;
+    }
+
+    /**
+     * Starts {@link #migrateToSharded} if an array-mode event's waiting list has reached
+     * {@link #SHARDING_THRESHOLD}, or if a sharded event has entries in its arrays that
+     * clients with an outdated view of the event wrote after the switch.
+     *
+     * @return true if a migration or a sweep of leftover entries was started
+     */
+    public static boolean migrateIfLarge(FirebaseFirestore db, DocumentSnapshot event) {
+        if (!event.exists()) return false;
+        if (isSharded(event) ? !hasArrayEntries(event)
+                : arrayOf(event, Memberships.WAITING).size() < SHARDING_THRESHOLD) return false;
+        migrateToSharded(db, event.getId())
+                .addOnSuccessListener(n -> Log.i(TAG, "Migrated " + n + " entrant(s) of " + event.getId()))
+                .addOnFailureListener(e -> Log.w(TAG, "Migration of " + event.getId() + " failed", e));
+        return true;
+    }
+
+    /**
+     * Converts an event from arrays to sharded storage.
+     * <ol>
+     *   <li>Copies every array entry to its status subcollection, in batches of 500. List
+     *       order is kept through each entry's {@code since} time.</li>
+     *   <li>In one transaction, re-reads the event, copies or removes whatever changed during
+     *       the copy, sets the counter to the final list sizes, switches the mode and deletes
+     *       the arrays.</li>
+     * </ol>
+     * Entrants can keep joining while the copy runs. If the event is already sharded, entries
+     * that a client with an outdated view of the event added to the arrays are moved over
+     * (see {@link #migrateIfLarge}, which starts this whenever such entries exist).
+     * Safe to re-run after a failure.
+     *
+     * @return task completing with the number of entrants now stored in subcollections
+     */
+    public static Task<Integer> migrateToSharded(FirebaseFirestore db, String eventId) {
+        synchronized (migrating) {
+            if (!migrating.add(eventId)) {
+                return Tasks.forException(new IllegalStateException("Migration already running."));
+            }
+        }
+        DocumentReference eventRef = db.collection("Events").document(eventId);
+        return eventRef.get().continueWithTask(task -> {
+            if (!task.isSuccessful()) return Tasks.forException(task.getException());
+            DocumentSnapshot event = task.getResult();
+            if (!event.exists()) return Tasks.forException(new IllegalStateException("Event not found."));
+            if (isSharded(event)) return sweepArrays(db, eventRef);
+
+            Map<String, List<String>> copied = new LinkedHashMap<>();
+            for (String status : Memberships.STATUSES) {
+                copied.put(status, new ArrayList<>(new LinkedHashSet<>(arrayOf(event, status))));
+            }
+
+            // Entries copied now sort before anyone joining after the switch
+            long base = System.currentTimeMillis();
+            List<Task<Void>> commits = new ArrayList<>();
+            WriteBatch batch = db.batch();
+            int writes = 0;
+            for (Map.Entry<String, List<String>> list : copied.entrySet()) {
+                List<String> ids = list.getValue();
+                for (int i = 0; i < ids.size(); i++) {
+                    batch.set(entrants(db, eventId, list.getKey()).document(ids.get(i)),
+                            entry(ids.get(i), base - (ids.size() - i)));
+                    if (++writes == 500) {
+                        commits.add(batch.commit());
+                        batch = db.batch();
+                        writes = 0;
+                    }
+                }
+            }
+            if (writes > 0) commits.add(batch.commit());
+
+            return Tasks.whenAll(commits).continueWithTask(done -> {
+                if (!done.isSuccessful()) return Tasks.forException(done.getException());
+                return finishMigration(db, eventRef, copied);
+            });
+        }).addOnCompleteListener(done -> {
+            synchronized (migrating) {
+                migrating.remove(eventId);
+            }
+        });
+    }
+
+    /** @return true if any list array of the event still holds an entrant */
+    private static boolean hasArrayEntries(DocumentSnapshot event) {
+        for (String status : Memberships.STATUSES) {
+            if (!arrayOf(event, status).isEmpty()) return true;
+        }
+        return false;
+    }
+
+    /** Final migration step; see {@link #migrateToSharded}. */
+    private static Task<Integer> finishMigration(FirebaseFirestore db, DocumentReference eventRef,
+                                                 Map<String, List<String>> copied) {
+        String eventId = eventRef.getId();
+        return db.runTransaction(transaction -> {
+            DocumentSnapshot event = transaction.get(eventRef);
+            if (isSharded(event)) return 0; // finished by another run
+
+            long now = System.currentTimeMillis();
+            Map<String, Long> totals = new HashMap<>();
+            int fixups = 0;
+            int stored = 0;
+            for (String status : Memberships.STATUSES) {
+                Set<String> current = new LinkedHashSet<>(arrayOf(event, status));
+                Set<String> before = new HashSet<>(copied.get(status));
+                for (String id : current) {
+                    if (before.contains(id)) continue;
+                    transaction.set(entrants(db, eventId, status).document(id), entry(id, now));
+                    fixups++;
+                }
+                for (String id : before) {
+                    if (current.contains(id)) continue;
+                    transaction.delete(entrants(db, eventId, status).document(id));
+                    fixups++;
+                }
+                totals.put(status, (long) current.size());
+                stored += current.size();
+            }
+            if (fixups > MAX_MIGRATION_FIXUPS) {
+                throw new IllegalStateException("Event changed too much during migration; try again.");
+            }
+
+            counter(db, eventId).reset(transaction, totals);
+            EventSummaries.setCounts(transaction, event, EntrantCounts.of(totals));
+            transaction.update(eventRef, switchedToSharded());
+            return stored;
+        }).addOnSuccessListener(n -> EventRepository.getInstance().invalidate(eventId));
+    }
+
+    /**
+     * Moves entries left in the arrays of an already sharded event into its subcollections,
+     * {@link #IDS_PER_TRANSACTION} per transaction until the arrays are empty.
+     *
+     * @return task completing with the number of entries swept
+     */
+    private static Task<Integer> sweepArrays(FirebaseFirestore db, DocumentReference eventRef) {
+        return sweepChunk(db, eventRef).continueWithTask(task -> {
+            if (!task.isSuccessful()) return Tasks.forException(task.getException());
+            int swept = task.getResult();
+            if (swept < IDS_PER_TRANSACTION) {
+                if (swept > 0) EventRepository.getInstance().invalidate(eventRef.getId());
+                return Tasks.forResult(swept);
+            }
+            return sweepArrays(db, eventRef).continueWith(rest -> {
+                if (!rest.isSuccessful()) throw rest.getException();
+                return swept + rest.getResult();
+            });
+        });
+    }
+
+    /** One transaction of {@link #sweepArrays}. */
+    private static Task<Integer> sweepChunk(FirebaseFirestore db, DocumentReference eventRef) {
+        String eventId = eventRef.getId();
+        ShardedCounter counter = counter(db, eventId);
+        return db.runTransaction(transaction -> {
+            DocumentSnapshot event = transaction.get(eventRef);
+
+            Map<DocumentReference, String> leftovers = new LinkedHashMap<>();
+            for (String status : Memberships.STATUSES) {
+                for (String id : new LinkedHashSet<>(arrayOf(event, status))) {
+                    if (leftovers.size() == IDS_PER_TRANSACTION) break;
+                    leftovers.put(entrants(db, eventId, status).document(id), status);
+                }
+            }
+            if (leftovers.isEmpty()) return 0;
+
+            // Reads first: leftovers that already have their document are only dropped
+            List<DocumentSnapshot> existing = new ArrayList<>();
+            for (DocumentReference ref : leftovers.keySet()) existing.add(transaction.get(ref));
+
+            long now = System.currentTimeMillis();
+            Map<String, Long> deltas = new HashMap<>();
+            Map<String, List<String>> swept = new HashMap<>();
+            for (DocumentSnapshot doc : existing) {
+                String status = leftovers.get(doc.getReference());
+                List<String> ids = swept.get(status);
+                if (ids == null) {
+                    ids = new ArrayList<>();
+                    swept.put(status, ids);
+                }
+                ids.add(doc.getId());
+                if (doc.exists()) continue;
+
+                transaction.set(doc.getReference(), entry(doc.getId(), now));
+                Long delta = deltas.get(status);
+                deltas.put(status, delta != null ? delta + 1 : 1L);
+            }
+            counter.add(transaction, deltas);
+
+            Map<String, Object> update = new HashMap<>();
+            for (Map.Entry<String, List<String>> e : swept.entrySet()) {
+                Object[] ids = e.getValue().toArray();
+                update.put(Memberships.listField(e.getKey()), FieldValue.arrayRemove(ids));
+                update.put(e.getKey() + "List", FieldValue.arrayRemove(ids));
+            }
+            transaction.update(eventRef, update);
+            return leftovers.size();
+        });
+    }
+
+    /** Event update that sets sharded mode and deletes every list array. */
+    private static Map<String, Object> switchedToSharded() {
+        Map<String, Object> update = new HashMap<>();
+        update.put(MODE_FIELD, MODE_SHARDED);
+        for (String status : Memberships.STATUSES) {
+            update.put(Memberships.listField(status), FieldValue.delete());
+            update.put(status + "List", FieldValue.delete());
+        }
+        return update;
+    }
+}
@@ -12,21 +12,23 @@ import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.bumptech.glide.Glide;
-
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * This specific class shows a list of joinable events to an entrant
  * It displays the event's name, description, date range, location and capacity.
  */
 
-public class EventAdapter extends RecyclerView.Adapter<EventAdapter.EventViewHolder> {
+public class EventAdapter extends DiffListAdapter<EventModel, EventAdapter.EventViewHolder> {
 
-    private final List<EventModel> eventList;
     private final Context context;
+    private final PosterPreloader<EventModel> posters;
+
+    // Row states keyed by event instance; an updated event arrives as a new instance
+    private final Map<EventModel, EventCardState> cardStates = new IdentityHashMap<>();
+    private long today = EventDates.today();
 
     /**
      * Creates a new adapter for entrant events.
@@ -35,129 +37,110 @@ public class EventAdapter extends RecyclerView.Adapter<EventAdapter.EventViewHol
      * @param context   activity or fragment context used to start intents
      */
     public EventAdapter(List<EventModel> eventList, Context context) {
-        this.eventList = eventList;
         this.context = context;
+        this.posters = new PosterPreloader<>(this, (event, width) -> PosterVariants.pick(width,
+                event.getPosterThumbURL(), event.getPosterCardURL(), event.getPosterURL()));
+        submitList(eventList);
     }
 
     /**
-     * Inflates the single event row layout.
+     * Preloads the posters of rows about to scroll into view.
      *
-     * @param parent   parent view group
-     * @param viewType ignored here (only one view type)
-     * @return a view holder wrapping the row
+     * @param recyclerView list showing this adapter
      */
-    @NonNull
+    public void attachPreloader(RecyclerView recyclerView) {
+        posters.attach(recyclerView);
+    }
+
     @Override
-    public EventViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-        View view = LayoutInflater.from(parent.getContext())
-                .inflate(R.layout.entrant_event_row, parent, false);
-        return new EventViewHolder(view);
+    protected String getItemKey(@NonNull EventModel item) {
+        return item.getEventId();
+    }
+
+    @Override
+    protected boolean areContentsTheSame(@NonNull EventModel oldItem, @NonNull EventModel newItem) {
+        return same(oldItem.getEventName(), newItem.getEventName())
+                && same(oldItem.getDescription(), newItem.getDescription())
+                && same(oldItem.getStartDate(), newItem.getStartDate())
+                && same(oldItem.getEndDate(), newItem.getEndDate())
+                && same(oldItem.getLocation(), newItem.getLocation())
+                && same(oldItem.getLimitGuests(), newItem.getLimitGuests())
+                && same(oldItem.getPosterURL(), newItem.getPosterURL())
+                && same(oldItem.getPosterCardURL(), newItem.getPosterCardURL());
     }
 
     /**
-     * Binds one {@link EventModel} to the row: fills in text fields
-     * and wires up click listeners to open {@link EventDetailsActivity}.
-     *
-     * @param holder   the view holder to bind
-     * @param position index of the event in {@code eventList}
+     * Drops cached row states of events that are no longer displayed.
+     * Events that survived the update keep their state, so it is only rebuilt
+     * for events that are new or changed.
      */
     @Override
-    public void onBindViewHolder(@NonNull EventViewHolder holder, int position) {
-        EventModel event = eventList.get(position);
-
-        //  Load real data from Firestore model instead of hardcoded values
-        holder.eventName.setText(event.getEventName() != null ? event.getEventName() : "Unnamed Event");
-
-        String description = event.getDescription() != null ? event.getDescription() : "No description available";
-        holder.eventDetails.setText("Details: " + description);
-
-        //  Real Firestore fields
-        String startDate = event.getStartDate() != null ? event.getStartDate() : "N/A";
-        String endDate = event.getEndDate() != null ? event.getEndDate() : "N/A";
-        holder.date.setText("Date: " + startDate + " → " + endDate);
-
-        String location = event.getLocation() != null ? event.getLocation() : "Not specified";
-        holder.location.setText("Location: " + location);
-
-        String capacity = event.getLimitGuests() != null ? event.getLimitGuests() : "Not set";
-        holder.capacity.setText("Capacity: " + capacity);
-
-        // get the image from the database and places it in the imageView portion of the
-        // event card
-        String imgUrl = event.getPosterURL();
-        Glide.with(context).load(imgUrl).into(holder.EventImage);
-
-
-
-        // ---- DATE RESTRICTION LOGIC ----
-        try {
-            SimpleDateFormat df = new SimpleDateFormat("MM/dd/yyyy");
-            Date now = new Date();
-
-            Date sDate = df.parse(startDate);
-            Date eDate = df.parse(endDate);
-
-
-            if (eDate != null) {
-                java.util.Calendar cal = java.util.Calendar.getInstance();
-                cal.setTime(eDate);
-                cal.add(java.util.Calendar.DAY_OF_MONTH, 1);
-                cal.add(java.util.Calendar.MILLISECOND, -1);
-                eDate = cal.getTime();
-            }
-
-            if (sDate == null || eDate == null) {
-                holder.joinButton.setEnabled(false);
-                holder.joinButton.setText("Invalid event dates");
-            } else if (now.before(sDate)) {
-                holder.joinButton.setEnabled(false);
-                holder.joinButton.setText("Waitlist available on " + startDate);
-            } else if (now.after(eDate)) {
-                holder.joinButton.setEnabled(false);
-                holder.joinButton.setText("Event registration has passed");
-            } else {
-                holder.joinButton.setEnabled(true);
-                holder.joinButton.setText("Join Waiting List");
-            }
-
-        } catch (Exception ex) {
-            holder.joinButton.setEnabled(false);
-            holder.joinButton.setText("Invalid date format");
+    protected void onCurrentListChanged(@NonNull List<EventModel> previousList,
+                                        @NonNull List<EventModel> currentList) {
+        Map<EventModel, EventCardState> kept = new IdentityHashMap<>();
+        for (EventModel event : currentList) {
+            EventCardState state = cardStates.get(event);
+            if (state != null) kept.put(event, state);
         }
+        cardStates.clear();
+        cardStates.putAll(kept);
+    }
 
+    /**
+     * Re-evaluates which events are joinable if the date has changed since rows were
+     * computed. Call this when the screen resumes and when the system date changes.
+     */
+    public void onClockTick() {
+        long now = EventDates.today();
+        if (now == today) return;
+        today = now;
+        cardStates.clear();
+        notifyItemRangeChanged(0, getItemCount());
+    }
 
-        //  Clicking “Join Waiting List” button
-        holder.joinButton.setOnClickListener(v -> {
-            Intent intent = new Intent(context, EventDetailsActivity.class);
-            intent.putExtra("eventId", event.getEventId());
-            intent.putExtra("eventName", event.getEventName());
-            intent.putExtra("description", event.getDescription());
-            intent.putExtra("organizerEmail", event.getOrganizerEmail());
-            intent.putExtra("location", event.getLocation());
-            intent.putExtra("startDate", event.getStartDate());
-            intent.putExtra("endDate", event.getEndDate());
-            intent.putExtra("capacity", event.getLimitGuests());
-            intent.putExtra("posterURL", event.getPosterURL());
-            context.startActivity(intent);
-        });
+    /**
+     * @return the precomputed row state of an event, computing it on first use
+     */
+    private EventCardState stateOf(EventModel event) {
+        EventCardState state = cardStates.get(event);
+        if (state == null || state.today != today) {
+            state = EventCardState.of(event, today);
+            cardStates.put(event, state);
+        }
+        return state;
+    }
 
-        //  Clicking the whole card
-        holder.itemView.setOnClickListener(v -> {
-            Intent intent = new Intent(context, EventDetailsActivity.class);
-            intent.putExtra("eventId", event.getEventId());
-            intent.putExtra("eventName", event.getEventName());
-            intent.putExtra("description", event.getDescription());
-            intent.putExtra("organizerEmail", event.getOrganizerEmail());
-            intent.putExtra("location", event.getLocation());
-            intent.putExtra("startDate", event.getStartDate());
-            intent.putExtra("endDate", event.getEndDate());
-            intent.putExtra("capacity", event.getLimitGuests());
-            intent.putExtra("posterURL", event.getPosterURL());
-            context.startActivity(intent);
-        });
+    /**
+     * Inflates the single event row layout and wires its click listeners once:
+     * the button and the card open {@link EventDetailsActivity}, the poster opens
+     * {@link ImageActivity}. Listeners look up the event at click time.
+     *
+     * @param parent   parent view group
+     * @param viewType ignored here (only one view type)
+     * @return a view holder wrapping the row
+     */
+    @NonNull
+    @Override
+    public EventViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext())
+                .inflate(R.layout.entrant_event_row, parent, false);
+        EventViewHolder holder = new EventViewHolder(view);
+        posters.track(holder.EventImage);
+
+        //  Clicking “Join Waiting List” button or the whole card
+        View.OnClickListener openDetails = v -> {
+            int position = holder.getAdapterPosition();
+            if (position == RecyclerView.NO_POSITION) return;
+            openEventDetails(getItem(position));
+        };
+        holder.joinButton.setOnClickListener(openDetails);
+        holder.itemView.setOnClickListener(openDetails);
 
         // Button now will preview Event image
-        holder.EventImage.setOnClickListener(v ->{
+        holder.EventImage.setOnClickListener(v -> {
+            int position = holder.getAdapterPosition();
+            if (position == RecyclerView.NO_POSITION) return;
+            String imgUrl = getItem(position).getPosterURL();
             // Do nothing if no image exists
             if (imgUrl == null || imgUrl.trim().isEmpty()) {
                 return;
@@ -166,13 +149,49 @@ public class EventAdapter extends RecyclerView.Adapter<EventAdapter.EventViewHol
             Intent intent = new Intent(context, ImageActivity.class);
             intent.putExtra("imageUrl", imgUrl);
             context.startActivity(intent);
-
         });
+        return holder;
     }
 
+    /**
+     * Binds one {@link EventModel} to the row by copying its precomputed
+     * {@link EventCardState} into the views. No dates are parsed here.
+     *
+     * @param holder   the view holder to bind
+     * @param position index of the event in the displayed list
+     */
     @Override
-    public int getItemCount() {
-        return eventList.size();
+    public void onBindViewHolder(@NonNull EventViewHolder holder, int position) {
+        EventModel event = getItem(position);
+        EventCardState state = stateOf(event);
+
+        holder.eventName.setText(state.nameText);
+        holder.eventDetails.setText(state.detailsText);
+        holder.date.setText(state.dateText);
+        holder.location.setText(state.locationText);
+        holder.capacity.setText(state.capacityText);
+
+        // get the image from the database and places it in the imageView portion of the
+        // event card
+        posters.bind(event, holder.EventImage);
+
+        // ---- DATE RESTRICTION LOGIC ----
+        holder.joinButton.setEnabled(state.isJoinable());
+        holder.joinButton.setText(state.buttonText);
+    }
+
+    private void openEventDetails(EventModel event) {
+        Intent intent = new Intent(context, EventDetailsActivity.class);
+        intent.putExtra("eventId", event.getEventId());
+        intent.putExtra("eventName", event.getEventName());
+        intent.putExtra("description", event.getDescription());
+        intent.putExtra("organizerEmail", event.getOrganizerEmail());
+        intent.putExtra("location", event.getLocation());
+        intent.putExtra("startDate", event.getStartDate());
+        intent.putExtra("endDate", event.getEndDate());
+        intent.putExtra("capacity", event.getLimitGuests());
+        intent.putExtra("posterURL", event.getPosterURL());
+        context.startActivity(intent);
     }
 
     public static class EventViewHolder extends RecyclerView.ViewHolder {
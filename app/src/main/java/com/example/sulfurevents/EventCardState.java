@@ -0,0 +1,97 @@
+package com.example.sulfurevents;
+
+/**
+ * Display state of one row in the entrant event feed, computed once per event and day.
+ * <p>
+ * {@link EventAdapter} used to create a {@code SimpleDateFormat}, parse both dates and
+ * allocate a "now" {@code Date} every time a row was bound. This class does that work up
+ * front from the epoch days {@link EventModel} already parsed, and keeps every string the
+ * row shows, so binding a row only copies fields into views. The join-button state
+ * depends on the current day, so a state is only valid for the {@link #today} it was
+ * built for.
+ */
+public final class EventCardState {
+
+    /** Registration is open: the join button is enabled. */
+    public static final int JOINABLE = 0;
+    /** Registration has not started yet. */
+    public static final int UPCOMING = 1;
+    /** Registration has ended. */
+    public static final int CLOSED = 2;
+    /** Start or end date is missing or could not be parsed. */
+    public static final int INVALID_DATES = 3;
+
+    /** Day this state was computed for. */
+    public final long today;
+    /** One of {@link #JOINABLE}, {@link #UPCOMING}, {@link #CLOSED}, {@link #INVALID_DATES}. */
+    public final int status;
+
+    public final String nameText;
+    public final String detailsText;
+    public final String dateText;
+    public final String locationText;
+    public final String capacityText;
+    public final String buttonText;
+
+    private EventCardState(long today, int status, String nameText, String detailsText,
+                           String dateText, String locationText, String capacityText,
+                           String buttonText) {
+        this.today = today;
+        this.status = status;
+        this.nameText = nameText;
+        this.detailsText = detailsText;
+        this.dateText = dateText;
+        this.locationText = locationText;
+        this.capacityText = capacityText;
+        this.buttonText = buttonText;
+    }
+
+    /**
+     * Computes the row state of an event.
+     *
+     * @param event the event to display
+     * @param today epoch day to evaluate registration against (see {@link EventDates#today()})
+     * @return the state for that day
+     */
+    public static EventCardState of(EventModel event, long today) {
+        String startDate = event.getStartDate() != null ? event.getStartDate() : "N/A";
+        String endDate = event.getEndDate() != null ? event.getEndDate() : "N/A";
+
+        long start = event.getStartEpochDay();
+        long end = event.getEndEpochDay();
+
+        int status;
+        String buttonText;
+        if (start == EventDates.NO_DATE || end == EventDates.NO_DATE) {
+            status = INVALID_DATES;
+            buttonText = "Invalid date format";
+        } else if (today < start) {
+            status = UPCOMING;
+            buttonText = "Waitlist available on " + startDate;
+        } else if (today > end) {
+            // the end date counts as open until the end of that day
+            status = CLOSED;
+            buttonText = "Event registration has passed";
+        } else {
+            status = JOINABLE;
+            buttonText = "Join Waiting List";
+        }
+
+        String description = event.getDescription() != null ? event.getDescription() : "No description available";
+        String location = event.getLocation() != null ? event.getLocation() : "Not specified";
+        String capacity = event.getLimitGuests() != null ? event.getLimitGuests() : "Not set";
+
+        return new EventCardState(today, status,
+                event.getEventName() != null ? event.getEventName() : "Unnamed Event",
+                "Details: " + description,
+                "Date: " + startDate + " → " + endDate,
+                "Location: " + location,
+                "Capacity: " + capacity,
+                buttonText);
+    }
+
+    /** @return true if the join button should be enabled */
+    public boolean isJoinable() {
+        return status == JOINABLE;
+    }
+}
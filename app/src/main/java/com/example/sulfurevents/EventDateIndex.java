@@ -0,0 +1,222 @@
+package com.example.sulfurevents;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Sorted interval index over the pre-parsed date ranges of a list of events.
+ * <p>
+ * Each event contributes the interval {@code [startEpochDay, endEpochDay]} computed by
+ * {@link EventModel} when it was deserialized. Intervals are kept sorted by start day with
+ * a max-end segment tree on top, so both filter questions the app asks are answered in
+ * logarithmic time per match without parsing or allocating {@link java.util.Date}s:
+ * <ul>
+ *   <li>"Which events are available on day X?" ({@link #availableOn(long)})</li>
+ *   <li>"Which events overlap my availability window [A, B]?" ({@link #overlapping(long, long)})</li>
+ * </ul>
+ * Results are returned as a {@link BitSet} of positions in insertion order, so callers can
+ * keep their original list order.
+ *
+ * <p>Events are added incrementally with {@link #add(EventModel)}; the sorted arrays are
+ * rebuilt lazily on the next query. Events whose dates could not be parsed are never
+ * returned by a query but are reported through {@link #unparsedPositions()}.
+ */
+public class EventDateIndex {
+
+    private final List<EventModel> events = new ArrayList<>();
+
+    // Sorted view, rebuilt lazily after adds
+    private boolean dirty = false;
+    private int size = 0;            // number of indexed (parseable) intervals
+    private long[] starts = new long[0];
+    private long[] ends = new long[0];
+    private int[] positions = new int[0];
+    private long[] maxEnd = new long[0]; // segment tree over ends, 1-based
+    private final BitSet unparsed = new BitSet();
+
+    /** Creates an empty index. */
+    public EventDateIndex() { }
+
+    /**
+     * Creates an index over the given events, in list order.
+     *
+     * @param events events to index
+     * @return a new index
+     */
+    public static EventDateIndex of(List<EventModel> events) {
+        EventDateIndex index = new EventDateIndex();
+        index.addAll(events);
+        return index;
+    }
+
+    /**
+     * Appends an event; its position is the number of events added before it.
+     *
+     * @param event the event to index
+     */
+    public void add(EventModel event) {
+        int pos = events.size();
+        events.add(event);
+        if (event.getStartEpochDay() == EventDates.NO_DATE
+                || event.getEndEpochDay() == EventDates.NO_DATE) {
+            unparsed.set(pos);
+        }
+        dirty = true;
+    }
+
+    /**
+     * Appends all events in order.
+     *
+     * @param toAdd events to index
+     */
+    public void addAll(List<EventModel> toAdd) {
+        for (EventModel e : toAdd) {
+            add(e);
+        }
+    }
+
+    /** Removes every event from the index. */
+    public void clear() {
+        events.clear();
+        unparsed.clear();
+        size = 0;
+        dirty = false;
+    }
+
+    /** @return number of events added (including ones with unparseable dates) */
+    public int size() {
+        return events.size();
+    }
+
+    /**
+     * @return positions of events whose start or end date is missing or unparseable
+     */
+    public BitSet unparsedPositions() {
+        return (BitSet) unparsed.clone();
+    }
+
+    /**
+     * Finds events whose date range contains the given day (inclusive).
+     *
+     * @param epochDay the day to check
+     * @return positions of matching events
+     */
+    public BitSet availableOn(long epochDay) {
+        return overlapping(epochDay, epochDay);
+    }
+
+    /**
+     * Finds events whose date range overlaps {@code [from, to]} (inclusive on both ends):
+     * an event matches if it starts on or before {@code to} and ends on or after {@code from}.
+     *
+     * @param from first day of the window
+     * @param to   last day of the window
+     * @return positions of matching events
+     */
+    public BitSet overlapping(long from, long to) {
+        rebuildIfDirty();
+        BitSet out = new BitSet(events.size());
+        if (size == 0) return out;
+
+        // Intervals [0, limit) start on or before 'to'
+        int limit = upperBound(to);
+        if (limit > 0) {
+            collect(1, 0, size - 1, limit - 1, from, out);
+        }
+        return out;
+    }
+
+    /**
+     * Walks the segment tree over {@code [lo, hi]}, restricted to positions {@code <= last},
+     * skipping any subtree whose largest end day is before {@code from}.
+     */
+    private void collect(int node, int lo, int hi, int last, long from, BitSet out) {
+        if (lo > last || maxEnd[node] < from) return;
+        if (lo == hi) {
+            out.set(positions[lo]);
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        collect(node * 2, lo, mid, last, from, out);
+        collect(node * 2 + 1, mid + 1, hi, last, from, out);
+    }
+
+    /** @return number of sorted intervals whose start is {@code <= day} */
+    private int upperBound(long day) {
+        int lo = 0, hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (starts[mid] <= day) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private void rebuildIfDirty() {
+        if (!dirty) return;
+        dirty = false;
+
+        int n = events.size() - unparsed.cardinality();
+        size = n;
+        starts = new long[n];
+        ends = new long[n];
+        positions = new int[n];
+
+        int k = 0;
+        for (int pos = 0; pos < events.size(); pos++) {
+            if (unparsed.get(pos)) continue;
+            positions[k++] = pos;
+        }
+        sortPositionsByStart();
+        for (int i = 0; i < n; i++) {
+            EventModel e = events.get(positions[i]);
+            starts[i] = e.getStartEpochDay();
+            ends[i] = e.getEndEpochDay();
+        }
+
+        maxEnd = new long[Math.max(1, 4 * n)];
+        if (n > 0) build(1, 0, n - 1);
+    }
+
+    private long build(int node, int lo, int hi) {
+        if (lo == hi) {
+            maxEnd[node] = ends[lo];
+        } else {
+            int mid = (lo + hi) >>> 1;
+            maxEnd[node] = Math.max(build(node * 2, lo, mid), build(node * 2 + 1, mid + 1, hi));
+        }
+        return maxEnd[node];
+    }
+
+    /** Stable bottom-up merge sort of {@link #positions} by start day. */
+    private void sortPositionsByStart() {
+        int n = positions.length;
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = events.get(positions[i]).getStartEpochDay();
+        }
+        int[] tmpPos = new int[n];
+        long[] tmpKeys = new long[n];
+        for (int width = 1; width < n; width *= 2) {
+            for (int lo = 0; lo < n - width; lo += 2 * width) {
+                int mid = lo + width;
+                int hi = Math.min(lo + 2 * width, n);
+                int a = lo, b = mid, t = lo;
+                while (a < mid && b < hi) {
+                    if (keys[b] < keys[a]) {
+                        tmpKeys[t] = keys[b];
+                        tmpPos[t++] = positions[b++];
+                    } else {
+                        tmpKeys[t] = keys[a];
+                        tmpPos[t++] = positions[a++];
+                    }
+                }
+                while (a < mid) { tmpKeys[t] = keys[a]; tmpPos[t++] = positions[a++]; }
+                while (b < hi) { tmpKeys[t] = keys[b]; tmpPos[t++] = positions[b++]; }
+                System.arraycopy(tmpKeys, lo, keys, lo, hi - lo);
+                System.arraycopy(tmpPos, lo, positions, lo, hi - lo);
+            }
+        }
+    }
+}
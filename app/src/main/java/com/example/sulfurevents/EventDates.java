@@ -0,0 +1,164 @@
+package com.example.sulfurevents;
+
+import java.util.Calendar;
+
+/**
+ * Allocation-free helpers for the event date strings stored in Firestore.
+ * <p>
+ * Events store {@code startDate}/{@code endDate} as {@code MM/dd/yyyy} strings (older
+ * documents sometimes use {@code MM/dd/yy}). Instead of running them through
+ * {@link java.text.SimpleDateFormat} every time a list is filtered or bound, they are
+ * converted once into an <em>epoch day</em>: the number of days since 01/01/1970.
+ * Epoch days can be compared with plain {@code <}/{@code >}, need no time zone, and
+ * make inclusive day ranges trivial.
+ *
+ * <p>Parsing rules:
+ * <ul>
+ *   <li>Month and day may have one or two digits; the year may have two or four.</li>
+ *   <li>A two-digit year is resolved like {@code SimpleDateFormat("yy")}: to the century
+ *       that places it within 80 years before and 20 years after the current year.</li>
+ *   <li>Impossible dates (e.g. 02/30/2025) are rejected instead of rolling over.</li>
+ *   <li>Anything that cannot be parsed yields {@link #NO_DATE}.</li>
+ * </ul>
+ */
+public final class EventDates {
+
+    /** Returned when a date string is missing or cannot be parsed. */
+    public static final long NO_DATE = Long.MIN_VALUE;
+
+    /** Current year, used to resolve two-digit years. */
+    private static final int CURRENT_YEAR = Calendar.getInstance().get(Calendar.YEAR);
+
+    private EventDates() { }
+
+    /**
+     * Parses an {@code MM/dd/yyyy} or {@code MM/dd/yy} string into an epoch day.
+     *
+     * @param s the date string (may be null)
+     * @return days since 01/01/1970, or {@link #NO_DATE} if the string is not a valid date
+     */
+    public static long parseEpochDay(String s) {
+        if (s == null) return NO_DATE;
+
+        int len = s.length();
+        int i = 0;
+        while (i < len && s.charAt(i) == ' ') i++;
+
+        // month
+        int month = 0, digits = 0;
+        while (i < len && isDigit(s.charAt(i)) && digits < 2) {
+            month = month * 10 + (s.charAt(i++) - '0');
+            digits++;
+        }
+        if (digits == 0 || i >= len || s.charAt(i++) != '/') return NO_DATE;
+
+        // day
+        int day = 0;
+        digits = 0;
+        while (i < len && isDigit(s.charAt(i)) && digits < 2) {
+            day = day * 10 + (s.charAt(i++) - '0');
+            digits++;
+        }
+        if (digits == 0 || i >= len || s.charAt(i++) != '/') return NO_DATE;
+
+        // year
+        int year = 0;
+        digits = 0;
+        while (i < len && isDigit(s.charAt(i)) && digits < 4) {
+            year = year * 10 + (s.charAt(i++) - '0');
+            digits++;
+        }
+        if (digits != 2 && digits != 4) return NO_DATE;
+        // Only trailing whitespace is allowed after the year
+        while (i < len) {
+            if (s.charAt(i++) != ' ') return NO_DATE;
+        }
+
+        if (digits == 2) {
+            year = resolveTwoDigitYear(year);
+        }
+
+        if (month < 1 || month > 12) return NO_DATE;
+        if (day < 1 || day > daysInMonth(year, month)) return NO_DATE;
+
+        return toEpochDay(year, month, day);
+    }
+
+    /**
+     * Converts a civil date to an epoch day (proleptic Gregorian calendar).
+     *
+     * @param year  full year, e.g. 2025
+     * @param month 1-12
+     * @param day   1-31
+     * @return days since 01/01/1970
+     */
+    public static long toEpochDay(int year, int month, int day) {
+        // Shift the year so it starts in March; leap day becomes the last day of the year
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yoe = y - era * 400;                                   // [0, 399]
+        long doy = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1; // [0, 365]
+        long doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;           // [0, 146096]
+        return era * 146097 + doe - 719468;
+    }
+
+    /**
+     * Returns the epoch day for the current local date.
+     *
+     * @return today's epoch day
+     */
+    public static long today() {
+        Calendar cal = Calendar.getInstance();
+        return toEpochDay(cal.get(Calendar.YEAR),
+                cal.get(Calendar.MONTH) + 1,
+                cal.get(Calendar.DAY_OF_MONTH));
+    }
+
+    /**
+     * Formats the month and day of an epoch day as {@code MM/dd}.
+     *
+     * @param epochDay days since 01/01/1970
+     * @return e.g. "12/25", or an empty string for {@link #NO_DATE}
+     */
+    public static String monthDay(long epochDay) {
+        if (epochDay == NO_DATE) return "";
+        // Inverse of toEpochDay
+        long z = epochDay + 719468;
+        long era = Math.floorDiv(z, 146097);
+        long doe = z - era * 146097;
+        long yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+        long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        long mp = (5 * doy + 2) / 153;
+        int day = (int) (doy - (153 * mp + 2) / 5 + 1);
+        int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+
+        char[] out = {
+                (char) ('0' + month / 10), (char) ('0' + month % 10), '/',
+                (char) ('0' + day / 10), (char) ('0' + day % 10)
+        };
+        return new String(out);
+    }
+
+    private static int resolveTwoDigitYear(int yy) {
+        int low = CURRENT_YEAR - 80;
+        int year = (low / 100) * 100 + yy;
+        if (year < low) year += 100;
+        return year;
+    }
+
+    private static int daysInMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+                return leap ? 29 : 28;
+            case 4: case 6: case 9: case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
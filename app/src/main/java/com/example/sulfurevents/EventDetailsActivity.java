@@ -16,6 +16,7 @@ import android.widget.ProgressBar;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.app.ActivityCompat;
@@ -23,7 +24,7 @@ import androidx.core.content.ContextCompat;
 
 import com.bumptech.glide.Glide;
 import com.google.android.gms.location.*;
-import com.google.firebase.firestore.FieldValue;
+import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.firestore.FirebaseFirestore;
 
 import java.text.SimpleDateFormat;
@@ -52,6 +53,12 @@ public class EventDetailsActivity extends AppCompatActivity {
     /** Firestore database reference. */
     private FirebaseFirestore db;
 
+    /** Shared cache of event documents; reads go through it instead of one-off gets. */
+    private EventRepository eventRepository;
+
+    /** Sends join/leave/accept/decline in the background; the screen updates at once. */
+    private EntrantActionQueue actionQueue;
+
     /** Unique device identifier for the current entrant. */
     private String deviceID;
 
@@ -92,6 +99,8 @@ public class EventDetailsActivity extends AppCompatActivity {
         setContentView(R.layout.event_details_activity);
 
         db = FirebaseFirestore.getInstance();
+        eventRepository = EventRepository.getInstance();
+        actionQueue = EntrantActionQueue.getInstance(this);
         deviceID = Settings.Secure.getString(getContentResolver(), Settings.Secure.ANDROID_ID);
         fusedLocationClient = LocationServices.getFusedLocationProviderClient(this);
 
@@ -111,6 +120,46 @@ public class EventDetailsActivity extends AppCompatActivity {
         });
     }
 
+    /**
+     * Hears the outcome of queued entrant actions while the screen is visible.
+     */
+    @Override
+    protected void onStart() {
+        super.onStart();
+        actionQueue.addListener(actionListener);
+    }
+
+    @Override
+    protected void onStop() {
+        super.onStop();
+        actionQueue.removeListener(actionListener);
+    }
+
+    /**
+     * Runs the follow-up work of applied actions and undoes the optimistic state of
+     * rejected ones. Outcomes may belong to another event than the one shown.
+     */
+    private final EntrantActionQueue.Listener actionListener = new EntrantActionQueue.Listener() {
+        @Override
+        public void onApplied(EntrantAction action, @Nullable WaitlistEngine.Result result) {
+            if (action.type == EntrantAction.Type.ACCEPT) {
+                checkAndNotifyNotSelectedIfFull(action.eventId, action.eventName);
+            } else if (action.type == EntrantAction.Type.DECLINE) {
+                drawReplacementAfterDecline(action.eventId);
+            }
+            if (action.eventId.equals(eventId) && result != null) {
+                showTotalEntrants(result.counts);
+            }
+        }
+
+        @Override
+        public void onRejected(EntrantAction action, String reason) {
+            if (!action.eventId.equals(eventId)) return;
+            showStyledDialog("Error", reason);
+            checkWaitingListStatus();
+        }
+    };
+
     /**
      * Binds all view references to UI elements from the layout.
      */
@@ -243,17 +292,30 @@ public class EventDetailsActivity extends AppCompatActivity {
      *     <li>Displays the total number of waiting list entrants.</li>
      *     <li>Refreshes the state of buttons.</li>
      * </ul>
+     * The total comes from the event's entrant counter (see {@link EntrantStore#counts}),
+     * so it costs one read per counter shard however long the list is. In sharded storage
+     * the entrant's status is read from their own entries as well. Actions still in
+     * {@link EntrantActionQueue} are applied on top of the status read.
      */
+    @SuppressWarnings("unchecked")
     private void checkWaitingListStatus() {
         progressBar.setVisibility(View.VISIBLE);
         joinLeaveButton.setEnabled(false);
 
-        db.collection("Events").document(eventId)
-                .get()
-                .addOnSuccessListener(doc -> {
-                    if (doc.exists()) {
-                        updateFlags(doc);
-                        totalEntrantsText.setText("Total Entrants: " + getWaitingList(doc).size());
+        eventRepository.getEvent(eventId)
+                .continueWithTask(task -> {
+                    com.google.firebase.firestore.DocumentSnapshot doc = task.getResult();
+                    if (!doc.exists()) return Tasks.<List<Object>>forResult(null);
+                    Boolean geoEnabled = doc.getBoolean("geolocationEnabled");
+                    geolocationEnabled = geoEnabled != null && geoEnabled;
+                    return Tasks.<Object>whenAllSuccess(
+                            EntrantStore.statusesOf(doc, deviceID), EntrantStore.counts(doc));
+                })
+                .addOnSuccessListener(results -> {
+                    if (results != null) {
+                        updateFlags(actionQueue.statusesOf(eventId, deviceID, (Set<String>) results.get(0)));
+                        EntrantCounts counts = (EntrantCounts) results.get(1);
+                        totalEntrantsText.setText("Total Entrants: " + counts.waiting());
                     }
                     progressBar.setVisibility(View.GONE);
                     joinLeaveButton.setEnabled(true);
@@ -267,44 +329,15 @@ public class EventDetailsActivity extends AppCompatActivity {
     }
 
     /**
-     * Updates internal flags for this entrant based on the event document.
+     * Updates internal flags for this entrant from their statuses in the event.
      *
-     * @param doc Firestore event document
+     * @param statuses the entrant's {@link Memberships} statuses, from {@link EntrantStore#statusesOf}
      */
-    private void updateFlags(com.google.firebase.firestore.DocumentSnapshot doc) {
-        isOnWaitingList = getWaitingList(doc).contains(deviceID);
-        isInvited = getInvitedList(doc).contains(deviceID);
-        isEnrolled = getEnrolledList(doc).contains(deviceID);
-        isCancelled = getCancelledList(doc).contains(deviceID);
-        Boolean geoEnabled = doc.getBoolean("geolocationEnabled");
-        geolocationEnabled = geoEnabled != null && geoEnabled;
-    }
-
-    /**
-     * Helper to get the waiting list of an event, supporting both
-     * {@code waiting_list} and {@code waitingList} field names.
-     */
-    private List<String> getWaitingList(com.google.firebase.firestore.DocumentSnapshot doc) {
-        List<String> list = (List<String>) (doc.get("waiting_list") != null ? doc.get("waiting_list") : doc.get("waitingList"));
-        return list != null ? list : new ArrayList<>();
-    }
-
-    /** Helper to get invited_list with legacy field name support. */
-    private List<String> getInvitedList(com.google.firebase.firestore.DocumentSnapshot doc) {
-        List<String> list = (List<String>) (doc.get("invited_list") != null ? doc.get("invited_list") : doc.get("invitedList"));
-        return list != null ? list : new ArrayList<>();
-    }
-
-    /** Helper to get enrolled_list with legacy field name support. */
-    private List<String> getEnrolledList(com.google.firebase.firestore.DocumentSnapshot doc) {
-        List<String> list = (List<String>) (doc.get("enrolled_list") != null ? doc.get("enrolled_list") : doc.get("enrolledList"));
-        return list != null ? list : new ArrayList<>();
-    }
-
-    /** Helper to get cancelled_list with legacy field name support. */
-    private List<String> getCancelledList(com.google.firebase.firestore.DocumentSnapshot doc) {
-        List<String> list = (List<String>) (doc.get("cancelled_list") != null ? doc.get("cancelled_list") : doc.get("cancelledList"));
-        return list != null ? list : new ArrayList<>();
+    private void updateFlags(Set<String> statuses) {
+        isOnWaitingList = statuses.contains(Memberships.WAITING);
+        isInvited = statuses.contains(Memberships.INVITED);
+        isEnrolled = statuses.contains(Memberships.ENROLLED);
+        isCancelled = statuses.contains(Memberships.CANCELLED);
     }
 
     /**
@@ -366,64 +399,33 @@ public class EventDetailsActivity extends AppCompatActivity {
 
     /**
      * Joins the waiting list when geolocation is <b>not</b> enabled for this event.
-     * Performs capacity checks before updating Firestore.
      */
     private void addToWaitingListWithoutLocation() {
-        db.collection("Events").document(eventId)
-                .get()
-                .addOnSuccessListener(doc -> {
-                    if (!doc.exists()) {
-                        showStyledDialog("Error", "Event not found");
-                        progressBar.setVisibility(View.GONE);
-                        joinLeaveButton.setEnabled(true);
-                        return;
-                    }
-                    List<String> waiting = getWaitingList(doc);
-                    int limit = parseLimit(doc.getString("waitingListLimit"));
-                    if (limit > 0 && waiting.size() >= limit) {
-                        showStyledDialog("Waitlist Full", "The waiting list is full");
-                        progressBar.setVisibility(View.GONE);
-                        joinLeaveButton.setEnabled(true);
-                        return;
-                    }
+        queueJoin(EntrantAction.join(eventId, deviceID, eventNameText.getText().toString()));
+    }
 
-                    db.collection("Events").document(eventId)
-                            .update("waiting_list", FieldValue.arrayUnion(deviceID))
-                            .addOnSuccessListener(aVoid -> {
-                                progressBar.setVisibility(View.GONE);
-                                joinLeaveButton.setEnabled(true);
-                                isOnWaitingList = true;
-                                updateButtonState();
-
-                                showStyledDialog("Success", "Successfully Joined Waiting List!");
-                                createJoinNotification(eventNameText.getText().toString());
-
-                                checkWaitingListStatus();
-                            })
-                            .addOnFailureListener(e -> {
-                                progressBar.setVisibility(View.GONE);
-                                joinLeaveButton.setEnabled(true);
-                                showStyledDialog("Error", "Failed to join waiting list");
-                            });
-                })
-                .addOnFailureListener(e -> {
-                    progressBar.setVisibility(View.GONE);
-                    joinLeaveButton.setEnabled(true);
-                    showStyledDialog("Error", "Failed to load event");
-                });
+    /**
+     * Queues a join and shows the entrant on the waiting list right away. The capacity
+     * check runs when the join is sent (see {@link WaitlistEngine}); a full list is
+     * reported through {@link #actionListener}.
+     */
+    private void queueJoin(EntrantAction join) {
+        actionQueue.enqueue(join);
+        progressBar.setVisibility(View.GONE);
+        isOnWaitingList = true;
+        updateButtonState();
+        showStyledDialog("Success", "Successfully Joined Waiting List!");
     }
 
     /**
-     * Parses a string waiting list limit, returning -1 if not set or invalid.
-     *
-     * @param str waitingListLimit field
-     * @return integer limit, or -1 if unlimited/invalid
+     * Shows the waiting list total returned with a join or leave, or reloads it if the
+     * transaction did not count.
      */
-    private int parseLimit(String str) {
-        try {
-            return str != null ? Integer.parseInt(str.trim()) : -1;
-        } catch (Exception e) {
-            return -1;
+    private void showTotalEntrants(@Nullable EntrantCounts counts) {
+        if (counts != null) {
+            totalEntrantsText.setText("Total Entrants: " + counts.waiting());
+        } else {
+            checkWaitingListStatus();
         }
     }
 
@@ -477,172 +479,27 @@ public class EventDetailsActivity extends AppCompatActivity {
     }
 
     /**
-     * Saves the entrant's registration location in the event's subcollection.
-     *
-     * @param lat latitude (nullable)
-     * @param lng longitude (nullable)
-     */
-    private void saveRegistrationLocation(Double lat, Double lng) {
-        Map<String, Object> data = new HashMap<>();
-        data.put("deviceId", deviceID);
-        data.put("timestamp", com.google.firebase.Timestamp.now());
-        data.put("latitude", lat);
-        data.put("longitude", lng);
-        data.put("hasLocation", lat != null && lng != null);
-
-        db.collection("Events").document(eventId).collection("entrant_registration_location")
-                .document(deviceID).set(data)
-                .addOnSuccessListener(aVoid -> {
-                    progressBar.setVisibility(View.GONE);
-                    joinLeaveButton.setEnabled(true);
-                    isOnWaitingList = true;
-                    updateButtonState();
-                    showStyledDialog("Success", "Successfully Joined Waiting List!");
-                    createJoinNotification(eventNameText.getText().toString());
-                    checkWaitingListStatus();
-                })
-                .addOnFailureListener(e -> {
-                    progressBar.setVisibility(View.GONE);
-                    joinLeaveButton.setEnabled(true);
-                    isOnWaitingList = true;
-                    updateButtonState();
-                    showStyledDialog("Partial Success", "Joined waiting list (location not saved)");
-                    createJoinNotification(eventNameText.getText().toString());
-                    checkWaitingListStatus();
-                });
-    }
-
-    /**
-     * Joins the waiting list when geolocation is enabled: checks capacity and then
-     * saves the user into the {@code waiting_list} and location subcollection.
+     * Joins the waiting list when geolocation is enabled; the registration location is
+     * stored by the same transaction as the join.
      *
      * @param lat latitude (nullable)
      * @param lng longitude (nullable)
      */
     private void addToWaitingListWithLocation(Double lat, Double lng) {
-        db.collection("Events").document(eventId)
-                .get()
-                .addOnSuccessListener(doc -> {
-                    if (!doc.exists()) {
-                        progressBar.setVisibility(View.GONE);
-                        joinLeaveButton.setEnabled(true);
-                        showStyledDialog("Error", "Event not found");
-                        return;
-                    }
-
-                    List<String> waiting = (List<String>) (
-                            doc.get("waiting_list") != null ?
-                                    doc.get("waiting_list") :
-                                    doc.get("waitingList")
-                    );
-                    if (waiting == null) waiting = new ArrayList<>();
-
-                    String waitingLimitStr = doc.getString("waitingListLimit");
-                    int waitingLimit = -1;
-
-                    if (waitingLimitStr != null && !waitingLimitStr.isEmpty()) {
-                        try {
-                            waitingLimit = Integer.parseInt(waitingLimitStr.trim());
-                        } catch (NumberFormatException ignored) {
-                            waitingLimit = -1;
-                        }
-                    }
-
-                    // Enforce waiting list limit
-                    if (waitingLimit > 0 && waiting.size() >= waitingLimit) {
-                        progressBar.setVisibility(View.GONE);
-                        joinLeaveButton.setEnabled(true);
-                        showStyledDialog("Waitlist Full", "The waiting list is full for this event");
-                        return;
-                    }
-
-                    // Add user to waiting_list array
-                    db.collection("Events").document(eventId)
-                            .update("waiting_list", FieldValue.arrayUnion(deviceID))
-                            .addOnSuccessListener(aVoid -> saveRegistrationLocation(lat, lng))
-                            .addOnFailureListener(e -> {
-                                progressBar.setVisibility(View.GONE);
-                                joinLeaveButton.setEnabled(true);
-                                showStyledDialog("Error", "Failed to join waiting list");
-                            });
-                })
-                .addOnFailureListener(e -> {
-                    progressBar.setVisibility(View.GONE);
-                    joinLeaveButton.setEnabled(true);
-                    showStyledDialog("Error", "Failed to load event");
-                });
+        queueJoin(EntrantAction.joinWithLocation(eventId, deviceID,
+                eventNameText.getText().toString(), lat, lng));
     }
 
     /**
-     * Removes the entrant from the event's waiting list.
-     * If geolocation was enabled, removes the stored registration location as well.
+     * Removes the entrant from the event's waiting list, together with any stored
+     * registration location. The screen updates at once; the leave is sent by
+     * {@link EntrantActionQueue}.
      */
     private void leaveWaitingList() {
-        progressBar.setVisibility(View.VISIBLE);
-        joinLeaveButton.setEnabled(false);
-
-        db.collection("Events").document(eventId)
-                .update("waiting_list", FieldValue.arrayRemove(deviceID))
-                .addOnSuccessListener(aVoid -> {
-                    // Successfully removed from waiting list
-                    if (geolocationEnabled) {
-                        deleteRegistrationLocation();
-                    } else {
-                        progressBar.setVisibility(View.GONE);
-                        joinLeaveButton.setEnabled(true);
-                        isOnWaitingList = false;
-                        updateButtonState();
-                        new androidx.appcompat.app.AlertDialog.Builder(this)
-                                .setMessage("Successfully left waiting list!")
-                                .setPositiveButton("OK", null)
-                                .show();
-
-                        String eventName = eventNameText.getText().toString();
-                        createLeaveNotification(eventName);
-
-                        checkWaitingListStatus(); // Refresh count
-                    }
-
-                })
-                .addOnFailureListener(e -> {
-                    progressBar.setVisibility(View.GONE);
-                    joinLeaveButton.setEnabled(true);
-                    showStyledDialog("Error", "Failed to leave waiting list");
-                });
-    }
-
-    /**
-     * Deletes the entrant's stored registration location (if any) and
-     * then updates UI and notifications accordingly.
-     */
-    private void deleteRegistrationLocation() {
-        db.collection("Events").document(eventId)
-                .collection("entrant_registration_location").document(deviceID)
-                .delete()
-                .addOnSuccessListener(aVoid -> {
-                    progressBar.setVisibility(View.GONE);
-                    joinLeaveButton.setEnabled(true);
-                    isOnWaitingList = false;
-                    updateButtonState();
-                    showStyledDialog("Success", "Successfully left the waiting list!");
-
-                    String eventName = eventNameText.getText().toString();
-                    createLeaveNotification(eventName);
-
-                    checkWaitingListStatus();
-                })
-                .addOnFailureListener(e -> {
-                    progressBar.setVisibility(View.GONE);
-                    joinLeaveButton.setEnabled(true);
-                    isOnWaitingList = false;
-                    updateButtonState();
-                    showStyledDialog("Partial Success", "Left waiting list (location data may remain)");
-
-                    String eventName = eventNameText.getText().toString();
-                    createLeaveNotification(eventName);
-
-                    checkWaitingListStatus();
-                });
+        actionQueue.enqueue(EntrantAction.leave(eventId, deviceID, eventNameText.getText().toString()));
+        isOnWaitingList = false;
+        updateButtonState();
+        showStyledDialog("Success", "Successfully left the waiting list!");
     }
 
     /**
@@ -655,7 +512,6 @@ public class EventDetailsActivity extends AppCompatActivity {
         isOnWaitingList = false;
         updateButtonState();
         showStyledDialog("Success", "Successfully Left Waiting List!");
-        createLeaveNotification(eventNameText.getText().toString());
         checkWaitingListStatus();
     }
 
@@ -755,8 +611,7 @@ public class EventDetailsActivity extends AppCompatActivity {
      * and triggers a status refresh once loaded.
      */
     private void loadEventDetailsFromFirestore() {
-        db.collection("Events").document(eventId)
-                .get()
+        eventRepository.getEvent(eventId)
                 .addOnSuccessListener(doc -> {
                     if (!doc.exists()) {
                         showStyledDialog("Error", "Event not found");
@@ -771,113 +626,56 @@ public class EventDetailsActivity extends AppCompatActivity {
                 .addOnFailureListener(e -> showStyledDialog("Error", "Error loading event"));
     }
 
-    // --- Notification helper methods ---
-
-    /** Creates a "joined waiting list" notification for the entrant. */
-    private void createJoinNotification(String eventName) {
-        createNotification("WAITING", "You joined the waiting list for " + eventName);
-    }
-
-    /** Creates a "left waiting list" notification for the entrant. */
-    private void createLeaveNotification(String eventName) {
-        createNotification("LEFT_WAITLIST", "You left the waiting list for " + eventName);
-    }
-
-    /** Creates an "enrolled" notification after accepting an invite. */
-    private void createAcceptNotification(String eventName) {
-        createNotification("ENROLLED", "You accepted the invitation and are now enrolled in " + eventName);
-    }
-
-    /** Creates a "declined invitation" notification. */
-    private void createDeclineNotification(String eventName) {
-        createNotification("CANCELLED", "You declined the invitation for " + eventName);
-    }
-
-    /**
-     * Writes a notification document under {@code Profiles/{deviceId}/notifications}.
-     *
-     * @param type    logical notification type (WAITING, ENROLLED, etc.)
-     * @param message human-readable message for the entrant
-     */
-    private void createNotification(String type, String message) {
-        Map<String, Object> notif = new HashMap<>();
-        notif.put("eventId", eventId);
-        notif.put("eventName", eventNameText.getText().toString());
-        notif.put("type", type);
-        notif.put("message", message);
-        notif.put("timestamp", System.currentTimeMillis());
-        notif.put("read", false);
-        db.collection("Profiles").document(deviceID).collection("notifications").add(notif);
-    }
-
     /**
      * Handles logic when an entrant accepts an event invitation:
      * <ul>
-     *     <li>Moves them from {@code invited_list} to {@code enrolled_list}.</li>
-     *     <li>Updates UI flags and shows a success dialog.</li>
-     *     <li>Checks if the event is now full to notify remaining waitlist users.</li>
+     *     <li>Queues the move from {@code invited_list} to {@code enrolled_list}.</li>
+     *     <li>Updates UI flags and shows a success dialog right away.</li>
+     *     <li>Once applied, checks if the event is now full to notify remaining waitlist
+     *     users (see {@link #actionListener}).</li>
      * </ul>
      */
     private void acceptInvitation() {
-        progressBar.setVisibility(View.VISIBLE);
-        db.collection("Events").document(eventId)
-                .update("invited_list", FieldValue.arrayRemove(deviceID),
-                        "enrolled_list", FieldValue.arrayUnion(deviceID))
-                .addOnSuccessListener(aVoid -> {
-                    progressBar.setVisibility(View.GONE);
-                    isInvited = false;
-                    isEnrolled = true;
-                    updateButtonState();
-                    createAcceptNotification(eventNameText.getText().toString());
-                    showStyledDialog("Success", "Invitation accepted");
-                    checkAndNotifyNotSelectedIfFull(eventId);
-                }).addOnFailureListener(e -> {
-                    progressBar.setVisibility(View.GONE);
-                    showStyledDialog("Error", "Couldn't accept invitation");
-                });
+        actionQueue.enqueue(EntrantAction.accept(eventId, deviceID, eventNameText.getText().toString()));
+        isInvited = false;
+        isEnrolled = true;
+        updateButtonState();
+        showStyledDialog("Success", "Invitation accepted");
     }
 
     /**
      * Handles logic when an entrant declines an event invitation:
      * <ul>
-     *     <li>Moves them from {@code invited_list} to {@code cancelled_list}.</li>
-     *     <li>Triggers draw for a replacement from the waiting list.</li>
+     *     <li>Queues the move from {@code invited_list} to {@code cancelled_list}.</li>
+     *     <li>Once applied, triggers a draw for a replacement from the waiting list.</li>
      * </ul>
      */
     private void declineInvitation() {
-        progressBar.setVisibility(View.VISIBLE);
-        db.collection("Events").document(eventId)
-                .update("invited_list", FieldValue.arrayRemove(deviceID),
-                        "cancelled_list", FieldValue.arrayUnion(deviceID))
-                .addOnSuccessListener(aVoid -> {
-                    progressBar.setVisibility(View.GONE);
-                    isInvited = false;
-                    isCancelled = true;
-                    updateButtonState();
-                    createDeclineNotification(eventNameText.getText().toString());
-                    showStyledDialog("Invitation Declined", "Invitation declined");
-                    drawReplacementAfterDecline();
-                }).addOnFailureListener(e -> {
-                    progressBar.setVisibility(View.GONE);
-                    showStyledDialog("Error", "Couldn't decline invitation");
-                });
+        actionQueue.enqueue(EntrantAction.decline(eventId, deviceID, eventNameText.getText().toString()));
+        isInvited = false;
+        isCancelled = true;
+        updateButtonState();
+        showStyledDialog("Invitation Declined", "Invitation declined");
     }
 
     /**
      * When an invite is declined, this method pulls the next entrant in the waiting list
      * (if capacity allows) and moves them directly into {@code enrolled_list}.
+     *
+     * @param eventId ID of the event whose invitation was declined
      */
-    private void drawReplacementAfterDecline() {
-        db.collection("Events").document(eventId).get().addOnSuccessListener(doc -> {
-            List<String> waitingList = getWaitingList(doc);
-            int limit = parseLimit(doc.getString("waitingListLimit"));
-            List<String> enrolled = getEnrolledList(doc);
-            int spotsAvailable = limit - enrolled.size();
-            if (spotsAvailable <= 0 || waitingList.isEmpty()) return;
-            String nextInLine = waitingList.get(0);
-            db.collection("Events").document(eventId)
-                    .update("waiting_list", FieldValue.arrayRemove(nextInLine),
-                            "enrolled_list", FieldValue.arrayUnion(nextInLine));
+    private void drawReplacementAfterDecline(String eventId) {
+        eventRepository.getServerEvent(eventId).addOnSuccessListener(doc -> {
+            int limit = WaitlistEngine.parseLimit(doc.getString("waitingListLimit"));
+            EntrantStore.lists(doc).addOnSuccessListener(lists -> {
+                List<String> waitingList = lists.get(Memberships.WAITING);
+                List<String> enrolled = lists.get(Memberships.ENROLLED);
+                int spotsAvailable = limit - enrolled.size();
+                if (spotsAvailable <= 0 || waitingList.isEmpty()) return;
+                String nextInLine = waitingList.get(0);
+                Memberships.move(db, eventId, Collections.singletonList(nextInLine),
+                        Memberships.WAITING, Memberships.ENROLLED);
+            });
         });
     }
 
@@ -885,24 +683,25 @@ public class EventDetailsActivity extends AppCompatActivity {
      * Checks if the event has reached its enrollment limit and, if so,
      * sends "NOT_SELECTED" notifications to all remaining waiting-list entrants.
      *
-     * @param eventId ID of the event being checked
+     * @param eventId   ID of the event being checked
+     * @param eventName name used in the notification message
      */
-    private void checkAndNotifyNotSelectedIfFull(String eventId) {
-        db.collection("Events").document(eventId).get().addOnSuccessListener(doc -> {
-            List<String> waitingList = getWaitingList(doc);
-            int limit = parseLimit(doc.getString("waitingListLimit"));
-            List<String> enrolled = getEnrolledList(doc);
-            if (enrolled.size() >= limit) {
-                for (String id : waitingList) {
+    private void checkAndNotifyNotSelectedIfFull(String eventId, String eventName) {
+        eventRepository.getServerEvent(eventId).addOnSuccessListener(doc -> {
+            int limit = WaitlistEngine.parseLimit(doc.getString("waitingListLimit"));
+            EntrantStore.lists(doc).addOnSuccessListener(lists -> {
+                List<String> waitingList = lists.get(Memberships.WAITING);
+                List<String> enrolled = lists.get(Memberships.ENROLLED);
+                if (enrolled.size() >= limit) {
                     Map<String, Object> notif = new HashMap<>();
                     notif.put("eventId", eventId);
                     notif.put("type", "NOT_SELECTED");
-                    notif.put("message", "You were not selected for " + eventNameText.getText().toString());
+                    notif.put("message", "You were not selected for " + eventName);
                     notif.put("timestamp", System.currentTimeMillis());
                     notif.put("read", false);
-                    db.collection("Profiles").document(id).collection("notifications").add(notif);
+                    NotificationCounters.sendAll(waitingList, notif);
                 }
-            }
+            });
         });
     }
 }
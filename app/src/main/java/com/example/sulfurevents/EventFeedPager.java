@@ -0,0 +1,159 @@
+package com.example.sulfurevents;
+
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QueryDocumentSnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cursor-based pager over the {@code Events} collection used by the entrant event feed.
+ * <p>
+ * Instead of downloading the whole collection on every screen open, events are read
+ * in pages of {@code pageSize} documents ordered by document ID. Each page continues
+ * from the last snapshot of the previous one with {@code startAfter}, so the cost of
+ * showing the first rows does not depend on how many events exist.
+ *
+ * <p>Usage:
+ * <ul>
+ *   <li>Call {@link #loadNextPage(OnPageLoadedListener)} once to get the first page.</li>
+ *   <li>Call it again when the list nears its end; calls made while a page is in flight
+ *       or after the last page has been reached are ignored.</li>
+ *   <li>Call {@link #reset()} to start over from the beginning.</li>
+ * </ul>
+ */
+public class EventFeedPager {
+
+    /** Default number of events fetched per page. */
+    public static final int DEFAULT_PAGE_SIZE = 20;
+
+    /**
+     * Callback for page results.
+     */
+    public interface OnPageLoadedListener {
+        /**
+         * Called with the events of a newly loaded page.
+         *
+         * @param page      events in this page, in feed order (may be empty)
+         * @param firstPage true if this is the first page since creation or {@link #reset()}
+         * @param hasMore   false once the end of the collection has been reached
+         */
+        void onPageLoaded(List<EventModel> page, boolean firstPage, boolean hasMore);
+
+        /**
+         * Called when the page query fails. The pager can be retried.
+         *
+         * @param e the Firestore error
+         */
+        void onError(Exception e);
+    }
+
+    private final FirebaseFirestore db;
+    private final int pageSize;
+
+    private DocumentSnapshot lastSnapshot = null;
+    private boolean loading = false;
+    private boolean hasMore = true;
+    // Bumped by reset(); pages requested under an older generation are dropped
+    private int generation = 0;
+
+    /**
+     * Creates a pager with {@link #DEFAULT_PAGE_SIZE}.
+     *
+     * @param db Firestore instance
+     */
+    public EventFeedPager(FirebaseFirestore db) {
+        this(db, DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * Creates a pager with a custom page size.
+     *
+     * @param db       Firestore instance
+     * @param pageSize number of events per page (must be positive)
+     */
+    public EventFeedPager(FirebaseFirestore db, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("pageSize must be positive");
+        }
+        this.db = db;
+        this.pageSize = pageSize;
+    }
+
+    /** @return number of events requested per page */
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /** @return true while a page query is in flight */
+    public boolean isLoading() {
+        return loading;
+    }
+
+    /** @return false once the last page has been delivered */
+    public boolean hasMore() {
+        return hasMore;
+    }
+
+    /**
+     * Forgets the current cursor so the next call starts again from the first page.
+     * A page that is still in flight is discarded when it arrives and the next call is not
+     * blocked by it, so callers can reload right after resetting.
+     */
+    public void reset() {
+        generation++;
+        lastSnapshot = null;
+        hasMore = true;
+        loading = false;
+    }
+
+    /**
+     * Fetches the next page of events, if one may exist and none is already loading.
+     *
+     * @param listener receives the page or the error
+     */
+    public void loadNextPage(OnPageLoadedListener listener) {
+        if (loading || !hasMore) return;
+        loading = true;
+
+        final boolean firstPage = lastSnapshot == null;
+        final int requestGeneration = generation;
+
+        Query query = db.collection("Events")
+                .orderBy(FieldPath.documentId())
+                .limit(pageSize);
+        if (!firstPage) {
+            query = query.startAfter(lastSnapshot);
+        }
+
+        query.get()
+                .addOnSuccessListener(querySnapshot -> {
+                    if (requestGeneration != generation) return; // reset while in flight
+                    loading = false;
+
+                    List<EventModel> page = new ArrayList<>();
+                    for (QueryDocumentSnapshot document : querySnapshot) {
+                        EventModel event = document.toObject(EventModel.class);
+                        event.setEventId(document.getId());
+                        page.add(event);
+                    }
+
+                    List<DocumentSnapshot> docs = querySnapshot.getDocuments();
+                    if (!docs.isEmpty()) {
+                        lastSnapshot = docs.get(docs.size() - 1);
+                    }
+                    // A short page means we've reached the end of the collection
+                    hasMore = docs.size() == pageSize;
+
+                    listener.onPageLoaded(page, firstPage, hasMore);
+                })
+                .addOnFailureListener(e -> {
+                    if (requestGeneration != generation) return;
+                    loading = false;
+                    listener.onError(e);
+                });
+    }
+}
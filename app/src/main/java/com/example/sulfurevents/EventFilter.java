@@ -2,10 +2,8 @@ package com.example.sulfurevents;
 
 import android.util.Log;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Date;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Locale;
 
@@ -17,30 +15,34 @@ import java.util.Locale;
  * - Availability: Checks if a chosen date falls within the event's date range
  *
  * Date availability checking uses a two-step approach:
- * 1. Attempts proper date parsing (MM/dd/yyyy and MM/dd/yy) and range validation
- * 2. Falls back to simple month/day string matching if parsing fails, ensuring
- *    events with dates like "12/12/12" or "12/12/2012" still match "12/12" filters
+ * 1. Compares the filter day against the epoch days that {@link EventModel} pre-parsed
+ *    from its MM/dd/yyyy or MM/dd/yy strings (see {@link EventDates}); no date parsing
+ *    or Date allocation happens per event
+ * 2. Falls back to simple month/day string matching for events whose dates could not be
+ *    parsed, ensuring odd values still match "12/12" style filters
+ *
+ * Keyword matching goes through an {@link EventKeywordIndex}: a query word matches an event
+ * when it is the start of a word in its name, description, or location.
+ *
+ * Callers that filter the same list repeatedly can pass prebuilt {@link EventKeywordIndex}
+ * and {@link EventDateIndex} instances so neither check re-reads event text or dates.
  */
 public final class EventFilter {
 
     /** Tag for logging */
     private static final String TAG = "EventFilter";
 
-    /** Date formatter for MM/dd/yyyy format (e.g., "12/25/2024") */
-    private static final SimpleDateFormat DF_YYYY =
-            new SimpleDateFormat("MM/dd/yyyy", Locale.getDefault());
-
-    /** Date formatter for MM/dd/yy format (e.g., "12/25/24") */
-    private static final SimpleDateFormat DF_YY =
-            new SimpleDateFormat("MM/dd/yy", Locale.getDefault());
-
-    /** Date formatter for MM/dd format (e.g., "12/25") used for fallback matching */
-    private static final SimpleDateFormat DF_MONTH_DAY =
-            new SimpleDateFormat("MM/dd", Locale.getDefault());
+    private EventFilter() { }
 
     /**
      * Filters a list of events based on keyword and date criteria.
      * Both filters are optional - passing null or empty strings will skip that filter.
+     * <p>
+     * A keyword search through this overload builds a new {@link EventKeywordIndex} over
+     * the whole list on every call, which costs as much as scanning every event's text.
+     * Callers that filter the same list repeatedly, e.g. on every keystroke, should build
+     * the index once and pass it to
+     * {@link #filter(List, EventKeywordIndex, EventDateIndex, String, String)}.
      *
      * @param allEvents  The complete list of events to filter
      * @param keyword    The keyword to search for in event name, description, or location (case-insensitive)
@@ -52,116 +54,102 @@ public final class EventFilter {
             String keyword,
             String dateString
     ) {
-        List<EventModel> result = new ArrayList<>();
-        Date filterDate = parseAnyDate(dateString);
-
-        for (EventModel e : allEvents) {
-            if (matches(e, keyword, filterDate, dateString)) {
-                result.add(e);
-            }
-        }
-        return result;
+        return filter(allEvents, null, null, keyword, dateString);
     }
 
     /**
-     * Checks if an event matches the specified keyword and date filters.
+     * Filters a list of events using prebuilt indexes for the keyword and availability checks.
      *
-     * @param event         The event to check
-     * @param keyword       The keyword to search for (null or empty to skip keyword filter)
-     * @param filterDate    The parsed date to check availability (null to skip date filter)
-     * @param rawDateString The original date string for fallback matching
-     * @return true if the event matches all specified filters, false otherwise
+     * @param allEvents    The complete list of events to filter
+     * @param keywordIndex Keyword index built over {@code allEvents} in the same order, or null to
+     *                     build one for this call only
+     * @param dateIndex    Date index built over {@code allEvents} in the same order, or null to scan
+     * @param keyword      The keyword to search for in event name, description, or location (case-insensitive)
+     * @param dateString   The date string to check availability (format: MM/dd/yyyy or MM/dd/yy)
+     * @return A filtered list containing only events that match all specified criteria, in list order
      */
-    private static boolean matches(
-            EventModel event,
+    public static List<EventModel> filter(
+            List<EventModel> allEvents,
+            EventKeywordIndex keywordIndex,
+            EventDateIndex dateIndex,
             String keyword,
-            Date filterDate,
-            String rawDateString
+            String dateString
     ) {
+        List<EventModel> result = new ArrayList<>();
+        int count = allEvents.size();
+
         // ---------- Interests: keyword search ----------
-        boolean matchesKeyword = true;
+        BitSet keywordMatches = null;
         if (keyword != null && !keyword.trim().isEmpty()) {
-            String k = keyword.trim().toLowerCase(Locale.getDefault());
-
-            // Combine name, description, and location into searchable text
-            String haystack = (safe(event.getEventName())
-                    + " " + safe(event.getDescription())
-                    + " " + safe(event.getLocation()))
-                    .toLowerCase(Locale.getDefault());
+            if (keywordIndex == null || keywordIndex.size() != count) {
+                keywordIndex = EventKeywordIndex.of(allEvents);
+            }
+            keywordMatches = keywordIndex.search(keyword);
+        }
 
-            matchesKeyword = haystack.contains(k);
+        long filterDay = EventDates.parseEpochDay(dateString);
+        if (filterDay == EventDates.NO_DATE && dateString != null && !dateString.trim().isEmpty()) {
+            Log.d(TAG, "Failed to parse date: '" + dateString + "'");
         }
 
         // ---------- Availability: date within range ----------
-        boolean matchesDate = true;
-        if (filterDate != null) {
-            String startStr = safe(event.getStartDate());
-            String endStr   = safe(event.getEndDate());
-
-            // Event must have both start and end dates
-            if (startStr.isEmpty() || endStr.isEmpty()) {
-                matchesDate = false;
-            } else {
-                Date start = parseAnyDate(startStr);
-                Date end   = parseAnyDate(endStr);
-
-                if (start != null && end != null) {
-                    // Proper date range check: filterDate must be between start and end (inclusive)
-                    long t = filterDate.getTime();
-                    matchesDate = !filterDate.before(start) && !filterDate.after(end);
+        // Only trust the index if it was built over this exact list
+        BitSet available = null;
+        BitSet unparsed = null;
+        if (filterDay != EventDates.NO_DATE && dateIndex != null && dateIndex.size() == count) {
+            available = dateIndex.availableOn(filterDay);
+            unparsed = dateIndex.unparsedPositions();
+        }
+
+        String monthDay = filterDay == EventDates.NO_DATE ? "" : EventDates.monthDay(filterDay);
+
+        for (int i = 0; i < count; i++) {
+            EventModel e = allEvents.get(i);
+
+            if (keywordMatches != null && !keywordMatches.get(i)) continue;
+
+            if (filterDay != EventDates.NO_DATE) {
+                boolean matchesDate;
+                if (available != null && !unparsed.get(i)) {
+                    matchesDate = available.get(i);
                 } else {
-                    // Fallback: If date parsing failed, do a simple MM/dd substring match
-                    // This ensures dates like "12/12/12" and "12/12/2012" both match "12/12"
-                    String monthDay = monthDayFrom(filterDate);
-                    matchesDate = startStr.contains(monthDay) || endStr.contains(monthDay);
-
-                    Log.d(TAG, "Fallback date match for '" + event.getEventName()
-                            + "': start=" + startStr + ", end=" + endStr
-                            + ", filter=" + rawDateString
-                            + ", monthDay=" + monthDay
-                            + ", matchesDate=" + matchesDate);
+                    matchesDate = matchesDate(e, filterDay, monthDay);
                 }
+                if (!matchesDate) continue;
             }
-        }
 
-        return matchesKeyword && matchesDate;
+            result.add(e);
+        }
+        return result;
     }
 
     /**
-     * Attempts to parse a date string using multiple formats.
-     * Tries MM/dd/yyyy first, then falls back to MM/dd/yy.
+     * Checks if the filter day falls within an event's date range (inclusive).
      *
-     * @param s The date string to parse
-     * @return The parsed Date object, or null if parsing fails
+     * @param event     The event to check
+     * @param filterDay The day to check, as an epoch day
+     * @param monthDay  The filter day formatted as MM/dd, for fallback matching
+     * @return true if the event is available on the filter day
      */
-    private static Date parseAnyDate(String s) {
-        if (s == null || s.trim().isEmpty()) return null;
-        String trimmed = s.trim();
-
-        // Try MM/dd/yyyy format first
-        try {
-            return DF_YYYY.parse(trimmed);
-        } catch (ParseException e1) {
-            // Fall back to MM/dd/yy format
-            try {
-                return DF_YY.parse(trimmed);
-            } catch (ParseException e2) {
-                Log.d(TAG, "Failed to parse date: '" + s + "'");
-                return null;
-            }
+    private static boolean matchesDate(EventModel event, long filterDay, String monthDay) {
+        String startStr = safe(event.getStartDate());
+        String endStr   = safe(event.getEndDate());
+
+        // Event must have both start and end dates
+        if (startStr.isEmpty() || endStr.isEmpty()) {
+            return false;
         }
-    }
 
-    /**
-     * Extracts the month/day portion from a Date object in MM/dd format.
-     * Used for fallback date matching when full date parsing fails.
-     *
-     * @param d The Date to extract month/day from
-     * @return The formatted month/day string (e.g., "12/25"), or empty string if date is null
-     */
-    private static String monthDayFrom(Date d) {
-        if (d == null) return "";
-        return DF_MONTH_DAY.format(d); // e.g., "12/12"
+        long start = event.getStartEpochDay();
+        long end   = event.getEndEpochDay();
+
+        if (start != EventDates.NO_DATE && end != EventDates.NO_DATE) {
+            // Proper date range check: filterDay must be between start and end (inclusive)
+            return filterDay >= start && filterDay <= end;
+        }
+
+        // Fallback: If date parsing failed, do a simple MM/dd substring match
+        return startStr.contains(monthDay) || endStr.contains(monthDay);
     }
 
     /**
@@ -18,9 +18,8 @@ import java.util.Locale;
  * Adapter for displaying event history items in a RecyclerView.
  * Shows event name, status, timestamp, and message for each notification.
  */
-public class EventHistoryAdapter extends RecyclerView.Adapter<EventHistoryAdapter.HistoryViewHolder> {
+public class EventHistoryAdapter extends DiffListAdapter<NotificationItem, EventHistoryAdapter.HistoryViewHolder> {
 
-    private final List<NotificationItem> items;
     private final OnHistoryClickListener listener;
 
     public interface OnHistoryClickListener {
@@ -28,8 +27,22 @@ public class EventHistoryAdapter extends RecyclerView.Adapter<EventHistoryAdapte
     }
 
     public EventHistoryAdapter(List<NotificationItem> items, OnHistoryClickListener listener) {
-        this.items = items;
         this.listener = listener;
+        submitList(items);
+    }
+
+    @Override
+    protected String getItemKey(@NonNull NotificationItem item) {
+        return item.docId;
+    }
+
+    @Override
+    protected boolean areContentsTheSame(@NonNull NotificationItem oldItem, @NonNull NotificationItem newItem) {
+        return oldItem.read == newItem.read
+                && oldItem.timestamp == newItem.timestamp
+                && same(oldItem.type, newItem.type)
+                && same(oldItem.eventName, newItem.eventName)
+                && same(oldItem.message, newItem.message);
     }
 
     @NonNull
@@ -42,7 +55,7 @@ public class EventHistoryAdapter extends RecyclerView.Adapter<EventHistoryAdapte
 
     @Override
     public void onBindViewHolder(@NonNull HistoryViewHolder holder, int position) {
-        NotificationItem item = items.get(position);
+        NotificationItem item = getItem(position);
 
         holder.tvEventName.setText(item.eventName != null ? item.eventName : "Unknown Event");
         holder.tvStatus.setText(getStatusText(item.type));
@@ -68,11 +81,6 @@ public class EventHistoryAdapter extends RecyclerView.Adapter<EventHistoryAdapte
         });
     }
 
-    @Override
-    public int getItemCount() {
-        return items.size();
-    }
-
     /**
      * Returns a user-friendly status text based on notification type
      */
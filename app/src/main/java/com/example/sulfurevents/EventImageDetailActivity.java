@@ -86,10 +86,9 @@ public class EventImageDetailActivity extends AppCompatActivity {
         try {
             StorageReference photoRef = FirebaseStorage.getInstance().getReferenceFromUrl(posterURL);
             photoRef.delete().addOnSuccessListener(aVoid -> {
-                FirebaseFirestore.getInstance()
-                        .collection("Events")
-                        .document(eventId)
-                        .update("posterURL", "")
+                Posters.deleteVariants(eventId);
+                EventSummaries.update(FirebaseFirestore.getInstance().collection("Events").document(eventId),
+                                Posters.cleared())
                         .addOnSuccessListener(a -> {
                             new androidx.appcompat.app.AlertDialog.Builder(this)
                                     .setTitle("Image Deleted")
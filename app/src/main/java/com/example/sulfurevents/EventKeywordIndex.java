@@ -0,0 +1,223 @@
+package com.example.sulfurevents;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * In-memory inverted index for keyword search over event text (US 01.01.04).
+ * <p>
+ * Each event's name, description and location are split into lowercase terms once,
+ * when the event is added. Every term maps to the set of event positions that contain it,
+ * and terms are kept in sorted order so a query word matches every term it is a
+ * <em>prefix</em> of ("tech" finds "technology" and "tech"). A search therefore costs a
+ * few sorted-map range lookups and bit-set operations, not a pass over every event's text.
+ * <p>
+ * Positions are kept per term as a growable sorted {@code int[]}, so a term costs memory
+ * in proportion to the events containing it, not to the position of the last one; most
+ * description words occur in a single event. Bit sets are built per query only.
+ *
+ * <p>Matching rules:
+ * <ul>
+ *   <li>Queries are split on whitespace; an event must match every query word.</li>
+ *   <li>Text is indexed as whole words, as the word with surrounding punctuation removed,
+ *       and as its letter/digit runs, so "(tech)", "e-sports" and "sports" are all found.</li>
+ *   <li>Words made only of symbols (e.g. "&amp;") are kept as terms so they can be searched.</li>
+ *   <li>Matching is at the start of words: "ball" does not match "basketball".</li>
+ * </ul>
+ * Results are returned as a {@link BitSet} of positions in insertion order.
+ */
+public class EventKeywordIndex {
+
+    /** Search in the event name. */
+    public static final int FIELD_NAME = 1;
+    /** Search in the event description. */
+    public static final int FIELD_DESCRIPTION = 1 << 1;
+    /** Search in the event location. */
+    public static final int FIELD_LOCATION = 1 << 2;
+    /** Search in every indexed field. */
+    public static final int ALL_FIELDS = FIELD_NAME | FIELD_DESCRIPTION | FIELD_LOCATION;
+
+    private static final int FIELD_COUNT = 3;
+
+    // One sorted term dictionary per field: term -> positions of events containing it
+    @SuppressWarnings("unchecked")
+    private final TreeMap<String, Postings>[] terms = new TreeMap[FIELD_COUNT];
+
+    private int size = 0;
+
+    /** Creates an empty index. */
+    public EventKeywordIndex() {
+        for (int f = 0; f < FIELD_COUNT; f++) {
+            terms[f] = new TreeMap<>();
+        }
+    }
+
+    /**
+     * Creates an index over the given events, in list order.
+     *
+     * @param events events to index
+     * @return a new index
+     */
+    public static EventKeywordIndex of(List<EventModel> events) {
+        EventKeywordIndex index = new EventKeywordIndex();
+        index.addAll(events);
+        return index;
+    }
+
+    /**
+     * Appends an event; its position is the number of events added before it.
+     *
+     * @param event the event to index
+     */
+    public void add(EventModel event) {
+        int pos = size++;
+        indexText(terms[0], event.getEventName(), pos);
+        indexText(terms[1], event.getDescription(), pos);
+        indexText(terms[2], event.getLocation(), pos);
+    }
+
+    /**
+     * Appends all events in order.
+     *
+     * @param events events to index
+     */
+    public void addAll(List<EventModel> events) {
+        for (EventModel e : events) {
+            add(e);
+        }
+    }
+
+    /** Removes every event from the index. */
+    public void clear() {
+        for (TreeMap<String, Postings> map : terms) {
+            map.clear();
+        }
+        size = 0;
+    }
+
+    /** @return number of events added */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Searches all fields for events matching every word of the query.
+     *
+     * @param query search text; blank queries match every event
+     * @return positions of matching events
+     */
+    public BitSet search(String query) {
+        return search(query, ALL_FIELDS);
+    }
+
+    /**
+     * Searches the selected fields for events matching every word of the query.
+     * A word matches an event if it is the prefix of a term in any selected field.
+     *
+     * @param query     search text; blank queries match every event
+     * @param fieldMask combination of {@link #FIELD_NAME}, {@link #FIELD_DESCRIPTION}, {@link #FIELD_LOCATION}
+     * @return positions of matching events
+     */
+    public BitSet search(String query, int fieldMask) {
+        BitSet result = new BitSet(size);
+        result.set(0, size);
+        if (query == null) return result;
+
+        String[] words = query.trim().toLowerCase(Locale.getDefault()).split("\\s+");
+        for (String word : words) {
+            if (word.isEmpty()) continue;
+
+            String prefix = normalizeWord(word);
+            BitSet wordMatches = new BitSet(size);
+            for (int f = 0; f < FIELD_COUNT; f++) {
+                if ((fieldMask & (1 << f)) == 0) continue;
+                for (Postings postings : prefixRange(terms[f], prefix).values()) {
+                    postings.setIn(wordMatches);
+                }
+            }
+
+            result.and(wordMatches);
+            if (result.isEmpty()) break;
+        }
+        return result;
+    }
+
+    /** @return every term in {@code map} that starts with {@code prefix} */
+    private static Map<String, Postings> prefixRange(TreeMap<String, Postings> map, String prefix) {
+        return map.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    /**
+     * Splits text into terms and records {@code pos} under each of them.
+     */
+    private static void indexText(TreeMap<String, Postings> map, String text, int pos) {
+        if (text == null || text.isEmpty()) return;
+
+        for (String word : text.toLowerCase(Locale.getDefault()).split("\\s+")) {
+            if (word.isEmpty()) continue;
+
+            addTerm(map, word, pos);
+            addTerm(map, normalizeWord(word), pos);
+
+            // letter/digit runs inside the word, e.g. "e-sports" -> "e", "sports"
+            int runStart = -1;
+            for (int i = 0; i <= word.length(); i++) {
+                boolean alnum = i < word.length() && Character.isLetterOrDigit(word.charAt(i));
+                if (alnum && runStart < 0) {
+                    runStart = i;
+                } else if (!alnum && runStart >= 0) {
+                    if (runStart > 0 || i < word.length()) {
+                        addTerm(map, word.substring(runStart, i), pos);
+                    }
+                    runStart = -1;
+                }
+            }
+        }
+    }
+
+    private static void addTerm(TreeMap<String, Postings> map, String term, int pos) {
+        Postings postings = map.get(term);
+        if (postings == null) {
+            postings = new Postings();
+            map.put(term, postings);
+        }
+        postings.add(pos);
+    }
+
+    /** Sorted positions of the events containing one term. */
+    private static final class Postings {
+        private int[] positions = new int[2];
+        private int count = 0;
+
+        /** Adds a position; positions arrive in increasing order, repeats are ignored. */
+        void add(int pos) {
+            if (count > 0 && positions[count - 1] == pos) return;
+            if (count == positions.length) {
+                positions = Arrays.copyOf(positions, count * 2);
+            }
+            positions[count++] = pos;
+        }
+
+        /** Sets every position of this term in {@code bits}. */
+        void setIn(BitSet bits) {
+            for (int i = 0; i < count; i++) {
+                bits.set(positions[i]);
+            }
+        }
+    }
+
+    /**
+     * Strips leading and trailing punctuation from a lowercase word.
+     * Words made only of symbols are returned unchanged so they stay searchable.
+     */
+    private static String normalizeWord(String word) {
+        int start = 0, end = word.length();
+        while (start < end && !Character.isLetterOrDigit(word.charAt(start))) start++;
+        while (end > start && !Character.isLetterOrDigit(word.charAt(end - 1))) end--;
+        return start == end ? word : word.substring(start, end);
+    }
+}
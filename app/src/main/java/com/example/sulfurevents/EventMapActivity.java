@@ -18,17 +18,25 @@ import com.google.android.gms.maps.model.LatLngBounds;
 import com.google.android.gms.maps.model.Marker;
 import com.google.android.gms.maps.model.MarkerOptions;
 import com.google.android.gms.maps.model.BitmapDescriptorFactory;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
 import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.QuerySnapshot;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * EventMapActivity displays all waitlist sign-up locations for a specific event on a Google Map.
  * It fetches location data from Firestore subcollection: Events/{eventId}/entrant_registration_location
+ * (see {@link RegistrationLocations}), reading only the locations inside the visible part of
+ * the map and more as the camera moves.
  * If geolocation is disabled for the event, it shows a message instead of the map.
  */
 public class EventMapActivity extends FragmentActivity implements OnMapReadyCallback {
@@ -43,10 +51,18 @@ public class EventMapActivity extends FragmentActivity implements OnMapReadyCall
     private ProgressBar loadingIndicator;
     private SupportMapFragment mapFragment;
 
+    // Most locations read per geohash cell; dense cells are split by zooming in
+    private static final int MAX_LOCATIONS_PER_CELL = 200;
+
     private String eventId;
     private String eventName;
-    private List<EntrantLocation> entrantLocations;
+    private DocumentReference eventRef;
     private Map<String, String> markerToDeviceIdMap; // Maps marker ID to device ID
+    private Map<String, Marker> markersByDeviceId; // Markers on the map, one per entrant
+    private Set<String> loadedCells; // Geohash cells whose locations are all on the map
+    private Set<String> truncatedCells; // Geohash cells that returned a full page; only finer cells are queried
+    private Set<String> pendingCells; // Geohash cells being queried
+    private boolean firstLoadDone = false;
     private boolean geolocationEnabled = true; // Default to true
 
     @Override
@@ -56,8 +72,11 @@ public class EventMapActivity extends FragmentActivity implements OnMapReadyCall
 
         // Initialize Firestore
         db = FirebaseFirestore.getInstance();
-        entrantLocations = new ArrayList<>();
         markerToDeviceIdMap = new HashMap<>();
+        markersByDeviceId = new HashMap<>();
+        loadedCells = new HashSet<>();
+        truncatedCells = new HashSet<>();
+        pendingCells = new HashSet<>();
 
         // Get event info from Intent
         eventId = getIntent().getStringExtra("eventId");
@@ -109,10 +128,20 @@ public class EventMapActivity extends FragmentActivity implements OnMapReadyCall
                         Log.d(TAG, "Geolocation enabled: " + geolocationEnabled);
 
                         if (geolocationEnabled) {
-                            // Geolocation is enabled - load the map
-                            if (mapFragment != null) {
-                                mapFragment.getMapAsync(this);
-                            }
+                            eventRef = documentSnapshot.getReference();
+                            showWaitlistCount(documentSnapshot);
+
+                            // Locations written before geohashes existed are indexed once,
+                            // then the map only reads what is on screen
+                            RegistrationLocations.indexIfNeeded(documentSnapshot)
+                                    .addOnCompleteListener(indexed -> {
+                                        if (!indexed.isSuccessful()) {
+                                            Log.e(TAG, "Error indexing locations", indexed.getException());
+                                        }
+                                        if (mapFragment != null) {
+                                            mapFragment.getMapAsync(this);
+                                        }
+                                    });
                         } else {
                             // Geolocation is disabled - show message and hide map
                             loadingIndicator.setVisibility(View.GONE);
@@ -146,6 +175,18 @@ public class EventMapActivity extends FragmentActivity implements OnMapReadyCall
                 });
     }
 
+    /**
+     * Shows the waiting list size from the event's counts, since the map no longer
+     * reads every registration location
+     * @param event The event document
+     */
+    private void showWaitlistCount(DocumentSnapshot event) {
+        EntrantStore.counts(event)
+                .addOnSuccessListener(counts ->
+                        waitlistCountText.setText("Waitlist: " + counts.waiting() + " users"))
+                .addOnFailureListener(e -> Log.e(TAG, "Error loading waitlist count: " + e.getMessage()));
+    }
+
     @Override
     public void onMapReady(@NonNull GoogleMap googleMap) {
         mMap = googleMap;
@@ -177,108 +218,124 @@ public class EventMapActivity extends FragmentActivity implements OnMapReadyCall
             }
         });
 
-        // Load event sign-up locations from Firestore
-        loadEventSignUpLocations();
+        // Load the locations in view now and whenever the camera settles somewhere new
+        mMap.setOnCameraIdleListener(this::loadVisibleLocations);
+        loadVisibleLocations();
     }
 
     /**
-     * Fetches all entrant registration locations for this event from Firestore
-     * Path: Events/{eventId}/entrant_registration_location
+     * Loads the registration locations inside the current viewport.
+     * The viewport is covered by a few geohash cells (see {@link Geohash#cover}) and only
+     * cells not loaded before are queried, so panning back or zooming into an area
+     * already shown reads nothing. A cell that returned a full page is not queried again,
+     * since the same query would return the same page; its smaller cells are, once the
+     * map is zoomed in far enough to cover the viewport with them.
      */
-    private void loadEventSignUpLocations() {
-        loadingIndicator.setVisibility(View.VISIBLE);
+    private void loadVisibleLocations() {
+        if (mMap == null || eventRef == null) {
+            return;
+        }
 
-        db.collection("Events")
-                .document(eventId)
-                .collection("entrant_registration_location")
-                .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    entrantLocations.clear();
-                    int validLocationCount = 0;
-
-                    for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
-                        try {
-                            String deviceId = document.getString("deviceId");
-                            Boolean hasLocation = document.getBoolean("hasLocation");
-
-                            // Check if location data exists
-                            if (hasLocation != null && hasLocation) {
-                                Double latitude = document.getDouble("latitude");
-                                Double longitude = document.getDouble("longitude");
-
-                                if (latitude != null && longitude != null) {
-                                    EntrantLocation location = new EntrantLocation(
-                                            deviceId,
-                                            latitude,
-                                            longitude
-                                    );
-                                    entrantLocations.add(location);
-                                    validLocationCount++;
-
-                                    Log.d(TAG, "Loaded location - Device: " + deviceId +
-                                            ", Lat: " + latitude + ", Lng: " + longitude);
-                                }
-                            }
-                        } catch (Exception e) {
-                            Log.e(TAG, "Error parsing location document: " + e.getMessage());
+        LatLngBounds visible = mMap.getProjection().getVisibleRegion().latLngBounds;
+        List<String> cells = Geohash.cover(
+                visible.southwest.latitude, visible.southwest.longitude,
+                visible.northeast.latitude, visible.northeast.longitude);
+
+        List<Task<QuerySnapshot>> queries = new ArrayList<>();
+        for (String cell : cells) {
+            if (Geohash.isCovered(cell, loadedCells) || truncatedCells.contains(cell)
+                    || pendingCells.contains(cell)) {
+                continue;
+            }
+            pendingCells.add(cell);
+            queries.add(RegistrationLocations.inCell(eventRef, cell, MAX_LOCATIONS_PER_CELL)
+                    .get()
+                    .addOnCompleteListener(task -> {
+                        pendingCells.remove(cell);
+                        if (!task.isSuccessful()) {
+                            Log.e(TAG, "Error loading locations in " + cell, task.getException());
+                            return;
                         }
-                    }
+                        addMarkers(task.getResult());
+                        // A full page may have missed locations; smaller cells are queried when zoomed in
+                        if (task.getResult().size() < MAX_LOCATIONS_PER_CELL) {
+                            loadedCells.add(cell);
+                        } else {
+                            truncatedCells.add(cell);
+                        }
+                    }));
+        }
+        if (queries.isEmpty()) {
+            return;
+        }
 
-                    loadingIndicator.setVisibility(View.GONE);
+        loadingIndicator.setVisibility(View.VISIBLE);
+        Tasks.whenAllComplete(queries).addOnCompleteListener(done -> {
+            loadingIndicator.setVisibility(View.GONE);
+            if (!firstLoadDone) {
+                firstLoadDone = true;
+                onFirstLoad(queries);
+            }
+        });
+    }
 
-                    // Update UI with count
-                    waitlistCountText.setText("Waitlist: " + queryDocumentSnapshots.size() + " users");
+    /**
+     * Reports the first viewport's result and frames its markers
+     * @param queries The first viewport's queries
+     */
+    private void onFirstLoad(List<Task<QuerySnapshot>> queries) {
+        for (Task<QuerySnapshot> query : queries) {
+            if (!query.isSuccessful()) {
+                Exception e = query.getException();
+                Toast.makeText(this,
+                        "Error loading locations: " + (e != null ? e.getMessage() : ""),
+                        Toast.LENGTH_SHORT).show();
+                return;
+            }
+        }
 
-                    if (validLocationCount > 0) {
-                        displayMarkersOnMap();
+        if (!markersByDeviceId.isEmpty()) {
+            fitMarkers();
 
-                        new androidx.appcompat.app.AlertDialog.Builder(this)
-                                .setMessage("Loaded " + validLocationCount + " locations. Tap markers for user details.")
-                                .setPositiveButton("OK", null)
-                                .show();
+            String message = "Loaded " + markersByDeviceId.size() + " locations.";
+            if (!truncatedCells.isEmpty()) {
+                message += " Some areas have more entrants than shown; zoom in to load them.";
+            }
+            new androidx.appcompat.app.AlertDialog.Builder(this)
+                    .setMessage(message + " Tap markers for user details.")
+                    .setPositiveButton("OK", null)
+                    .show();
 
-                    } else {
+        } else {
 
-                        new androidx.appcompat.app.AlertDialog.Builder(this)
-                                .setMessage("No location data available for this event.")
-                                .setPositiveButton("OK", null)
-                                .show();
-                    }
-                })
-                .addOnFailureListener(e -> {
-                    loadingIndicator.setVisibility(View.GONE);
-                    Log.e(TAG, "Error loading locations: " + e.getMessage());
-                    Toast.makeText(this,
-                            "Error loading locations: " + e.getMessage(),
-                            Toast.LENGTH_SHORT).show();
-                });
+            new androidx.appcompat.app.AlertDialog.Builder(this)
+                    .setMessage("No location data available for this event.")
+                    .setPositiveButton("OK", null)
+                    .show();
+        }
     }
 
     /**
-     * Displays all entrant locations as markers on the map
-     * and adjusts camera to show all markers
+     * Adds a marker for each new location in a query result.
+     * Entrants already on the map are skipped, since neighbouring cells can overlap.
+     * @param locations Registration location documents
      */
-    private void displayMarkersOnMap() {
-        if (mMap == null || entrantLocations.isEmpty()) {
-            return;
-        }
-
-        // Clear existing markers and mapping
-        mMap.clear();
-        markerToDeviceIdMap.clear();
-
-        LatLngBounds.Builder boundsBuilder = new LatLngBounds.Builder();
-        int markerCount = 0;
-
-        // Add a marker for each entrant location
-        for (int i = 0; i < entrantLocations.size(); i++) {
-            EntrantLocation location = entrantLocations.get(i);
-            LatLng position = new LatLng(location.latitude, location.longitude);
+    private void addMarkers(QuerySnapshot locations) {
+        int added = 0;
+
+        for (QueryDocumentSnapshot document : locations) {
+            String deviceId = document.getString("deviceId");
+            Double latitude = document.getDouble("latitude");
+            Double longitude = document.getDouble("longitude");
+            if (deviceId == null || latitude == null || longitude == null
+                    || markersByDeviceId.containsKey(deviceId)) {
+                continue;
+            }
 
             // Create marker
             MarkerOptions markerOptions = new MarkerOptions()
-                    .position(position)
-                    .title("Entrant " + (i + 1))
+                    .position(new LatLng(latitude, longitude))
+                    .title("Entrant " + (markersByDeviceId.size() + 1))
                     .snippet("Tap for user details")
                     .icon(BitmapDescriptorFactory.defaultMarker(BitmapDescriptorFactory.HUE_RED));
 
@@ -286,27 +343,33 @@ public class EventMapActivity extends FragmentActivity implements OnMapReadyCall
 
             // Map marker ID to device ID for click handling
             if (marker != null) {
-                markerToDeviceIdMap.put(marker.getId(), location.deviceId);
+                markerToDeviceIdMap.put(marker.getId(), deviceId);
+                markersByDeviceId.put(deviceId, marker);
+                added++;
             }
-
-            boundsBuilder.include(position);
-            markerCount++;
         }
 
-        // Adjust camera to show all markers
-        if (markerCount > 0) {
-            try {
-                LatLngBounds bounds = boundsBuilder.build();
-                int padding = 100; // padding in pixels
+        Log.d(TAG, "Added " + added + " markers, " + markersByDeviceId.size() + " on map");
+    }
 
-                // Animate camera to show all markers
-                mMap.animateCamera(CameraUpdateFactory.newLatLngBounds(bounds, padding));
-            } catch (Exception e) {
-                Log.e(TAG, "Error adjusting camera: " + e.getMessage());
-            }
+    /**
+     * Adjusts camera to show all markers
+     */
+    private void fitMarkers() {
+        LatLngBounds.Builder boundsBuilder = new LatLngBounds.Builder();
+        for (Marker marker : markersByDeviceId.values()) {
+            boundsBuilder.include(marker.getPosition());
         }
 
-        Log.d(TAG, "Displayed " + markerCount + " markers on map");
+        try {
+            LatLngBounds bounds = boundsBuilder.build();
+            int padding = 100; // padding in pixels
+
+            // Animate camera to show all markers
+            mMap.animateCamera(CameraUpdateFactory.newLatLngBounds(bounds, padding));
+        } catch (Exception e) {
+            Log.e(TAG, "Error adjusting camera: " + e.getMessage());
+        }
     }
 
     /**
@@ -373,19 +436,4 @@ public class EventMapActivity extends FragmentActivity implements OnMapReadyCall
                             Toast.LENGTH_SHORT).show();
                 });
     }
-
-    /**
-     * Inner class to represent an entrant's registration location
-     */
-    private static class EntrantLocation {
-        String deviceId;
-        double latitude;
-        double longitude;
-
-        EntrantLocation(String deviceId, double latitude, double longitude) {
-            this.deviceId = deviceId;
-            this.latitude = latitude;
-            this.longitude = longitude;
-        }
-    }
-}
\ No newline at end of file
+}
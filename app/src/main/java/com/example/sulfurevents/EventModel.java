@@ -4,6 +4,8 @@
 
 package com.example.sulfurevents;
 
+import com.google.firebase.firestore.Exclude;
+
 /**
  * Represents an event stored in Firestore.
  * Each event has basic details like name, description, location,
@@ -21,6 +23,13 @@ public class EventModel {
     private String location;
     private String limitGuests; // capacity
     private String posterURL;
+    private String posterCardURL;   // smaller copies of the poster, see PosterVariants
+    private String posterThumbURL;
+
+    // Pre-parsed copies of startDate/endDate, filled in by the setters so Firestore's
+    // toObject() parses each date exactly once. See EventDates.
+    private long startEpochDay = EventDates.NO_DATE;
+    private long endEpochDay = EventDates.NO_DATE;
 
     /** Empty constructor required for Firestore */
     public EventModel() { }
@@ -67,6 +76,30 @@ public class EventModel {
         return posterURL;
     }
 
+    public String getPosterCardURL() {
+        return posterCardURL;
+    }
+
+    public String getPosterThumbURL() {
+        return posterThumbURL;
+    }
+
+    /**
+     * @return start date as days since 01/01/1970, or {@link EventDates#NO_DATE} if missing/invalid
+     */
+    @Exclude
+    public long getStartEpochDay() {
+        return startEpochDay;
+    }
+
+    /**
+     * @return end date as days since 01/01/1970, or {@link EventDates#NO_DATE} if missing/invalid
+     */
+    @Exclude
+    public long getEndEpochDay() {
+        return endEpochDay;
+    }
+
     // -------------------- Setters --------------------
 
     public void setEventId(String eventId) {
@@ -91,10 +124,12 @@ public class EventModel {
 
     public void setStartDate(String startDate) {
         this.startDate = startDate;
+        this.startEpochDay = EventDates.parseEpochDay(startDate);
     }
 
     public void setEndDate(String endDate) {
         this.endDate = endDate;
+        this.endEpochDay = EventDates.parseEpochDay(endDate);
     }
 
     public void setLocation(String location) {
@@ -109,4 +144,12 @@ public class EventModel {
     public void setPosterURL(String posterURL) {
         this.posterURL = posterURL;
     }
+
+    public void setPosterCardURL(String posterCardURL) {
+        this.posterCardURL = posterCardURL;
+    }
+
+    public void setPosterThumbURL(String posterThumbURL) {
+        this.posterThumbURL = posterThumbURL;
+    }
 }
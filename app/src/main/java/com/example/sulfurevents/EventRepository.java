@@ -0,0 +1,286 @@
+package com.example.sulfurevents;
+
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.MetadataChanges;
+import com.google.firebase.firestore.Source;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Process-wide, read-through cache of {@code Events/{eventId}} documents.
+ * <p>
+ * Screens used to call {@code db.collection("Events").document(id).get()} independently,
+ * often several times for the same event within one user action (e.g. accept → check if
+ * full → draw replacement). The repository instead keeps <b>one live snapshot listener per
+ * event</b> and answers reads from the latest snapshot:
+ * <ul>
+ *   <li>The first read of an event attaches a listener and completes when its first
+ *       snapshot arrives. Concurrent reads of the same event share that listener.</li>
+ *   <li>Later reads complete immediately with the cached snapshot, which the listener
+ *       keeps current (including this client's own pending writes).</li>
+ *   <li>At most {@link #MAX_EVENTS} events are tracked; the least recently used one has
+ *       its listener removed when a new event is requested.</li>
+ *   <li>{@link EventModel} and {@link OrganizerEvent} conversions are memoized per snapshot,
+ *       so callers share one deserialized object until the document changes.</li>
+ * </ul>
+ * The first snapshot is often served from Firestore's local cache and can be stale. That
+ * is fine for display, but callers that decide a write from the event (capacity checks,
+ * draws, migrations) use {@link #getServerEvent}, which only answers with a snapshot the
+ * server has confirmed, and still re-read inside their transactions where one is used.
+ * Reads return {@link Task}s so callers keep the usual
+ * {@code addOnSuccessListener}/{@code addOnFailureListener} chains. All methods must be
+ * called from the main thread, which is where Firestore delivers snapshots.
+ */
+public final class EventRepository {
+
+    private static final String TAG = "EventRepository";
+
+    /** Maximum number of events with a live listener at any time. */
+    public static final int MAX_EVENTS = 32;
+
+    private static EventRepository instance;
+
+    private final FirebaseFirestore db;
+
+    // Access-ordered map: iteration order is least recently used first
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** Cached state for one event document. */
+    private static final class Entry {
+        final String eventId;
+        ListenerRegistration registration;
+        DocumentSnapshot snapshot;
+        EventModel eventModel;          // memoized for 'snapshot'
+        OrganizerEvent organizerEvent;  // memoized for 'snapshot'
+        final List<TaskCompletionSource<DocumentSnapshot>> pending = new ArrayList<>();
+
+        Entry(String eventId) {
+            this.eventId = eventId;
+        }
+    }
+
+    private EventRepository(FirebaseFirestore db) {
+        this.db = db;
+    }
+
+    /**
+     * @return the shared repository backed by the default Firestore instance
+     */
+    public static synchronized EventRepository getInstance() {
+        if (instance == null) {
+            instance = new EventRepository(FirebaseFirestore.getInstance());
+        }
+        return instance;
+    }
+
+    /**
+     * Returns the event document, from the live cache if available.
+     * The snapshot may report {@code exists() == false} if the event was deleted, and may
+     * come from the local cache ({@code getMetadata().isFromCache()}); use
+     * {@link #getServerEvent} before acting on it.
+     *
+     * @param eventId Firestore document ID of the event
+     * @return task completing with the latest snapshot
+     */
+    public Task<DocumentSnapshot> getEvent(String eventId) {
+        if (eventId == null || eventId.isEmpty()) {
+            return Tasks.forException(new IllegalArgumentException("eventId is required"));
+        }
+
+        Entry entry = entries.get(eventId); // also marks the entry as most recently used
+        if (entry != null && entry.snapshot != null) {
+            return Tasks.forResult(entry.snapshot);
+        }
+
+        TaskCompletionSource<DocumentSnapshot> source = new TaskCompletionSource<>();
+        if (entry == null) {
+            entry = new Entry(eventId);
+            entries.put(eventId, entry);
+            entry.pending.add(source);
+            listen(eventId, entry);
+            trimToSize();
+        } else {
+            // A listener is already attached and waiting for its first snapshot
+            entry.pending.add(source);
+        }
+        return source.getTask();
+    }
+
+    /**
+     * Returns the event as last confirmed by the server. Answers from the live listener
+     * when its snapshot is up to date with the server, otherwise reads from the server,
+     * failing when offline rather than returning stale data.
+     *
+     * @param eventId Firestore document ID of the event
+     * @return task completing with a snapshot that is not from the local cache
+     */
+    public Task<DocumentSnapshot> getServerEvent(String eventId) {
+        if (eventId == null || eventId.isEmpty()) {
+            return Tasks.forException(new IllegalArgumentException("eventId is required"));
+        }
+        DocumentSnapshot cached = peek(eventId);
+        if (cached != null && !cached.getMetadata().isFromCache()) {
+            return Tasks.forResult(cached);
+        }
+        return db.collection("Events").document(eventId).get(Source.SERVER);
+    }
+
+    /**
+     * Returns the event as an {@link EventModel} with its ID set.
+     * Completes with {@code null} if the event does not exist.
+     *
+     * @param eventId Firestore document ID of the event
+     * @return task completing with the shared model instance for the current snapshot
+     */
+    public Task<EventModel> getEventModel(String eventId) {
+        return getEvent(eventId).continueWith(task -> {
+            DocumentSnapshot doc = task.getResult();
+            Entry entry = entries.get(eventId);
+            if (entry != null && entry.snapshot == doc && entry.eventModel != null) {
+                return entry.eventModel;
+            }
+            EventModel model = toEventModel(doc);
+            if (entry != null && entry.snapshot == doc) entry.eventModel = model;
+            return model;
+        });
+    }
+
+    /**
+     * Returns the event as an {@link OrganizerEvent}.
+     * Completes with {@code null} if the event does not exist.
+     *
+     * @param eventId Firestore document ID of the event
+     * @return task completing with the shared model instance for the current snapshot
+     */
+    public Task<OrganizerEvent> getOrganizerEvent(String eventId) {
+        return getEvent(eventId).continueWith(task -> {
+            DocumentSnapshot doc = task.getResult();
+            Entry entry = entries.get(eventId);
+            if (entry != null && entry.snapshot == doc && entry.organizerEvent != null) {
+                return entry.organizerEvent;
+            }
+            OrganizerEvent event = doc.exists() ? doc.toObject(OrganizerEvent.class) : null;
+            if (entry != null && entry.snapshot == doc) entry.organizerEvent = event;
+            return event;
+        });
+    }
+
+    /**
+     * Returns the cached snapshot without touching the network, or {@code null} if the
+     * event is not currently tracked.
+     *
+     * @param eventId Firestore document ID of the event
+     * @return latest snapshot, or null
+     */
+    public DocumentSnapshot peek(String eventId) {
+        Entry entry = entries.get(eventId);
+        return entry != null ? entry.snapshot : null;
+    }
+
+    /**
+     * Stops tracking an event and removes its listener. The next read starts fresh.
+     *
+     * @param eventId Firestore document ID of the event
+     */
+    public void invalidate(String eventId) {
+        Entry entry = entries.remove(eventId);
+        if (entry != null) release(entry, null);
+    }
+
+    /** Removes every listener and forgets all cached events. */
+    public void clear() {
+        for (Entry entry : entries.values()) {
+            release(entry, null);
+        }
+        entries.clear();
+    }
+
+    private void listen(String eventId, Entry entry) {
+        // Metadata changes included so the snapshot is replaced once the server confirms it
+        entry.registration = db.collection("Events").document(eventId)
+                .addSnapshotListener(MetadataChanges.INCLUDE, (snapshot, e) -> {
+                    if (entries.get(eventId) != entry) return; // evicted meanwhile
+
+                    if (e != null || snapshot == null) {
+                        Log.w(TAG, "Listener failed for event " + eventId, e);
+                        entries.remove(eventId);
+                        release(entry, e != null ? e : new IllegalStateException("No snapshot"));
+                        return;
+                    }
+
+                    entry.snapshot = snapshot;
+                    entry.eventModel = null;
+                    entry.organizerEvent = null;
+
+                    for (TaskCompletionSource<DocumentSnapshot> source : entry.pending) {
+                        source.trySetResult(snapshot);
+                    }
+                    entry.pending.clear();
+                });
+    }
+
+    /** Evicts least recently used events until at most {@link #MAX_EVENTS} remain. */
+    private void trimToSize() {
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (entries.size() > MAX_EVENTS && it.hasNext()) {
+            Entry eldest = it.next().getValue();
+            it.remove();
+            release(eldest, null);
+        }
+    }
+
+    /**
+     * Detaches the listener. Reads still waiting for a first snapshot either fail with
+     * {@code error} or, if the entry was merely evicted, are answered by a one-off get.
+     */
+    private void release(Entry entry, Exception error) {
+        if (entry.registration != null) {
+            entry.registration.remove();
+            entry.registration = null;
+        }
+        if (entry.pending.isEmpty()) return;
+
+        List<TaskCompletionSource<DocumentSnapshot>> waiting = new ArrayList<>(entry.pending);
+        entry.pending.clear();
+
+        if (error != null) {
+            for (TaskCompletionSource<DocumentSnapshot> source : waiting) {
+                source.trySetException(error);
+            }
+            return;
+        }
+
+        db.collection("Events").document(entry.eventId).get()
+                .addOnSuccessListener(doc -> {
+                    for (TaskCompletionSource<DocumentSnapshot> source : waiting) {
+                        source.trySetResult(doc);
+                    }
+                })
+                .addOnFailureListener(e -> {
+                    for (TaskCompletionSource<DocumentSnapshot> source : waiting) {
+                        source.trySetException(e);
+                    }
+                });
+    }
+
+    /**
+     * Converts an event snapshot into an {@link EventModel}, or null if it does not exist.
+     */
+    private static EventModel toEventModel(DocumentSnapshot doc) {
+        if (!doc.exists()) return null;
+        EventModel event = doc.toObject(EventModel.class);
+        if (event != null) event.setEventId(doc.getId());
+        return event;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.sulfurevents;
+
+/**
+ * Thrown by a transaction that expected an event in array storage but found it migrated
+ * to sharded storage (see {@link EntrantStore}). The event has not been changed; running
+ * the same operation again routes it to the sharded code path.
+ */
+public final class EventStorageChangedException extends IllegalStateException {
+
+    public EventStorageChangedException() {
+        super("Event storage changed, please try again.");
+    }
+}
@@ -0,0 +1,225 @@
+package com.example.sulfurevents;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.Transaction;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the {@link EventSummary} of each event in step with the event.
+ * <p>
+ * Summaries live at {@code EventSummaries/{eventId}} and are written next to every change
+ * of the fields they copy:
+ * <ul>
+ *   <li>Card fields: when an event is created or edited, or its poster is removed.</li>
+ *   <li>Counts of array-mode events: in the same transaction as the list change, through
+ *       {@link EntrantStore#countArrayChange}. That transaction already writes the event
+ *       document, so the summary adds no new contention.</li>
+ *   <li>Counts of sharded events: refreshed from the entrant counter when the organizer
+ *       opens the waiting list ({@link #refreshCounts}). Entrant joins to a sharded event
+ *       do not touch the summary, since a write per join on one document is exactly the
+ *       hotspot sharding avoids; its dashboard counts can lag until then.</li>
+ * </ul>
+ * Events created before summaries existed get one from {@link #backfillIfDue}, which also
+ * removes the Base64 {@code qrCode} those events stored (see {@link QrCodeCache}).
+ */
+public final class EventSummaries {
+
+    private static final String TAG = "EventSummaries";
+
+    /** Top-level collection holding the summaries, keyed by event ID. */
+    public static final String COLLECTION = "EventSummaries";
+
+    private static final String PREFS = "event_summaries";
+    private static final String KEY_BACKFILLED = "backfilled_";
+
+    // Base64 PNG that events used to store; codes are now drawn from the event ID
+    private static final String LEGACY_QR_FIELD = "qrCode";
+
+    private EventSummaries() {
+    }
+
+    /** @return the summary document of an event */
+    public static DocumentReference ref(FirebaseFirestore db, String eventId) {
+        return db.collection(COLLECTION).document(eventId);
+    }
+
+    /**
+     * Writes a new event together with its summary.
+     *
+     * @param eventRef document of the new event
+     * @param event    the event to create
+     * @return task completing when both documents are written
+     */
+    public static Task<Void> create(DocumentReference eventRef, OrganizerEvent event) {
+        FirebaseFirestore db = eventRef.getFirestore();
+        WriteBatch batch = db.batch();
+        batch.set(eventRef, event);
+        batch.set(ref(db, eventRef.getId()), EventSummary.of(event));
+        return batch.commit();
+    }
+
+    /**
+     * Applies an update to an event and the summary fields it touches, in one batch.
+     *
+     * @param eventRef document of the event
+     * @param update   fields to update on the event
+     * @return task completing when both documents are written
+     */
+    public static Task<Void> update(DocumentReference eventRef, Map<String, Object> update) {
+        FirebaseFirestore db = eventRef.getFirestore();
+        WriteBatch batch = db.batch();
+        batch.update(eventRef, update);
+        Map<String, Object> fields = EventSummary.fieldsOf(update);
+        if (!fields.isEmpty()) batch.set(ref(db, eventRef.getId()), fields, SetOptions.merge());
+        return batch.commit();
+    }
+
+    /**
+     * Deletes an event and its summary.
+     *
+     * @param batch    batch to add the deletes to
+     * @param eventRef document of the event
+     */
+    public static void delete(WriteBatch batch, DocumentReference eventRef) {
+        batch.delete(eventRef);
+        batch.delete(ref(eventRef.getFirestore(), eventRef.getId()));
+    }
+
+    /**
+     * Records an array-mode list change in the summary's counts.
+     *
+     * @param transaction transaction changing the lists
+     * @param event       the event as read by the transaction
+     * @param deltas      change of each list's size
+     */
+    static void addCounts(Transaction transaction, DocumentSnapshot event, Map<String, Long> deltas) {
+        Map<String, Object> increments = new HashMap<>();
+        for (Map.Entry<String, Long> e : deltas.entrySet()) {
+            if (e.getValue() == 0) continue;
+            increments.put(EventSummary.countField(e.getKey()), FieldValue.increment(e.getValue()));
+        }
+        if (increments.isEmpty()) return;
+        transaction.set(ref(event.getReference().getFirestore(), event.getId()), increments, SetOptions.merge());
+    }
+
+    /**
+     * Sets the summary's counts, e.g. when the entrant counter of an event is seeded.
+     *
+     * @param transaction transaction that established the counts
+     * @param event       the event as read by the transaction
+     * @param counts      entrant counts after the transaction
+     */
+    static void setCounts(Transaction transaction, DocumentSnapshot event, EntrantCounts counts) {
+        transaction.set(ref(event.getReference().getFirestore(), event.getId()),
+                EventSummary.countsOf(counts), SetOptions.merge());
+    }
+
+    /**
+     * Copies an event's current counts into its summary. Only needed for sharded events;
+     * array-mode counts are kept exact by the list transactions.
+     *
+     * @param event event document
+     * @return task completing when the counts are written
+     */
+    public static Task<Void> refreshCounts(DocumentSnapshot event) {
+        if (!event.exists() || !EntrantStore.isSharded(event)) return Tasks.forResult(null);
+        return EntrantStore.counts(event).onSuccessTask(counts ->
+                ref(event.getReference().getFirestore(), event.getId())
+                        .set(EventSummary.countsOf(counts), SetOptions.merge()));
+    }
+
+    /**
+     * Writes the full summary of an existing event from its document and counts.
+     * <p>
+     * Array-mode list changes add to the summary's counts in their own transactions, so
+     * absolute counts written from an earlier read could overwrite one of them. The summary
+     * is therefore written in a transaction that re-reads the event, and, once its counter
+     * is kept, the counter too; any list change committed in between makes it retry.
+     * Sharded events only ever get absolute counts (see {@link #refreshCounts}), so theirs
+     * are read from the counter directly.
+     *
+     * @param event event document
+     * @return task completing when the summary is written
+     */
+    public static Task<Void> rebuild(DocumentSnapshot event) {
+        if (!event.exists()) return Tasks.forResult(null);
+        if (EntrantStore.isSharded(event)) {
+            return EntrantStore.counts(event).onSuccessTask(counts ->
+                    ref(event.getReference().getFirestore(), event.getId())
+                            .set(summaryOf(event, counts), SetOptions.merge()));
+        }
+
+        FirebaseFirestore db = event.getReference().getFirestore();
+        return db.runTransaction(transaction -> {
+            DocumentSnapshot current = transaction.get(event.getReference());
+            if (!current.exists() || EntrantStore.isSharded(current)) return null;
+
+            EntrantCounts counts;
+            if (EntrantStore.isCounted(current)) {
+                counts = EntrantCounts.of(EntrantStore.counter(db, current.getId()).read(transaction));
+            } else {
+                Map<String, List<String>> lists = new HashMap<>();
+                for (String status : Memberships.STATUSES) lists.put(status, EntrantStore.arrayOf(current, status));
+                counts = EntrantCounts.fromLists(lists);
+            }
+            transaction.set(ref(db, current.getId()), summaryOf(current, counts), SetOptions.merge());
+            return null;
+        });
+    }
+
+    private static Map<String, Object> summaryOf(DocumentSnapshot event, EntrantCounts counts) {
+        Map<String, Object> data = event.getData();
+        Map<String, Object> summary = EventSummary.fieldsOf(data != null ? data : new HashMap<>());
+        summary.put("eventId", event.getId());
+        summary.putAll(EventSummary.countsOf(counts));
+        return summary;
+    }
+
+    /**
+     * Builds the summaries of an organizer's events once per device, for events created
+     * before summaries were kept, and deletes the QR code image older events still carry.
+     * Safe to call on every dashboard start; after the first successful run it does nothing.
+     *
+     * @param context     any context
+     * @param organizerId organizer whose events are summarized
+     */
+    public static void backfillIfDue(Context context, String organizerId) {
+        SharedPreferences prefs = context.getApplicationContext()
+                .getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+        if (prefs.getBoolean(KEY_BACKFILLED + organizerId, false)) return;
+
+        FirebaseFirestore.getInstance().collection("Events")
+                .whereEqualTo("organizerId", organizerId)
+                .get()
+                .onSuccessTask(snapshots -> {
+                    List<Task<Void>> writes = new ArrayList<>();
+                    for (DocumentSnapshot doc : snapshots.getDocuments()) {
+                        writes.add(rebuild(doc));
+                        if (doc.contains(LEGACY_QR_FIELD)) {
+                            writes.add(doc.getReference().update(LEGACY_QR_FIELD, FieldValue.delete()));
+                        }
+                    }
+                    return Tasks.whenAll(writes).onSuccessTask(done -> Tasks.forResult(snapshots.size()));
+                })
+                .addOnSuccessListener(n -> {
+                    prefs.edit().putBoolean(KEY_BACKFILLED + organizerId, true).apply();
+                    Log.i(TAG, "Summarized " + n + " event(s) of " + organizerId);
+                })
+                .addOnFailureListener(e -> Log.w(TAG, "Summary backfill failed; will retry next start", e));
+    }
+}
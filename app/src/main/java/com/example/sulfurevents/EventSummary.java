@@ -0,0 +1,156 @@
+package com.example.sulfurevents;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Small projection of an event, stored at {@code EventSummaries/{eventId}} next to the
+ * event document (see {@link EventSummaries}).
+ * <p>
+ * The organizer dashboard only needs what an event card shows. Listening to the full
+ * {@code Events} documents downloaded every entrant array and the Base64 QR code with each
+ * snapshot; a summary holds the card fields (with the poster variant URLs, see
+ * {@link PosterVariants}) and the per-status entrant counts, about 1 KB per event.
+ */
+public class EventSummary {
+
+    /** Event fields copied into the summary, by their name on the event document. */
+    public static final List<String> EVENT_FIELDS = Collections.unmodifiableList(Arrays.asList(
+            "eventId", "organizerId", "eventName", "startDate", "endDate",
+            "location", "limitGuests", "posterURL", "posterCardURL", "posterThumbURL"));
+
+    public String eventId;
+    public String organizerId;
+    public String eventName;
+    public String startDate;
+    public String endDate;
+    public String location;
+    public String limitGuests;
+    public String posterURL;
+    public String posterCardURL;
+    public String posterThumbURL;
+    public long waitingCount;
+    public long invitedCount;
+    public long enrolledCount;
+    public long cancelledCount;
+
+    /**
+     * Default constructor required for Firestore data mapping.
+     */
+    public EventSummary() {
+    }
+
+    /**
+     * Builds the summary of a newly created event, which has no entrants yet.
+     *
+     * @param event the event being created
+     * @return its summary
+     */
+    public static EventSummary of(OrganizerEvent event) {
+        EventSummary summary = new EventSummary();
+        summary.eventId = event.eventId;
+        summary.organizerId = event.organizerId;
+        summary.eventName = event.eventName;
+        summary.startDate = event.startDate;
+        summary.endDate = event.endDate;
+        summary.location = event.location;
+        summary.limitGuests = event.limitGuests;
+        summary.posterURL = event.posterURL;
+        summary.posterCardURL = event.posterCardURL;
+        summary.posterThumbURL = event.posterThumbURL;
+        return summary;
+    }
+
+    /**
+     * Picks the summary's fields out of an event document or an event update.
+     * Fields the event data does not mention are left out, so the result can be merged
+     * into an existing summary.
+     *
+     * @param eventData event fields, e.g. {@code DocumentSnapshot.getData()} or an update map
+     * @return the summary fields present in {@code eventData}
+     */
+    public static Map<String, Object> fieldsOf(Map<String, Object> eventData) {
+        Map<String, Object> fields = new HashMap<>();
+        for (String field : EVENT_FIELDS) {
+            if (eventData.containsKey(field)) fields.put(field, eventData.get(field));
+        }
+        return fields;
+    }
+
+    /**
+     * @param status a {@link Memberships} status constant
+     * @return name of the summary field counting that status, e.g. {@code waitingCount}
+     */
+    public static String countField(String status) {
+        return status + "Count";
+    }
+
+    /**
+     * @param counts entrant counts of the event
+     * @return the summary's count fields set to {@code counts}
+     */
+    public static Map<String, Object> countsOf(EntrantCounts counts) {
+        Map<String, Object> fields = new HashMap<>();
+        for (String status : Memberships.STATUSES) fields.put(countField(status), (long) counts.get(status));
+        return fields;
+    }
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    public String getOrganizerId() {
+        return organizerId;
+    }
+
+    public String getEventName() {
+        return eventName;
+    }
+
+    public String getStartDate() {
+        return startDate;
+    }
+
+    public String getEndDate() {
+        return endDate;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public String getLimitGuests() {
+        return limitGuests;
+    }
+
+    public String getPosterURL() {
+        return posterURL;
+    }
+
+    public String getPosterCardURL() {
+        return posterCardURL;
+    }
+
+    public String getPosterThumbURL() {
+        return posterThumbURL;
+    }
+
+    public long getWaitingCount() {
+        return waitingCount;
+    }
+
+    public long getInvitedCount() {
+        return invitedCount;
+    }
+
+    public long getEnrolledCount() {
+        return enrolledCount;
+    }
+
+    public long getCancelledCount() {
+        return cancelledCount;
+    }
+}
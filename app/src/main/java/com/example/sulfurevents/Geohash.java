@@ -0,0 +1,152 @@
+package com.example.sulfurevents;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Geohash encoding and viewport cover, for range queries on registration locations.
+ * <p>
+ * A geohash names a latitude/longitude cell with a base-32 string; every character
+ * splits the cell 32 ways, and all points in a cell share its geohash as a prefix. A
+ * location stored with its geohash can therefore be found by a string range query from
+ * any cell containing it to {@link #rangeEnd}, and a map viewport is answered by querying
+ * the few cells that cover it ({@link #cover}).
+ */
+final class Geohash {
+
+    /** Characters stored per location; about 5 m precision, far finer than any query. */
+    static final int STORED_PRECISION = 9;
+
+    /** Most cells {@link #cover} returns, i.e. most queries per viewport. */
+    static final int MAX_CELLS = 12;
+
+    private static final String BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+
+    private Geohash() {
+    }
+
+    /**
+     * @param latitude  -90 to 90
+     * @param longitude -180 to 180
+     * @param precision number of characters
+     * @return geohash of the cell containing the point
+     */
+    static String encode(double latitude, double longitude, int precision) {
+        double minLat = -90, maxLat = 90;
+        double minLng = -180, maxLng = 180;
+        StringBuilder hash = new StringBuilder(precision);
+        boolean lngBit = true;
+        int bits = 0;
+        int value = 0;
+        while (hash.length() < precision) {
+            if (lngBit) {
+                double mid = (minLng + maxLng) / 2;
+                value <<= 1;
+                if (longitude >= mid) {
+                    value |= 1;
+                    minLng = mid;
+                } else {
+                    maxLng = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                value <<= 1;
+                if (latitude >= mid) {
+                    value |= 1;
+                    minLat = mid;
+                } else {
+                    maxLat = mid;
+                }
+            }
+            lngBit = !lngBit;
+            if (++bits == 5) {
+                hash.append(BASE32.charAt(value));
+                bits = 0;
+                value = 0;
+            }
+        }
+        return hash.toString();
+    }
+
+    /** @return width in degrees of a cell with {@code precision} characters */
+    static double cellWidth(int precision) {
+        int lngBits = (5 * precision + 1) / 2;
+        return 360.0 / (1L << lngBits);
+    }
+
+    /** @return height in degrees of a cell with {@code precision} characters */
+    static double cellHeight(int precision) {
+        int latBits = (5 * precision) / 2;
+        return 180.0 / (1L << latBits);
+    }
+
+    /**
+     * Finds the smallest cells that cover a viewport in at most {@link #MAX_CELLS} cells.
+     * A viewport crossing the antimeridian ({@code west > east}) is covered on both sides.
+     *
+     * @return geohashes of the covering cells; a single empty string covers the whole world
+     */
+    static List<String> cover(double south, double west, double north, double east) {
+        for (int precision = STORED_PRECISION; precision >= 1; precision--) {
+            Set<String> cells = new LinkedHashSet<>();
+            boolean fits = west <= east
+                    ? addCells(cells, south, west, north, east, precision)
+                    : addCells(cells, south, west, north, 180, precision)
+                    && addCells(cells, south, -180, north, east, precision);
+            if (fits && cells.size() <= MAX_CELLS) return new ArrayList<>(cells);
+        }
+        List<String> world = new ArrayList<>();
+        world.add("");
+        return world;
+    }
+
+    /** @return false, without adding anything, if the box needs more than {@link #MAX_CELLS} cells */
+    private static boolean addCells(Set<String> cells, double south, double west, double north,
+                                    double east, int precision) {
+        double width = cellWidth(precision);
+        double height = cellHeight(precision);
+        int firstCol = column(west, width);
+        int lastCol = column(east, width);
+        int firstRow = row(south, height);
+        int lastRow = row(north, height);
+        if ((long) (lastCol - firstCol + 1) * (lastRow - firstRow + 1) > MAX_CELLS) return false;
+        for (int r = firstRow; r <= lastRow; r++) {
+            for (int c = firstCol; c <= lastCol; c++) {
+                cells.add(encode(-90 + (r + 0.5) * height, -180 + (c + 0.5) * width, precision));
+            }
+        }
+        return true;
+    }
+
+    private static int column(double longitude, double width) {
+        int count = (int) Math.round(360 / width);
+        return Math.max(0, Math.min(count - 1, (int) Math.floor((longitude + 180) / width)));
+    }
+
+    private static int row(double latitude, double height) {
+        int count = (int) Math.round(180 / height);
+        return Math.max(0, Math.min(count - 1, (int) Math.floor((latitude + 90) / height)));
+    }
+
+    /**
+     * @param cell   cell about to be queried
+     * @param loaded cells whose every location is already loaded
+     * @return true if {@code cell} or a larger cell containing it is in {@code loaded}
+     */
+    static boolean isCovered(String cell, Set<String> loaded) {
+        for (int length = 0; length <= cell.length(); length++) {
+            if (loaded.contains(cell.substring(0, length))) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @param cell a geohash cell
+     * @return the end of its query range, matching every geohash starting with {@code cell}
+     */
+    static String rangeEnd(String cell) {
+        return cell + "\uf8ff";
+    }
+}
@@ -0,0 +1,387 @@
+package com.example.sulfurevents;
+
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Runs an organizer's lottery draw for an event (US 02.05.01 / US 02.05.02).
+ * <p>
+ * A draw has two phases:
+ * <ol>
+ *   <li>{@link #draw(String)} reads the event, computes the free slots from
+ *       {@code limitGuests}, picks random winners from {@code waiting_list} and moves them
+ *       into {@code invited_list}, all inside <b>one Firestore transaction</b>. If an entrant
+ *       joins or leaves while the draw is running, the transaction is retried against the new
+ *       lists, so the event can never be over-invited and nobody is lost between lists.
+ *       The event's entrant counter is checked first, so a full event or an empty waiting
+ *       list is answered with one read per counter shard instead of a transaction over the
+ *       lists. Events in sharded storage (see {@link EntrantStore}) are drawn from their
+ *       subcollections instead, in transactions that are serialized the same way.</li>
+ *   <li>{@link #notifyEntrants(List, Map, String)} delivers the notification and its
+ *       {@code NotificationLogs} entry to every recipient who has notifications enabled,
+ *       using one batched profile lookup and a few {@link WriteBatch} commits instead of
+ *       a read and two writes per winner.</li>
+ * </ol>
+ */
+public final class LotteryEngine {
+
+    private static final String TAG = "LotteryEngine";
+
+    /** Maximum number of writes Firestore accepts in one batch. */
+    public static final int MAX_BATCH_WRITES = 500;
+
+    // Each notified entrant costs a notification, its unread-counter increment and a log write
+    private static final int WRITES_PER_RECIPIENT = 3;
+
+    private final FirebaseFirestore db;
+    private final WinnerSampler sampler;
+
+    /**
+     * Outcome of a committed draw.
+     */
+    public static final class DrawResult {
+        /** Event name, or "Event" if the document has none. */
+        public final String eventName;
+        /** Slots that were free before the draw (may be zero or negative). */
+        public final int available;
+        /** Size of the waiting list before the draw. */
+        public final int waitingCount;
+        /** Entrants moved from the waiting list to the invited list. */
+        public final List<String> winners;
+
+        DrawResult(String eventName, int available, int waitingCount, List<String> winners) {
+            this.eventName = eventName;
+            this.available = available;
+            this.waitingCount = waitingCount;
+            this.winners = winners;
+        }
+    }
+
+    /**
+     * @param db Firestore instance holding the event
+     */
+    public LotteryEngine(FirebaseFirestore db) {
+        this(db, new WinnerSampler());
+    }
+
+    /**
+     * @param db      Firestore instance holding the event
+     * @param sampler picks the winners from the waiting list
+     */
+    public LotteryEngine(FirebaseFirestore db, WinnerSampler sampler) {
+        this.db = db;
+        this.sampler = sampler;
+    }
+
+    /**
+     * Draws as many winners as there are free slots and moves them to the invited list.
+     * Nothing is written when there are no free slots or nobody is waiting; check
+     * {@link DrawResult#winners} to tell these cases apart from a successful draw.
+     *
+     * @param eventId Firestore document ID of the event
+     * @return task completing with the committed result, or failing if the event does not exist
+     */
+    public Task<DrawResult> draw(String eventId) {
+        return EventRepository.getInstance().getServerEvent(eventId).continueWithTask(task -> {
+            if (!task.isSuccessful()) return Tasks.forException(task.getException());
+            if (!task.getResult().exists()) return Tasks.forException(new IllegalStateException("Event not found."));
+            DocumentSnapshot doc = task.getResult();
+
+            return EntrantStore.counts(doc).continueWithTask(counted -> {
+                if (!counted.isSuccessful()) return Tasks.forException(counted.getException());
+                EntrantCounts counts = counted.getResult();
+                int available = capacityOf(doc) - counts.enrolled() - counts.invited();
+                if (available <= 0 || counts.waiting() == 0) {
+                    return Tasks.forResult(new DrawResult(nameOf(doc), available, counts.waiting(), new ArrayList<>()));
+                }
+                return EntrantStore.isSharded(doc) ? drawSharded(doc, available) : drawFromArrays(eventId);
+            });
+        });
+    }
+
+    /**
+     * Array-mode draw: one transaction over the event document, which also updates the
+     * entrant counter. Fails with {@link EventStorageChangedException} if the event was
+     * migrated to sharded storage since it was read, so no arrays are written back onto it.
+     */
+    private Task<DrawResult> drawFromArrays(String eventId) {
+        DocumentReference eventRef = db.collection("Events").document(eventId);
+
+        return db.runTransaction(transaction -> {
+            DocumentSnapshot doc = transaction.get(eventRef);
+            if (!doc.exists()) {
+                throw new IllegalStateException("Event not found.");
+            }
+            if (EntrantStore.isSharded(doc)) {
+                // Migrated since the event was read; the next draw reads the subcollections
+                throw new EventStorageChangedException();
+            }
+
+            List<String> waiting = readList(doc, "waiting_list", "waitingList");
+            List<String> enrolled = readList(doc, "enrolled_list", "enrolledList");
+            List<String> invited = readList(doc, "invited_list", "invitedList");
+
+            String eventName = nameOf(doc);
+            int available = capacityOf(doc) - enrolled.size() - invited.size();
+            if (available <= 0 || waiting.isEmpty()) {
+                return new DrawResult(eventName, available, waiting.size(), new ArrayList<>());
+            }
+
+            // Duplicate IDs in the list are one entrant; sample distinct IDs so the draw fills every slot
+            List<String> candidates = new ArrayList<>(new LinkedHashSet<>(waiting));
+            Set<String> chosen = new LinkedHashSet<>(sampler.sample(candidates, available));
+            List<String> winners = new ArrayList<>(chosen);
+
+            List<String> remaining = new ArrayList<>();
+            for (String id : waiting) {
+                if (!chosen.contains(id)) remaining.add(id);
+            }
+            Set<String> newInvited = new LinkedHashSet<>(invited);
+            int invitedBefore = newInvited.size();
+            newInvited.addAll(winners);
+
+            Map<String, Object> update = new HashMap<>();
+            update.put("waiting_list", remaining);
+            update.put("invited_list", new ArrayList<>(newInvited));
+            Map<String, Long> deltas = new HashMap<>();
+            deltas.put(Memberships.WAITING, (long) -winners.size());
+            deltas.put(Memberships.INVITED, (long) (newInvited.size() - invitedBefore));
+            EntrantStore.countArrayChange(transaction, doc, deltas, update);
+            transaction.update(eventRef, update);
+
+            return new DrawResult(eventName, available, waiting.size(), winners);
+        }).addOnSuccessListener(result -> {
+            // Transaction writes are not applied locally until acknowledged, so make the
+            // next read pick up the new lists rather than the cached pre-draw snapshot
+            if (!result.winners.isEmpty()) EventRepository.getInstance().invalidate(eventId);
+
+            // Index writes for every winner could exceed the transaction's write limit,
+            // so they follow the committed draw in their own batches
+            Memberships.recordAll(db, eventId, result.winners, Memberships.WAITING, Memberships.INVITED)
+                    .addOnFailureListener(e -> Log.w(TAG, "Failed to index invited entrants", e));
+        });
+    }
+
+    /**
+     * Sharded-mode draw. The whole waiting subcollection is read once and candidates are
+     * drawn from it lazily through {@link WinnerSampler#draw}, as many as the free slots
+     * plus one for each candidate found gone; winners are then moved in transactions of up to
+     * {@link EntrantStore#IDS_PER_TRANSACTION}, each of which
+     * <ul>
+     *   <li>reads the entrant counter, so the free slots are exact when it commits. A
+     *       concurrent draw writes the counter too, so two draws are serialized like the
+     *       array-mode draw.</li>
+     *   <li>re-reads each candidate's waiting entry and skips anyone who left since the
+     *       waiting list was read; the next candidates in the draw order take their slots.</li>
+     * </ul>
+     * Only entrants a transaction really moved are reported as winners. If a later
+     * transaction fails, the winners already committed are still returned, so they are
+     * notified.
+     *
+     * @param available free slots according to the entrant counter
+     */
+    private Task<DrawResult> drawSharded(DocumentSnapshot doc, int available) {
+        String eventId = doc.getId();
+        String eventName = nameOf(doc);
+        int capacity = capacityOf(doc);
+        return EntrantStore.entrants(db, eventId, Memberships.WAITING)
+                .orderBy("since", Query.Direction.ASCENDING).get()
+                .continueWithTask(read -> {
+                    if (!read.isSuccessful()) return Tasks.forException(read.getException());
+                    List<String> waiting = new ArrayList<>();
+                    for (DocumentSnapshot entrant : read.getResult().getDocuments()) {
+                        waiting.add(entrant.getId());
+                    }
+                    WinnerSampler.Draw<String> order = sampler.draw(waiting);
+                    List<String> winners = new ArrayList<>();
+                    return drawShardedChunk(eventId, capacity, order, new ArrayList<>(), winners).continueWith(done -> {
+                        if (!winners.isEmpty()) EventRepository.getInstance().invalidate(eventId);
+                        if (!done.isSuccessful()) {
+                            if (winners.isEmpty()) throw done.getException();
+                            Log.w(TAG, "Draw stopped after " + winners.size() + " winner(s)", done.getException());
+                        }
+                        return new DrawResult(eventName, available, waiting.size(), winners);
+                    });
+                });
+    }
+
+    /** What one transaction of a sharded draw did. */
+    private static final class ShardedDraw {
+        final List<String> moved = new ArrayList<>();
+        /** Drawn candidates this transaction used up. */
+        int consumed;
+        /** True once no slot is left. */
+        boolean full;
+    }
+
+    /**
+     * Runs one transaction over the next drawn candidates, then continues until the event
+     * is full or every waiting entrant was drawn.
+     *
+     * @param order   draw over the waiting list
+     * @param drawn   candidates drawn but not used yet; a retried transaction reuses them
+     * @param winners collects the entrants moved so far
+     */
+    private Task<Void> drawShardedChunk(String eventId, int capacity, WinnerSampler.Draw<String> order,
+                                        List<String> drawn, List<String> winners) {
+        if (drawn.isEmpty() && !order.hasNext()) return Tasks.forResult(null);
+        ShardedCounter counter = EntrantStore.counter(db, eventId);
+
+        return db.runTransaction(transaction -> {
+            ShardedDraw draw = new ShardedDraw();
+            EntrantCounts counts = EntrantCounts.of(counter.read(transaction));
+            int free = capacity - counts.enrolled() - counts.invited();
+            if (free <= 0) {
+                draw.full = true;
+                return draw;
+            }
+
+            int wanted = Math.min(free, EntrantStore.IDS_PER_TRANSACTION);
+            while (drawn.size() < wanted && order.hasNext()) drawn.add(order.next());
+            List<String> chunk = new ArrayList<>(drawn.subList(0, Math.min(wanted, drawn.size())));
+            List<DocumentSnapshot> inWaiting = new ArrayList<>();
+            List<DocumentSnapshot> inInvited = new ArrayList<>();
+            for (String id : chunk) {
+                inWaiting.add(transaction.get(EntrantStore.entrants(db, eventId, Memberships.WAITING).document(id)));
+                inInvited.add(transaction.get(EntrantStore.entrants(db, eventId, Memberships.INVITED).document(id)));
+            }
+
+            long now = System.currentTimeMillis();
+            long entered = 0;
+            for (int i = 0; i < chunk.size(); i++) {
+                // Left the waiting list since it was read
+                if (!inWaiting.get(i).exists()) continue;
+                String id = chunk.get(i);
+                transaction.delete(inWaiting.get(i).getReference());
+                if (!inInvited.get(i).exists()) {
+                    transaction.set(inInvited.get(i).getReference(), EntrantStore.entry(id, now));
+                    entered++;
+                }
+                Memberships.record(transaction, db, id, eventId, Memberships.WAITING, Memberships.INVITED);
+                draw.moved.add(id);
+            }
+
+            Map<String, Long> deltas = new HashMap<>();
+            deltas.put(Memberships.WAITING, (long) -draw.moved.size());
+            deltas.put(Memberships.INVITED, entered);
+            counter.add(transaction, deltas);
+            draw.consumed = chunk.size();
+            draw.full = entered >= free;
+            return draw;
+        }).continueWithTask(task -> {
+            if (!task.isSuccessful()) return Tasks.forException(task.getException());
+            ShardedDraw draw = task.getResult();
+            winners.addAll(draw.moved);
+            drawn.subList(0, draw.consumed).clear();
+            if (draw.full) return Tasks.forResult(null);
+            return drawShardedChunk(eventId, capacity, order, drawn, winners);
+        });
+    }
+
+    /** @return {@code limitGuests} of the event, or 0 if missing or not a number */
+    private static int capacityOf(DocumentSnapshot doc) {
+        try {
+            return Integer.parseInt(doc.getString("limitGuests"));
+        } catch (Exception ignored) {
+            return 0;
+        }
+    }
+
+    /** @return the event name, or "Event" if the document has none */
+    private static String nameOf(DocumentSnapshot doc) {
+        String rawName = doc.getString("eventName");
+        return (rawName != null && !rawName.isEmpty()) ? rawName : "Event";
+    }
+
+    /**
+     * Sends one notification to each recipient whose profile has notifications enabled
+     * (a missing flag or profile counts as enabled) and logs each one for administrators.
+     * Recipients whose profile could not be read are skipped, since they may have opted out.
+     *
+     * @param recipients device IDs to notify
+     * @param notif      notification payload; must contain {@code eventId}, {@code eventName},
+     *                   {@code type} and {@code message}
+     * @param senderId   device ID of the organizer sending it
+     * @return task completing with the number of notifications written
+     */
+    public Task<Integer> notifyEntrants(List<String> recipients, Map<String, Object> notif, String senderId) {
+        // The opt-out may have just changed on the entrant's device, so skip cached profiles
+        return ProfileBatchLoader.getInstance().loadFresh(recipients).continueWithTask(loaded -> {
+            if (!loaded.isSuccessful()) return Tasks.forException(loaded.getException());
+            Map<String, DocumentSnapshot> profiles = loaded.getResult();
+
+            List<String> enabled = new ArrayList<>();
+            int unknown = 0;
+            for (String id : new LinkedHashSet<>(recipients)) {
+                // Profile could not be read: its opt-out is unknown, so it is not notified
+                if (!profiles.containsKey(id)) {
+                    unknown++;
+                    continue;
+                }
+                DocumentSnapshot profile = profiles.get(id);
+                Boolean flag = profile != null ? profile.getBoolean("notificationsEnabled") : null;
+                if (flag == null || flag) enabled.add(id);
+            }
+
+            long now = System.currentTimeMillis();
+            int perBatch = MAX_BATCH_WRITES / WRITES_PER_RECIPIENT;
+            List<Task<Void>> commits = new ArrayList<>();
+
+            for (int start = 0; start < enabled.size(); start += perBatch) {
+                WriteBatch batch = db.batch();
+                for (String targetId : enabled.subList(start, Math.min(start + perBatch, enabled.size()))) {
+                    Map<String, Object> copy = new HashMap<>(notif);
+                    copy.put("timestamp", now);
+                    copy.put("read", false);
+                    NotificationCounters.addNotification(batch, targetId, copy);
+
+                    batch.set(db.collection("NotificationLogs").document(),
+                            buildLog(senderId, targetId, notif, now));
+                }
+                commits.add(batch.commit());
+            }
+
+            if (unknown > 0) Log.w(TAG, "Skipped " + unknown + " entrant(s) whose profile could not be read");
+            Log.d(TAG, "Notifying " + enabled.size() + " entrant(s) in " + commits.size() + " batch(es)");
+            return Tasks.whenAll(commits).continueWith(done -> {
+                if (!done.isSuccessful()) throw done.getException();
+                return enabled.size();
+            });
+        });
+    }
+
+    /** Builds the admin-visible log row for one delivered notification (US 03.08.01). */
+    private static Map<String, Object> buildLog(String senderId, String targetId,
+                                                Map<String, Object> notif, long timestamp) {
+        Map<String, Object> log = new HashMap<>();
+        log.put("senderId", senderId);
+        log.put("senderRole", "ORGANIZER");
+        log.put("recipientId", targetId);
+        log.put("eventId", notif.get("eventId"));
+        log.put("eventName", notif.get("eventName"));
+        log.put("type", notif.get("type"));
+        log.put("message", notif.get("message"));
+        log.put("timestamp", timestamp);
+        return log;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> readList(DocumentSnapshot doc, String field, String legacyField) {
+        Object value = doc.get(field) != null ? doc.get(field) : doc.get(legacyField);
+        return value instanceof List ? new ArrayList<>((List<String>) value) : new ArrayList<>();
+    }
+}
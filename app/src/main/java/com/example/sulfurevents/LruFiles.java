@@ -0,0 +1,58 @@
+package com.example.sulfurevents;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Least-recently-used bookkeeping for a directory of cache files.
+ * <p>
+ * A file's last-modified time stands for its last use: {@link #touch(File)} it on every
+ * hit, and {@link #trim(File, long)} deletes the files used longest ago until the
+ * directory fits its budget. Keeping the order in the file system means it survives
+ * process restarts without an index file of its own.
+ */
+final class LruFiles {
+
+    private LruFiles() {
+    }
+
+    /**
+     * Marks a cache file as just used.
+     *
+     * @param file file that was read
+     */
+    static void touch(File file) {
+        //noinspection ResultOfMethodCallIgnored
+        file.setLastModified(System.currentTimeMillis());
+    }
+
+    /**
+     * Deletes the least recently used files until the directory holds at most
+     * {@code maxBytes}.
+     *
+     * @param dir      cache directory; subdirectories are ignored
+     * @param maxBytes size budget of the directory
+     * @return number of files deleted
+     */
+    static int trim(File dir, long maxBytes) {
+        File[] files = dir.listFiles(File::isFile);
+        if (files == null) return 0;
+
+        long total = 0;
+        for (File file : files) total += file.length();
+        if (total <= maxBytes) return 0;
+
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        int deleted = 0;
+        for (File file : files) {
+            if (total <= maxBytes) break;
+            long length = file.length();
+            if (file.delete()) {
+                total -= length;
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+}
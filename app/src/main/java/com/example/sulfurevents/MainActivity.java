@@ -49,6 +49,9 @@ public class MainActivity extends AppCompatActivity {
 
                     if (document.exists()) {
 
+                        // Archive old notifications in the background (at most weekly)
+                        NotificationCompactor.runIfDue(getApplicationContext(), deviceId);
+
                         // Profile exists → always go to ProfileActivity
                         Intent intent = new Intent(MainActivity.this, ProfileActivity.class);
                         intent.putExtra("deviceId", deviceId);
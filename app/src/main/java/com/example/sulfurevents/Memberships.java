@@ -0,0 +1,358 @@
+package com.example.sulfurevents;
+
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.Transaction;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Moves entrants between an event's lists and keeps the per-profile membership index.
+ * <p>
+ * An entrant's state in an event is one of {@link #WAITING}, {@link #INVITED},
+ * {@link #ENROLLED} or {@link #CANCELLED}, stored as the entrant's device ID in the
+ * matching {@code <status>_list} array of {@code Events/{eventId}}. Next to that, every
+ * profile has an index {@code Profiles/{deviceId}/memberships/{eventId}} holding every
+ * status the entrant currently has in that event, as a {@code statuses} map (an entrant
+ * can be on the waiting list again after being cancelled). Each transition only clears the
+ * status it leaves and sets the one it enters, so leaving one list never hides another one
+ * from the index. {@link #move} writes both, together with the
+ * event's entrant counter, in the same transaction, so the index and the counts follow
+ * every transition. Events in sharded storage keep their lists in subcollections instead;
+ * {@link #move} handles both (see {@link EntrantStore}).
+ * <p>
+ * The index lets account deletion ({@link #removeFromAllEvents}) touch only the events the
+ * entrant belongs to instead of scanning every event.
+ */
+public final class Memberships {
+
+    private static final String TAG = "Memberships";
+
+    /** On the waiting list. */
+    public static final String WAITING = "waiting";
+    /** Drawn in the lottery, invitation not answered yet. */
+    public static final String INVITED = "invited";
+    /** Accepted the invitation. */
+    public static final String ENROLLED = "enrolled";
+    /** Declined, or cancelled by the organizer. */
+    public static final String CANCELLED = "cancelled";
+
+    /** All statuses, in lifecycle order. */
+    public static final String[] STATUSES = {WAITING, INVITED, ENROLLED, CANCELLED};
+
+    /** Firestore allows 500 writes per batch; one is kept for the event update. */
+    static final int MAX_IDS_PER_BATCH = 499;
+
+    private Memberships() {
+    }
+
+    /**
+     * @param status one of {@link #STATUSES}
+     * @return the event field holding entrants in that status, e.g. {@code waiting_list}
+     */
+    public static String listField(String status) {
+        return status + "_list";
+    }
+
+    /**
+     * @return the membership index document of an entrant in an event
+     */
+    public static DocumentReference indexRef(FirebaseFirestore db, String deviceId, String eventId) {
+        return db.collection("Profiles").document(deviceId)
+                .collection("memberships").document(eventId);
+    }
+
+    /**
+     * Adds the index write for one entrant to a batch.
+     *
+     * @param from status the entrant left, or null if they joined
+     * @param to   status the entrant entered, or null if they left it without a new one
+     */
+    public static void record(WriteBatch batch, FirebaseFirestore db, String deviceId,
+                              String eventId, @Nullable String from, @Nullable String to) {
+        batch.set(indexRef(db, deviceId, eventId), indexEntry(eventId, from, to), SetOptions.merge());
+    }
+
+    /**
+     * Adds the index write for one entrant to a transaction.
+     *
+     * @param from status the entrant left, or null if they joined
+     * @param to   status the entrant entered, or null if they left it without a new one
+     */
+    public static void record(Transaction transaction, FirebaseFirestore db, String deviceId,
+                              String eventId, @Nullable String from, @Nullable String to) {
+        transaction.set(indexRef(db, deviceId, eventId), indexEntry(eventId, from, to), SetOptions.merge());
+    }
+
+    /**
+     * Merge update clearing {@code from} and setting {@code to}; the other statuses are kept.
+     * The single {@code status} field of older entries is dropped, since it may name the
+     * status just left.
+     */
+    private static Map<String, Object> indexEntry(String eventId, @Nullable String from, @Nullable String to) {
+        Map<String, Object> statuses = new HashMap<>();
+        if (from != null) statuses.put(from, FieldValue.delete());
+        if (to != null) statuses.put(to, true);
+
+        Map<String, Object> entry = new HashMap<>();
+        entry.put("eventId", eventId);
+        entry.put("statuses", statuses);
+        entry.put("status", FieldValue.delete());
+        entry.put("updatedAt", System.currentTimeMillis());
+        return entry;
+    }
+
+    /**
+     * @param index a membership index document
+     * @return the statuses it lists, including the single status of older entries
+     */
+    static Set<String> statusesOf(DocumentSnapshot index) {
+        Set<String> statuses = new LinkedHashSet<>();
+        Object map = index.get("statuses");
+        if (map instanceof Map) {
+            for (Map.Entry<?, ?> e : ((Map<?, ?>) map).entrySet()) {
+                if (Boolean.TRUE.equals(e.getValue())) statuses.add(String.valueOf(e.getKey()));
+            }
+        }
+        String legacy = index.getString("status");
+        if (legacy != null) statuses.add(legacy);
+        return statuses;
+    }
+
+    /**
+     * Moves entrants from one list of an event to another and updates their index entries,
+     * in whichever storage mode the event uses (see {@link EntrantStore}). Large moves are
+     * split into several transactions; each one updates the lists, the index and the
+     * entrant counter together. Entrants not in {@code from} are skipped. Call from the
+     * main thread.
+     *
+     * @param db        Firestore instance
+     * @param eventId   event to update
+     * @param deviceIds entrants to move
+     * @param from      status they leave, or null if they are joining
+     * @param to        status they enter, or null if they are leaving the event
+     * @return task completing when every transaction is committed
+     */
+    public static Task<Void> move(FirebaseFirestore db, String eventId, List<String> deviceIds,
+                                  @Nullable String from, @Nullable String to) {
+        return moveCounting(db, eventId, deviceIds, from, to).continueWith(task -> {
+            if (!task.isSuccessful()) throw task.getException();
+            return null;
+        });
+    }
+
+    /**
+     * Same as {@link #move}, for callers that need to know whether anyone was in
+     * {@code from}.
+     *
+     * @return task completing with the number of entrants actually moved
+     */
+    public static Task<Integer> moveCounting(FirebaseFirestore db, String eventId, List<String> deviceIds,
+                                             @Nullable String from, @Nullable String to) {
+        List<String> ids = new ArrayList<>(new LinkedHashSet<>(deviceIds));
+        if (ids.isEmpty()) return Tasks.forResult(0);
+
+        return EventRepository.getInstance().getEvent(eventId).continueWithTask(task -> {
+            if (task.isSuccessful() && EntrantStore.isSharded(task.getResult())) {
+                return EntrantStore.moveSharded(db, eventId, ids, from, to);
+            }
+            return moveInArrays(db, eventId, ids, from, to);
+        });
+    }
+
+    /**
+     * Array-mode move: one transaction per {@link EntrantStore#IDS_PER_TRANSACTION} entrants.
+     * Reading the event first tells which entrants really change lists, so the counter
+     * deltas stay exact when a move is repeated or races another one.
+     */
+    private static Task<Integer> moveInArrays(FirebaseFirestore db, String eventId, List<String> ids,
+                                              @Nullable String from, @Nullable String to) {
+        DocumentReference eventRef = db.collection("Events").document(eventId);
+        List<Task<Integer>> commits = new ArrayList<>();
+        for (int start = 0; start < ids.size(); start += EntrantStore.IDS_PER_TRANSACTION) {
+            List<String> chunk = ids.subList(start, Math.min(start + EntrantStore.IDS_PER_TRANSACTION, ids.size()));
+            commits.add(db.runTransaction(transaction -> {
+                DocumentSnapshot event = transaction.get(eventRef);
+                if (!event.exists()) {
+                    // Leaving a deleted event leaves nothing to update
+                    if (to == null) return 0;
+                    throw new IllegalStateException("Event not found.");
+                }
+                if (EntrantStore.isSharded(event)) {
+                    // Migrated since the cached snapshot was taken; a retry routes to moveSharded
+                    throw new EventStorageChangedException();
+                }
+
+                Set<String> inFrom = from != null ? new HashSet<>(EntrantStore.arrayOf(event, from)) : null;
+                Set<String> inTo = to != null ? new HashSet<>(EntrantStore.arrayOf(event, to)) : new HashSet<>();
+                List<String> moved = new ArrayList<>();
+                long entered = 0;
+                for (String id : chunk) {
+                    if (inFrom != null && !inFrom.contains(id)) continue;
+                    moved.add(id);
+                    if (to != null && !inTo.contains(id)) entered++;
+                }
+                if (moved.isEmpty()) return 0;
+
+                Object[] values = moved.toArray();
+                Map<String, Object> update = new HashMap<>();
+                Map<String, Long> deltas = new HashMap<>();
+                if (from != null) {
+                    update.put(listField(from), FieldValue.arrayRemove(values));
+                    deltas.put(from, (long) -moved.size());
+                }
+                if (to != null) {
+                    update.put(listField(to), FieldValue.arrayUnion(values));
+                    deltas.put(to, entered);
+                }
+                EntrantStore.countArrayChange(transaction, event, deltas, update);
+                transaction.update(eventRef, update);
+                for (String id : moved) {
+                    record(transaction, db, id, eventId, from, to);
+                }
+                return moved.size();
+            }));
+        }
+        // Transaction writes reach the cache only once acknowledged, and a failure may mean
+        // the cached snapshot is outdated, so the next read starts fresh either way
+        return sum(commits)
+                .addOnCompleteListener(done -> EventRepository.getInstance().invalidate(eventId));
+    }
+
+    /**
+     * @param commits transactions each completing with the number of entrants they moved
+     * @return task completing with the total, or failing like the first failed transaction
+     */
+    static Task<Integer> sum(List<Task<Integer>> commits) {
+        return Tasks.whenAll(commits).continueWith(done -> {
+            int total = 0;
+            for (Task<Integer> commit : commits) {
+                // The transaction's own exception, so callers can tell why it failed
+                if (!commit.isSuccessful()) throw commit.getException();
+                total += commit.getResult();
+            }
+            return total;
+        });
+    }
+
+    /**
+     * Writes index entries for entrants whose lists were already changed elsewhere,
+     * e.g. by a transaction that could not also hold all the index writes.
+     *
+     * @param from status every entrant left, or null if they joined
+     * @param to   status every entrant entered, or null if they left the event
+     * @return task completing when every batch is committed
+     */
+    public static Task<Void> recordAll(FirebaseFirestore db, String eventId, List<String> deviceIds,
+                                       @Nullable String from, @Nullable String to) {
+        List<Task<Void>> commits = new ArrayList<>();
+        for (int start = 0; start < deviceIds.size(); start += MAX_IDS_PER_BATCH) {
+            WriteBatch batch = db.batch();
+            for (String id : deviceIds.subList(start, Math.min(start + MAX_IDS_PER_BATCH, deviceIds.size()))) {
+                record(batch, db, id, eventId, from, to);
+            }
+            commits.add(batch.commit());
+        }
+        return Tasks.whenAll(commits);
+    }
+
+    /**
+     * Removes an entrant from every event list they are in and deletes their index.
+     * <p>
+     * The index names the events to clean up. Because entrants who joined before the index
+     * existed have no entries, events whose lists still contain the entrant are also found
+     * with one {@code array-contains} query per list; both are bounded by the entrant's own
+     * memberships, not by the number of events. Each list is left through {@link #move}, so
+     * the events' entrant counters stay exact. Those moves write the index too, so the
+     * index documents are deleted only once they are done, in batches of 500.
+     *
+     * @param db       Firestore instance
+     * @param deviceId entrant being deleted
+     * @return task completing with the number of events the entrant was removed from
+     */
+    public static Task<Integer> removeFromAllEvents(FirebaseFirestore db, String deviceId) {
+        List<Task<QuerySnapshot>> reads = new ArrayList<>();
+        reads.add(db.collection("Profiles").document(deviceId).collection("memberships").get());
+        for (String status : STATUSES) {
+            reads.add(db.collection("Events").whereArrayContains(listField(status), deviceId).get());
+        }
+
+        return Tasks.<QuerySnapshot>whenAllSuccess(reads).continueWithTask(task -> {
+            if (!task.isSuccessful()) return Tasks.forException(task.getException());
+            List<QuerySnapshot> results = task.getResult();
+
+            // Statuses held per event; query i + 1 searched STATUSES[i]
+            Map<String, Set<String>> held = new LinkedHashMap<>();
+            for (int i = 1; i < results.size(); i++) {
+                for (DocumentSnapshot doc : results.get(i).getDocuments()) {
+                    addStatus(held, doc.getId(), STATUSES[i - 1]);
+                }
+            }
+            for (DocumentSnapshot doc : results.get(0).getDocuments()) {
+                for (String status : statusesOf(doc)) addStatus(held, doc.getId(), status);
+            }
+
+            List<Task<Void>> commits = new ArrayList<>();
+            for (Map.Entry<String, Set<String>> e : held.entrySet()) {
+                for (String status : e.getValue()) {
+                    commits.add(move(db, e.getKey(), Collections.singletonList(deviceId), status, null));
+                }
+            }
+
+            Log.d(TAG, "Removing " + deviceId + " from " + held.size() + " event(s) in "
+                    + commits.size() + " move(s)");
+            int touched = held.size();
+            return Tasks.whenAll(commits)
+                    .onSuccessTask(done -> deleteIndex(db, deviceId))
+                    .continueWith(done -> {
+                        if (!done.isSuccessful()) throw done.getException();
+                        return touched;
+                    });
+        });
+    }
+
+    /** Deletes every membership index document of a profile. */
+    private static Task<Void> deleteIndex(FirebaseFirestore db, String deviceId) {
+        return db.collection("Profiles").document(deviceId).collection("memberships").get()
+                .onSuccessTask(snapshots -> {
+                    List<DocumentSnapshot> docs = snapshots.getDocuments();
+                    List<Task<Void>> commits = new ArrayList<>();
+                    for (int start = 0; start < docs.size(); start += 500) {
+                        WriteBatch batch = db.batch();
+                        for (DocumentSnapshot doc : docs.subList(start, Math.min(start + 500, docs.size()))) {
+                            batch.delete(doc.getReference());
+                        }
+                        commits.add(batch.commit());
+                    }
+                    return Tasks.whenAll(commits);
+                });
+    }
+
+    private static void addStatus(Map<String, Set<String>> held, String eventId, String status) {
+        Set<String> statuses = held.get(eventId);
+        if (statuses == null) {
+            statuses = new LinkedHashSet<>();
+            held.put(eventId, statuses);
+        }
+        statuses.add(status);
+    }
+}
@@ -0,0 +1,298 @@
+package com.example.sulfurevents;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Archives old notifications of a profile into digests and deletes the originals.
+ * <p>
+ * Every join, leave, accept, decline and lottery outcome adds a document to
+ * {@code Profiles/{deviceId}/notifications}, and nothing removed them. A compaction run:
+ * <ol>
+ *   <li>Pages through notifications older than the retention age, oldest first,
+ *       {@link #PAGE_SIZE} at a time.</li>
+ *   <li>Writes an entry (source ID, type, event, message, timestamp) for each read notification
+ *       into new digest documents of its month,
+ *       {@code Profiles/{deviceId}/notification_digests/{yyyy-MM}_{first source ID}}. A month
+ *       gets as many digests as it needs, each at most {@link #MAX_DIGEST_BYTES}, so no
+ *       digest grows toward the document size limit.</li>
+ *   <li>Deletes the originals in the same {@link WriteBatch}, so a notification is never
+ *       deleted without being archived.</li>
+ * </ol>
+ * Unread notifications are never compacted: an old invitation still needs an answer and
+ * still counts in {@link NotificationCounters}.
+ * <p>
+ * Archived notifications stay visible: {@link EntrantHistoryActivity} reads the digests,
+ * newest month first, once the live history is exhausted. The administrators' copies in
+ * {@code NotificationLogs} are separate documents and are not compacted.
+ * <p>
+ * {@link #runIfDue(Context, String)} runs this at most once per {@link #RUN_INTERVAL_MS}
+ * per device and stores a {@link Report} of the documents and bytes reclaimed at
+ * {@code Profiles/{deviceId}/meta/compaction}.
+ */
+public final class NotificationCompactor {
+
+    private static final String TAG = "NotificationCompactor";
+
+    /** Notifications older than this are archived by default. */
+    public static final long DEFAULT_MAX_AGE_MS = TimeUnit.DAYS.toMillis(90);
+
+    /** Minimum time between two scheduled runs on one device. */
+    public static final long RUN_INTERVAL_MS = TimeUnit.DAYS.toMillis(7);
+
+    /**
+     * Notifications read and deleted per batch. Half the batch limit, so the batch still
+     * fits if every notification of the page ends up in its own digest.
+     */
+    static final int PAGE_SIZE = 250;
+
+    /** Estimated size at which a digest is closed and the next entries start a new one. */
+    static final long MAX_DIGEST_BYTES = 256 * 1024;
+
+    private static final String PREFS = "notification_compaction";
+    private static final String KEY_LAST_RUN = "lastRun";
+
+    // Only one run per process at a time
+    private static boolean running = false;
+
+    private final FirebaseFirestore db;
+    private final long maxAgeMillis;
+
+    /**
+     * Totals of one compaction run.
+     */
+    public static final class Report {
+        /** Notifications deleted after being archived. */
+        public final int documentsDeleted;
+        /** Digest documents written. */
+        public final int digestsWritten;
+        /** Estimated storage of the deleted notifications. */
+        public final long bytesDeleted;
+        /** Estimated storage added to the digests. */
+        public final long bytesAdded;
+
+        Report(int documentsDeleted, int digestsWritten, long bytesDeleted, long bytesAdded) {
+            this.documentsDeleted = documentsDeleted;
+            this.digestsWritten = digestsWritten;
+            this.bytesDeleted = bytesDeleted;
+            this.bytesAdded = bytesAdded;
+        }
+
+        /** @return net storage saved, in bytes */
+        public long bytesReclaimed() {
+            return bytesDeleted - bytesAdded;
+        }
+
+        @Override
+        public String toString() {
+            return documentsDeleted + " notification(s) archived into " + digestsWritten
+                    + " digest write(s), " + bytesReclaimed() + " bytes reclaimed";
+        }
+    }
+
+    /** Running totals while pages are processed. */
+    private static final class Totals {
+        int deleted;
+        int digests;
+        long bytesDeleted;
+        long bytesAdded;
+    }
+
+    /**
+     * @param db           Firestore instance
+     * @param maxAgeMillis notifications older than this are archived
+     */
+    public NotificationCompactor(FirebaseFirestore db, long maxAgeMillis) {
+        this.db = db;
+        this.maxAgeMillis = maxAgeMillis;
+    }
+
+    /**
+     * Compacts the profile's notifications if the last run on this device was more than
+     * {@link #RUN_INTERVAL_MS} ago. Safe to call on every app start.
+     *
+     * @param context  any context
+     * @param deviceId profile to compact
+     */
+    public static void runIfDue(Context context, String deviceId) {
+        SharedPreferences prefs = context.getApplicationContext()
+                .getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+        long now = System.currentTimeMillis();
+        if (running || now - prefs.getLong(KEY_LAST_RUN, 0) < RUN_INTERVAL_MS) return;
+        running = true;
+
+        FirebaseFirestore db = FirebaseFirestore.getInstance();
+        new NotificationCompactor(db, DEFAULT_MAX_AGE_MS).compact(deviceId)
+                .addOnSuccessListener(report -> {
+                    prefs.edit().putLong(KEY_LAST_RUN, now).apply();
+                    Log.i(TAG, "Compaction for " + deviceId + ": " + report);
+
+                    Map<String, Object> summary = new HashMap<>();
+                    summary.put("lastRun", now);
+                    summary.put("documentsDeleted", report.documentsDeleted);
+                    summary.put("digestsWritten", report.digestsWritten);
+                    summary.put("bytesReclaimed", report.bytesReclaimed());
+                    summary.put("totalDocumentsDeleted", FieldValue.increment(report.documentsDeleted));
+                    summary.put("totalBytesReclaimed", FieldValue.increment(report.bytesReclaimed()));
+                    db.collection("Profiles").document(deviceId)
+                            .collection("meta").document("compaction")
+                            .set(summary, SetOptions.merge());
+                })
+                .addOnFailureListener(e -> Log.w(TAG, "Compaction failed; will retry next start", e))
+                .addOnCompleteListener(task -> running = false);
+    }
+
+    /**
+     * Archives and deletes the profile's read notifications older than the retention age.
+     *
+     * @param deviceId profile to compact
+     * @return task completing with the totals of the run
+     */
+    public Task<Report> compact(String deviceId) {
+        long cutoff = System.currentTimeMillis() - maxAgeMillis;
+        Totals totals = new Totals();
+        return compactPage(deviceId, cutoff, null, totals).continueWith(task -> {
+            if (!task.isSuccessful()) throw task.getException();
+            return new Report(totals.deleted, totals.digests, totals.bytesDeleted, totals.bytesAdded);
+        });
+    }
+
+    /** Archives one page, then continues after its last document until a short page. */
+    private Task<Void> compactPage(String deviceId, long cutoff, DocumentSnapshot after, Totals totals) {
+        CollectionReference notifications = db.collection("Profiles").document(deviceId).collection("notifications");
+        Query query = notifications
+                .whereLessThan("timestamp", cutoff)
+                .orderBy("timestamp", Query.Direction.ASCENDING)
+                .limit(PAGE_SIZE);
+        if (after != null) query = query.startAfter(after);
+
+        return query.get().continueWithTask(task -> {
+            if (!task.isSuccessful()) return Tasks.forException(task.getException());
+            List<DocumentSnapshot> docs = task.getResult().getDocuments();
+            if (docs.isEmpty()) return Tasks.forResult(null);
+
+            WriteBatch batch = db.batch();
+            Map<String, List<Map<String, Object>>> byMonth = new LinkedHashMap<>();
+            int deleted = 0;
+
+            for (DocumentSnapshot doc : docs) {
+                if (!Boolean.TRUE.equals(doc.getBoolean("read"))) continue;
+
+                Map<String, Object> data = doc.getData();
+                if (data == null) continue;
+
+                Map<String, Object> entry = digestEntry(doc);
+                String key = monthKey((Long) entry.get("timestamp"));
+                List<Map<String, Object>> month = byMonth.get(key);
+                if (month == null) {
+                    month = new ArrayList<>();
+                    byMonth.put(key, month);
+                }
+                month.add(entry);
+
+                batch.delete(doc.getReference());
+                totals.bytesDeleted += DocumentSizeEstimator.documentSize(doc.getReference().getPath(), data);
+                deleted++;
+            }
+
+            CollectionReference digests = db.collection("Profiles").document(deviceId)
+                    .collection("notification_digests");
+            int digestCount = 0;
+            for (Map.Entry<String, List<Map<String, Object>>> month : byMonth.entrySet()) {
+                for (List<Map<String, Object>> part : splitBySize(month.getValue())) {
+                    // Named after the first source notification: a fresh document per part,
+                    // and the same one again if a failed page is retried
+                    String digestId = month.getKey() + "_" + part.get(0).get("id");
+                    Map<String, Object> digest = new HashMap<>();
+                    digest.put("month", month.getKey());
+                    digest.put("count", part.size());
+                    digest.put("entries", part);
+                    batch.set(digests.document(digestId), digest);
+
+                    for (Map<String, Object> entry : part) {
+                        totals.bytesAdded += DocumentSizeEstimator.valueSize(entry);
+                    }
+                    digestCount++;
+                }
+            }
+
+            totals.deleted += deleted;
+            totals.digests += digestCount;
+            DocumentSnapshot last = docs.get(docs.size() - 1);
+            boolean more = docs.size() == PAGE_SIZE;
+
+            Task<Void> commit = deleted > 0 ? batch.commit() : Tasks.forResult(null);
+            return commit.continueWithTask(done -> {
+                if (!done.isSuccessful()) return Tasks.forException(done.getException());
+                return more ? compactPage(deviceId, cutoff, last, totals) : Tasks.forResult(null);
+            });
+        });
+    }
+
+    /**
+     * Splits the entries of one month into parts of at most {@link #MAX_DIGEST_BYTES}.
+     */
+    private static List<List<Map<String, Object>>> splitBySize(List<Map<String, Object>> entries) {
+        List<List<Map<String, Object>>> parts = new ArrayList<>();
+        List<Map<String, Object>> part = new ArrayList<>();
+        long bytes = 0;
+        for (Map<String, Object> entry : entries) {
+            long size = DocumentSizeEstimator.valueSize(entry);
+            if (!part.isEmpty() && bytes + size > MAX_DIGEST_BYTES) {
+                parts.add(part);
+                part = new ArrayList<>();
+                bytes = 0;
+            }
+            part.add(entry);
+            bytes += size;
+        }
+        if (!part.isEmpty()) parts.add(part);
+        return parts;
+    }
+
+    /**
+     * The fields of a notification shown in the history. The message is kept as written,
+     * since it varies by sender; the source ID keeps identical notifications apart.
+     */
+    private static Map<String, Object> digestEntry(DocumentSnapshot doc) {
+        Map<String, Object> entry = new HashMap<>();
+        entry.put("id", doc.getId());
+        Long timestamp = doc.getLong("timestamp");
+        entry.put("timestamp", timestamp != null ? timestamp : 0L);
+        putIfPresent(entry, "type", doc.getString("type"));
+        putIfPresent(entry, "eventId", doc.getString("eventId"));
+        putIfPresent(entry, "eventName", doc.getString("eventName"));
+        putIfPresent(entry, "message", doc.getString("message"));
+        return entry;
+    }
+
+    private static void putIfPresent(Map<String, Object> map, String key, Object value) {
+        if (value != null) map.put(key, value);
+    }
+
+    /** Digest document ID of the month a timestamp falls in, e.g. "2025-03". */
+    static String monthKey(long timestamp) {
+        return new SimpleDateFormat("yyyy-MM", Locale.US).format(new Date(timestamp));
+    }
+}
@@ -0,0 +1,426 @@
+package com.example.sulfurevents;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.Source;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Maintains the unread-notification counters of a profile.
+ * <p>
+ * Each profile has one counter document at
+ * {@code Profiles/{deviceId}/meta/notification_counts}:
+ * <ul>
+ *   <li>{@code unread} – number of unread notifications</li>
+ *   <li>{@code unreadByType.<TYPE>} – the same count split by notification type
+ *       (INVITED, NOT_SELECTED, WAITING, ...)</li>
+ * </ul>
+ * The counters are changed with {@link FieldValue#increment(long)} in the same
+ * {@link WriteBatch} that creates or deletes a notification, or the transaction that marks
+ * it read ({@link #markAllRead}), so they
+ * move together with the notifications. Screens that only need "how many unread?" read or listen to this
+ * one document instead of querying the whole {@code notifications} subcollection.
+ *
+ * <p>Profiles that predate the counters have no counter document, or only one created by
+ * increments since then. {@link #rebuild(String)} counts their unread notifications once,
+ * stores the result without losing increments made meanwhile and sets {@code counted},
+ * after which only increments are used.
+ */
+public final class NotificationCounters {
+
+    private static final String TAG = "NotificationCounters";
+
+    /** Total number of unread notifications. */
+    public static final String FIELD_UNREAD = "unread";
+    /** Map of notification type to its unread count. */
+    public static final String FIELD_UNREAD_BY_TYPE = "unreadByType";
+
+    // Set by rebuild(); increments alone do not make a legacy profile's counts complete
+    private static final String FIELD_COUNTED = "counted";
+
+    // Recounts retried when notifications change during the count
+    private static final int REBUILD_ATTEMPTS = 3;
+
+    // Two writes per notification keep each batch under Firestore's 500-write limit
+    private static final int RECIPIENTS_PER_BATCH = 250;
+
+    /** Type key used for notifications that have no type. */
+    static final String UNTYPED = "OTHER";
+
+    private NotificationCounters() {
+    }
+
+    /**
+     * Callback for {@link #listen(String, OnCountsChangedListener)}.
+     */
+    public interface OnCountsChangedListener {
+        /**
+         * @param unread       total unread notifications, never negative
+         * @param unreadByType unread notifications per type
+         */
+        void onCountsChanged(long unread, @NonNull Map<String, Long> unreadByType);
+    }
+
+    /**
+     * @param deviceId profile whose counters are wanted
+     * @return the counter document of that profile
+     */
+    public static DocumentReference counterRef(String deviceId) {
+        return FirebaseFirestore.getInstance()
+                .collection("Profiles")
+                .document(deviceId)
+                .collection("meta")
+                .document("notification_counts");
+    }
+
+    /**
+     * Adds a new notification to a batch, together with the matching counter increment.
+     *
+     * @param batch    batch to add the writes to (two writes)
+     * @param deviceId recipient profile
+     * @param notif    notification payload; {@code read} defaults to false
+     * @return reference of the notification document that will be created
+     */
+    public static DocumentReference addNotification(WriteBatch batch, String deviceId,
+                                                    Map<String, Object> notif) {
+        DocumentReference ref = FirebaseFirestore.getInstance()
+                .collection("Profiles")
+                .document(deviceId)
+                .collection("notifications")
+                .document();
+        batch.set(ref, notif);
+
+        if (!Boolean.TRUE.equals(notif.get("read"))) {
+            adjust(batch, deviceId, (String) notif.get("type"), 1);
+        }
+        return ref;
+    }
+
+    /**
+     * Marks several notifications of one profile read, with a single counter write for all
+     * of them. The notifications are read in the same transaction, and only those still
+     * unread on the server are flipped and counted, so a stale copy, another device or a
+     * repeated request cannot decrement the counters twice. Deleted notifications are skipped.
+     *
+     * @param deviceId owner of the notifications
+     * @param docIds   notification document IDs, at most 499 (one write each plus the counter)
+     * @return task completing with the number of notifications marked read
+     */
+    public static Task<Integer> markAllRead(String deviceId, Collection<String> docIds) {
+        if (docIds.isEmpty()) return Tasks.forResult(0);
+        FirebaseFirestore db = FirebaseFirestore.getInstance();
+        CollectionReference notifications = db.collection("Profiles")
+                .document(deviceId)
+                .collection("notifications");
+
+        return db.runTransaction(transaction -> {
+            List<DocumentSnapshot> docs = new ArrayList<>();
+            for (String docId : docIds) {
+                docs.add(transaction.get(notifications.document(docId)));
+            }
+
+            Map<String, Long> byType = new HashMap<>();
+            int marked = 0;
+            for (DocumentSnapshot doc : docs) {
+                if (!doc.exists() || Boolean.TRUE.equals(doc.getBoolean("read"))) continue;
+                transaction.update(doc.getReference(), "read", true);
+                String key = typeKey(doc.getString("type"));
+                Long n = byType.get(key);
+                byType.put(key, n == null ? -1 : n - 1);
+                marked++;
+            }
+            if (marked > 0) {
+                transaction.set(counterRef(deviceId), increments(byType), SetOptions.merge());
+            }
+            return marked;
+        });
+    }
+
+    /**
+     * Deletes a notification in a batch, decrementing the counters if it was unread.
+     *
+     * @param batch batch to add the writes to (one or two writes)
+     * @param doc   the notification to delete
+     */
+    public static void delete(WriteBatch batch, DocumentSnapshot doc) {
+        batch.delete(doc.getReference());
+        if (!Boolean.TRUE.equals(doc.getBoolean("read"))) {
+            // notifications live at Profiles/{deviceId}/notifications/{docId}
+            String deviceId = doc.getReference().getParent().getParent().getId();
+            adjust(batch, deviceId, doc.getString("type"), -1);
+        }
+    }
+
+    /**
+     * Creates a single notification and updates the counters in one commit.
+     *
+     * @param deviceId recipient profile
+     * @param notif    notification payload
+     * @return task completing when both writes are committed
+     */
+    public static Task<Void> send(String deviceId, Map<String, Object> notif) {
+        WriteBatch batch = FirebaseFirestore.getInstance().batch();
+        addNotification(batch, deviceId, notif);
+        return batch.commit();
+    }
+
+    /**
+     * Sends a copy of the same notification to several profiles, committing in batches.
+     *
+     * @param deviceIds recipients
+     * @param notif     notification payload, copied for each recipient
+     * @return task completing when every batch is committed
+     */
+    public static Task<Void> sendAll(List<String> deviceIds, Map<String, Object> notif) {
+        FirebaseFirestore db = FirebaseFirestore.getInstance();
+        List<Task<Void>> commits = new ArrayList<>();
+        for (int start = 0; start < deviceIds.size(); start += RECIPIENTS_PER_BATCH) {
+            WriteBatch batch = db.batch();
+            for (String id : deviceIds.subList(start, Math.min(start + RECIPIENTS_PER_BATCH, deviceIds.size()))) {
+                addNotification(batch, id, new HashMap<>(notif));
+            }
+            commits.add(batch.commit());
+        }
+        return Tasks.whenAll(commits);
+    }
+
+    /**
+     * Reads the counters once. Profiles without complete counters are recounted first.
+     *
+     * @param deviceId profile to read
+     * @return task completing with the counter document
+     */
+    public static Task<DocumentSnapshot> get(String deviceId) {
+        return counterRef(deviceId).get().continueWithTask(task -> {
+            if (task.isSuccessful() && needsRebuild(task.getResult())) {
+                return rebuild(deviceId).continueWithTask(t -> counterRef(deviceId).get());
+            }
+            return task;
+        });
+    }
+
+    /**
+     * Listens to the counters of a profile. Every change to the counter document is one
+     * cheap document read; a profile without complete counters is recounted on the first event.
+     *
+     * @param deviceId profile to watch
+     * @param listener receives the current counts on the main thread
+     * @return registration to remove when the caller goes away
+     */
+    public static ListenerRegistration listen(String deviceId, OnCountsChangedListener listener) {
+        boolean[] rebuilding = {false};
+        return counterRef(deviceId).addSnapshotListener((snap, error) -> {
+            if (error != null || snap == null) {
+                Log.w(TAG, "Counter listener failed", error);
+                return;
+            }
+            if (needsRebuild(snap) && !rebuilding[0]) {
+                rebuilding[0] = true;
+                rebuild(deviceId).addOnFailureListener(e -> {
+                    // Try again on the next change of the counter document
+                    Log.w(TAG, "Recount of " + deviceId + " failed", e);
+                    rebuilding[0] = false;
+                });
+            }
+            listener.onCountsChanged(unreadOf(snap), unreadByTypeOf(snap));
+        });
+    }
+
+    /**
+     * Recounts the unread notifications of a profile and completes its counters.
+     * Used to initialize profiles created before the counters existed.
+     * <p>
+     * Notifications keep arriving and being read while the recount runs, and each of those
+     * writes increments the counter document. So the counter is read before and after the
+     * count query, and the count is retried if it changed in between; otherwise the counts
+     * are written in a transaction as the query's counts plus every increment applied since
+     * the first read, and only if no other rebuild completed the counters first.
+     *
+     * @param deviceId profile to recount
+     * @return task completing when the counters are stored
+     */
+    public static Task<Void> rebuild(String deviceId) {
+        return rebuild(deviceId, REBUILD_ATTEMPTS);
+    }
+
+    private static Task<Void> rebuild(String deviceId, int attemptsLeft) {
+        DocumentReference ref = counterRef(deviceId);
+        return ref.get(Source.SERVER).continueWithTask(first -> {
+            if (!first.isSuccessful()) return Tasks.forException(first.getException());
+            DocumentSnapshot before = first.getResult();
+            if (!needsRebuild(before)) return Tasks.<Void>forResult(null);
+
+            return ref.getParent().getParent().collection("notifications")
+                    .whereEqualTo("read", false)
+                    .get(Source.SERVER)
+                    .continueWithTask(query -> {
+                        if (!query.isSuccessful()) return Tasks.forException(query.getException());
+                        return ref.get(Source.SERVER).continueWithTask(second -> {
+                            if (!second.isSuccessful()) return Tasks.forException(second.getException());
+                            if (!sameCounts(before, second.getResult())) {
+                                // A write landed while counting; it may or may not be in the query
+                                if (attemptsLeft <= 1) {
+                                    return Tasks.forException(new IllegalStateException(
+                                            "Notifications kept changing while recounting " + deviceId));
+                                }
+                                return rebuild(deviceId, attemptsLeft - 1);
+                            }
+                            return storeRecount(ref, before, query.getResult().getDocuments());
+                        });
+                    });
+        });
+    }
+
+    /**
+     * Writes the recounted counters, adding the increments applied since {@code before}.
+     * Does nothing if the counters were completed by someone else meanwhile.
+     */
+    private static Task<Void> storeRecount(DocumentReference ref, DocumentSnapshot before,
+                                           List<DocumentSnapshot> unreadDocs) {
+        Map<String, Long> byType = new HashMap<>();
+        for (DocumentSnapshot doc : unreadDocs) {
+            String key = typeKey(doc.getString("type"));
+            Long n = byType.get(key);
+            byType.put(key, n == null ? 1 : n + 1);
+        }
+
+        return ref.getFirestore().runTransaction(transaction -> {
+            DocumentSnapshot now = transaction.get(ref);
+            if (!needsRebuild(now)) return null;
+
+            Map<String, Long> typesBefore = rawByTypeOf(before);
+            Map<String, Long> types = new HashMap<>(byType);
+            for (Map.Entry<String, Long> e : rawByTypeOf(now).entrySet()) {
+                Long counted = types.get(e.getKey());
+                Long base = typesBefore.get(e.getKey());
+                types.put(e.getKey(), (counted == null ? 0 : counted) + e.getValue() - (base == null ? 0 : base));
+            }
+
+            Map<String, Object> counts = new HashMap<>();
+            counts.put(FIELD_UNREAD, unreadDocs.size() + rawUnreadOf(now) - rawUnreadOf(before));
+            counts.put(FIELD_UNREAD_BY_TYPE, types);
+            counts.put(FIELD_COUNTED, true);
+            transaction.set(ref, counts);
+            Log.d(TAG, "Rebuilt counters for " + ref.getParent().getParent().getId() + ": " + counts);
+            return null;
+        });
+    }
+
+    private static boolean sameCounts(DocumentSnapshot a, DocumentSnapshot b) {
+        return a.exists() == b.exists()
+                && rawUnreadOf(a) == rawUnreadOf(b)
+                && rawByTypeOf(a).equals(rawByTypeOf(b));
+    }
+
+    /** Stored total, unclamped: partial legacy counters can be negative. */
+    private static long rawUnreadOf(DocumentSnapshot snap) {
+        Long n = snap.exists() ? snap.getLong(FIELD_UNREAD) : null;
+        return n != null ? n : 0;
+    }
+
+    /** Stored per-type counts, unclamped. */
+    private static Map<String, Long> rawByTypeOf(DocumentSnapshot snap) {
+        Map<String, Long> result = new HashMap<>();
+        Object raw = snap.exists() ? snap.get(FIELD_UNREAD_BY_TYPE) : null;
+        if (raw instanceof Map) {
+            for (Map.Entry<?, ?> e : ((Map<?, ?>) raw).entrySet()) {
+                if (e.getValue() instanceof Number) {
+                    result.put(String.valueOf(e.getKey()), ((Number) e.getValue()).longValue());
+                }
+            }
+        }
+        return result;
+    }
+
+    private static boolean needsRebuild(DocumentSnapshot snap) {
+        return !snap.exists() || !Boolean.TRUE.equals(snap.getBoolean(FIELD_COUNTED));
+    }
+
+    /**
+     * @param snap counter document
+     * @return total unread count, clamped at zero
+     */
+    public static long unreadOf(@Nullable DocumentSnapshot snap) {
+        Long n = snap != null ? snap.getLong(FIELD_UNREAD) : null;
+        return n != null ? Math.max(0, n) : 0;
+    }
+
+    /**
+     * @param snap counter document
+     * @param type notification type
+     * @return unread count of that type, clamped at zero
+     */
+    public static long unreadOf(@Nullable DocumentSnapshot snap, String type) {
+        Long n = unreadByTypeOf(snap).get(typeKey(type));
+        return n != null ? n : 0;
+    }
+
+    /**
+     * @param snap counter document
+     * @return unread counts per type, each clamped at zero
+     */
+    @NonNull
+    public static Map<String, Long> unreadByTypeOf(@Nullable DocumentSnapshot snap) {
+        Map<String, Long> result = new HashMap<>();
+        Object raw = snap != null ? snap.get(FIELD_UNREAD_BY_TYPE) : null;
+        if (raw instanceof Map) {
+            for (Map.Entry<?, ?> e : ((Map<?, ?>) raw).entrySet()) {
+                if (e.getValue() instanceof Number) {
+                    result.put(String.valueOf(e.getKey()), Math.max(0, ((Number) e.getValue()).longValue()));
+                }
+            }
+        }
+        return result;
+    }
+
+    /** Adds {@code delta} to the total and to the type's counter, creating the document if needed. */
+    private static void adjust(WriteBatch batch, String deviceId, @Nullable String type, long delta) {
+        Map<String, Long> byType = new HashMap<>();
+        byType.put(typeKey(type), delta);
+        adjust(batch, deviceId, byType);
+    }
+
+    /** Applies per-type deltas and their sum to the total in one counter write. */
+    private static void adjust(WriteBatch batch, String deviceId, Map<String, Long> deltas) {
+        batch.set(counterRef(deviceId), increments(deltas), SetOptions.merge());
+    }
+
+    /** Counter update adding per-type deltas and their sum to the total. */
+    private static Map<String, Object> increments(Map<String, Long> deltas) {
+        Map<String, Object> byType = new HashMap<>();
+        long total = 0;
+        for (Map.Entry<String, Long> e : deltas.entrySet()) {
+            byType.put(e.getKey(), FieldValue.increment(e.getValue()));
+            total += e.getValue();
+        }
+
+        Map<String, Object> update = new HashMap<>();
+        update.put(FIELD_UNREAD, FieldValue.increment(total));
+        update.put(FIELD_UNREAD_BY_TYPE, byType);
+        return update;
+    }
+
+    /** Counter key of a notification type; types are compared case-insensitively elsewhere. */
+    static String typeKey(@Nullable String type) {
+        return type == null || type.isEmpty() ? UNTYPED : type.toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,247 @@
+package com.example.sulfurevents;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The part of an entrant's notification history known on this device, newest first.
+ * <p>
+ * {@link NotificationWindow} fills it from three sources: the local cache file, a live
+ * listener on the newest notifications, and older pages fetched on demand. The known
+ * notifications always form one unbroken run from the newest down to
+ * {@link #oldestTimestamp()}, so only notifications newer than {@link #newestTimestamp()}
+ * have to be fetched on a revisit.
+ * Unread notifications older than that run are kept aside, so they can be shown (an old
+ * invitation still needs an answer) without breaking it.
+ * <p>
+ * Notifications from the cache may have been deleted or compacted on the server since they
+ * were saved. The history therefore tracks how far down the run the server has confirmed
+ * it in this session ({@link #pageCursor()}): the live window confirms the top, and older
+ * pages are requested from the end of the confirmed part, not from the end of the run, so
+ * paging walks over the cached notifications and drops those the server no longer has.
+ * Only a confirmed history is {@link #isComplete() complete}.
+ * <p>
+ * Not thread-safe; {@link NotificationWindow} only touches it on the main thread.
+ */
+public final class NotificationHistory {
+
+    /**
+     * Newest first; ties broken by descending document ID, the order Firestore returns for
+     * {@code orderBy("timestamp", DESCENDING)}, so query pages line up with it.
+     */
+    static final Comparator<NotificationItem> NEWEST_FIRST = (a, b) -> {
+        int byTime = Long.compare(b.timestamp, a.timestamp);
+        return byTime != 0 ? byTime : String.valueOf(b.docId).compareTo(String.valueOf(a.docId));
+    };
+
+    // The unbroken run of known notifications
+    private final Map<String, NotificationItem> byId = new HashMap<>();
+    // Unread notifications older than the run
+    private final Map<String, NotificationItem> unreadOutside = new HashMap<>();
+    private boolean complete = false;
+    // Oldest notification of the run confirmed by the server this session, null if none
+    private NotificationItem verifiedEnd;
+
+    /**
+     * @return true if the server confirmed the history down to the profile's oldest notification
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * @return the oldest notification confirmed by the server, from which the next older
+     *         page starts; null until the window has been applied
+     */
+    public NotificationItem pageCursor() {
+        return verifiedEnd;
+    }
+
+    /**
+     * @return number of notifications in the unbroken run
+     */
+    public int size() {
+        return byId.size();
+    }
+
+    /**
+     * @return the unbroken run only, newest first, as stored in the cache
+     */
+    public List<NotificationItem> getRun() {
+        List<NotificationItem> items = new ArrayList<>(byId.values());
+        Collections.sort(items, NEWEST_FIRST);
+        return items;
+    }
+
+    /**
+     * Adds or replaces notifications by document ID.
+     *
+     * @param items notifications to store; items without an ID are ignored
+     * @return number of notifications that were not known before
+     */
+    public int putAll(List<NotificationItem> items) {
+        int added = 0;
+        for (NotificationItem item : items) {
+            if (item.docId == null) continue;
+            unreadOutside.remove(item.docId);
+            if (byId.put(item.docId, item) == null) added++;
+        }
+        return added;
+    }
+
+    /**
+     * Applies a snapshot of the newest {@code windowSize} notifications.
+     * <p>
+     * The window is authoritative down to its oldest entry: known notifications in that
+     * range that are missing from it were deleted. If the window is not full it holds every
+     * notification, so the history becomes complete.
+     *
+     * @param window     notifications returned by the window query
+     * @param windowSize the query's limit
+     */
+    public void applyWindow(List<NotificationItem> window, int windowSize) {
+        NotificationItem last = replaceRange(null, window, windowSize);
+        boolean full = window.size() >= windowSize;
+        if (!full) {
+            complete = true;
+            verifiedEnd = last;
+        } else if (verifiedEnd == null || NEWEST_FIRST.compare(last, verifiedEnd) > 0) {
+            // Pages may already have confirmed further down; the window only covers the top
+            verifiedEnd = last;
+        }
+    }
+
+    /**
+     * Applies a page of notifications older than {@link #pageCursor()}. The page is
+     * authoritative from the cursor down to its oldest entry, or to the end of the history
+     * if it is not full, so cached notifications in that range that it lacks are dropped.
+     *
+     * @param page     notifications returned by the page query, started after the cursor
+     * @param pageSize the query's limit
+     * @return number of notifications that were not known before
+     */
+    public int applyPage(List<NotificationItem> page, int pageSize) {
+        int added = 0;
+        for (NotificationItem item : page) {
+            if (item.docId != null && !byId.containsKey(item.docId)) added++;
+        }
+        NotificationItem last = replaceRange(verifiedEnd, page, pageSize);
+        if (last != null) verifiedEnd = last;
+        if (page.size() < pageSize) complete = true;
+        return added;
+    }
+
+    /**
+     * Replaces the known notifications after {@code after} (or from the top if null) down to
+     * the oldest item of {@code items} with {@code items}; down to the end if not full.
+     *
+     * @return the oldest item of {@code items}, or null if it has none
+     */
+    private NotificationItem replaceRange(NotificationItem after, List<NotificationItem> items, int limit) {
+        Map<String, NotificationItem> incoming = new HashMap<>();
+        NotificationItem last = null;
+        for (NotificationItem item : items) {
+            if (item.docId == null) continue;
+            incoming.put(item.docId, item);
+            if (last == null || NEWEST_FIRST.compare(item, last) > 0) last = item;
+        }
+        boolean full = items.size() >= limit;
+
+        Iterator<NotificationItem> it = byId.values().iterator();
+        while (it.hasNext()) {
+            NotificationItem known = it.next();
+            if (incoming.containsKey(known.docId)) continue;
+            boolean belowStart = after == null || NEWEST_FIRST.compare(known, after) > 0;
+            boolean aboveEnd = !full || NEWEST_FIRST.compare(known, last) < 0;
+            if (belowStart && aboveEnd) it.remove();
+        }
+        byId.putAll(incoming);
+        unreadOutside.keySet().removeAll(incoming.keySet());
+        return last;
+    }
+
+    /**
+     * Applies a snapshot of all unread notifications. Known notifications that were unread
+     * but are no longer in the snapshot have been read since. Unread notifications older
+     * than the run are kept aside until paging reaches them.
+     *
+     * @param unread every unread notification of the profile
+     */
+    public void applyUnread(List<NotificationItem> unread) {
+        Map<String, NotificationItem> stillUnread = new HashMap<>();
+        for (NotificationItem item : unread) {
+            if (item.docId != null) stillUnread.put(item.docId, item);
+        }
+        for (Map.Entry<String, NotificationItem> e : byId.entrySet()) {
+            NotificationItem known = e.getValue();
+            if (!known.read && !stillUnread.containsKey(known.docId)) {
+                // Replace rather than mutate: the old object may still be on screen
+                e.setValue(readCopyOf(known));
+            }
+        }
+
+        long runOldest = oldestTimestamp();
+        unreadOutside.clear();
+        for (NotificationItem item : stillUnread.values()) {
+            if (byId.containsKey(item.docId) || complete || (runOldest >= 0 && item.timestamp >= runOldest)) {
+                byId.put(item.docId, item);
+            } else {
+                unreadOutside.put(item.docId, item);
+            }
+        }
+    }
+
+    private static NotificationItem readCopyOf(NotificationItem item) {
+        NotificationItem copy = new NotificationItem();
+        copy.docId = item.docId;
+        copy.eventId = item.eventId;
+        copy.eventName = item.eventName;
+        copy.type = item.type;
+        copy.message = item.message;
+        copy.timestamp = item.timestamp;
+        copy.read = true;
+        return copy;
+    }
+
+    /** Forgets everything, e.g. when the cache is too far behind to be caught up. */
+    public void clear() {
+        byId.clear();
+        unreadOutside.clear();
+        complete = false;
+        verifiedEnd = null;
+    }
+
+    /**
+     * @return every known notification, including unread ones older than the run, newest first
+     */
+    public List<NotificationItem> getItems() {
+        List<NotificationItem> items = new ArrayList<>(byId.values());
+        items.addAll(unreadOutside.values());
+        Collections.sort(items, NEWEST_FIRST);
+        return items;
+    }
+
+    /**
+     * @return timestamp of the newest notification in the run, or -1 if none is known
+     */
+    public long newestTimestamp() {
+        long newest = -1;
+        for (NotificationItem item : byId.values()) newest = Math.max(newest, item.timestamp);
+        return newest;
+    }
+
+    /**
+     * @return timestamp of the oldest notification in the run, or -1 if none is known
+     */
+    public long oldestTimestamp() {
+        if (byId.isEmpty()) return -1;
+        long oldest = Long.MAX_VALUE;
+        for (NotificationItem item : byId.values()) oldest = Math.min(oldest, item.timestamp);
+        return oldest;
+    }
+}
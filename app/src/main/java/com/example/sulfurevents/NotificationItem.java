@@ -64,6 +64,30 @@ public class NotificationItem {
      */
     public boolean read;
 
+    /**
+     * Creates a {@code NotificationItem} from an entry of an archived notification digest
+     * (see {@link NotificationCompactor}). Archived notifications are always read.
+     *
+     * @param entry one element of a digest's {@code entries} array
+     * @return a populated {@code NotificationItem}
+     */
+    public static NotificationItem fromDigestEntry(java.util.Map<?, ?> entry) {
+        NotificationItem item = new NotificationItem();
+        item.docId = stringOf(entry.get("id"));
+        item.eventId = stringOf(entry.get("eventId"));
+        item.eventName = stringOf(entry.get("eventName"));
+        item.type = stringOf(entry.get("type"));
+        item.message = stringOf(entry.get("message"));
+        Object ts = entry.get("timestamp");
+        item.timestamp = ts instanceof Number ? ((Number) ts).longValue() : 0L;
+        item.read = true;
+        return item;
+    }
+
+    private static String stringOf(Object value) {
+        return value instanceof String ? (String) value : null;
+    }
+
     /**
      * Creates a {@code NotificationItem} object from a Firestore document.
      * This method safely extracts all expected fields and applies default
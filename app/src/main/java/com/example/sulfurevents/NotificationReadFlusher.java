@@ -0,0 +1,174 @@
+package com.example.sulfurevents;
+
+import android.util.Log;
+
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Marks notifications read in the background, in as few commits as possible.
+ * <p>
+ * {@link NotificationsActivity} marks every non-invitation notification read when it
+ * pauses. Doing that from the activity meant one write per notification, issued just as
+ * the screen was going away. Instead the activity hands the IDs to this app-wide flusher
+ * and returns immediately:
+ * <ul>
+ *   <li>Requests are collected per profile and flushed after a short delay, so pausing
+ *       and resuming the screen several times in a row produces one flush. Explicit user
+ *       actions use {@link #markReadNow}, which flushes at once.</li>
+ *   <li>A flush marks up to {@link #DOCS_PER_BATCH} notifications plus one counter update
+ *       per transaction ({@link NotificationCounters#markAllRead}). The transaction reads
+ *       the notifications and skips ones already read or deleted, so the unread counters
+ *       are decremented once per notification even across devices and stale copies.</li>
+ *   <li>Notifications already being written are not queued again, which saves the
+ *       transaction from re-reading them.</li>
+ *   <li>Transactions need the server, so a failed one, e.g. while offline, is retried
+ *       after {@link #RETRY_DELAY_MS}, up to {@link #MAX_ATTEMPTS} times.</li>
+ * </ul>
+ * The flusher is not tied to any activity, so its writes finish even if the screen is destroyed.
+ */
+public final class NotificationReadFlusher {
+
+    private static final String TAG = "NotificationReadFlusher";
+
+    /** Notifications per transaction, leaving one of Firestore's 500 writes for the counters. */
+    public static final int DOCS_PER_BATCH = 499;
+
+    /** Delay before a failed transaction is tried again. */
+    static final long RETRY_DELAY_MS = 30_000;
+
+    /** Attempts per chunk before its notifications are left unread. */
+    static final int MAX_ATTEMPTS = 3;
+
+    /** Delay between the first request and the flush, during which requests are merged. */
+    static final long FLUSH_DELAY_MS = 750;
+
+    private static NotificationReadFlusher instance;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+
+    // deviceId -> (docId -> type) waiting for the next flush; guarded by this
+    private final Map<String, Map<String, String>> pending = new HashMap<>();
+    // docIds in a commit that has not finished yet; guarded by this
+    private final Set<String> committing = new HashSet<>();
+    private boolean flushScheduled = false;
+
+    private NotificationReadFlusher() {
+    }
+
+    /**
+     * @return the shared flusher
+     */
+    public static synchronized NotificationReadFlusher getInstance() {
+        if (instance == null) {
+            instance = new NotificationReadFlusher();
+        }
+        return instance;
+    }
+
+    /**
+     * Queues unread notifications to be marked read. Returns immediately.
+     *
+     * @param deviceId owner of the notifications
+     * @param items    notifications to mark; read ones and ones without an ID are ignored
+     */
+    public void markRead(String deviceId, List<NotificationItem> items) {
+        if (queue(deviceId, items)) {
+            executor.schedule(this::flush, FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Marks notifications read without waiting for more requests, for explicit user actions
+     * such as answering an invitation. Anything else queued is flushed with them.
+     *
+     * @param deviceId owner of the notifications
+     * @param items    notifications to mark; read ones and ones without an ID are ignored
+     */
+    public void markReadNow(String deviceId, List<NotificationItem> items) {
+        queue(deviceId, items);
+        executor.execute(this::flush);
+    }
+
+    /**
+     * Adds notifications to the pending flush.
+     *
+     * @return true if no flush was scheduled yet and the caller must schedule one
+     */
+    private boolean queue(String deviceId, List<NotificationItem> items) {
+        Map<String, String> docTypes = new LinkedHashMap<>();
+        for (NotificationItem item : items) {
+            if (item.docId != null && !item.read) {
+                docTypes.put(item.docId, item.type);
+            }
+        }
+        if (docTypes.isEmpty()) return false;
+
+        synchronized (this) {
+            Map<String, String> queued = pending.get(deviceId);
+            if (queued == null) {
+                queued = new LinkedHashMap<>();
+                pending.put(deviceId, queued);
+            }
+            for (Map.Entry<String, String> e : docTypes.entrySet()) {
+                if (!committing.contains(e.getKey())) {
+                    queued.put(e.getKey(), e.getValue());
+                }
+            }
+            if (flushScheduled) return false;
+            flushScheduled = true;
+            return true;
+        }
+    }
+
+    /** Commits everything queued so far. Runs on the flusher's thread. */
+    private void flush() {
+        Map<String, Map<String, String>> toWrite;
+        synchronized (this) {
+            if (pending.isEmpty()) return; // already flushed by markReadNow
+            toWrite = new HashMap<>(pending);
+            pending.clear();
+            flushScheduled = false;
+            for (Map<String, String> docTypes : toWrite.values()) {
+                committing.addAll(docTypes.keySet());
+            }
+        }
+
+        for (Map.Entry<String, Map<String, String>> profile : toWrite.entrySet()) {
+            List<Map.Entry<String, String>> entries = new ArrayList<>(profile.getValue().entrySet());
+            for (int start = 0; start < entries.size(); start += DOCS_PER_BATCH) {
+                Map<String, String> chunk = new HashMap<>();
+                for (Map.Entry<String, String> e : entries.subList(start,
+                        Math.min(start + DOCS_PER_BATCH, entries.size()))) {
+                    chunk.put(e.getKey(), e.getValue());
+                }
+                commit(profile.getKey(), chunk, 1);
+            }
+        }
+    }
+
+    private void commit(String deviceId, Map<String, String> chunk, int attempt) {
+        NotificationCounters.markAllRead(deviceId, chunk.keySet()).addOnCompleteListener(executor, task -> {
+            if (!task.isSuccessful() && attempt < MAX_ATTEMPTS) {
+                Log.w(TAG, "Marking " + chunk.size() + " notification(s) read failed; retrying", task.getException());
+                executor.schedule(() -> commit(deviceId, chunk, attempt + 1), RETRY_DELAY_MS, TimeUnit.MILLISECONDS);
+                return;
+            }
+            if (!task.isSuccessful()) {
+                Log.w(TAG, "Gave up marking " + chunk.keySet() + " read", task.getException());
+            }
+            synchronized (this) {
+                committing.removeAll(chunk.keySet());
+            }
+        });
+    }
+}
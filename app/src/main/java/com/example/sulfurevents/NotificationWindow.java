@@ -0,0 +1,343 @@
+package com.example.sulfurevents;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Windowed loader for an entrant's notifications ({@code Profiles/{deviceId}/notifications}).
+ * <p>
+ * The notification screens used to listen to, or fetch, the entire subcollection on
+ * every visit. This loader bounds what is read:
+ * <ul>
+ *   <li>A live listener covers only the newest {@code windowSize} notifications.</li>
+ *   <li>Older history is fetched on demand, {@link #PAGE_SIZE} at a time, after a
+ *       (timestamp, document ID) cursor ({@link #loadOlder()}), so notifications sharing a
+ *       timestamp are neither skipped nor fetched twice.</li>
+ *   <li>Everything loaded is kept in a small JSON file per profile. On a revisit the cached
+ *       history is shown immediately and only notifications newer than the cached ones are
+ *       fetched before the live listener takes over. Cached notifications older than the
+ *       window are not trusted: pages start from the part the server confirmed and drop
+ *       cached ones that were deleted or compacted since (see {@link NotificationHistory}).</li>
+ *   <li>Optionally, a listener on unread notifications keeps old, still unanswered
+ *       invitations visible even when they are outside the window.</li>
+ * </ul>
+ * Use from the main thread: {@link #start(Listener)} when the screen starts and
+ * {@link #stop()} when it stops.
+ */
+public final class NotificationWindow {
+
+    private static final String TAG = "NotificationWindow";
+
+    /** Notifications fetched per {@link #loadOlder()} call. */
+    public static final int PAGE_SIZE = 50;
+
+    /** Most notifications kept in the cache file. */
+    static final int MAX_CACHED = 500;
+
+    // Cache reads and writes run here, one at a time
+    private static final Executor IO = Executors.newSingleThreadExecutor();
+
+    /**
+     * Receives the loaded notifications.
+     */
+    public interface Listener {
+        /**
+         * @param items    known notifications, newest first
+         * @param complete true if the oldest notification is among them
+         */
+        void onNotificationsChanged(List<NotificationItem> items, boolean complete);
+
+        /**
+         * @param e failure of the live listener or of a page request
+         */
+        void onError(Exception e);
+    }
+
+    private final FirebaseFirestore db;
+    private final File cacheFile;
+    private final String deviceId;
+    private final int windowSize;
+    private final boolean trackUnread;
+    private final Handler main = new Handler(Looper.getMainLooper());
+
+    private final NotificationHistory history = new NotificationHistory();
+    private Listener listener;
+    private ListenerRegistration windowRegistration;
+    private ListenerRegistration unreadRegistration;
+    private boolean started = false;
+    private boolean loadingOlder = false;
+    // Bumped by stop(), so callbacks of an earlier start() are ignored
+    private int generation = 0;
+
+    /**
+     * @param context     any context; used for the cache directory
+     * @param deviceId    profile whose notifications are loaded
+     * @param windowSize  number of newest notifications kept live
+     * @param trackUnread also listen to all unread notifications, however old
+     */
+    public NotificationWindow(Context context, String deviceId, int windowSize, boolean trackUnread) {
+        this.db = FirebaseFirestore.getInstance();
+        this.cacheFile = new File(context.getApplicationContext().getFilesDir(),
+                "notifications_" + deviceId + ".json");
+        this.deviceId = deviceId;
+        this.windowSize = windowSize;
+        this.trackUnread = trackUnread;
+    }
+
+    /**
+     * Shows the cached history, fetches what is new since then and starts listening.
+     *
+     * @param listener receives every change on the main thread
+     */
+    public void start(Listener listener) {
+        if (started) return;
+        started = true;
+        this.listener = listener;
+        int gen = generation;
+
+        if (history.size() > 0) {
+            // Still in memory from an earlier start(); no need to read the file
+            catchUp(gen);
+            return;
+        }
+
+        IO.execute(() -> {
+            List<NotificationItem> cached = new ArrayList<>();
+            readCache(cached);
+            main.post(() -> {
+                if (gen != generation) return;
+                history.putAll(cached);
+                if (!cached.isEmpty()) deliver();
+                catchUp(gen);
+            });
+        });
+    }
+
+    /**
+     * Removes the listeners and saves the history to the cache file.
+     */
+    public void stop() {
+        if (!started) return;
+        started = false;
+        generation++;
+        loadingOlder = false;
+        if (windowRegistration != null) {
+            windowRegistration.remove();
+            windowRegistration = null;
+        }
+        if (unreadRegistration != null) {
+            unreadRegistration.remove();
+            unreadRegistration = null;
+        }
+        saveCache();
+    }
+
+    /**
+     * @return true if older notifications may exist and none are being loaded
+     */
+    public boolean canLoadOlder() {
+        return started && !loadingOlder && !history.isComplete() && history.pageCursor() != null;
+    }
+
+    /**
+     * Fetches the next page of notifications older than the oldest one the server has
+     * confirmed, which replaces the cached notifications in that range.
+     * Does nothing if a page is already loading or the history is complete.
+     */
+    public void loadOlder() {
+        if (!canLoadOlder()) return;
+        loadingOlder = true;
+        int gen = generation;
+        NotificationItem cursor = history.pageCursor();
+
+        newestFirst()
+                .startAfter(cursor.timestamp, cursor.docId)
+                .limit(PAGE_SIZE)
+                .get()
+                .addOnSuccessListener(snap -> {
+                    if (gen != generation) return;
+                    loadingOlder = false;
+                    history.applyPage(toItems(snap), PAGE_SIZE);
+                    deliver();
+                    saveCache();
+                })
+                .addOnFailureListener(e -> {
+                    if (gen != generation) return;
+                    loadingOlder = false;
+                    listener.onError(e);
+                });
+    }
+
+    /** Fetches notifications newer than the cache, then attaches the live listeners. */
+    private void catchUp(int gen) {
+        long newest = history.newestTimestamp();
+        if (newest < 0) {
+            listen(gen);
+            return;
+        }
+
+        notifications()
+                .whereGreaterThanOrEqualTo("timestamp", newest)
+                .orderBy("timestamp", Query.Direction.DESCENDING)
+                .limit(MAX_CACHED)
+                .get()
+                .addOnSuccessListener(snap -> {
+                    if (gen != generation) return;
+                    if (snap.size() >= MAX_CACHED) {
+                        // Too far behind to join up with the cache; start over from the window
+                        Log.d(TAG, "Cache too old, discarding it");
+                        history.clear();
+                    }
+                    history.putAll(toItems(snap));
+                    listen(gen);
+                })
+                .addOnFailureListener(e -> {
+                    if (gen != generation) return;
+                    Log.w(TAG, "Catch-up failed, discarding cache", e);
+                    history.clear();
+                    listen(gen);
+                });
+    }
+
+    private void listen(int gen) {
+        windowRegistration = newestFirst()
+                .limit(windowSize)
+                .addSnapshotListener((snap, error) -> {
+                    if (gen != generation) return;
+                    if (error != null || snap == null) {
+                        listener.onError(error);
+                        return;
+                    }
+                    history.applyWindow(toItems(snap), windowSize);
+                    deliver();
+                });
+
+        if (trackUnread) {
+            unreadRegistration = notifications()
+                    .whereEqualTo("read", false)
+                    .addSnapshotListener((snap, error) -> {
+                        if (gen != generation || error != null || snap == null) return;
+                        history.applyUnread(toItems(snap));
+                        deliver();
+                    });
+        }
+    }
+
+    private void deliver() {
+        listener.onNotificationsChanged(history.getItems(), history.isComplete());
+    }
+
+    private Query notifications() {
+        return db.collection("Profiles").document(deviceId).collection("notifications");
+    }
+
+    /** Newest first with the same document ID tie-break as {@link NotificationHistory#NEWEST_FIRST}. */
+    private Query newestFirst() {
+        return notifications()
+                .orderBy("timestamp", Query.Direction.DESCENDING)
+                .orderBy(FieldPath.documentId(), Query.Direction.DESCENDING);
+    }
+
+    private static List<NotificationItem> toItems(QuerySnapshot snap) {
+        List<NotificationItem> items = new ArrayList<>(snap.size());
+        for (DocumentSnapshot doc : snap.getDocuments()) {
+            items.add(NotificationItem.fromDoc(doc));
+        }
+        return items;
+    }
+
+    // ===== Cache file =====
+
+    private void saveCache() {
+        // Only the newest MAX_CACHED are written; the screen keeps everything it paged in
+        List<NotificationItem> run = history.getRun();
+        List<NotificationItem> kept = new ArrayList<>(run.subList(0, Math.min(run.size(), MAX_CACHED)));
+        IO.execute(() -> writeCache(kept));
+    }
+
+    /** Reads the cache into {@code out}. */
+    private void readCache(List<NotificationItem> out) {
+        if (!cacheFile.exists()) return;
+        try (InputStream in = new FileInputStream(cacheFile)) {
+            byte[] bytes = new byte[(int) cacheFile.length()];
+            int read = 0;
+            while (read < bytes.length) {
+                int n = in.read(bytes, read, bytes.length - read);
+                if (n < 0) break;
+                read += n;
+            }
+            JSONObject root = new JSONObject(new String(bytes, 0, read, StandardCharsets.UTF_8));
+            JSONArray items = root.getJSONArray("items");
+            for (int i = 0; i < items.length(); i++) {
+                JSONObject o = items.getJSONObject(i);
+                NotificationItem item = new NotificationItem();
+                item.docId = o.getString("docId");
+                item.eventId = o.optString("eventId", null);
+                item.eventName = o.optString("eventName", null);
+                item.type = o.optString("type", null);
+                item.message = o.optString("message", null);
+                item.timestamp = o.optLong("timestamp", 0L);
+                item.read = o.optBoolean("read", false);
+                out.add(item);
+            }
+        } catch (IOException | JSONException e) {
+            Log.w(TAG, "Ignoring unreadable notification cache", e);
+            out.clear();
+        }
+    }
+
+    private void writeCache(List<NotificationItem> run) {
+        try {
+            JSONArray items = new JSONArray();
+            for (NotificationItem item : run) {
+                JSONObject o = new JSONObject();
+                o.put("docId", item.docId);
+                o.putOpt("eventId", item.eventId);
+                o.putOpt("eventName", item.eventName);
+                o.putOpt("type", item.type);
+                o.putOpt("message", item.message);
+                o.put("timestamp", item.timestamp);
+                o.put("read", item.read);
+                items.put(o);
+            }
+            JSONObject root = new JSONObject();
+            root.put("items", items);
+
+            // Write to a temporary file first so a crash never leaves half a cache behind
+            File tmp = new File(cacheFile.getPath() + ".tmp");
+            try (OutputStream out = new FileOutputStream(tmp)) {
+                out.write(root.toString().getBytes(StandardCharsets.UTF_8));
+            }
+            if (!tmp.renameTo(cacheFile)) {
+                Log.w(TAG, "Could not replace notification cache");
+            }
+        } catch (IOException | JSONException e) {
+            Log.w(TAG, "Failed to write notification cache", e);
+        }
+    }
+}
@@ -9,17 +9,15 @@ import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
-import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.firebase.firestore.DocumentSnapshot;
-import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.Query;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -62,6 +60,13 @@ public class NotificationsActivity extends AppCompatActivity implements Notifica
 
     private boolean historyVisible = false;
 
+    // Newest notifications kept live; older history is paged in as the history list scrolls
+    private static final int WINDOW_SIZE = 50;
+    private NotificationWindow notificationWindow;
+
+    // Sends accept/decline in the background; dialogs show before the write completes
+    private EntrantActionQueue actionQueue;
+
     /**
      * Initializes the notifications screen, prepares the RecyclerView and starts
      * listening to Firestore for changes in the entrant's notification subcollection.
@@ -109,11 +114,61 @@ public class NotificationsActivity extends AppCompatActivity implements Notifica
                     ? View.VISIBLE : View.GONE);
 
             tvToggleHistory.setText(historyVisible ? "Hide history" : "Show history");
+            loadOlderIfAtEnd();
+        });
+
+        rvHistoryNotifications.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                loadOlderIfAtEnd();
+            }
         });
 
-        listenForNotifications(); // same name, but updated body
+        notificationWindow = new NotificationWindow(this, deviceId, WINDOW_SIZE, true);
+        actionQueue = EntrantActionQueue.getInstance(this);
+    }
+
+    /**
+     * Starts listening for notifications and for the outcome of queued invitation
+     * answers while the screen is visible.
+     */
+    @Override
+    protected void onStart() {
+        super.onStart();
+        listenForNotifications();
+        actionQueue.addListener(actionListener);
+    }
+
+    /**
+     * Stops the notification listeners and caches what was loaded.
+     */
+    @Override
+    protected void onStop() {
+        super.onStop();
+        notificationWindow.stop();
+        actionQueue.removeListener(actionListener);
     }
 
+    /**
+     * Runs the follow-up work once a queued answer is applied: an acceptance may fill the
+     * event, a decline frees a place for a replacement. A rejected answer is reported.
+     */
+    private final EntrantActionQueue.Listener actionListener = new EntrantActionQueue.Listener() {
+        @Override
+        public void onApplied(EntrantAction action, WaitlistEngine.Result result) {
+            if (action.type == EntrantAction.Type.ACCEPT) {
+                checkAndNotifyNotSelectedIfFull(action.eventId);
+            } else if (action.type == EntrantAction.Type.DECLINE) {
+                drawReplacementAndNotify(action.eventId);
+            }
+        }
+
+        @Override
+        public void onRejected(EntrantAction action, String reason) {
+            showResultDialog("Error", (action.eventName.isEmpty() ? "" : action.eventName + ": ") + reason);
+        }
+    };
+
     /**
      * Lifecycle callback invoked when the notifications screen is no longer in the
      * foreground (e.g., user navigates away or the app is backgrounded).
@@ -133,145 +188,111 @@ public class NotificationsActivity extends AppCompatActivity implements Notifica
     /**
      * Marks all unread, non-invitation notifications for the current device as read.
      *
-     * <p>This method queries {@code Profiles/{deviceId}/notifications} for documents
-     * where {@code read == false} and sets {@code read = true} for every notification
-     * whose {@code type} is not {@code "INVITED"}. This ensures that informational
-     * and outcome messages (e.g., NOT_SELECTED) are moved to the history section,
-     * while invitation messages remain highlighted until the entrant responds.</p>
+     * <p>The unread notifications are already on screen in {@link #newNotifications}, kept
+     * current by the snapshot listener, so no query is needed. Every one whose
+     * {@code type} is not {@code "INVITED"} is handed to {@link NotificationReadFlusher},
+     * which sets {@code read = true} and decrements the unread counters in batched
+     * commits off the main thread, so leaving the screen does not wait on any writes.
+     * This ensures that informational and outcome messages (e.g., NOT_SELECTED) are
+     * moved to the history section, while invitation messages remain highlighted until
+     * the entrant responds.</p>
      */
     private void markNonInvitationNotificationsAsRead() {
-        db.collection("Profiles")
-                .document(deviceId)
-                .collection("notifications")
-                .whereEqualTo("read", false)
-                .get()
-                .addOnSuccessListener(query -> {
-                    for (DocumentSnapshot doc : query.getDocuments()) {
-                        String type = doc.getString("type");
-
-                        // Only mark as read if it's NOT an invitation
-                        if (!"INVITED".equalsIgnoreCase(type)) {
-                            doc.getReference().update("read", true);
-                        }
-                    }
-                });
-    }    /**
-     * Subscribes to Firestore updates on the current entrant's notification collection.
+        List<NotificationItem> toMark = new ArrayList<>();
+        for (NotificationItem item : newNotifications) {
+            // Only mark as read if it's NOT an invitation
+            if (!"INVITED".equalsIgnoreCase(item.type)) {
+                toMark.add(item);
+            }
+        }
+        NotificationReadFlusher.getInstance().markRead(deviceId, toMark);
+    }
+
+    /**
+     * Subscribes to updates on the current entrant's notification collection through a
+     * {@link NotificationWindow}: the newest {@value #WINDOW_SIZE} notifications and every
+     * unread one are live, older history is read from the local cache or paged in on demand.
      * The list is kept in reverse chronological order (latest first). When no notifications
      * are present, an empty-state text view is shown.
      */
     private void listenForNotifications() {
-        db.collection("Profiles")
-                .document(deviceId)
-                .collection("notifications")
-                .orderBy("timestamp", Query.Direction.DESCENDING)
-                .addSnapshotListener((value, error) -> {
-                    if (error != null) {
-                        Toast.makeText(this, "Error loading notifications", Toast.LENGTH_SHORT).show();
-                        return;
+        notificationWindow.start(new NotificationWindow.Listener() {
+            @Override
+            public void onNotificationsChanged(List<NotificationItem> items, boolean complete) {
+                newNotifications.clear();
+                historyNotifications.clear();
+
+                for (NotificationItem item : items) {
+                    if (item.read) {
+                        historyNotifications.add(item);
+                    } else {
+                        newNotifications.add(item);
                     }
+                }
 
-                    newNotifications.clear();
-                    historyNotifications.clear();
+                newAdapter.submitList(newNotifications);
+                historyAdapter.submitList(historyNotifications, () -> loadOlderIfAtEnd());
 
-                    if (value != null) {
-                        for (DocumentSnapshot doc : value.getDocuments()) {
-                            NotificationItem item = NotificationItem.fromDoc(doc);
+                tvEmptyNew.setVisibility(newNotifications.isEmpty() ? View.VISIBLE : View.GONE);
 
-                            if (item.read) {
-                                historyNotifications.add(item);
-                            } else {
-                                newNotifications.add(item);
-                            }
-                        }
-                    }
-
-                    newAdapter.notifyDataSetChanged();
-                    historyAdapter.notifyDataSetChanged();
+                if (historyVisible) {
+                    tvEmptyHistory.setVisibility(historyNotifications.isEmpty()
+                            ? View.VISIBLE : View.GONE);
+                } else {
+                    tvEmptyHistory.setVisibility(View.GONE);
+                }
+            }
 
-                    tvEmptyNew.setVisibility(newNotifications.isEmpty() ? View.VISIBLE : View.GONE);
+            @Override
+            public void onError(Exception e) {
+                Toast.makeText(NotificationsActivity.this, "Error loading notifications", Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
 
-                    if (historyVisible) {
-                        tvEmptyHistory.setVisibility(historyNotifications.isEmpty()
-                                ? View.VISIBLE : View.GONE);
-                    } else {
-                        tvEmptyHistory.setVisibility(View.GONE);
-                    }
-                });
+    /**
+     * Requests the next page of older notifications once the open history list has been
+     * scrolled to its end (or is too short to scroll).
+     */
+    private void loadOlderIfAtEnd() {
+        if (historyVisible && !rvHistoryNotifications.canScrollVertically(1)) {
+            notificationWindow.loadOlder();
+        }
     }
 
     // ====== Callbacks from adapter ======
 
     /**
      * Handles the entrant's acceptance of an invitation notification.
-     * This updates the corresponding event document so that the entrant is
-     * removed from {@code invited_list} and added to {@code enrolled_list}.
-     * A confirmation dialog is shown, and the method also evaluates whether the
-     * event has become full so that remaining entrants can be informed they were
-     * not selected.
+     * The move from {@code invited_list} to {@code enrolled_list} is queued in
+     * {@link EntrantActionQueue} and a confirmation dialog is shown right away. Once the
+     * move is applied, the method's follow-up evaluates whether the event has become full
+     * so that remaining entrants can be informed they were not selected.
      *
      * @param item the notification representing the invitation
      */
     @Override
     public void onAccept(NotificationItem item) {
-        db.collection("Events").document(item.eventId)
-                .update(
-                        "invited_list", com.google.firebase.firestore.FieldValue.arrayRemove(deviceId),
-                        "enrolled_list", com.google.firebase.firestore.FieldValue.arrayUnion(deviceId)
-                )
-                .addOnSuccessListener(aVoid -> {
-                    markNotificationRead(item);
-                    new androidx.appcompat.app.AlertDialog.Builder(NotificationsActivity.this)
-                            .setTitle("Invitation accepted")
-                            .setMessage("You have been enrolled" +
-                                    (item.eventName != null ? " for " + item.eventName : "") + ".")
-                            .setPositiveButton("OK", (dialog, which) -> dialog.dismiss())
-                            .show();
-                    checkAndNotifyNotSelectedIfFull(item.eventId);
-                })
-                .addOnFailureListener(e ->
-                        new androidx.appcompat.app.AlertDialog.Builder(NotificationsActivity.this)
-                                .setTitle("Error")
-                                .setMessage("Couldn't accept: " + e.getMessage())
-                                .setPositiveButton("OK", (dialog, which) -> dialog.dismiss())
-                                .show()
-                );
+        actionQueue.enqueue(EntrantAction.accept(item.eventId, deviceId, item.eventName));
+        markNotificationRead(item);
+        showResultDialog("Invitation accepted", "You have been enrolled" +
+                (item.eventName != null ? " for " + item.eventName : "") + ".");
     }
 
     /**
      * Handles the entrant's decline of an invitation notification.
-     * This updates the event to move the entrant from {@code invited_list} to
-     * {@code cancelled_list}, shows a confirmation dialog, and then attempts to
-     * draw a replacement entrant from the waiting list.
+     * The move from {@code invited_list} to {@code cancelled_list} is queued and a
+     * confirmation dialog is shown right away; once it is applied, a replacement entrant
+     * is drawn from the waiting list.
      *
      * @param item the notification representing the invitation to decline
      */
     @Override
     public void onDecline(NotificationItem item) {
-        db.collection("Events").document(item.eventId)
-                .update(
-                        "invited_list", FieldValue.arrayRemove(deviceId),
-                        "cancelled_list", FieldValue.arrayUnion(deviceId)
-                )
-                .addOnSuccessListener(aVoid -> {
-                    markNotificationRead(item);
-
-                    new AlertDialog.Builder(NotificationsActivity.this)
-                            .setTitle("Invitation declined")
-                            .setMessage("You declined the invitation" +
-                                    (item.eventName != null ? " for " + item.eventName : "") + ".")
-                            .setPositiveButton("OK", (dialog, which) -> dialog.dismiss())
-                            .show();
-
-                    drawReplacementAndNotify(item.eventId);
-                })
-                .addOnFailureListener(e ->
-                        new AlertDialog.Builder(NotificationsActivity.this)
-                                .setTitle("Error")
-                                .setMessage("Couldn't decline: " + e.getMessage())
-                                .setPositiveButton("OK", (dialog, which) -> dialog.dismiss())
-                                .show()
-                );
+        actionQueue.enqueue(EntrantAction.decline(item.eventId, deviceId, item.eventName));
+        markNotificationRead(item);
+        showResultDialog("Invitation declined", "You declined the invitation" +
+                (item.eventName != null ? " for " + item.eventName : "") + ".");
     }
 
     /**
@@ -310,17 +331,16 @@ public class NotificationsActivity extends AppCompatActivity implements Notifica
 
     /**
      * Marks the given notification as read in Firestore so that it no longer
-     * appears as an unread item in the UI.
+     * appears as an unread item in the UI, and decrements the unread counters.
+     * Goes through {@link NotificationReadFlusher} so it is merged with a pending
+     * mark-all from {@link #onPause()} instead of being counted twice, and is flushed
+     * at once since the user acted on it.
      *
      * @param item the notification item to mark as read
      */
     private void markNotificationRead(NotificationItem item) {
-        if (item.docId == null) return;
-        db.collection("Profiles")
-                .document(deviceId)
-                .collection("notifications")
-                .document(item.docId)
-                .update("read", true);
+        NotificationReadFlusher.getInstance().markReadNow(deviceId, Collections.singletonList(item));
+        item.read = true;
     }
 
     /**
@@ -334,70 +354,62 @@ public class NotificationsActivity extends AppCompatActivity implements Notifica
      */
     private void drawReplacementAndNotify(String eventId) {
         FirebaseFirestore db = FirebaseFirestore.getInstance();
-        db.collection("Events").document(eventId)
-                .get()
+        EventRepository.getInstance().getServerEvent(eventId)
                 .addOnSuccessListener(doc -> {
                     if (!doc.exists()) return;
+                    EntrantStore.lists(doc).addOnSuccessListener(lists -> {
+                        List<String> waiting = lists.get(Memberships.WAITING);
+                        String eventName = doc.getString("eventName");
+                        if (eventName == null) eventName = "Event";
+
+                        if (waiting.isEmpty()) {
+                            // no one to invite → we can later check if event is full and send NOT_SELECTED
+                            checkAndNotifyNotSelectedIfFull(doc, lists, eventId, eventName);
+                            return;
+                        }
 
-                    List<String> waiting = (List<String>) doc.get("waiting_list");
-                    String eventName = doc.getString("eventName");
-                    if (eventName == null) eventName = "Event";
-
-                    if (waiting == null || waiting.isEmpty()) {
-                        // no one to invite → we can later check if event is full and send NOT_SELECTED
-                        checkAndNotifyNotSelectedIfFull(doc, eventId, eventName);
-                        return;
-                    }
-
-                    // take the first waiting user (you can randomize if you want)
-                    String nextId = waiting.get(0);
-                    checkAndNotifyNotSelectedIfFull(eventId);
-                    String finalEventName = eventName;
-                    db.collection("Events").document(eventId)
-                            .update(
-                                    "waiting_list", com.google.firebase.firestore.FieldValue.arrayRemove(nextId),
-                                    "invited_list", com.google.firebase.firestore.FieldValue.arrayUnion(nextId)
-                            )
-                            .addOnSuccessListener(aVoid -> {
-                                // send invite notification to that next user
-                                Map<String, Object> notif = new HashMap<>();
-                                notif.put("eventId", eventId);
-                                notif.put("eventName", finalEventName);
-                                notif.put("type", "INVITED");
-                                notif.put("message", "You were selected for " + finalEventName + ". Tap to accept or decline.");
-                                notif.put("timestamp", System.currentTimeMillis());
-                                notif.put("read", false);
-
-                                db.collection("Profiles")
-                                        .document(nextId)
-                                        .collection("notifications")
-                                        .add(notif);
-                            });
+                        // take the first waiting user (you can randomize if you want)
+                        String nextId = waiting.get(0);
+                        checkAndNotifyNotSelectedIfFull(eventId);
+                        String finalEventName = eventName;
+                        Memberships.move(db, eventId, Collections.singletonList(nextId),
+                                        Memberships.WAITING, Memberships.INVITED)
+                                .addOnSuccessListener(aVoid -> {
+                                    // send invite notification to that next user
+                                    Map<String, Object> notif = new HashMap<>();
+                                    notif.put("eventId", eventId);
+                                    notif.put("eventName", finalEventName);
+                                    notif.put("type", "INVITED");
+                                    notif.put("message", "You were selected for " + finalEventName + ". Tap to accept or decline.");
+                                    notif.put("timestamp", System.currentTimeMillis());
+                                    notif.put("read", false);
+
+                                    NotificationCounters.send(nextId, notif);
+                                });
+                    });
                 });
     }
 
     /**
      * Variant of the “not selected” check that operates on an already-fetched
-     * {@link DocumentSnapshot}. This is used in the branch where we already have
+     * {@link DocumentSnapshot} and its lists. This is used in the branch where we already have
      * the event document (e.g., in {@link #drawReplacementAndNotify(String)}).
      *
      * @param eventDoc  the already-retrieved event document
+     * @param lists     the event's entrant lists, from {@link EntrantStore#lists}
      * @param eventId   identifier of the event
      * @param eventName human-readable name of the event
      */
     private void checkAndNotifyNotSelectedIfFull(DocumentSnapshot eventDoc,
+                                                 Map<String, List<String>> lists,
                                                  String eventId,
                                                  String eventName) {
         FirebaseFirestore db = FirebaseFirestore.getInstance();
 
         // get lists
-        List<String> waiting = (List<String>) eventDoc.get("waiting_list");
-        List<String> enrolled = (List<String>) eventDoc.get("enrolled_list");
-        List<String> invited  = (List<String>) eventDoc.get("invited_list");
-
-        if (waiting == null) waiting = new ArrayList<>();
-        if (enrolled == null) enrolled = new ArrayList<>();
-        if (invited == null) invited   = new ArrayList<>();
+        List<String> waiting = lists.get(Memberships.WAITING);
+        List<String> enrolled = lists.get(Memberships.ENROLLED);
+        List<String> invited  = lists.get(Memberships.INVITED);
 
         // get capacity (change this key to match your Firestore field, e.g. "capacity" or "maxEntrants")
         Long capacityLong = eventDoc.getLong("capacity");
@@ -418,27 +430,24 @@ public class NotificationsActivity extends AppCompatActivity implements Notifica
 
         if (isFull || deadlinePassed) {
             // everyone still on waiting_list (and not enrolled/invited) gets NOT_SELECTED
+            List<String> recipients = new ArrayList<>();
             for (String deviceId : waiting) {
                 if (enrolled.contains(deviceId)) continue;
                 if (invited.contains(deviceId)) continue;
-
-                Map<String, Object> notif = new HashMap<>();
-                notif.put("eventId", eventId);
-                notif.put("eventName", eventName);
-                notif.put("type", "NOT_SELECTED");
-                notif.put("message", "You were not selected for " + eventName + ".");
-                notif.put("timestamp", System.currentTimeMillis());
-                notif.put("read", false);
-
-                db.collection("Profiles")
-                        .document(deviceId)
-                        .collection("notifications")
-                        .add(notif);
+                recipients.add(deviceId);
             }
 
+            Map<String, Object> notif = new HashMap<>();
+            notif.put("eventId", eventId);
+            notif.put("eventName", eventName);
+            notif.put("type", "NOT_SELECTED");
+            notif.put("message", "You were not selected for " + eventName + ".");
+            notif.put("timestamp", System.currentTimeMillis());
+            notif.put("read", false);
+            NotificationCounters.sendAll(recipients, notif);
+
             // optional: clear waiting list since event is finished
-            db.collection("Events").document(eventId)
-                    .update("waiting_list", new ArrayList<String>());
+            Memberships.move(db, eventId, waiting, Memberships.WAITING, null);
 
             Log.d("NotificationsActivity", "Sent NOT_SELECTED notifications for " +
                     eventName + " (full=" + isFull + ", deadline=" + deadlinePassed + ")");
@@ -447,15 +456,14 @@ public class NotificationsActivity extends AppCompatActivity implements Notifica
 
     /**
      * Convenience overload that fetches the event document first and then delegates
-     * to {@link #checkAndNotifyNotSelectedIfFull(DocumentSnapshot, String, String)}.
+     * to {@link #checkAndNotifyNotSelectedIfFull(DocumentSnapshot, Map, String, String)}.
      * This is used in places where we only have the eventId.
      *
      * @param eventId identifier of the event to evaluate for “not selected” notifications
      */
     private void checkAndNotifyNotSelectedIfFull(String eventId) {
         FirebaseFirestore db = FirebaseFirestore.getInstance();
-        db.collection("Events").document(eventId)
-                .get()
+        EventRepository.getInstance().getServerEvent(eventId)
                 .addOnSuccessListener(eventDoc -> {
                     if (!eventDoc.exists()) return;
 
@@ -463,69 +471,55 @@ public class NotificationsActivity extends AppCompatActivity implements Notifica
                     String eventName = eventDoc.getString("eventName");
                     if (eventName == null) eventName = "Event";
 
-                    // 2) lists (tolerant like the rest of your project)
-                    @SuppressWarnings("unchecked")
-                    List<String> waiting  = (List<String>) (eventDoc.get("waiting_list") != null
-                            ? eventDoc.get("waiting_list")
-                            : eventDoc.get("waitingList"));
-                    if (waiting == null) waiting = new ArrayList<>();
-
-                    @SuppressWarnings("unchecked")
-                    List<String> enrolled = (List<String>) (eventDoc.get("enrolled_list") != null
-                            ? eventDoc.get("enrolled_list")
-                            : eventDoc.get("enrolledList"));
-                    if (enrolled == null) enrolled = new ArrayList<>();
-
-                    @SuppressWarnings("unchecked")
-                    List<String> invited  = (List<String>) (eventDoc.get("invited_list") != null
-                            ? eventDoc.get("invited_list")
-                            : eventDoc.get("invitedList"));
-                    if (invited == null) invited = new ArrayList<>();
-
-                    // 3) capacity — your app uses "limitGuests" as STRING
-                    String capStr = eventDoc.getString("limitGuests");
-                    int capacity = 0;
-                    try {
-                        capacity = Integer.parseInt(capStr);
-                    } catch (Exception ignored) {
-                        // if it's missing or bad, we just don't send not-selected
-                    }
+                    String name = eventName;
+                    EntrantStore.lists(eventDoc).addOnSuccessListener(lists -> {
+                        // 2) lists, from the event's arrays or its subcollections
+                        List<String> waiting  = lists.get(Memberships.WAITING);
+                        List<String> enrolled = lists.get(Memberships.ENROLLED);
+                        List<String> invited  = lists.get(Memberships.INVITED);
+
+                        // 3) capacity — your app uses "limitGuests" as STRING
+                        String capStr = eventDoc.getString("limitGuests");
+                        int capacity = 0;
+                        try {
+                            capacity = Integer.parseInt(capStr);
+                        } catch (Exception ignored) {
+                            // if it's missing or bad, we just don't send not-selected
+                        }
 
-                    if (capacity <= 0) {
-                        // no capacity recorded → nothing to do
-                        return;
-                    }
+                        if (capacity <= 0) {
+                            // no capacity recorded → nothing to do
+                            return;
+                        }
 
-                    // 4) in YOUR codebase an invited person also occupies a slot
-                    int currentlyTaken = enrolled.size() + invited.size();
-                    boolean isFull = currentlyTaken >= capacity;
+                        // 4) in YOUR codebase an invited person also occupies a slot
+                        int currentlyTaken = enrolled.size() + invited.size();
+                        boolean isFull = currentlyTaken >= capacity;
 
-                    if (!isFull) {
-                        return; // still room, don't tell people "not selected" yet
-                    }
+                        if (!isFull) {
+                            return; // still room, don't tell people "not selected" yet
+                        }
 
-                    // 5) event is full → tell everyone still waiting (and not already invited/enrolled)
-                    for (String deviceId : waiting) {
-                        if (enrolled.contains(deviceId)) continue;
-                        if (invited.contains(deviceId)) continue;
+                        // 5) event is full → tell everyone still waiting (and not already invited/enrolled)
+                        List<String> recipients = new ArrayList<>();
+                        for (String deviceId : waiting) {
+                            if (enrolled.contains(deviceId)) continue;
+                            if (invited.contains(deviceId)) continue;
+                            recipients.add(deviceId);
+                        }
 
                         Map<String, Object> notif = new HashMap<>();
                         notif.put("eventId", eventId);
-                        notif.put("eventName", eventName);
+                        notif.put("eventName", name);
                         notif.put("type", "NOT_SELECTED");
-                        notif.put("message", "You were not selected for " + eventName + ".");
+                        notif.put("message", "You were not selected for " + name + ".");
                         notif.put("timestamp", System.currentTimeMillis());
                         notif.put("read", false);
+                        NotificationCounters.sendAll(recipients, notif);
 
-                        db.collection("Profiles")
-                                .document(deviceId)
-                                .collection("notifications")
-                                .add(notif);
-                    }
-
-                    // optional: clear waiting list since no more room
-                    db.collection("Events").document(eventId)
-                            .update("waiting_list", new ArrayList<String>());
+                        // optional: clear waiting list since no more room
+                        Memberships.move(db, eventId, waiting, Memberships.WAITING, null);
+                    });
                 });
     }
 }
\ No newline at end of file
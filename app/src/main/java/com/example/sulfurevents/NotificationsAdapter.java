@@ -33,7 +33,7 @@ import java.util.List;
  * </ul>
  * <p>Author: sulfur (CMPUT 301-Part 3)</p>
  */
-public class NotificationsAdapter extends RecyclerView.Adapter<NotificationsAdapter.NotifVH> {
+public class NotificationsAdapter extends DiffListAdapter<NotificationItem, NotificationsAdapter.NotifVH> {
 
     /**
      * Listener used by the hosting component to react to user actions on a
@@ -63,7 +63,6 @@ public class NotificationsAdapter extends RecyclerView.Adapter<NotificationsAdap
         void onViewEvent(NotificationItem item);
     }
 
-    private final List<NotificationItem> data;
     private final NotificationActionListener listener;
 
     /**
@@ -73,8 +72,25 @@ public class NotificationsAdapter extends RecyclerView.Adapter<NotificationsAdap
      * @param listener callback that will handle user actions on each row
      */
     public NotificationsAdapter(List<NotificationItem> data, NotificationActionListener listener) {
-        this.data = data;
         this.listener = listener;
+        submitList(data);
+    }
+
+    /**
+     * Notifications are identified by their Firestore document ID.
+     */
+    @Override
+    protected String getItemKey(@NonNull NotificationItem item) {
+        return item.docId;
+    }
+
+    @Override
+    protected boolean areContentsTheSame(@NonNull NotificationItem oldItem, @NonNull NotificationItem newItem) {
+        return oldItem.read == newItem.read
+                && oldItem.timestamp == newItem.timestamp
+                && same(oldItem.type, newItem.type)
+                && same(oldItem.eventName, newItem.eventName)
+                && same(oldItem.message, newItem.message);
     }
 
     /**
@@ -111,7 +127,7 @@ public class NotificationsAdapter extends RecyclerView.Adapter<NotificationsAdap
      */
     @Override
     public void onBindViewHolder(@NonNull NotifVH h, int position) {
-        NotificationItem item = data.get(position);
+        NotificationItem item = getItem(position);
 
         h.tvEventName.setText(item.eventName != null && !item.eventName.isEmpty()
                 ? item.eventName
@@ -158,16 +174,6 @@ public class NotificationsAdapter extends RecyclerView.Adapter<NotificationsAdap
         }
     }
 
-    /**
-     * Returns the number of notifications in the current dataset.
-     *
-     * @return total count of {@link NotificationItem} objects rendered by the adapter
-     */
-    @Override
-    public int getItemCount() {
-        return data.size();
-    }
-
     /**
      * ViewHolder that holds references to the notification item views.
      * Each instance corresponds to one row in the notifications list.
@@ -25,7 +25,7 @@ public class OrganizerActivity extends AppCompatActivity {
     private FirebaseFirestore db;
     private String DeviceID;
     private User CurrentUser;
-    private ArrayList<OrganizerEvent> organizerEvents = new ArrayList<>();
+    private ArrayList<EventSummary> organizerEvents = new ArrayList<>();
     private OrganizerEventsAdapter adapter;
     private BottomNavigationView bottomNavigationView;
 
@@ -83,8 +83,10 @@ public class OrganizerActivity extends AppCompatActivity {
         RecyclerView recyclerView = findViewById(R.id.CreatedEventsRecyclerView);
         OrganizerEventsAdapter adapter = new OrganizerEventsAdapter(this, organizerEvents);
         recyclerView.setAdapter(adapter);
+        adapter.attachPreloader(recyclerView);
         recyclerView.setLayoutManager(new LinearLayoutManager(this));
 
+        EventSummaries.backfillIfDue(this, DeviceID);
         loadEventsFromFirestore(adapter);
 
 //        // Back Button (returns to MainActivity)
@@ -118,7 +120,8 @@ public class OrganizerActivity extends AppCompatActivity {
 
 
     /**
-     * Loads events from the Firestore "Events" collection that match the current organizer's ID.
+     * Loads the summaries of the current organizer's events from the Firestore
+     * "EventSummaries" collection (see {@link EventSummaries}).
      * This method attaches a real-time listener, so any changes in the database will automatically
      * update the provided adapter and refresh the event list in the UI.
      *
@@ -127,12 +130,14 @@ public class OrganizerActivity extends AppCompatActivity {
      *                so the UI reflects the latest data.
      * Firestore Query Behavior:
      *                Filters documents where the "organizerId" field matches the current device's ID.
+     *                Reads summaries rather than full events, so entrant arrays and QR codes
+     *                are never downloaded just to draw a card.
      *                Clears the existing event list before repopulating to avoid duplicates.
-     *                Converts each matching Firestore document into an {@link OrganizerEvent} object.
-     *                Triggers UI update through {@code adapter.notifyDataSetChanged()} after data refresh.
+     *                Converts each matching Firestore document into an {@link EventSummary} object.
+     *                Submits the rebuilt list to the adapter, which only rebinds events that changed.
      */
     private void loadEventsFromFirestore(OrganizerEventsAdapter adapter) {
-        db.collection("Events")
+        db.collection(EventSummaries.COLLECTION)
                 .whereEqualTo("organizerId", DeviceID)
                 .addSnapshotListener((snapshots, e) -> {
                     if (e != null) return;
@@ -140,12 +145,12 @@ public class OrganizerActivity extends AppCompatActivity {
                     organizerEvents.clear();
                     if (snapshots != null) {
                         for (var doc : snapshots.getDocuments()) {
-                            OrganizerEvent event = doc.toObject(OrganizerEvent.class);
+                            EventSummary event = doc.toObject(EventSummary.class);
                             if (event != null) organizerEvents.add(event);
                         }
                     }
 
-                    adapter.notifyDataSetChanged();
+                    adapter.submitList(organizerEvents);
                 });
     }
 }
\ No newline at end of file
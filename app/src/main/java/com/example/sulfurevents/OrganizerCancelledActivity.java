@@ -77,14 +77,10 @@ public class OrganizerCancelledActivity extends AppCompatActivity {
         emptyText.setVisibility(TextView.GONE);
         users.clear();
         deviceIds.clear();
-        adapter.notifyDataSetChanged();
 
         db.collection("Events").document(eventId).get()
-                .addOnSuccessListener(doc -> {
-                    // Allow for possible alternate field names if teammates used camelCase
-                    List<String> cancelled = getStringList(doc, "cancelled_list", "cancelledList");
-                    handleCancelled(cancelled);
-                })
+                .continueWithTask(task -> EntrantStore.lists(task.getResult()))
+                .addOnSuccessListener(lists -> handleCancelled(lists.get(Memberships.CANCELLED)))
                 .addOnFailureListener(e -> {
                     progressBar.setVisibility(ProgressBar.GONE);
                     emptyText.setVisibility(TextView.VISIBLE);
@@ -93,53 +89,26 @@ public class OrganizerCancelledActivity extends AppCompatActivity {
                 });
     }
 
-    /**
-     * Best-effort retrieval of a string list field that may appear under multiple keys,
-     * returning a non-null list even when the field is absent or of an unexpected type.
-     */
-    @SuppressWarnings("unchecked")
-    private List<String> getStringList(DocumentSnapshot doc, String... keys) {
-        for (String k : keys) {
-            Object v = doc.get(k);
-            if (v instanceof List) {
-                try {
-                    return (List<String>) v;
-                } catch (ClassCastException ignored) {
-                    // fall through to return empty list
-                }
-            }
-        }
-        return new ArrayList<>();
-    }
-
     /**
      * After we have the {@code cancelled_list} of deviceIds, resolve each to a profile (if any)
      * and then update the adapter.
      */
     private void handleCancelled(List<String> ids) {
         if (ids == null || ids.isEmpty()) {
-            progressBar.setVisibility(ProgressBar.GONE);
-            emptyText.setVisibility(TextView.VISIBLE);
-            emptyText.setText("No cancelled entrants.");
+            finishPopulate(); // clears any rows from the previous load
             return;
         }
 
         deviceIds.addAll(ids);
 
-        final int total = ids.size();
-        final int[] done = {0};
-
-        for (String id : ids) {
-            db.collection("Profiles").document(id).get()
-                    .addOnSuccessListener(profileDoc -> {
-                        users.add(extractUser(id, profileDoc));
-                        if (++done[0] == total) finishPopulate();
-                    })
-                    .addOnFailureListener(e -> {
-                        users.add(extractUser(id, null)); // fallback to placeholder
-                        if (++done[0] == total) finishPopulate();
-                    });
-        }
+        // Batched lookup; iterate ids (not responses) so rows match deviceIds order
+        ProfileBatchLoader.getInstance().load(ids)
+                .addOnSuccessListener(profiles -> {
+                    for (String id : ids) {
+                        users.add(extractUser(id, profiles.get(id))); // null -> placeholder row
+                    }
+                    finishPopulate();
+                });
     }
 
     /**
@@ -175,6 +144,6 @@ public class OrganizerCancelledActivity extends AppCompatActivity {
         } else {
             emptyText.setVisibility(TextView.GONE);
         }
-        adapter.notifyDataSetChanged();
+        adapter.submitEntrants(users, deviceIds);
     }
 }
\ No newline at end of file
@@ -15,7 +15,6 @@ import android.os.Environment;
 import android.provider.MediaStore;
 import android.provider.Settings;
 import android.text.TextUtils;
-import android.util.Base64;
 import android.util.Log;
 import android.view.Gravity;
 import android.view.View;
@@ -39,17 +38,16 @@ import com.bumptech.glide.Glide;
 import com.google.android.material.textfield.TextInputEditText;
 import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.storage.FirebaseStorage;
-import com.google.firebase.storage.StorageReference;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.OutputStream;
 import java.util.Calendar;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
 /**
  * The {@code OrganizerCreateEventActivity} class allows organizers to create new events
@@ -181,14 +179,7 @@ public class OrganizerCreateEventActivity extends AppCompatActivity {
     }
 
     private Bitmap generateQR(String value) throws Exception{
-        com.journeyapps.barcodescanner.BarcodeEncoder encoder = new com.journeyapps.barcodescanner.BarcodeEncoder();
-        return encoder.encodeBitmap(value, com.google.zxing.BarcodeFormat.QR_CODE, 500, 500);
-    }
-
-    private String bitmaptobase64(Bitmap bitmap){
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        bitmap.compress(Bitmap.CompressFormat.PNG, 100, baos);
-        return Base64.encodeToString(baos.toByteArray(), Base64.DEFAULT);
+        return QrCodeCache.render(value, QrCodeCache.DEFAULT_SIZE);
     }
 
     private boolean validateAddress(String address) {
@@ -249,13 +240,11 @@ public class OrganizerCreateEventActivity extends AppCompatActivity {
             return;
         }
 
+        // The code is saved to the gallery only; screens draw it again from the deep link
         Bitmap qrBitmap;
-        String qrBase64;
 
         try {
-            String deepLink = "sulfurevents://event/" + eventId;
-            qrBitmap = generateQR(deepLink);
-            qrBase64 = bitmaptobase64(qrBitmap);
+            qrBitmap = generateQR(QrCodeCache.deepLink(eventId));
         } catch (Exception e) {
             showStyledToast("Cannot create event: QR code generation failed");
             return;
@@ -281,7 +270,6 @@ public class OrganizerCreateEventActivity extends AppCompatActivity {
         event.endDate = end;
         event.location = location;
         event.limitGuests = limit;
-        event.qrCode = qrBase64;
         event.organizerEmail = OGEmail;
         event.geolocationEnabled = geolocationEnabled;
 
@@ -294,7 +282,7 @@ public class OrganizerCreateEventActivity extends AppCompatActivity {
         if (posterUri == null) {
             event.posterURL = null;
 
-            newEventRef.set(event)
+            EventSummaries.create(newEventRef, event)
                     .addOnSuccessListener(unused -> {
                         String message = geolocationEnabled
                                 ? "Event created with geolocation enabled!"
@@ -313,32 +301,29 @@ public class OrganizerCreateEventActivity extends AppCompatActivity {
                     });
 
         } else {
-            StorageReference storeref = FirebaseStorage.getInstance()
-                    .getReference("Event_Posters")
-                    .child(eventId + ".jpg");
-
-            storeref.putFile(posterUri).addOnSuccessListener(task -> {
-                storeref.getDownloadUrl().addOnSuccessListener(downloadUrl -> {
-                    event.posterURL = downloadUrl.toString();
-
-                    newEventRef.set(event)
-                            .addOnSuccessListener(unused -> {
-                                String message = geolocationEnabled
-                                        ? "Event created with geolocation enabled!"
-                                        : "Event created successfully!";
-                                showStyledToast(message);
-
-                                saveQRToGallery(qrBitmap, eventId);
-
-                                db.collection("Profiles").document(DeviceID)
-                                        .update("isOrganizer", true);
-
-                                finish();
-                            })
-                            .addOnFailureListener(e -> {
-                                showStyledToast("Failed to create event: " + e.getMessage());
-                            });
-                });
+            // Downscaled full, card and thumbnail copies; see Posters
+            Posters.upload(this, posterUri, eventId).addOnSuccessListener(urls -> {
+                event.posterURL = (String) urls.get(PosterVariants.FULL_FIELD);
+                event.posterCardURL = (String) urls.get(PosterVariants.CARD_FIELD);
+                event.posterThumbURL = (String) urls.get(PosterVariants.THUMB_FIELD);
+
+                EventSummaries.create(newEventRef, event)
+                        .addOnSuccessListener(unused -> {
+                            String message = geolocationEnabled
+                                    ? "Event created with geolocation enabled!"
+                                    : "Event created successfully!";
+                            showStyledToast(message);
+
+                            saveQRToGallery(qrBitmap, eventId);
+
+                            db.collection("Profiles").document(DeviceID)
+                                    .update("isOrganizer", true);
+
+                            finish();
+                        })
+                        .addOnFailureListener(e -> {
+                            showStyledToast("Failed to create event: " + e.getMessage());
+                        });
             }).addOnFailureListener(e -> {
                 showStyledToast("Poster upload failed: " + e.getMessage());
             });
@@ -513,48 +498,43 @@ public class OrganizerCreateEventActivity extends AppCompatActivity {
         }
 
         if (posterUri != null && !posterUri.toString().startsWith("http")) {
-            StorageReference storeref = FirebaseStorage.getInstance()
-                    .getReference("Event_Posters")
-                    .child(eventId + ".jpg");
-
-            storeref.putFile(posterUri).addOnSuccessListener(task -> {
-                storeref.getDownloadUrl().addOnSuccessListener(downloadURL -> {
-                    db.collection("Events").document(eventId)
-                            .update(
-                                    "eventName", title,
-                                    "description", description,
-                                    "startDate", start,
-                                    "endDate", end,
-                                    "location", location,
-                                    "limitGuests", limit,
-                                    "organizerEmail", organizerProfileEmail,
-                                    "posterURL", downloadURL.toString(),
-                                    "waitingListLimit", waitingLimit != null ? waitingLimit : ""
-                            )
-                            .addOnSuccessListener(unused -> {
-                                showStyledToast("Event updated successfully");
-                                finish();
-                            });
-                });
+            Posters.upload(this, posterUri, eventId).addOnSuccessListener(urls -> {
+                Map<String, Object> update = editedFields(title, description, start, end,
+                        location, limit, waitingLimit);
+                update.putAll(urls);
+                EventSummaries.update(db.collection("Events").document(eventId), update)
+                        .addOnSuccessListener(unused -> {
+                            showStyledToast("Event updated successfully");
+                            finish();
+                        });
             }).addOnFailureListener(e -> {
                 showStyledToast("Failed to upload poster: " + e.getMessage());
             });
         } else {
-            db.collection("Events").document(eventId)
-                    .update(
-                            "eventName", title,
-                            "description", description,
-                            "startDate", start,
-                            "endDate", end,
-                            "location", location,
-                            "limitGuests", limit,
-                            "organizerEmail", organizerProfileEmail,
-                            "waitingListLimit", waitingLimit != null ? waitingLimit : ""
-                    )
+            EventSummaries.update(db.collection("Events").document(eventId),
+                    editedFields(title, description, start, end, location, limit, waitingLimit))
                     .addOnSuccessListener(unused -> {
                         showStyledToast("Event updated successfully");
                         finish();
                     });
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Builds the event update for the edit form; the summary copies what it needs from it.
+     */
+    private Map<String, Object> editedFields(String title, String description, String start,
+                                             String end, String location, String limit,
+                                             String waitingLimit) {
+        Map<String, Object> update = new HashMap<>();
+        update.put("eventName", title);
+        update.put("description", description);
+        update.put("startDate", start);
+        update.put("endDate", end);
+        update.put("location", location);
+        update.put("limitGuests", limit);
+        update.put("organizerEmail", organizerProfileEmail);
+        update.put("waitingListLimit", waitingLimit != null ? waitingLimit : "");
+        return update;
+    }
+}
@@ -100,20 +100,32 @@ public class OrganizerEnrolledActivity extends AppCompatActivity {
         emptyText.setVisibility(View.GONE);
         users.clear();
         deviceIds.clear();
-        adapter.notifyDataSetChanged();
 
         db.collection("Events").document(eventId).get()
                 .addOnSuccessListener(doc -> {
+                    if (EntrantStore.isSharded(doc)) {
+                        EntrantStore.lists(doc)
+                                .addOnSuccessListener(lists -> handleEnrolled(lists.get(Memberships.ENROLLED)))
+                                .addOnFailureListener(this::showLoadError);
+                        return;
+                    }
                     // Tolerate alternate field names if teammates used camelCase
                     List<String> enrolled = getStringList(doc, "enrolled_list", "enrolledList", "final_list", "finalList");
                     handleEnrolled(enrolled);
                 })
-                .addOnFailureListener(e -> {
-                    progressBar.setVisibility(View.GONE);
-                    emptyText.setVisibility(View.VISIBLE);
-                    emptyText.setText("Failed to load enrolled list.");
-                    Toast.makeText(this, "Error: " + e.getMessage(), Toast.LENGTH_SHORT).show();
-                });
+                .addOnFailureListener(this::showLoadError);
+    }
+
+    /**
+     * Shows the load failure in place of the list.
+     *
+     * @param e the failed read
+     */
+    private void showLoadError(Exception e) {
+        progressBar.setVisibility(View.GONE);
+        emptyText.setVisibility(View.VISIBLE);
+        emptyText.setText("Failed to load enrolled list.");
+        Toast.makeText(this, "Error: " + e.getMessage(), Toast.LENGTH_SHORT).show();
     }
 
 
@@ -146,9 +158,7 @@ public class OrganizerEnrolledActivity extends AppCompatActivity {
      */
     private void handleEnrolled(List<String> ids) {
         if (ids == null || ids.isEmpty()) {
-            progressBar.setVisibility(View.GONE);
-            emptyText.setVisibility(View.VISIBLE);
-            emptyText.setText("No enrolled entrants.");
+            finishPopulate(); // clears any rows from the previous load
             return;
         }
 
@@ -157,24 +167,15 @@ public class OrganizerEnrolledActivity extends AppCompatActivity {
 
         deviceIds.addAll(ids);
 
-        final int total = ids.size();
-        final int[] done = {0};
-
-
-
-
-
-        for (String id : ids) {
-            db.collection("Profiles").document(id).get()
-                    .addOnSuccessListener(profileDoc -> {
-                        users.add(extractUser(id, profileDoc));
-                        if (++done[0] == total) finishPopulate();
-                    })
-                    .addOnFailureListener(e -> {
-                        users.add(extractUser(id, null)); // fallback to placeholder
-                        if (++done[0] == total) finishPopulate();
-                    });
-        }
+        // One chunked whereIn query per few dozen IDs instead of one get per entrant.
+        // Rows are built in list order so users[i] lines up with the deviceId at i.
+        ProfileBatchLoader.getInstance().load(ids)
+                .addOnSuccessListener(profiles -> {
+                    for (String id : ids) {
+                        users.add(extractUser(id, profiles.get(id))); // null -> placeholder row
+                    }
+                    finishPopulate();
+                });
     }
 
     /**
@@ -213,6 +214,6 @@ public class OrganizerEnrolledActivity extends AppCompatActivity {
         } else {
             emptyText.setVisibility(View.GONE);
         }
-        adapter.notifyDataSetChanged();
+        adapter.submitEntrants(users, deviceIds);
     }
 }
\ No newline at end of file
@@ -12,10 +12,13 @@ public class OrganizerEvent {
     public String limitGuests;
     public String link;
     public String waitingListLimit;
-    public String qrCode;
     public String organizerEmail;
     public String posterURL;
+    public String posterCardURL;
+    public String posterThumbURL;
     public boolean geolocationEnabled; // Add geolocation field
+    // New events store every registration location with its geohash (see RegistrationLocations)
+    public boolean locationsGeohashed = true;
 
 
 
@@ -39,7 +42,6 @@ public class OrganizerEvent {
      * @param location       Location where the event will take place.
      * @param limitGuests    Maximum number of allowed attendees.
      * @param link           Optional link associated with the event.
-     * @param qrCode         Base64-encoded QR code used for event check-in.
      * @param organizerEmail Organizer's contact email.
      * @param posterURL      URL of the uploaded event poster image (nullable).
      * @param geolocationEnabled Whether geolocation tracking is enabled for this event.
@@ -48,7 +50,7 @@ public class OrganizerEvent {
                           String EventTitle, String description,
                           String startDate, String endDate,
                           String location, String limitGuests,
-                          String link, String qrCode, String organizerEmail,
+                          String link, String organizerEmail,
                           String posterURL, boolean geolocationEnabled) {
 
         this.eventId = eventId;
@@ -60,7 +62,6 @@ public class OrganizerEvent {
         this.location = location;
         this.limitGuests = limitGuests;
         this.link = link;
-        this.qrCode = qrCode;
         this.organizerEmail = organizerEmail;
         this.posterURL = posterURL;
         this.geolocationEnabled = geolocationEnabled;
@@ -105,10 +106,6 @@ public class OrganizerEvent {
         return link;
     }
 
-    public String getQrCode() {
-        return qrCode;
-    }
-
     public String getOrganizerEmail() {
         return organizerEmail;
     }
@@ -117,10 +114,22 @@ public class OrganizerEvent {
         return posterURL;
     }
 
+    public String getPosterCardURL() {
+        return posterCardURL;
+    }
+
+    public String getPosterThumbURL() {
+        return posterThumbURL;
+    }
+
     public boolean isGeolocationEnabled() {
         return geolocationEnabled;
     }
 
+    public boolean isLocationsGeohashed() {
+        return locationsGeohashed;
+    }
+
     //Setters
 
     public void setEventId(String eventId) {
@@ -161,10 +170,6 @@ public class OrganizerEvent {
         this.link = link;
     }
 
-    public void setQrCode(String qrCode) {
-        this.qrCode = qrCode;
-    }
-
     public void setOrganizerEmail(String organizerEmail) {
         this.organizerEmail = organizerEmail;
     }
@@ -173,7 +178,19 @@ public class OrganizerEvent {
         this.posterURL = posterURL;
     }
 
+    public void setPosterCardURL(String posterCardURL) {
+        this.posterCardURL = posterCardURL;
+    }
+
+    public void setPosterThumbURL(String posterThumbURL) {
+        this.posterThumbURL = posterThumbURL;
+    }
+
     public void setGeolocationEnabled(boolean geolocationEnabled) {
         this.geolocationEnabled = geolocationEnabled;
     }
+
+    public void setLocationsGeohashed(boolean locationsGeohashed) {
+        this.locationsGeohashed = locationsGeohashed;
+    }
 }
\ No newline at end of file
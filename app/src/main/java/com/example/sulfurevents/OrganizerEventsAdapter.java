@@ -12,7 +12,6 @@ import android.widget.Button;
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.bumptech.glide.Glide;
 
 import java.util.ArrayList;
 
@@ -22,10 +21,10 @@ import java.util.ArrayList;
  * Adapter for displaying the organizer’s events in a RecyclerView.
  * Each card shows event info and a button to view full details.
  */
-public class OrganizerEventsAdapter extends RecyclerView.Adapter<OrganizerEventsAdapter.MyViewHolder> {
+public class OrganizerEventsAdapter extends DiffListAdapter<EventSummary, OrganizerEventsAdapter.MyViewHolder> {
 
     private final Context context;
-    private final ArrayList<OrganizerEvent> organizerEvents;
+    private final PosterPreloader<EventSummary> posters;
 
     /**
      * Constructs the adapter for displaying organizer events in a RecyclerView.
@@ -33,9 +32,40 @@ public class OrganizerEventsAdapter extends RecyclerView.Adapter<OrganizerEvents
      * @param context          The calling context.
      * @param organizerEvents  The list of events to display.
      */
-    public OrganizerEventsAdapter(Context context, ArrayList<OrganizerEvent> organizerEvents) {
+    public OrganizerEventsAdapter(Context context, ArrayList<EventSummary> organizerEvents) {
         this.context = context;
-        this.organizerEvents = organizerEvents;
+        this.posters = new PosterPreloader<>(this, (event, width) -> PosterVariants.pick(width,
+                event.getPosterThumbURL(), event.getPosterCardURL(), event.getPosterURL()));
+        submitList(organizerEvents);
+    }
+
+    /**
+     * Preloads the posters of rows about to scroll into view.
+     *
+     * @param recyclerView list showing this adapter
+     */
+    public void attachPreloader(RecyclerView recyclerView) {
+        posters.attach(recyclerView);
+    }
+
+    @Override
+    protected String getItemKey(@NonNull EventSummary item) {
+        return item.getEventId();
+    }
+
+    /**
+     * Compares only the fields shown on the card, so changes to other fields
+     * (e.g. the invited count) do not rebind the row or reload its poster.
+     */
+    @Override
+    protected boolean areContentsTheSame(@NonNull EventSummary oldItem, @NonNull EventSummary newItem) {
+        return same(oldItem.getEventName(), newItem.getEventName())
+                && same(oldItem.getStartDate(), newItem.getStartDate())
+                && same(oldItem.getLocation(), newItem.getLocation())
+                && same(oldItem.getLimitGuests(), newItem.getLimitGuests())
+                && same(oldItem.getPosterURL(), newItem.getPosterURL())
+                && same(oldItem.getPosterCardURL(), newItem.getPosterCardURL())
+                && oldItem.getWaitingCount() == newItem.getWaitingCount();
     }
 
     /**
@@ -50,7 +80,9 @@ public class OrganizerEventsAdapter extends RecyclerView.Adapter<OrganizerEvents
     public MyViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         LayoutInflater inflater = LayoutInflater.from(context);
         View view = inflater.inflate(R.layout.organizer_events_row, parent, false);
-        return new MyViewHolder(view);
+        MyViewHolder holder = new MyViewHolder(view);
+        posters.track(holder.EventImage);
+        return holder;
 
     }
 
@@ -61,17 +93,17 @@ public class OrganizerEventsAdapter extends RecyclerView.Adapter<OrganizerEvents
      * @param holder   The ViewHolder containing the row's views.
      * @param position The position of the event in the list.
      *
-     * Sets event name, date, location, and capacity. Also attaches a click listener
-     * to open the event detail screen.
+     * Sets event name, date, location, capacity and waiting list size. Also attaches a click
+     * listener to open the event detail screen.
      */
     @Override
     public void onBindViewHolder(@NonNull MyViewHolder holder, int position) {
-        OrganizerEvent event = organizerEvents.get(position);
+        EventSummary event = getItem(position);
 
         // get the image from the database and places it in the imageView portion of the
         // event card
         String imgUrl = event.getPosterURL();
-        Glide.with(context).load(imgUrl).into(holder.EventImage);
+        posters.bind(event, holder.EventImage);
 
         //  Clean, readable event info
         holder.EventName.setText(event.getEventName());
@@ -80,9 +112,10 @@ public class OrganizerEventsAdapter extends RecyclerView.Adapter<OrganizerEvents
 
         String capacity = event.getLimitGuests();
         holder.Capacity.setText(
-                (capacity == null || capacity.isBlank() || capacity.isEmpty())
+                ((capacity == null || capacity.isBlank() || capacity.isEmpty())
                         ? "Capacity: N/A"
-                        : "Capacity: " + capacity
+                        : "Capacity: " + capacity)
+                        + " · Waiting: " + event.getWaitingCount()
         );
 
         //  Button now opens OrganizerViewEventActivity
@@ -106,17 +139,6 @@ public class OrganizerEventsAdapter extends RecyclerView.Adapter<OrganizerEvents
 
     }
 
-    /**
-     * Returns the number of events in the list.
-     *
-     * @return Total count of organizer events.
-     */
-    @Override
-    public int getItemCount() {
-        return organizerEvents.size();
-    }
-
-
     /**
      * ViewHolder class that holds references to the UI elements in a single event row.
      * Used to efficiently bind data to RecyclerView rows.
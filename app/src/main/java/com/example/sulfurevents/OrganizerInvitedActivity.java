@@ -14,8 +14,8 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.DocumentSnapshot;
-import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.WriteBatch;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -30,8 +30,8 @@ import java.util.Set;
  *
  * <p>Organizer facing screen that lists all deviceIds in {@code invited_list} (pending sign-up)
  * for a given event and lets the organizer multi-select and cancel any subset. Cancellation moves
- * each selected deviceId from {@code invited_list} to {@code cancelled_list} using atomic
- * {@link FieldValue#arrayRemove(Object...)} / {@link FieldValue#arrayUnion(Object...)} updates.
+ * each selected deviceId from {@code invited_list} to {@code cancelled_list} with
+ * {@link Memberships#move}, which also updates each entrant's membership index.
  *
  * <p>Notes:
  * <ul>
@@ -130,13 +130,10 @@ public class OrganizerInvitedActivity extends AppCompatActivity {
         emptyText.setVisibility(View.GONE);
         users.clear();
         deviceIds.clear();
-        adapter.notifyDataSetChanged();
 
         db.collection("Events").document(eventId).get()
-                .addOnSuccessListener(doc -> {
-                    List<String> invited = getStringList(doc, "invited_list", "invitedList");
-                    handleInvited(invited);
-                })
+                .continueWithTask(task -> EntrantStore.lists(task.getResult()))
+                .addOnSuccessListener(lists -> handleInvited(lists.get(Memberships.INVITED)))
                 .addOnFailureListener(e -> {
                     progressBar.setVisibility(View.GONE);
                     emptyText.setVisibility(View.VISIBLE);
@@ -145,57 +142,26 @@ public class OrganizerInvitedActivity extends AppCompatActivity {
                 });
     }
 
-    /**
-     * Best effort retrieval of a string list field that may appear under multiple keys,
-     * returning a non-null list when the field is missing or has an unexpected type.
-     *
-     * @param doc  Firestore document snapshot
-     * @param keys Fallback field names in priority order
-     * @return a non-null list instance
-     */
-    @SuppressWarnings("unchecked")
-    private List<String> getStringList(DocumentSnapshot doc, String... keys) {
-        for (String k : keys) {
-            Object v = doc.get(k);
-            if (v instanceof List) {
-                try {
-                    return (List<String>) v;
-                } catch (ClassCastException ignored) {
-                    // fall through to return empty list
-                }
-            }
-        }
-        return new ArrayList<>();
-    }
-
     /**
      * After reading {@code invited_list}, resolve each deviceId to a profile (if present)
      * and then render via the adapter
      */
     private void handleInvited(List<String> ids) {
         if (ids == null || ids.isEmpty()) {
-            progressBar.setVisibility(View.GONE);
-            emptyText.setVisibility(View.VISIBLE);
-            emptyText.setText("No invited entrants.");
+            finishPopulate(); // clears any rows from the previous load
             return;
         }
 
         deviceIds.addAll(ids);
 
-        final int total = ids.size();
-        final int[] done = {0};
-
-        for (String id : ids) {
-            db.collection("Profiles").document(id).get()
-                    .addOnSuccessListener(profileDoc -> {
-                        users.add(extractUser(id, profileDoc));
-                        if (++done[0] == total) finishPopulate();
-                    })
-                    .addOnFailureListener(e -> {
-                        users.add(extractUser(id, null)); // fallback to placeholder row
-                        if (++done[0] == total) finishPopulate();
-                    });
-        }
+        // Resolve profiles in chunks; keep users aligned with deviceIds for selection
+        ProfileBatchLoader.getInstance().load(ids)
+                .addOnSuccessListener(profiles -> {
+                    for (String id : ids) {
+                        users.add(extractUser(id, profiles.get(id))); // null -> placeholder row
+                    }
+                    finishPopulate();
+                });
     }
 
     /**
@@ -234,7 +200,7 @@ public class OrganizerInvitedActivity extends AppCompatActivity {
         } else {
             emptyText.setVisibility(View.GONE);
         }
-        adapter.notifyDataSetChanged();
+        adapter.submitEntrants(users, deviceIds);
     }
 
     /**
@@ -254,11 +220,7 @@ public class OrganizerInvitedActivity extends AppCompatActivity {
         // Defensive copy and de-dupe in case the adapter selection had duplicates.
         final List<String> chosen = new ArrayList<>(new HashSet<>(selected));
 
-        DocumentReference eventRef = db.collection("Events").document(eventId);
-        eventRef.update(
-                "invited_list", FieldValue.arrayRemove(chosen.toArray()),
-                "cancelled_list", FieldValue.arrayUnion(chosen.toArray())
-        ).addOnSuccessListener(aVoid -> {
+        Memberships.move(db, eventId, chosen, Memberships.INVITED, Memberships.CANCELLED).addOnSuccessListener(aVoid -> {
             Toast.makeText(this, "Cancelled " + chosen.size() + " entrant(s).", Toast.LENGTH_LONG).show();
             adapter.clearSelection();
             loadInvited(); // refresh to reflect removals
@@ -305,72 +267,61 @@ public class OrganizerInvitedActivity extends AppCompatActivity {
                 return;
             }
 
-            @SuppressWarnings("unchecked")
-            List<String> waiting  = (List<String>) (doc.get("waiting_list") != null ? doc.get("waiting_list") : doc.get("waitingList"));
-            if (waiting == null) waiting = new ArrayList<>();
-            @SuppressWarnings("unchecked")
-            List<String> enrolled = (List<String>) (doc.get("enrolled_list") != null ? doc.get("enrolled_list") : doc.get("enrolledList"));
-            if (enrolled == null) enrolled = new ArrayList<>();
-            @SuppressWarnings("unchecked")
-            List<String> invited  = (List<String>) (doc.get("invited_list") != null ? doc.get("invited_list") : doc.get("invitedList"));
-            if (invited == null) invited = new ArrayList<>();
-
-
-
-            String capStr = doc.getString("limitGuests");
-            int capacity = 0;
-            try {
-                capacity = Integer.parseInt(capStr);
-            } catch (Exception ignored) {}
+            EntrantStore.lists(doc).addOnSuccessListener(lists -> {
+                List<String> waiting  = lists.get(Memberships.WAITING);
+                List<String> enrolled = lists.get(Memberships.ENROLLED);
+                List<String> invited  = lists.get(Memberships.INVITED);
 
-            int open = Math.max(0, capacity - enrolled.size() - invited.size());
-            if (open <= 0) {
-                Toast.makeText(this, "No open slots to fill.", Toast.LENGTH_SHORT).show();
-                return;
-            }
+                String capStr = doc.getString("limitGuests");
+                int capacity = 0;
+                try {
+                    capacity = Integer.parseInt(capStr);
+                } catch (Exception ignored) {}
 
-            // Choose up to min(open, count) FIFO from waiting, skipping already invited/enrolled
-            List<String> chosen = new ArrayList<>();
-            for (String id : waiting) {
-                if (!invited.contains(id) && !enrolled.contains(id)) {
-                    chosen.add(id);
-                    if (chosen.size() == Math.min(open, count)) break;
+                int open = Math.max(0, capacity - enrolled.size() - invited.size());
+                if (open <= 0) {
+                    Toast.makeText(this, "No open slots to fill.", Toast.LENGTH_SHORT).show();
+                    return;
                 }
-            }
-            if (chosen.isEmpty()) {
-                Toast.makeText(this, "No eligible replacements found.", Toast.LENGTH_SHORT).show();
-                return;
-            }
 
-            eventRef.update(
-                    "waiting_list", FieldValue.arrayRemove(chosen.toArray()),
-                    "invited_list", FieldValue.arrayUnion(chosen.toArray())
-            ).addOnSuccessListener(aVoid -> {
-                Toast.makeText(this, "Invited " + chosen.size() + " replacement(s).", Toast.LENGTH_SHORT).show();
-
-                // notify each replacement that they have been invited (US 01.05.01)
-                String localEventName = doc.getString("eventName");
-                String safeName = (localEventName != null && !localEventName.isEmpty())
-                        ? localEventName
-                        : "this event";
-
-                for (String invitedId : chosen) {
-                    Map<String, Object> notif = new HashMap<>();
-                    notif.put("eventId", eventId);
-                    notif.put("eventName", localEventName != null ? localEventName : "Event");
-                    notif.put("type", "INVITED");
-                    notif.put("message", "You were selected for " + safeName + ". Tap the event to accept or decline.");
-                    notif.put("timestamp", System.currentTimeMillis());
-                    notif.put("read", false);
-
-                    sendNotifIfEnabled(invitedId, notif);
+                // Choose up to min(open, count) FIFO from waiting, skipping already invited/enrolled
+                List<String> chosen = new ArrayList<>();
+                for (String id : waiting) {
+                    if (!invited.contains(id) && !enrolled.contains(id)) {
+                        chosen.add(id);
+                        if (chosen.size() == Math.min(open, count)) break;
+                    }
+                }
+                if (chosen.isEmpty()) {
+                    Toast.makeText(this, "No eligible replacements found.", Toast.LENGTH_SHORT).show();
+                    return;
                 }
 
-            }).addOnFailureListener(e ->
-                    Toast.makeText(this, "Failed to invite replacements: " + e.getMessage(), Toast.LENGTH_SHORT).show()
-            );
-
+                Memberships.move(db, eventId, chosen, Memberships.WAITING, Memberships.INVITED).addOnSuccessListener(aVoid -> {
+                    Toast.makeText(this, "Invited " + chosen.size() + " replacement(s).", Toast.LENGTH_SHORT).show();
+
+                    // notify each replacement that they have been invited (US 01.05.01)
+                    String localEventName = doc.getString("eventName");
+                    String safeName = (localEventName != null && !localEventName.isEmpty())
+                            ? localEventName
+                            : "this event";
+
+                    for (String invitedId : chosen) {
+                        Map<String, Object> notif = new HashMap<>();
+                        notif.put("eventId", eventId);
+                        notif.put("eventName", localEventName != null ? localEventName : "Event");
+                        notif.put("type", "INVITED");
+                        notif.put("message", "You were selected for " + safeName + ". Tap the event to accept or decline.");
+                        notif.put("timestamp", System.currentTimeMillis());
+                        notif.put("read", false);
+
+                        sendNotifIfEnabled(invitedId, notif);
+                    }
 
+                }).addOnFailureListener(e ->
+                        Toast.makeText(this, "Failed to invite replacements: " + e.getMessage(), Toast.LENGTH_SHORT).show()
+                );
+            });
         }).addOnFailureListener(e ->
                 Toast.makeText(this, "Failed to load event.", Toast.LENGTH_SHORT).show()
         );
@@ -389,7 +340,8 @@ public class OrganizerInvitedActivity extends AppCompatActivity {
      *     <li>Reads {@code Profiles/{targetId}} and checks the
      *         {@code notificationsEnabled} flag.</li>
      *     <li>If enabled (or missing), adds the notification document under
-     *         {@code Profiles/{targetId}/notifications}.</li>
+     *         {@code Profiles/{targetId}/notifications} and increments the entrant's
+     *         unread counter in the same commit.</li>
      *     <li>Appends a record to the {@code NotificationLogs} collection
      *         containing sender, recipient, event, type, message and timestamp.</li>
      * </ol>
@@ -407,10 +359,7 @@ public class OrganizerInvitedActivity extends AppCompatActivity {
                     if (enabled == null || enabled) {
 
                         // =============== 1) Send the notification ===============
-                        db.collection("Profiles")
-                                .document(targetId)
-                                .collection("notifications")
-                                .add(notif);
+                        NotificationCounters.send(targetId, notif);
 
                         // =============== 2) Log it for admins ===================
                         Map<String, Object> log = new HashMap<>();
@@ -435,7 +384,8 @@ public class OrganizerInvitedActivity extends AppCompatActivity {
      * no longer see any "accept/decline" prompts for that event. This helper
      * queries {@code Profiles/{targetId}/notifications} for the current
      * {@code eventId} and deletes any documents whose {@code type} is either
-     * {@code "INVITED"} or {@code "INVITED_REPLACEMENT"}.</p>
+     * {@code "INVITED"} or {@code "INVITED_REPLACEMENT"} in one batch, decrementing the
+     * unread counter for any that were never read.</p>
      *
      * @param targetId device ID whose invitation-related notifications
      *                 should be cleaned up for the current event.
@@ -447,13 +397,17 @@ public class OrganizerInvitedActivity extends AppCompatActivity {
                 .whereEqualTo("eventId", eventId)
                 .get()
                 .addOnSuccessListener(querySnapshot -> {
+                    WriteBatch batch = db.batch();
+                    boolean any = false;
                     for (DocumentSnapshot doc : querySnapshot.getDocuments()) {
                         String type = doc.getString("type");
                         // delete only the “accept/decline” style invites
                         if ("INVITED".equals(type) || "INVITED_REPLACEMENT".equals(type)) {
-                            doc.getReference().delete();
+                            NotificationCounters.delete(batch, doc);
+                            any = true;
                         }
                     }
+                    if (any) batch.commit();
                 });
     }
 
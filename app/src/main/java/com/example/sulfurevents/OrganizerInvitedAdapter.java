@@ -17,10 +17,8 @@ import java.util.Set;
 
 
 // Done Java docs part 3
-public class OrganizerInvitedAdapter extends RecyclerView.Adapter<OrganizerInvitedAdapter.Holder>{
+public class OrganizerInvitedAdapter extends DiffListAdapter<EntrantRow, OrganizerInvitedAdapter.Holder>{
 
-    private final List<User> users;
-    private final List<String> deviceIds;
     private final Set<String> selectedIds = new HashSet<>();
 
 
@@ -31,8 +29,29 @@ public class OrganizerInvitedAdapter extends RecyclerView.Adapter<OrganizerInvit
      * @param deviceIds The corresponding device IDs for each user.
      */
     public OrganizerInvitedAdapter(List<User> users, List<String> deviceIds) {
-        this.users = users;
-        this.deviceIds = deviceIds;
+        submitEntrants(users, deviceIds);
+    }
+
+    /**
+     * Shows the given invited entrants, rebinding only rows that changed.
+     * Selections of entrants that are still listed are kept.
+     *
+     * @param users     The list of invited user profiles.
+     * @param deviceIds The corresponding device IDs for each user.
+     */
+    public void submitEntrants(List<User> users, List<String> deviceIds) {
+        selectedIds.retainAll(deviceIds);
+        submitList(EntrantRow.zip(users, deviceIds));
+    }
+
+    @Override
+    protected String getItemKey(@NonNull EntrantRow item) {
+        return item.deviceId;
+    }
+
+    @Override
+    protected boolean areContentsTheSame(@NonNull EntrantRow oldItem, @NonNull EntrantRow newItem) {
+        return oldItem.looksSameAs(newItem);
     }
 
     /**
@@ -62,8 +81,9 @@ public class OrganizerInvitedAdapter extends RecyclerView.Adapter<OrganizerInvit
      */
     @Override
     public void onBindViewHolder(@NonNull Holder h, int position) {
-        User u = users.get(position);
-        String id = deviceIds.get(position);
+        EntrantRow row = getItem(position);
+        User u = row.user;
+        String id = row.deviceId;
 
         h.name.setText(u.getName() != null ? u.getName() : "(Unnamed)");
         String email = (u.getEmail() != null && !u.getEmail().isEmpty()) ? u.getEmail() : "(no email)";
@@ -86,16 +106,6 @@ public class OrganizerInvitedAdapter extends RecyclerView.Adapter<OrganizerInvit
     }
 
 
-    /**
-     * Returns the total number of invited users in the list.
-     *
-     * @return The number of users.
-     */
-    @Override
-    public int getItemCount() {
-        return users.size();
-    }
-
     /**
      * Returns a copy of the currently selected device IDs.
      *
@@ -109,8 +119,9 @@ public class OrganizerInvitedAdapter extends RecyclerView.Adapter<OrganizerInvit
      * Clears all selected entries and refreshes the RecyclerView display.
      */
     public void clearSelection(){
+        if (selectedIds.isEmpty()) return;
         selectedIds.clear();
-        notifyDataSetChanged();
+        notifyItemRangeChanged(0, getItemCount());
     }
 
 
@@ -14,13 +14,9 @@ import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
 
-import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.QueryDocumentSnapshot;
-import com.google.firebase.firestore.QuerySnapshot;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.OutputStream;
 
 
@@ -92,7 +88,7 @@ public class OrganizerViewEventActivity extends AppCompatActivity {
         });
 
         // load event details
-        db.collection("Events").document(eventId).get()
+        EventRepository.getInstance().getOrganizerEvent(eventId)
                 .addOnSuccessListener(this::populateEvent)
                 .addOnFailureListener(e -> {
                     Toast.makeText(this, "Failed to load event", Toast.LENGTH_SHORT).show();
@@ -163,23 +159,20 @@ public class OrganizerViewEventActivity extends AppCompatActivity {
 
 
     /**
-     * Populates the event details screen using data from the retrieved Firestore document.
+     * Populates the event details screen using the event loaded through {@link EventRepository}.
      *
-     * @param doc The Firestore document containing event data.
+     * @param event The event data, or null if the event document does not exist.
      *
-     * If the document does not exist, the activity closes. Otherwise, the event fields
+     * If the event does not exist, the activity closes. Otherwise, the event fields
      * are mapped and displayed in the corresponding TextViews.
      */
-    private void populateEvent(DocumentSnapshot doc) {
-        if (!doc.exists()) {
+    private void populateEvent(OrganizerEvent event) {
+        if (event == null) {
             Toast.makeText(this, "Event not found", Toast.LENGTH_SHORT).show();
             finish();
             return;
         }
 
-        OrganizerEvent event = doc.toObject(OrganizerEvent.class);
-        if (event == null) return;
-
         // fill text views with event data
         tvEventName.setText(event.getEventName());
         tvDescription.setText(event.getDescription());
@@ -228,7 +221,7 @@ public class OrganizerViewEventActivity extends AppCompatActivity {
      */
     private void ExportCSVFile(){
 
-        db.collection("Events").document(eventId).get()
+        EventRepository.getInstance().getEvent(eventId)
                 .addOnSuccessListener(document ->{
                     if(document.exists()){
                         String EventTitle = document.getString("eventName");
@@ -272,7 +265,7 @@ public class OrganizerViewEventActivity extends AppCompatActivity {
      */
     private void ExportFinalList(String EventTitle){
         // Fetch the enrolled list
-        db.collection("Events").document(eventId).get()
+        EventRepository.getInstance().getEvent(eventId)
                 .addOnSuccessListener(document ->{
                     if(!document.exists()){
                         Toast.makeText(this, "No participants in final list", Toast.LENGTH_SHORT).show();
@@ -281,15 +274,20 @@ public class OrganizerViewEventActivity extends AppCompatActivity {
 
 
                     // Collect all device ids
-                    java.util.List<String> deviceIds = (java.util.List<String>) document.get("enrolled_list");
+                    EntrantStore.lists(document)
+                            .addOnSuccessListener(lists -> {
+                                java.util.List<String> deviceIds = lists.get(Memberships.ENROLLED);
 
-                    if(deviceIds == null || deviceIds.isEmpty()){
-                        Toast.makeText(this, "No participants in final list", Toast.LENGTH_SHORT).show();
-                        return;
-                    }
-                    android.util.Log.d("CSV_DEBUG", "Device IDs found: " + deviceIds.size());
+                                if(deviceIds.isEmpty()){
+                                    Toast.makeText(this, "No participants in final list", Toast.LENGTH_SHORT).show();
+                                    return;
+                                }
+                                android.util.Log.d("CSV_DEBUG", "Device IDs found: " + deviceIds.size());
 
-                    fetchProfiles(deviceIds, EventTitle);
+                                fetchProfiles(deviceIds, EventTitle);
+                            })
+                            .addOnFailureListener(e ->
+                                    Toast.makeText(this, "Error fetching list: " + e.getMessage(), Toast.LENGTH_SHORT).show());
 
                 })
                 .addOnFailureListener(e ->{
@@ -298,22 +296,20 @@ public class OrganizerViewEventActivity extends AppCompatActivity {
     }
 
     /**
-     * Retrieves participant profiles linked to the provided device IDs, formats the
-     * results into a CSV structure, and saves the generated CSV file to the user's
-     * Downloads directory.
+     * Exports the profiles linked to the provided device IDs as a CSV file in the
+     * user's Downloads directory.
      *
-     * <p>This method performs a Firestore query against the {@code Profiles} collection,
-     * filtering by the list of {@code deviceIds}. If matching profiles are found, they
-     * are converted into CSV format through {@link #formatCSV(com.google.firebase.firestore.QuerySnapshot)}
-     * and written to local storage using {@code saveCSVToDownloads}.</p>
+     * <p>The file is created first and the rows are then streamed into it by
+     * {@link ProfileCsvExporter}, which queries the {@code Profiles} collection in
+     * chunks that stay within Firestore's {@code whereIn} limit. Only a few chunks are
+     * held in memory at a time, so large events export the same way as small ones.</p>
      *
      * <p>Behavior:
      * <ul>
      *   <li>Validates that the provided device ID list is non-empty.</li>
-     *   <li>Queries Firestore for profiles whose {@code deviceId} field matches the IDs.</li>
-     *   <li>Handles cases where no profiles are found.</li>
      *   <li>Constructs a sanitized CSV file name derived from {@code EventTitle}.</li>
-     *   <li>Persists the CSV file to the device download directory.</li>
+     *   <li>Deletes the file again if none of the IDs has a profile.</li>
+     *   <li>Offers to open or share the file once every row has been written.</li>
      *   <li>Reports all failure conditions via Toast messages.</li>
      * </ul>
      * </p>
@@ -327,117 +323,77 @@ public class OrganizerViewEventActivity extends AppCompatActivity {
             return;
         }
 
-        // get the profiles taht are linked to each device id
-        db.collection("Profiles").whereIn("deviceId", deviceIds)
-                .get()
-                .addOnSuccessListener(profileSnapshot ->{
-                    if(profileSnapshot.isEmpty()){
+        String fileName = EventTitle.replaceAll("[^a-zA-Z0-9]", "_") + "_Final_List.csv";
+
+        android.net.Uri uri;
+        OutputStream outputStream;
+        try {
+            uri = createCSVInDownloads(fileName);
+            outputStream = getContentResolver().openOutputStream(uri);
+            if (outputStream == null) {
+                throw new java.io.IOException("Could not open " + fileName);
+            }
+        } catch (Exception e) {
+            Toast.makeText(this, "Error saving CSV: " + e.getMessage(), Toast.LENGTH_LONG).show();
+            return;
+        }
+
+        new ProfileCsvExporter(db).export(deviceIds, outputStream)
+                .addOnSuccessListener(this, rows -> {
+                    if (rows == 0) {
+                        getContentResolver().delete(uri, null, null);
                         Toast.makeText(this, "No matching profiles found", Toast.LENGTH_SHORT).show();
                         return;
                     }
+                    Toast.makeText(this, "CSV saved to Downloads: " + fileName, Toast.LENGTH_LONG).show();
 
-                    // format as csv
-                    String CSVData = formatCSV(profileSnapshot);
-
-                    String fileName = EventTitle.replaceAll("[^a-zA-Z0-9]", "_") + "_Final_List.csv";
-                    saveCSVToDownloads(fileName, CSVData);
-
-
-
+                    // Offering to user to  open/share the file
+                    offerToOpenFile(uri, fileName);
                 })
-                .addOnFailureListener(e ->{
+                .addOnFailureListener(this, e -> {
+                    getContentResolver().delete(uri, null, null);
                     Toast.makeText(this, "Error fetching list: " + e.getMessage(), Toast.LENGTH_SHORT).show();
                 });
     }
 
-    // Two smaller helper functions
-
     /**
-     * Fetches participant profiles associated with the specified device IDs, converts the
-     * resulting data into CSV format, and exports the CSV file to the user's Downloads folder.
+     * Creates an empty CSV file in the device's Downloads directory and returns a
+     * content URI that can be written to and shared.
      *
-     * <p>The method queries the Firestore {@code Profiles} collection for documents whose
-     * {@code deviceId} field matches any ID in the provided list. When profiles are found,
-     * the data is passed to {@link #formatCSV(com.google.firebase.firestore.QuerySnapshot)}
-     * for CSV construction and then saved locally via {@code saveCSVToDownloads}.</p>
+     * <p>On Android Q and newer the file is inserted through {@code MediaStore.Downloads},
+     * which needs no storage permission. On older versions it is created in the public
+     * Downloads directory and exposed through the app's {@code FileProvider}.</p>
      *
-     * <p>Operational details:
-     * <ul>
-     *   <li>Ensures the list of device IDs is not empty before proceeding.</li>
-     *   <li>Performs a Firestore {@code whereIn} lookup using the given device IDs.</li>
-     *   <li>Validates that at least one matching profile is returned.</li>
-     *   <li>Generates a sanitized filename based on {@code EventTitle}.</li>
-     *   <li>Saves the resulting CSV file into the device’s default Downloads directory.</li>
-     *   <li>Displays Toast notifications for all error or empty-result conditions.</li>
-     * </ul>
-     * </p>
+     * @param fileName The desired name of the CSV file, including the .csv extension.
+     * @return content URI of the new file
+     * @throws java.io.IOException if the file could not be created
      */
-    private String formatCSV(QuerySnapshot querySnapshot){
-        StringBuilder csv = new StringBuilder();
-
-
-        // Format Row
-        csv.append("Name, Email, Phone Number\n");
-
-        // Data rows
-        for (QueryDocumentSnapshot doc : querySnapshot){
-            String name = doc.getString("name") != null ? doc.getString("name") : "";
-            String email = doc.getString("email") != null ? doc.getString("email") : "";
-            String phone = doc.getString("phone") != null ? doc.getString("phone") : "";
-
-            csv.append(name).append(",")
-                    .append(email).append(",")
-                    .append(phone).append("\n");
+    private android.net.Uri createCSVInDownloads(String fileName) throws java.io.IOException {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            ContentValues values = new ContentValues();
+            values.put(MediaStore.Downloads.DISPLAY_NAME, fileName);
+            values.put(MediaStore.Downloads.MIME_TYPE, "text/csv");
+            values.put(MediaStore.Downloads.RELATIVE_PATH, Environment.DIRECTORY_DOWNLOADS);
+
+            android.net.Uri uri = getContentResolver().insert(MediaStore.Downloads.EXTERNAL_CONTENT_URI, values);
+            if (uri == null) {
+                throw new java.io.IOException("Could not create " + fileName);
+            }
+            return uri;
         }
 
-        return csv.toString();
-
-    }
-
-
-
-    private void saveCSVToDownloads(String fileName, String csvData) {
-        try {
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
-                ContentValues values = new ContentValues();
-                values.put(MediaStore.Downloads.DISPLAY_NAME, fileName);
-                values.put(MediaStore.Downloads.MIME_TYPE, "text/csv");
-                values.put(MediaStore.Downloads.RELATIVE_PATH, Environment.DIRECTORY_DOWNLOADS);
-
-                android.net.Uri uri = getContentResolver().insert(MediaStore.Downloads.EXTERNAL_CONTENT_URI, values);
-                if (uri != null) {
-                    OutputStream outputStream = getContentResolver().openOutputStream(uri);
-                    if (outputStream != null) {
-                        outputStream.write(csvData.getBytes());
-                        outputStream.close();
-                        Toast.makeText(this, "CSV saved to Downloads: " + fileName, Toast.LENGTH_LONG).show();
-
-                        // Offering to user to  open/share the file
-                        offerToOpenFile(uri, fileName);
-                    }
-                }
-            } else {
-                File downloadsDir = Environment.getExternalStoragePublicDirectory(Environment.DIRECTORY_DOWNLOADS);
-                File file = new File(downloadsDir, fileName);
-
-                FileWriter writer = new FileWriter(file);
-                writer.write(csvData);
-                writer.close();
-
-                Toast.makeText(this, "CSV saved to Downloads: " + fileName, Toast.LENGTH_LONG).show();
-
-                // For older Android versions, create URI using FileProvider
-                android.net.Uri uri = androidx.core.content.FileProvider.getUriForFile(
-                        this,
-                        getPackageName() + ".provider",
-                        file
-                );
-                offerToOpenFile(uri, fileName);
-            }
-        } catch (Exception e) {
-            Toast.makeText(this, "Error saving CSV: " + e.getMessage(), Toast.LENGTH_LONG).show();
-            e.printStackTrace();
+        File downloadsDir = Environment.getExternalStoragePublicDirectory(Environment.DIRECTORY_DOWNLOADS);
+        File file = new File(downloadsDir, fileName);
+        if (!file.exists() && !file.createNewFile()) {
+            throw new java.io.IOException("Could not create " + fileName);
         }
+
+        // For older Android versions, create URI using FileProvider
+        return androidx.core.content.FileProvider.getUriForFile(
+                this,
+                getPackageName() + ".provider",
+                file
+        );
     }
 
 
@@ -12,8 +12,6 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.google.firebase.firestore.DocumentReference;
-import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
 
@@ -23,7 +21,6 @@ import java.util.List;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
-import java.util.Collections;
 
 // ✨ NEW imports for date handling (needed for auto-lottery)
 import java.text.SimpleDateFormat;
@@ -94,12 +91,8 @@ public class OrganizerWaitlistActivity extends AppCompatActivity {
                 getContentResolver(),
                 android.provider.Settings.Secure.ANDROID_ID
         );
-        db.collection("Events").document(eventId).get()
-                .addOnSuccessListener(doc -> {
-                    if (doc.exists()) {
-                        String eventName = doc.getString("eventName"); // or whatever your field is called
-                    }
-                });
+        // Start listening to the event early so the waitlist and lottery reads hit the cache
+        EventRepository.getInstance().getEvent(eventId);
         // --- UI setup ---
         ImageButton back = findViewById(R.id.btnBack);
         recyclerView = findViewById(R.id.rvWaitlist);
@@ -130,47 +123,69 @@ public class OrganizerWaitlistActivity extends AppCompatActivity {
         emptyText.setVisibility(View.GONE);
         entrants.clear();
         entrantIds.clear();
-        adapter.notifyDataSetChanged();
 
-        db.collection(EVENTS).document(eventId).get()
+        // Maintenance decides writes from the event, so it waits for the server's copy
+        EventRepository.getInstance().getServerEvent(eventId)
                 .addOnSuccessListener(doc -> {
+                    // Very long waiting lists move to subcollections (see EntrantStore)
+                    EntrantStore.migrateIfLarge(db, doc);
+                    // Sharded joins skip the dashboard summary; bring its counts up to date
+                    EventSummaries.refreshCounts(doc);
+                });
 
-                    // 🔹 NEW: auto-run lottery after registration end if:
-                    // - event has passed endDate
-                    // - waiting_list is non-empty
-                    // - invited_list is empty (so we don't re-draw)
-                    if (shouldAutoRunLottery(doc)) {
-                        sendInvitesForSelected();
-                        return;
-                    }
+        EventRepository.getInstance().getEvent(eventId)
+                .addOnSuccessListener(doc -> {
+                    EntrantStore.lists(doc)
+                            .addOnSuccessListener(lists -> showWaitlist(doc, lists))
+                            .addOnFailureListener(this::showLoadError);
+                })
+                .addOnFailureListener(this::showLoadError);
+    }
 
-                    List<String> list = null;
-                    if (doc.exists()) {
-                        list = (List<String>) doc.get(WAITING);
-                        if (list == null) list = (List<String>) doc.get(ALT_WAITING);
-                    }
+    /**
+     * Shows the loaded waiting list, or starts the lottery if it is due.
+     *
+     * @param doc   event document
+     * @param lists the event's entrant lists, from {@link EntrantStore#lists}
+     */
+    @SuppressWarnings("unchecked")
+    private void showWaitlist(DocumentSnapshot doc, Map<String, List<String>> lists) {
+        // 🔹 NEW: auto-run lottery after registration end if:
+        // - event has passed endDate
+        // - waiting_list is non-empty
+        // - invited_list is empty (so we don't re-draw)
+        if (shouldAutoRunLottery(doc, lists)) {
+            sendInvitesForSelected();
+            return;
+        }
 
-                    // Try the alternate collection if no data found
-                    if (list == null) {
-                        db.collection(ALT_EVENTS).document(eventId).get()
-                                .addOnSuccessListener(alt -> handleWaitlist((List<String>)
-                                        (alt.exists() ? (alt.get(WAITING) != null ? alt.get(WAITING) : alt.get(ALT_WAITING)) : null)))
-                                .addOnFailureListener(e -> handleWaitlist(null));
-                    } else {
-                        handleWaitlist(list);
-                    }
-                })
-                .addOnFailureListener(e -> {
-                    progressBar.setVisibility(View.GONE);
-                    emptyText.setVisibility(View.VISIBLE);
-                    emptyText.setText("Failed to load waitlist.");
-                    Toast.makeText(this, "Error: " + e.getMessage(), Toast.LENGTH_SHORT).show();
-                });
+        List<String> list = null;
+        if (doc.exists() && (EntrantStore.isSharded(doc)
+                || doc.get(WAITING) != null || doc.get(ALT_WAITING) != null)) {
+            list = lists.get(Memberships.WAITING);
+        }
+
+        // Try the alternate collection if no data found
+        if (list == null) {
+            db.collection(ALT_EVENTS).document(eventId).get()
+                    .addOnSuccessListener(alt -> handleWaitlist((List<String>)
+                            (alt.exists() ? (alt.get(WAITING) != null ? alt.get(WAITING) : alt.get(ALT_WAITING)) : null)))
+                    .addOnFailureListener(e -> handleWaitlist(null));
+        } else {
+            handleWaitlist(list);
+        }
+    }
+
+    /** Shows the empty state with a load error. */
+    private void showLoadError(Exception e) {
+        progressBar.setVisibility(View.GONE);
+        emptyText.setVisibility(View.VISIBLE);
+        emptyText.setText("Failed to load waitlist.");
+        Toast.makeText(this, "Error: " + e.getMessage(), Toast.LENGTH_SHORT).show();
     }
 
     // 🔹 NEW helper: decides if we should automatically run the lottery for US 02.05.01
-    @SuppressWarnings("unchecked")
-    private boolean shouldAutoRunLottery(DocumentSnapshot doc) {
+    private boolean shouldAutoRunLottery(DocumentSnapshot doc, Map<String, List<String>> lists) {
         if (doc == null || !doc.exists()) return false;
 
         // endDate stored as string "MM/dd/yyyy"
@@ -180,18 +195,12 @@ public class OrganizerWaitlistActivity extends AppCompatActivity {
         }
 
         // If there are already invited people, we've already run the lottery once.
-        List<String> invited = (List<String>) (doc.get("invited_list") != null
-                ? doc.get("invited_list")
-                : doc.get("invitedList"));
-        if (invited != null && !invited.isEmpty()) {
+        if (!lists.get(Memberships.INVITED).isEmpty()) {
             return false;
         }
 
         // Must have people on waiting_list, otherwise nothing to draw from.
-        List<String> waiting = (List<String>) (doc.get("waiting_list") != null
-                ? doc.get("waiting_list")
-                : doc.get("waitingList"));
-        if (waiting == null || waiting.isEmpty()) {
+        if (lists.get(Memberships.WAITING).isEmpty()) {
             return false;
         }
 
@@ -224,28 +233,19 @@ public class OrganizerWaitlistActivity extends AppCompatActivity {
      */
     private void handleWaitlist(List<String> ids) {
         if (ids == null || ids.isEmpty()) {
-            progressBar.setVisibility(View.GONE);
-            emptyText.setVisibility(View.VISIBLE);
-            emptyText.setText("No entrants on the waiting list.");
+            finishPopulate(); // clears any rows from the previous load
             return;
         }
 
         entrantIds.addAll(ids);
-        final int total = ids.size();
-        final int[] done = {0}; // tracks completion count
-
-        // Fetch each profile asynchronously
-        for (String id : ids) {
-            db.collection("Profiles").document(id).get()
-                    .addOnSuccessListener(profileDoc -> {
-                        entrants.add(extractUser(id, profileDoc));
-                        if (++done[0] == total) finishPopulate();
-                    })
-                    .addOnFailureListener(e -> {
-                        entrants.add(extractUser(id, null)); // fallback to bare ID
-                        if (++done[0] == total) finishPopulate();
-                    });
-        }
+        // Fetch profiles in batches via the shared loader, preserving waitlist order
+        ProfileBatchLoader.getInstance().load(ids)
+                .addOnSuccessListener(profiles -> {
+                    for (String id : ids) {
+                        entrants.add(extractUser(id, profiles.get(id))); // null -> placeholder row
+                    }
+                    finishPopulate();
+                });
     }
 
     /**
@@ -284,7 +284,7 @@ public class OrganizerWaitlistActivity extends AppCompatActivity {
         } else {
             emptyText.setVisibility(View.GONE);
         }
-        adapter.notifyDataSetChanged();
+        adapter.submitEntrants(entrants, entrantIds);
     }
 
     /**
@@ -295,142 +295,46 @@ public class OrganizerWaitlistActivity extends AppCompatActivity {
      * and then sends each selected entrant an {@code "INVITED"} notification
      * (respecting their {@code notificationsEnabled} preference).</p>
      *
+     * <p>The capacity check and the list moves run in a single transaction through
+     * {@link LotteryEngine#draw(String)}, so entrants joining during the draw cannot
+     * push the event over {@code limitGuests}. Notifications are then written in
+     * batches by {@link LotteryEngine#notifyEntrants(List, Map, String)}.</p>
+     *
      * <p>Capacity is computed from {@code limitGuests} minus the number of already
-     * enrolled and invited users. If there are no available slots or no users on
-     * the waiting list, a toast is shown and no updates are performed.</p>
+     * enrolled and invited users, read from the event's entrant counter. If there are
+     * no available slots or no users on the waiting list, a toast is shown and no
+     * updates are performed.</p>
      */
     private void sendInvitesForSelected() {
-        // Use the class-level 'db'
-        DocumentReference eventRef = db.collection("Events").document(eventId);
+        LotteryEngine lottery = new LotteryEngine(db);
 
-        eventRef.get().addOnSuccessListener(doc -> {
-            if (!doc.exists()) {
-                Toast.makeText(OrganizerWaitlistActivity.this, "Event not found.", Toast.LENGTH_SHORT).show();
+        lottery.draw(eventId).addOnSuccessListener(this, result -> {
+            if (result.available <= 0) {
+                Toast.makeText(this, "No available slots to invite.", Toast.LENGTH_SHORT).show();
                 return;
             }
-
-            // Capacity from the event ("limitGuests" string)
-            String capStr = doc.getString("limitGuests");
-            int capacity = 0;
-            try {
-                capacity = Integer.parseInt(capStr);
-            } catch (Exception ignored) {
-            }
-
-            @SuppressWarnings("unchecked")
-            List<String> waiting = (List<String>) (doc.get("waiting_list") != null
-                    ? doc.get("waiting_list")
-                    : doc.get("waitingList"));
-            if (waiting == null) waiting = new ArrayList<>();
-
-            @SuppressWarnings("unchecked")
-            List<String> enrolled = (List<String>) doc.get("enrolled_list");
-            if (enrolled == null) enrolled = new ArrayList<>();
-
-            @SuppressWarnings("unchecked")
-            List<String> invited = (List<String>) doc.get("invited_list");
-            if (invited == null) invited = new ArrayList<>();
-
-            int available = capacity - enrolled.size() - invited.size();
-            if (available <= 0) {
-                Toast.makeText(OrganizerWaitlistActivity.this, "No available slots to invite.", Toast.LENGTH_SHORT).show();
+            if (result.winners.isEmpty()) {
+                Toast.makeText(this, "No entrants on the waiting list.", Toast.LENGTH_SHORT).show();
                 return;
             }
 
-            if (waiting.isEmpty()) {
-                Toast.makeText(OrganizerWaitlistActivity.this, "No entrants on the waiting list.", Toast.LENGTH_SHORT).show();
-                return;
-            }
+            Toast.makeText(this, "Randomly invited " + result.winners.size() + " entrant(s).", Toast.LENGTH_LONG).show();
+            loadWaitlist();
+
+            // ✅ Only after the draw is committed: send notifications
+            Map<String, Object> notif = new HashMap<>();
+            notif.put("eventId", eventId);
+            notif.put("eventName", result.eventName);
+            notif.put("type", "INVITED");
+            notif.put("message", "You were selected for " + result.eventName + ". Tap the event to accept or decline.");
 
-            // 🔀 Random selection from waiting list
-            List<String> shuffled = new ArrayList<>(waiting);
-            Collections.shuffle(shuffled);
-            List<String> chosen = shuffled.subList(0, Math.min(available, shuffled.size()));
-
-            // Get safe event name once
-            String rawName = doc.getString("eventName");
-            String eventName = (rawName != null && !rawName.isEmpty()) ? rawName : "Event";
-
-            // ✅ First update waiting_list + invited_list
-            eventRef.update(
-                            "waiting_list", FieldValue.arrayRemove(chosen.toArray()),
-                            "invited_list", FieldValue.arrayUnion(chosen.toArray())
-                    )
-                    .addOnSuccessListener(aVoid -> {
-                        Toast.makeText(this, "Randomly invited " + chosen.size() + " entrant(s).", Toast.LENGTH_LONG).show();
-                        loadWaitlist();
-
-                        // ✅ Only after successful update: send notifications
-                        for (String invitedId : chosen) {
-                            Map<String, Object> notif = new HashMap<>();
-                            notif.put("eventId", eventId);
-                            notif.put("eventName", eventName);
-                            notif.put("type", "INVITED");
-                            notif.put("message", "You were selected for " + eventName + ". Tap the event to accept or decline.");
-                            notif.put("timestamp", System.currentTimeMillis());
-                            notif.put("read", false);
-
-                            sendNotifIfEnabled(invitedId, notif);
-                        }
-                    })
+            lottery.notifyEntrants(result.winners, notif, organizerDeviceId)
                     .addOnFailureListener(e ->
-                            Toast.makeText(this, "Failed to update invites: " + e.getMessage(), Toast.LENGTH_SHORT).show()
+                            Toast.makeText(this, "Failed to notify entrants: " + e.getMessage(), Toast.LENGTH_SHORT).show()
                     );
-
-        }).addOnFailureListener(e ->
-                Toast.makeText(OrganizerWaitlistActivity.this, "Failed to load event: " + e.getMessage(), Toast.LENGTH_SHORT).show()
+        }).addOnFailureListener(this, e ->
+                Toast.makeText(OrganizerWaitlistActivity.this, "Failed to update invites: " + e.getMessage(), Toast.LENGTH_SHORT).show()
         );
     }
 
-    /**
-     * Sends a notification to a specific entrant only if notifications are enabled
-     * for their profile, and records an admin-visible log entry.
-     *
-     * <p>US 01.04.01 / US 01.04.02 – deliver “invited / not selected” style
-     * notifications to entrants; US 03.08.01 – allow administrators to review
-     * logs of all notifications sent by organizers.</p>
-     *
-     * <p>The method:
-     * <ol>
-     *     <li>Reads {@code Profiles/{targetId}} and checks the
-     *         {@code notificationsEnabled} flag.</li>
-     *     <li>If enabled (or missing), writes the notification into
-     *         {@code Profiles/{targetId}/notifications}.</li>
-     *     <li>Appends a summary row into the {@code NotificationLogs} collection
-     *         including sender id/role, recipient id, event id/name, type,
-     *         message, and timestamp.</li>
-     * </ol>
-     *
-     * @param targetId device ID of the entrant to notify
-     * @param notif    notification payload; expected to contain at least
-     *                 {@code eventId}, {@code eventName}, {@code type},
-     *                 {@code message}, and {@code timestamp}
-     */
-    private void sendNotifIfEnabled(String targetId, Map<String, Object> notif) {
-        db.collection("Profiles").document(targetId).get()
-                .addOnSuccessListener(doc -> {
-                    Boolean enabled = doc.getBoolean("notificationsEnabled");
-                    if (enabled == null || enabled) {
-                        // 1) send notification to entrant
-                        db.collection("Profiles")
-                                .document(targetId)
-                                .collection("notifications")
-                                .add(notif);
-
-                        // 2) log it for admins
-                        Map<String, Object> log = new HashMap<>();
-                        log.put("senderId", organizerDeviceId);
-                        log.put("senderRole", "ORGANIZER");
-                        log.put("recipientId", targetId);
-                        log.put("eventId", notif.get("eventId"));
-                        log.put("eventName", notif.get("eventName"));
-                        log.put("type", notif.get("type"));         // e.g. "INVITED"
-                        log.put("message", notif.get("message"));
-                        log.put("timestamp", System.currentTimeMillis());
-
-                        db.collection("NotificationLogs").add(log);
-                    }
-                });
-    }
-
 }
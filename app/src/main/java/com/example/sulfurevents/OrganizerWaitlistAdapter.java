@@ -10,8 +10,6 @@ import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 
 import java.util.List;
-import java.util.HashSet;
-import java.util.Set;
 // Java docs for part 3 done
 
 /**
@@ -22,13 +20,7 @@ import java.util.Set;
  *
  * <p>Author: sulfur (CMPUT 301 – Part 3)
  */
-public class OrganizerWaitlistAdapter extends RecyclerView.Adapter<OrganizerWaitlistAdapter.Holder> {
-
-    /** List of User objects containing profile details. */
-    private final List<User> users;
-
-    /** Corresponding device IDs (parallel list to users). */
-    private final List<String> deviceIds;
+public class OrganizerWaitlistAdapter extends DiffListAdapter<EntrantRow, OrganizerWaitlistAdapter.Holder> {
 
     //private final Set<String> selectedIds = new HashSet<>();
 
@@ -39,8 +31,27 @@ public class OrganizerWaitlistAdapter extends RecyclerView.Adapter<OrganizerWait
      * @param deviceIds Parallel list of device IDs
      */
     public OrganizerWaitlistAdapter(List<User> users, List<String> deviceIds) {
-        this.users = users;
-        this.deviceIds = deviceIds;
+        submitEntrants(users, deviceIds);
+    }
+
+    /**
+     * Shows the given entrants, rebinding only rows whose device ID or profile changed.
+     *
+     * @param users     List of User models (profile info)
+     * @param deviceIds Parallel list of device IDs
+     */
+    public void submitEntrants(List<User> users, List<String> deviceIds) {
+        submitList(EntrantRow.zip(users, deviceIds));
+    }
+
+    @Override
+    protected String getItemKey(@NonNull EntrantRow item) {
+        return item.deviceId;
+    }
+
+    @Override
+    protected boolean areContentsTheSame(@NonNull EntrantRow oldItem, @NonNull EntrantRow newItem) {
+        return oldItem.looksSameAs(newItem);
     }
 
 
@@ -70,8 +81,9 @@ public class OrganizerWaitlistAdapter extends RecyclerView.Adapter<OrganizerWait
      */
     @Override
     public void onBindViewHolder(@NonNull Holder h, int position) {
-        User u = users.get(position);
-        String id = deviceIds.get(position);
+        EntrantRow row = getItem(position);
+        User u = row.user;
+        String id = row.deviceId;
 
         h.name.setText(u.getName() != null ? u.getName() : "(Unnamed)");
         String email = (u.getEmail() != null && !u.getEmail().isEmpty()) ? u.getEmail() : "(no email)";
@@ -80,16 +92,6 @@ public class OrganizerWaitlistAdapter extends RecyclerView.Adapter<OrganizerWait
     }
 
 
-    /**
-     * Returns the number of users in the waitlist.
-     *
-     * @return Total number of waitlisted users.
-     */
-    @Override
-    public int getItemCount() {
-        return users.size();
-    }
-
     /**
      * ViewHolder class for a single waiting list row.
      * Holds references to TextViews for name, email, and device ID
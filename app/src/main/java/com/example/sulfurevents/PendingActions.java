@@ -0,0 +1,141 @@
+package com.example.sulfurevents;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Ordered entrant actions not yet applied, for {@link EntrantActionQueue}.
+ * <p>
+ * Actions are applied first in, first out, one at a time. A new action is merged with the
+ * entrant's last queued action for the same event when that one has not been sent yet:
+ * <ul>
+ *   <li>A leave cancels a queued join and a join cancels a queued leave, so tapping
+ *       join, leave, join sends a single join.</li>
+ *   <li>A repeated action, or an invitation answer changed from accept to decline (or the
+ *       other way), replaces the queued one.</li>
+ * </ul>
+ * The screens only offer a join to an entrant they show off the list (and a leave to one
+ * they show on it), so a cancelled pair never hides a change the entrant wanted.
+ * Not thread-safe.
+ */
+final class PendingActions {
+
+    private final List<EntrantAction> actions = new ArrayList<>();
+    // Action being applied; it stays first in the list until finished or released
+    private String inFlightId;
+
+    /**
+     * Queues an action, merging it with the entrant's last unsent one where possible.
+     *
+     * @return false if the action cancelled out a queued one and nothing is left to send
+     */
+    boolean add(EntrantAction action) {
+        EntrantAction last = lastUnsent(action);
+        if (last != null) {
+            if (cancelsOut(last.type, action.type)) {
+                actions.remove(last);
+                return false;
+            }
+            if (replaces(last.type, action.type)) {
+                actions.set(actions.indexOf(last), action);
+                return true;
+            }
+        }
+        actions.add(action);
+        return true;
+    }
+
+    /** Last queued action of the same entrant and event, or null if none or already sent. */
+    private EntrantAction lastUnsent(EntrantAction action) {
+        for (int i = actions.size() - 1; i >= 0; i--) {
+            EntrantAction queued = actions.get(i);
+            if (!queued.sameEntrant(action)) continue;
+            return queued.id.equals(inFlightId) ? null : queued;
+        }
+        return null;
+    }
+
+    private static boolean cancelsOut(EntrantAction.Type queued, EntrantAction.Type next) {
+        return (queued == EntrantAction.Type.JOIN && next == EntrantAction.Type.LEAVE)
+                || (queued == EntrantAction.Type.LEAVE && next == EntrantAction.Type.JOIN);
+    }
+
+    private static boolean replaces(EntrantAction.Type queued, EntrantAction.Type next) {
+        return queued == next || (isAnswer(queued) && isAnswer(next));
+    }
+
+    private static boolean isAnswer(EntrantAction.Type type) {
+        return type == EntrantAction.Type.ACCEPT || type == EntrantAction.Type.DECLINE;
+    }
+
+    /**
+     * Marks the oldest action as being applied.
+     *
+     * @return that action, or null if the queue is empty or an action is already in flight
+     */
+    EntrantAction start() {
+        if (inFlightId != null || actions.isEmpty()) return null;
+        EntrantAction next = actions.get(0);
+        inFlightId = next.id;
+        return next;
+    }
+
+    /** Removes an applied (or rejected) action. */
+    void finish(String id) {
+        if (id.equals(inFlightId)) inFlightId = null;
+        for (int i = 0; i < actions.size(); i++) {
+            if (actions.get(i).id.equals(id)) {
+                actions.remove(i);
+                return;
+            }
+        }
+    }
+
+    /** Puts an action that could not be sent back at the head of the queue, to be retried. */
+    void release(String id) {
+        if (id.equals(inFlightId)) inFlightId = null;
+    }
+
+    /**
+     * Applies the entrant's queued actions to their confirmed statuses in an event, giving
+     * the statuses the screen should show.
+     *
+     * @param confirmed statuses read from Firestore ({@link Memberships} constants)
+     * @return statuses after every queued action of that entrant and event
+     */
+    Set<String> statusesOf(String eventId, String deviceId, Set<String> confirmed) {
+        Set<String> statuses = new LinkedHashSet<>(confirmed);
+        for (EntrantAction action : actions) {
+            if (!action.eventId.equals(eventId) || !action.deviceId.equals(deviceId)) continue;
+            switch (action.type) {
+                case JOIN:
+                    statuses.add(Memberships.WAITING);
+                    break;
+                case LEAVE:
+                    statuses.remove(Memberships.WAITING);
+                    break;
+                case ACCEPT:
+                    statuses.remove(Memberships.INVITED);
+                    statuses.add(Memberships.ENROLLED);
+                    break;
+                case DECLINE:
+                    statuses.remove(Memberships.INVITED);
+                    statuses.add(Memberships.CANCELLED);
+                    break;
+            }
+        }
+        return statuses;
+    }
+
+    /** @return every queued action, oldest first */
+    List<EntrantAction> all() {
+        return new ArrayList<>(actions);
+    }
+
+    /** @return number of queued actions, including one in flight */
+    int size() {
+        return actions.size();
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.sulfurevents;
+
+import android.graphics.drawable.Drawable;
+import android.view.View;
+import android.widget.ImageView;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.ListPreloader;
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.integration.recyclerview.RecyclerViewPreloader;
+import com.bumptech.glide.load.DecodeFormat;
+import com.bumptech.glide.request.RequestOptions;
+import com.bumptech.glide.util.ViewPreloadSizeProvider;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Loads the posters of a list adapter's rows and preloads those about to scroll in.
+ * <p>
+ * Rows load through {@link #bind}, and {@link #attach} adds a {@link RecyclerViewPreloader}
+ * that starts the same request for the next {@link #PRELOAD_ROWS} rows in the scroll
+ * direction. The preloaded request matches the row's own (URL, size from the row's image
+ * view, options), so by the time a row is bound its poster is already in Glide's memory
+ * cache and shows without a blank frame.
+ * <p>
+ * List posters decode as {@code RGB_565}, half the memory of the default format, with a
+ * gray placeholder matching the card background.
+ * <p>
+ * Glide is only looked up from the first view the preloader sees, so adapters can create one
+ * without a context (as their tests do).
+ *
+ * @param <T> item type of the adapter
+ */
+public final class PosterPreloader<T> implements ListPreloader.PreloadModelProvider<T> {
+
+    /** Rows preloaded ahead of the scroll direction. */
+    static final int PRELOAD_ROWS = 4;
+
+    private static final RequestOptions LIST_OPTIONS = new RequestOptions()
+            .format(DecodeFormat.PREFER_RGB_565)
+            .centerCrop()
+            .placeholder(R.color.gray);
+
+    /**
+     * Chooses the poster URL of an item, e.g. with {@link PosterVariants#pick}.
+     *
+     * @param <T> item type
+     */
+    public interface UrlSource<T> {
+        /**
+         * @param item  item shown in the row
+         * @param width width of the row's image view in pixels
+         * @return URL to load, or null if the item has no poster
+         */
+        @Nullable
+        String urlOf(T item, int width);
+    }
+
+    private RequestManager glide;
+    private final DiffListAdapter<T, ?> adapter;
+    private final UrlSource<T> urls;
+    private final ViewPreloadSizeProvider<T> sizes = new ViewPreloadSizeProvider<>();
+    // Width of the rows' image views, measured on bind; they all share one layout
+    private int posterWidth;
+
+    /**
+     * @param adapter adapter whose rows show the posters
+     * @param urls    chooses each item's poster URL
+     */
+    public PosterPreloader(DiffListAdapter<T, ?> adapter, UrlSource<T> urls) {
+        this.adapter = adapter;
+        this.urls = urls;
+    }
+
+    /**
+     * Starts preloading for a list. Call once, after setting the adapter.
+     *
+     * @param recyclerView list showing the adapter
+     */
+    public void attach(RecyclerView recyclerView) {
+        recyclerView.addOnScrollListener(new RecyclerViewPreloader<>(glide(recyclerView), this, sizes, PRELOAD_ROWS));
+    }
+
+    /**
+     * Lets the preloader measure a row's image view. Call from {@code onCreateViewHolder}.
+     *
+     * @param view the row's poster view
+     */
+    public void track(ImageView view) {
+        sizes.setView(view);
+    }
+
+    /**
+     * Loads an item's poster into its row. Call from {@code onBindViewHolder}.
+     *
+     * @param item the row's item
+     * @param view the row's poster view
+     */
+    public void bind(T item, ImageView view) {
+        posterWidth = Posters.widthOf(view);
+        glide(view);
+        request(urls.urlOf(item, posterWidth)).into(view);
+    }
+
+    @NonNull
+    @Override
+    public List<T> getPreloadItems(int position) {
+        if (position < 0 || position >= adapter.getItemCount()) return Collections.emptyList();
+        T item = adapter.getItem(position);
+        return urls.urlOf(item, posterWidth) != null
+                ? Collections.singletonList(item)
+                : Collections.emptyList();
+    }
+
+    @Nullable
+    @Override
+    public RequestBuilder<?> getPreloadRequestBuilder(@NonNull T item) {
+        return request(urls.urlOf(item, posterWidth));
+    }
+
+    /** Returns the request manager, taking it from the given view the first time. */
+    private RequestManager glide(View view) {
+        if (glide == null) glide = Glide.with(view);
+        return glide;
+    }
+
+    private RequestBuilder<Drawable> request(@Nullable String url) {
+        return glide.load(url).apply(LIST_OPTIONS);
+    }
+}
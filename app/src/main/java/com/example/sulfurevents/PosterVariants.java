@@ -0,0 +1,86 @@
+package com.example.sulfurevents;
+
+/**
+ * Sizes of the poster variants kept for each event, and the choice between them.
+ * <p>
+ * An uploaded poster is stored three times (see {@link Posters}):
+ * <ul>
+ *   <li>{@code posterThumbURL}: {@link #THUMB_WIDTH} px wide, for small list thumbnails.</li>
+ *   <li>{@code posterCardURL}: {@link #CARD_WIDTH} px wide, for full-width feed cards.</li>
+ *   <li>{@code posterURL}: at most {@link #FULL_WIDTH} px wide, for the detail and full-screen
+ *       views. Events created before variants existed only have this one.</li>
+ * </ul>
+ * Images are never scaled up, so a small original gives variants of its own width.
+ */
+final class PosterVariants {
+
+    /** Width of the thumbnail variant: an 80 dp list thumbnail at 3x density. */
+    static final int THUMB_WIDTH = 240;
+
+    /** Width of the card variant. */
+    static final int CARD_WIDTH = 720;
+
+    /** Largest width of the full variant. */
+    static final int FULL_WIDTH = 1600;
+
+    /** Event field holding the thumbnail variant's download URL. */
+    static final String THUMB_FIELD = "posterThumbURL";
+
+    /** Event field holding the card variant's download URL. */
+    static final String CARD_FIELD = "posterCardURL";
+
+    /** Event field holding the full variant's download URL. */
+    static final String FULL_FIELD = "posterURL";
+
+    private PosterVariants() {
+    }
+
+    /**
+     * Largest power-of-two decode subsampling that keeps an image at least
+     * {@code targetWidth} wide, for {@code BitmapFactory.Options.inSampleSize}.
+     *
+     * @param sourceWidth width of the encoded image
+     * @param targetWidth width the decoded image must keep
+     * @return 1, 2, 4, ...
+     */
+    static int inSampleSize(int sourceWidth, int targetWidth) {
+        int sample = 1;
+        if (targetWidth <= 0) return sample;
+        while (sourceWidth / (sample * 2) >= targetWidth) sample *= 2;
+        return sample;
+    }
+
+    /**
+     * Size of an image scaled down to a width, keeping its aspect ratio.
+     *
+     * @return {width, height}; the source size if it is already narrower
+     */
+    static int[] scaledSize(int width, int height, int targetWidth) {
+        if (width <= targetWidth || width <= 0) return new int[]{width, height};
+        int scaledHeight = Math.max(1, Math.round(height * (float) targetWidth / width));
+        return new int[]{targetWidth, scaledHeight};
+    }
+
+    /**
+     * Picks the smallest variant at least as wide as the view, falling back to the next
+     * larger one when a variant is missing.
+     *
+     * @param viewWidth width of the view in pixels; 0 or less if unknown
+     * @param thumbUrl  thumbnail variant, may be null or empty
+     * @param cardUrl   card variant, may be null or empty
+     * @param fullUrl   full variant, may be null or empty
+     * @return URL to load, or null if the event has no poster
+     */
+    static String pick(int viewWidth, String thumbUrl, String cardUrl, String fullUrl) {
+        if (viewWidth > 0 && viewWidth <= THUMB_WIDTH && present(thumbUrl)) return thumbUrl;
+        if (viewWidth > 0 && viewWidth <= CARD_WIDTH && present(cardUrl)) return cardUrl;
+        if (present(fullUrl)) return fullUrl;
+        // No full variant: use the largest one there is
+        if (present(cardUrl)) return cardUrl;
+        return present(thumbUrl) ? thumbUrl : null;
+    }
+
+    private static boolean present(String url) {
+        return url != null && !url.trim().isEmpty();
+    }
+}
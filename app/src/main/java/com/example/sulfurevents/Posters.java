@@ -0,0 +1,214 @@
+package com.example.sulfurevents;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Matrix;
+import android.media.ExifInterface;
+import android.net.Uri;
+import android.util.Log;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.storage.FirebaseStorage;
+import com.google.firebase.storage.StorageMetadata;
+import com.google.firebase.storage.StorageReference;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Uploads event posters in several sizes and picks the size a view needs.
+ * <p>
+ * {@link #upload} decodes the chosen image once, subsampled with {@code inSampleSize} to
+ * no more than twice the full width, turns it upright from its EXIF orientation and
+ * re-encodes it as JPEG at each width of {@link PosterVariants}. The three files are
+ * uploaded at the same time to {@code Event_Posters/{eventId}.jpg},
+ * {@code {eventId}_card.jpg} and {@code {eventId}_thumb.jpg}, and their download URLs are
+ * returned as event fields. List adapters then load {@link #urlFor} instead of the
+ * full poster, so a feed of 80 dp thumbnails no longer downloads camera-sized images.
+ */
+public final class Posters {
+
+    private static final String TAG = "Posters";
+
+    private static final String FOLDER = "Event_Posters";
+    private static final int JPEG_QUALITY = 85;
+
+    // Decoding and encoding run here, one poster at a time
+    private static final Executor IO = Executors.newSingleThreadExecutor();
+
+    private Posters() {
+    }
+
+    /**
+     * Stores a poster in all sizes.
+     *
+     * @param context any context
+     * @param source  image chosen by the organizer
+     * @param eventId event the poster belongs to
+     * @return task completing with the event fields holding the three download URLs
+     */
+    public static Task<Map<String, Object>> upload(Context context, Uri source, String eventId) {
+        ContentResolver resolver = context.getApplicationContext().getContentResolver();
+        return Tasks.call(IO, () -> encodeVariants(resolver, source)).onSuccessTask(encoded -> {
+            String[] fields = {PosterVariants.FULL_FIELD, PosterVariants.CARD_FIELD, PosterVariants.THUMB_FIELD};
+            List<Task<Uri>> urls = new ArrayList<>();
+            for (int i = 0; i < fields.length; i++) {
+                StorageReference ref = ref(eventId, fields[i]);
+                StorageMetadata metadata = new StorageMetadata.Builder()
+                        .setContentType("image/jpeg")
+                        .build();
+                urls.add(ref.putBytes(encoded[i], metadata)
+                        .continueWithTask(put -> {
+                            if (!put.isSuccessful()) return Tasks.forException(put.getException());
+                            return ref.getDownloadUrl();
+                        }));
+            }
+            return Tasks.whenAllSuccess(urls).continueWith(done -> {
+                if (!done.isSuccessful()) throw done.getException();
+                Map<String, Object> update = new HashMap<>();
+                for (int i = 0; i < fields.length; i++) {
+                    update.put(fields[i], urls.get(i).getResult().toString());
+                }
+                return update;
+            });
+        });
+    }
+
+    /**
+     * Deletes the card and thumbnail variants of an event's poster. Missing files are
+     * ignored, since events created before variants existed have none.
+     *
+     * @param eventId event whose poster was removed
+     */
+    public static void deleteVariants(String eventId) {
+        for (String field : Arrays.asList(PosterVariants.CARD_FIELD, PosterVariants.THUMB_FIELD)) {
+            ref(eventId, field).delete()
+                    .addOnFailureListener(e -> Log.d(TAG, "No " + field + " to delete for " + eventId));
+        }
+    }
+
+    /**
+     * @return event fields that clear every poster variant
+     */
+    public static Map<String, Object> cleared() {
+        Map<String, Object> update = new HashMap<>();
+        update.put(PosterVariants.FULL_FIELD, "");
+        update.put(PosterVariants.CARD_FIELD, "");
+        update.put(PosterVariants.THUMB_FIELD, "");
+        return update;
+    }
+
+    /**
+     * Picks the smallest stored poster that fills a view. Before the view is laid out its
+     * width comes from its layout parameters, or the screen width for match_parent.
+     *
+     * @param view     view the poster is loaded into
+     * @param thumbUrl thumbnail variant, may be null
+     * @param cardUrl  card variant, may be null
+     * @param fullUrl  full poster, may be null
+     * @return URL to load, or null if there is no poster
+     */
+    public static String urlFor(ImageView view, String thumbUrl, String cardUrl, String fullUrl) {
+        return PosterVariants.pick(widthOf(view), thumbUrl, cardUrl, fullUrl);
+    }
+
+    /**
+     * @param view an image view, laid out or not
+     * @return its width in pixels, or the screen width if it is match_parent and not laid out
+     */
+    public static int widthOf(ImageView view) {
+        int width = view.getWidth();
+        if (width > 0) return width;
+        ViewGroup.LayoutParams params = view.getLayoutParams();
+        return params != null && params.width > 0
+                ? params.width
+                : view.getResources().getDisplayMetrics().widthPixels;
+    }
+
+    private static StorageReference ref(String eventId, String field) {
+        String name = eventId;
+        if (PosterVariants.CARD_FIELD.equals(field)) name += "_card";
+        else if (PosterVariants.THUMB_FIELD.equals(field)) name += "_thumb";
+        return FirebaseStorage.getInstance().getReference(FOLDER).child(name + ".jpg");
+    }
+
+    /** Decodes the source once and encodes the full, card and thumbnail JPEGs. Runs on {@link #IO}. */
+    private static byte[][] encodeVariants(ContentResolver resolver, Uri source) throws IOException {
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        try (InputStream in = resolver.openInputStream(source)) {
+            BitmapFactory.decodeStream(in, null, bounds);
+        }
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) {
+            throw new IOException("The selected file is not an image.");
+        }
+
+        int rotation = rotationOf(resolver, source);
+        // Width of the upright image, which is the height of the stored one when rotated
+        int uprightWidth = rotation % 180 == 0 ? bounds.outWidth : bounds.outHeight;
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = PosterVariants.inSampleSize(uprightWidth, PosterVariants.FULL_WIDTH);
+        Bitmap decoded;
+        try (InputStream in = resolver.openInputStream(source)) {
+            decoded = BitmapFactory.decodeStream(in, null, options);
+        }
+        if (decoded == null) throw new IOException("The selected image could not be read.");
+
+        Bitmap upright = decoded;
+        if (rotation != 0) {
+            Matrix matrix = new Matrix();
+            matrix.postRotate(rotation);
+            upright = Bitmap.createBitmap(decoded, 0, 0, decoded.getWidth(), decoded.getHeight(), matrix, true);
+            decoded.recycle();
+        }
+
+        int[] widths = {PosterVariants.FULL_WIDTH, PosterVariants.CARD_WIDTH, PosterVariants.THUMB_WIDTH};
+        byte[][] encoded = new byte[widths.length][];
+        for (int i = 0; i < widths.length; i++) {
+            int[] size = PosterVariants.scaledSize(upright.getWidth(), upright.getHeight(), widths[i]);
+            Bitmap scaled = size[0] == upright.getWidth()
+                    ? upright
+                    : Bitmap.createScaledBitmap(upright, size[0], size[1], true);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            scaled.compress(Bitmap.CompressFormat.JPEG, JPEG_QUALITY, out);
+            encoded[i] = out.toByteArray();
+            if (scaled != upright) scaled.recycle();
+        }
+        upright.recycle();
+        return encoded;
+    }
+
+    /** @return clockwise rotation in degrees that makes the image upright */
+    private static int rotationOf(ContentResolver resolver, Uri source) {
+        try (InputStream in = resolver.openInputStream(source)) {
+            if (in == null) return 0;
+            int orientation = new ExifInterface(in).getAttributeInt(
+                    ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL);
+            switch (orientation) {
+                case ExifInterface.ORIENTATION_ROTATE_90:
+                    return 90;
+                case ExifInterface.ORIENTATION_ROTATE_180:
+                    return 180;
+                case ExifInterface.ORIENTATION_ROTATE_270:
+                    return 270;
+                default:
+                    return 0;
+            }
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
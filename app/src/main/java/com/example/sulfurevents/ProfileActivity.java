@@ -110,6 +110,7 @@ public class ProfileActivity extends AppCompatActivity {
                             db.collection("Profiles")
                                     .document(deviceId)
                                     .update("notificationsEnabled", isChecked);
+                            ProfileBatchLoader.getInstance().invalidate(deviceId);
                         });
                     }
 
@@ -303,39 +304,18 @@ public class ProfileActivity extends AppCompatActivity {
     }
 
     /**
-     * Step 2: Remove user from all event lists (waiting_list, enrolled_list, invited_list, cancelled_list)
+     * Step 2: Remove user from all event lists (waiting_list, enrolled_list, invited_list, cancelled_list).
+     * Only the events listed in the user's membership index, or still holding the user, are updated.
      */
     private void removeUserFromEventLists(android.app.AlertDialog progressDialog) {
-        db.collection("Events")
-                .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    com.google.firebase.firestore.WriteBatch batch = db.batch();
-
-                    for (com.google.firebase.firestore.DocumentSnapshot doc : queryDocumentSnapshots) {
-                        // Remove user from all four lists
-                        batch.update(doc.getReference(), "waiting_list",
-                                com.google.firebase.firestore.FieldValue.arrayRemove(deviceId));
-                        batch.update(doc.getReference(), "enrolled_list",
-                                com.google.firebase.firestore.FieldValue.arrayRemove(deviceId));
-                        batch.update(doc.getReference(), "invited_list",
-                                com.google.firebase.firestore.FieldValue.arrayRemove(deviceId));
-                        batch.update(doc.getReference(), "cancelled_list",
-                                com.google.firebase.firestore.FieldValue.arrayRemove(deviceId));
-                    }
-
-                    batch.commit()
-                            .addOnSuccessListener(aVoid -> {
-                                // After removing from lists, delete user's events
-                                deleteUserCreatedEvents(progressDialog);
-                            })
-                            .addOnFailureListener(e -> {
-                                progressDialog.dismiss();
-                                showError("Failed to remove from event lists: " + e.getMessage());
-                            });
+        Memberships.removeFromAllEvents(db, deviceId)
+                .addOnSuccessListener(count -> {
+                    // After removing from lists, delete user's events
+                    deleteUserCreatedEvents(progressDialog);
                 })
                 .addOnFailureListener(e -> {
                     progressDialog.dismiss();
-                    showError("Failed to query events: " + e.getMessage());
+                    showError("Failed to remove from event lists: " + e.getMessage());
                 });
     }
 
@@ -350,7 +330,7 @@ public class ProfileActivity extends AppCompatActivity {
                     com.google.firebase.firestore.WriteBatch batch = db.batch();
 
                     for (com.google.firebase.firestore.DocumentSnapshot doc : queryDocumentSnapshots) {
-                        batch.delete(doc.getReference());
+                        EventSummaries.delete(batch, doc.getReference());
                     }
 
                     batch.commit()
@@ -377,6 +357,7 @@ public class ProfileActivity extends AppCompatActivity {
                 .delete()
                 .addOnSuccessListener(aVoid -> {
                     progressDialog.dismiss();
+                    ProfileBatchLoader.getInstance().invalidate(deviceId);
 
                     // Navigate to success screen
                     Intent intent = new Intent(ProfileActivity.this, SuccessfulDeleteActivity.class);
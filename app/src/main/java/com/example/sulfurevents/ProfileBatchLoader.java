@@ -0,0 +1,194 @@
+package com.example.sulfurevents;
+
+import android.os.SystemClock;
+import android.util.Log;
+import android.util.LruCache;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Batched, cached lookup of {@code Profiles/{deviceId}} documents for the organizer list screens.
+ * <p>
+ * The enrolled / invited / waitlist / cancelled screens used to issue one
+ * {@code Profiles/{id}.get()} per entrant, so a 500-person list meant 500 round trips.
+ * This loader instead:
+ * <ul>
+ *   <li>Serves IDs already in the shared profile cache without any request. Cached
+ *       profiles expire after {@link #CACHE_TTL_MS}, since entrants edit their names and
+ *       notification opt-out from their own devices; edits made in this process drop the
+ *       cached copy at once through {@link #invalidate}.</li>
+ *   <li>Joins requests for IDs that are already being fetched by another screen.</li>
+ *   <li>Groups the remaining IDs into {@code whereIn(documentId, chunk)} queries of at
+ *       most {@link #CHUNK_SIZE} IDs (Firestore's limit) and runs the chunks concurrently.</li>
+ * </ul>
+ * Missing profiles, and profiles whose chunk failed, come back as {@code null} so screens can
+ * fall back to a placeholder row. Must be used from the main thread.
+ */
+public final class ProfileBatchLoader {
+
+    private static final String TAG = "ProfileBatchLoader";
+
+    /** Maximum number of IDs per {@code whereIn} query. */
+    public static final int CHUNK_SIZE = 30;
+
+    /** Maximum number of profile snapshots kept in the shared cache. */
+    private static final int CACHE_SIZE = 2000;
+
+    /** How long a cached profile is served before it is read again. */
+    public static final long CACHE_TTL_MS = 5 * 60 * 1000L;
+
+    private static ProfileBatchLoader instance;
+
+    private final FirebaseFirestore db;
+    private final LruCache<String, CachedProfile> cache = new LruCache<>(CACHE_SIZE);
+    private final Map<String, Task<DocumentSnapshot>> inFlight = new HashMap<>();
+
+    /** A profile snapshot and when it was read. */
+    private static final class CachedProfile {
+        final DocumentSnapshot snapshot;
+        final long loadedAt;
+
+        CachedProfile(DocumentSnapshot snapshot, long loadedAt) {
+            this.snapshot = snapshot;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    private ProfileBatchLoader(FirebaseFirestore db) {
+        this.db = db;
+    }
+
+    /**
+     * @return the shared loader backed by the default Firestore instance
+     */
+    public static synchronized ProfileBatchLoader getInstance() {
+        if (instance == null) {
+            instance = new ProfileBatchLoader(FirebaseFirestore.getInstance());
+        }
+        return instance;
+    }
+
+    /**
+     * Loads the profiles for the given device IDs.
+     *
+     * @param deviceIds IDs to resolve; duplicates and nulls are ignored
+     * @return task completing with a map from deviceId to its profile snapshot
+     *         ({@code null} value if the profile is missing or could not be loaded)
+     */
+    public Task<Map<String, DocumentSnapshot>> load(List<String> deviceIds) {
+        return load(deviceIds, false);
+    }
+
+    /**
+     * Loads the profiles for the given device IDs, ignoring cached copies. For decisions that
+     * must honour the entrant's latest settings, such as the notification opt-out; the
+     * fresh profiles also replace the cached ones.
+     *
+     * @param deviceIds IDs to resolve; duplicates and nulls are ignored
+     * @return task completing with a map from deviceId to its profile snapshot, {@code null}
+     *         if the profile does not exist. IDs whose chunk could not be read are left out,
+     *         so callers cannot mistake them for profiles without settings.
+     */
+    public Task<Map<String, DocumentSnapshot>> loadFresh(List<String> deviceIds) {
+        return load(deviceIds, true);
+    }
+
+    private Task<Map<String, DocumentSnapshot>> load(List<String> deviceIds, boolean fresh) {
+        Map<String, Task<DocumentSnapshot>> tasks = new HashMap<>();
+        List<String> toFetch = new ArrayList<>();
+
+        for (String id : new LinkedHashSet<>(deviceIds)) {
+            if (id == null || id.isEmpty()) continue;
+
+            CachedProfile cached = cache.get(id);
+            if (!fresh && cached != null && SystemClock.elapsedRealtime() - cached.loadedAt < CACHE_TTL_MS) {
+                tasks.put(id, Tasks.forResult(cached.snapshot));
+                continue;
+            }
+            Task<DocumentSnapshot> pending = inFlight.get(id);
+            if (pending != null) {
+                tasks.put(id, pending);
+                continue;
+            }
+            toFetch.add(id);
+        }
+
+        for (int start = 0; start < toFetch.size(); start += CHUNK_SIZE) {
+            List<String> chunk = toFetch.subList(start, Math.min(start + CHUNK_SIZE, toFetch.size()));
+            tasks.putAll(fetchChunk(new ArrayList<>(chunk)));
+        }
+
+        return Tasks.whenAllComplete(tasks.values()).continueWith(ignored -> {
+            Map<String, DocumentSnapshot> result = new HashMap<>();
+            for (Map.Entry<String, Task<DocumentSnapshot>> e : tasks.entrySet()) {
+                Task<DocumentSnapshot> t = e.getValue();
+                if (t.isSuccessful()) {
+                    result.put(e.getKey(), t.getResult());
+                } else if (!fresh) {
+                    result.put(e.getKey(), null);
+                }
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Drops a cached profile so the next load re-reads it (e.g. after it was edited).
+     *
+     * @param deviceId profile to forget
+     */
+    public void invalidate(String deviceId) {
+        cache.remove(deviceId);
+    }
+
+    /**
+     * Issues one {@code whereIn} query for a chunk and returns a per-ID task for each member.
+     */
+    private Map<String, Task<DocumentSnapshot>> fetchChunk(List<String> chunk) {
+        Map<String, TaskCompletionSource<DocumentSnapshot>> sources = new HashMap<>();
+        Map<String, Task<DocumentSnapshot>> tasks = new HashMap<>();
+        for (String id : chunk) {
+            TaskCompletionSource<DocumentSnapshot> source = new TaskCompletionSource<>();
+            sources.put(id, source);
+            tasks.put(id, source.getTask());
+            inFlight.put(id, source.getTask());
+        }
+
+        db.collection("Profiles")
+                .whereIn(FieldPath.documentId(), chunk)
+                .get()
+                .addOnSuccessListener(querySnapshot -> {
+                    long now = SystemClock.elapsedRealtime();
+                    for (DocumentSnapshot doc : querySnapshot.getDocuments()) {
+                        cache.put(doc.getId(), new CachedProfile(doc, now));
+                        TaskCompletionSource<DocumentSnapshot> source = sources.remove(doc.getId());
+                        if (source != null) source.trySetResult(doc);
+                    }
+                    // IDs without a profile document
+                    for (TaskCompletionSource<DocumentSnapshot> source : sources.values()) {
+                        source.trySetResult(null);
+                    }
+                    inFlight.keySet().removeAll(chunk);
+                })
+                .addOnFailureListener(e -> {
+                    Log.w(TAG, "Profile chunk of " + chunk.size() + " failed", e);
+                    for (TaskCompletionSource<DocumentSnapshot> source : sources.values()) {
+                        source.trySetException(e);
+                    }
+                    inFlight.keySet().removeAll(chunk);
+                });
+
+        return tasks;
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.sulfurevents;
+
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Streams the profiles of a list of entrants into a CSV file (US 02.06.05).
+ * <p>
+ * The final-list export used to run one {@code Profiles.whereIn("deviceId", ids)} query for
+ * the whole enrolled list, which Firestore rejects once the list is longer than its
+ * {@code whereIn} limit, and then built the entire file in a {@link StringBuilder}.
+ * This exporter instead:
+ * <ul>
+ *   <li>Splits the IDs into chunks of at most {@link #CHUNK_SIZE} and queries them in
+ *       parallel, keeping at most {@link #MAX_IN_FLIGHT} chunks requested or waiting to be
+ *       written at once.</li>
+ *   <li>Writes each chunk's rows through a buffered UTF-8 writer as soon as every earlier
+ *       chunk has been written, so rows keep the order of the ID list.</li>
+ *   <li>Does all writing on a background thread, so large exports do not block the UI.</li>
+ * </ul>
+ * Memory use is bounded by the window of chunks, not by the size of the event.
+ * IDs without a profile are skipped, as before.
+ */
+public final class ProfileCsvExporter {
+
+    private static final String TAG = "ProfileCsvExporter";
+
+    /** Header row of the exported file. */
+    public static final String HEADER = "Name, Email, Phone Number\n";
+
+    /** Maximum number of IDs per {@code whereIn} query. */
+    public static final int CHUNK_SIZE = ProfileBatchLoader.CHUNK_SIZE;
+
+    /** Maximum number of chunks requested but not yet written. */
+    public static final int MAX_IN_FLIGHT = 4;
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    // Query callbacks and file writes all run here, so export state needs no locking
+    private static final Executor IO = Executors.newSingleThreadExecutor();
+
+    private final FirebaseFirestore db;
+
+    /**
+     * @param db Firestore instance to read profiles from
+     */
+    public ProfileCsvExporter(FirebaseFirestore db) {
+        this.db = db;
+    }
+
+    /**
+     * Writes the header and one row per found profile to {@code out}, then closes it.
+     * The stream is also closed if the export fails.
+     *
+     * @param deviceIds entrants to export, in output order
+     * @param out       destination stream, e.g. a Downloads file
+     * @return task completing with the number of data rows written
+     */
+    public Task<Integer> export(List<String> deviceIds, OutputStream out) {
+        Export export = new Export(deviceIds, out);
+        IO.execute(export::start);
+        return export.result.getTask();
+    }
+
+    /**
+     * Formats one CSV data row, quoting fields that contain commas, quotes or line breaks.
+     *
+     * @param name  entrant name, may be null
+     * @param email entrant email, may be null
+     * @param phone entrant phone number, may be null
+     * @return the row including its trailing newline
+     */
+    static String formatRow(String name, String email, String phone) {
+        return field(name) + "," + field(email) + "," + field(phone) + "\n";
+    }
+
+    private static String field(String value) {
+        if (value == null) return "";
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+                && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    /** State of one running export. Only touched on {@link #IO}. */
+    private final class Export {
+        final TaskCompletionSource<Integer> result = new TaskCompletionSource<>();
+        final List<List<String>> chunks = new ArrayList<>();
+        final OutputStream out;
+
+        // chunk index -> profiles, for chunks that arrived before an earlier one
+        final Map<Integer, List<DocumentSnapshot>> ready = new HashMap<>();
+
+        Writer writer;
+        int nextToRequest = 0;
+        int nextToWrite = 0;
+        int rows = 0;
+        boolean done = false;
+
+        Export(List<String> deviceIds, OutputStream out) {
+            this.out = out;
+            for (int start = 0; start < deviceIds.size(); start += CHUNK_SIZE) {
+                chunks.add(new ArrayList<>(
+                        deviceIds.subList(start, Math.min(start + CHUNK_SIZE, deviceIds.size()))));
+            }
+        }
+
+        void start() {
+            try {
+                writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+                writer.write(HEADER);
+            } catch (IOException e) {
+                fail(e);
+                return;
+            }
+
+            if (chunks.isEmpty()) {
+                finish();
+                return;
+            }
+            while (nextToRequest < Math.min(MAX_IN_FLIGHT, chunks.size())) {
+                requestNext();
+            }
+        }
+
+        void requestNext() {
+            if (done || nextToRequest >= chunks.size()) return;
+            int index = nextToRequest++;
+
+            db.collection("Profiles")
+                    .whereIn("deviceId", chunks.get(index))
+                    .get()
+                    .addOnSuccessListener(IO, snapshot -> onChunk(index, snapshot.getDocuments()))
+                    .addOnFailureListener(IO, this::fail);
+        }
+
+        void onChunk(int index, List<DocumentSnapshot> profiles) {
+            if (done) return;
+            ready.put(index, profiles);
+
+            try {
+                while (ready.containsKey(nextToWrite)) {
+                    writeChunk(chunks.get(nextToWrite), ready.remove(nextToWrite));
+                    nextToWrite++;
+                    requestNext();
+                }
+            } catch (IOException e) {
+                fail(e);
+                return;
+            }
+
+            if (nextToWrite == chunks.size()) finish();
+        }
+
+        /** Writes a chunk's profiles in the order their IDs appear in the list. */
+        void writeChunk(List<String> ids, List<DocumentSnapshot> profiles) throws IOException {
+            Map<String, DocumentSnapshot> byId = new HashMap<>();
+            for (DocumentSnapshot doc : profiles) {
+                byId.put(doc.getString("deviceId"), doc);
+            }
+            for (String id : ids) {
+                DocumentSnapshot doc = byId.remove(id);
+                if (doc == null) continue;
+                writer.write(formatRow(doc.getString("name"), doc.getString("email"), doc.getString("phone")));
+                rows++;
+            }
+        }
+
+        void finish() {
+            done = true;
+            try {
+                writer.close();
+                result.trySetResult(rows);
+            } catch (IOException e) {
+                result.trySetException(e);
+            }
+        }
+
+        void fail(Exception e) {
+            if (done) return;
+            done = true;
+            Log.w(TAG, "CSV export failed after " + rows + " rows", e);
+            try {
+                if (writer != null) writer.close();
+                else out.close();
+            } catch (IOException ignored) {
+                // already failing
+            }
+            result.trySetException(e);
+        }
+    }
+}
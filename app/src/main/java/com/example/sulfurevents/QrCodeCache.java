@@ -0,0 +1,226 @@
+package com.example.sulfurevents;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Color;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.util.LruCache;
+import android.widget.ImageView;
+
+import androidx.annotation.Nullable;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Renders event QR codes on demand, with a memory and a disk cache.
+ * <p>
+ * A QR code only encodes the event's deep link ({@link #deepLink(String)}), so it is
+ * never stored in Firestore: it is drawn from the event ID when a screen needs it. Drawn
+ * codes are kept in two least-recently-used caches:
+ * <ul>
+ *   <li>Memory: an {@link LruCache} of up to {@link #MEMORY_BYTES} of bitmaps, so going
+ *       back to a code shows it at once.</li>
+ *   <li>Disk: PNG files in {@code cacheDir/qr_codes}, trimmed to {@link #DISK_BYTES} by
+ *       {@link LruFiles}, so a code survives process restarts without being drawn again.</li>
+ * </ul>
+ * Bitmaps use {@code RGB_565}, half the memory of the default format; a QR code has no
+ * transparency. Use from the main thread; decoding, drawing and file writes run on a
+ * single background thread.
+ */
+public final class QrCodeCache {
+
+    private static final String TAG = "QrCodeCache";
+
+    /** Side of the drawn codes in pixels, as printed and saved to the gallery. */
+    public static final int DEFAULT_SIZE = 500;
+
+    /** Memory cache budget. */
+    static final int MEMORY_BYTES = 4 * 1024 * 1024;
+
+    /** Disk cache budget. */
+    static final long DISK_BYTES = 2 * 1024 * 1024;
+
+    private static final String DEEP_LINK_PREFIX = "sulfurevents://event/";
+
+    // Disk reads, drawing and disk writes run here, one at a time
+    private static final Executor IO = Executors.newSingleThreadExecutor();
+
+    private static QrCodeCache instance;
+
+    /**
+     * Receives a QR code on the main thread.
+     */
+    public interface Callback {
+        /**
+         * @param bitmap the code, or null if it could not be drawn
+         */
+        void onQrCode(@Nullable Bitmap bitmap);
+    }
+
+    private final File dir;
+    private final Handler main = new Handler(Looper.getMainLooper());
+    private final LruCache<String, Bitmap> memory = new LruCache<String, Bitmap>(MEMORY_BYTES) {
+        @Override
+        protected int sizeOf(String key, Bitmap bitmap) {
+            return bitmap.getByteCount();
+        }
+    };
+    // Callbacks waiting for a code being loaded, by cache key
+    private final Map<String, List<Callback>> pending = new HashMap<>();
+
+    private QrCodeCache(Context context) {
+        this.dir = new File(context.getApplicationContext().getCacheDir(), "qr_codes");
+    }
+
+    /**
+     * @param context any context
+     * @return the app's cache
+     */
+    public static synchronized QrCodeCache getInstance(Context context) {
+        if (instance == null) instance = new QrCodeCache(context);
+        return instance;
+    }
+
+    /**
+     * @param eventId Firestore document ID of the event
+     * @return the link a scanned code opens, e.g. {@code sulfurevents://event/abc123}
+     */
+    public static String deepLink(String eventId) {
+        return DEEP_LINK_PREFIX + eventId;
+    }
+
+    /**
+     * Draws a QR code without caching it.
+     *
+     * @param value text to encode
+     * @param size  side in pixels
+     * @return the code as a black-on-white bitmap
+     * @throws WriterException if the text cannot be encoded
+     */
+    public static Bitmap render(String value, int size) throws WriterException {
+        BitMatrix matrix = new QRCodeWriter().encode(value, BarcodeFormat.QR_CODE, size, size);
+        int width = matrix.getWidth();
+        int height = matrix.getHeight();
+        int[] pixels = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            int row = y * width;
+            for (int x = 0; x < width; x++) {
+                pixels[row + x] = matrix.get(x, y) ? Color.BLACK : Color.WHITE;
+            }
+        }
+        return Bitmap.createBitmap(pixels, width, height, Bitmap.Config.RGB_565);
+    }
+
+    /**
+     * Shows an event's QR code in an image view. If the view is given another event
+     * before the code is ready, the late code is not shown.
+     *
+     * @param eventId Firestore document ID of the event
+     * @param target  view to show it in
+     */
+    public void into(String eventId, ImageView target) {
+        target.setTag(eventId);
+        load(eventId, DEFAULT_SIZE, bitmap -> {
+            if (bitmap != null && eventId.equals(target.getTag())) {
+                target.setImageBitmap(bitmap);
+            }
+        });
+    }
+
+    /**
+     * Gets an event's QR code from memory, from disk, or by drawing it.
+     *
+     * @param eventId  Firestore document ID of the event
+     * @param size     side in pixels
+     * @param callback receives the code on the main thread; at once if it is in memory
+     */
+    public void load(String eventId, int size, Callback callback) {
+        String key = eventId + "_" + size;
+        Bitmap cached = memory.get(key);
+        if (cached != null) {
+            callback.onQrCode(cached);
+            return;
+        }
+
+        List<Callback> waiting = pending.get(key);
+        if (waiting != null) {
+            waiting.add(callback);
+            return;
+        }
+        waiting = new ArrayList<>();
+        waiting.add(callback);
+        pending.put(key, waiting);
+
+        IO.execute(() -> {
+            Bitmap bitmap = readOrDraw(key, deepLink(eventId), size);
+            main.post(() -> {
+                if (bitmap != null) memory.put(key, bitmap);
+                List<Callback> callbacks = pending.remove(key);
+                if (callbacks == null) return;
+                for (Callback c : callbacks) c.onQrCode(bitmap);
+            });
+        });
+    }
+
+    /** Reads a code from disk, or draws and stores it. Runs on {@link #IO}. */
+    @Nullable
+    private Bitmap readOrDraw(String key, String value, int size) {
+        File file = new File(dir, key + ".png");
+        if (file.isFile()) {
+            BitmapFactory.Options options = new BitmapFactory.Options();
+            options.inPreferredConfig = Bitmap.Config.RGB_565;
+            Bitmap bitmap = BitmapFactory.decodeFile(file.getPath(), options);
+            if (bitmap != null) {
+                LruFiles.touch(file);
+                return bitmap;
+            }
+        }
+
+        Bitmap bitmap;
+        try {
+            bitmap = render(value, size);
+        } catch (WriterException e) {
+            Log.w(TAG, "Cannot encode " + value, e);
+            return null;
+        }
+        write(file, bitmap);
+        return bitmap;
+    }
+
+    /** Stores a drawn code through a temporary file, then trims the directory. */
+    private void write(File file, Bitmap bitmap) {
+        if (!dir.isDirectory() && !dir.mkdirs()) return;
+        File tmp = new File(dir, file.getName() + ".tmp");
+        try (OutputStream out = new FileOutputStream(tmp)) {
+            bitmap.compress(Bitmap.CompressFormat.PNG, 100, out);
+        } catch (IOException e) {
+            Log.w(TAG, "Could not cache " + file.getName(), e);
+            //noinspection ResultOfMethodCallIgnored
+            tmp.delete();
+            return;
+        }
+        if (!tmp.renameTo(file)) {
+            //noinspection ResultOfMethodCallIgnored
+            tmp.delete();
+            return;
+        }
+        LruFiles.trim(dir, DISK_BYTES);
+    }
+}
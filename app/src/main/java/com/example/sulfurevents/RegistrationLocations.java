@@ -0,0 +1,127 @@
+package com.example.sulfurevents;
+
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Where entrants were when they joined an event's waiting list, stored at
+ * {@code Events/{eventId}/entrant_registration_location/{deviceId}}.
+ * <p>
+ * Each location carries its {@link Geohash} in {@link #GEOHASH_FIELD}, so the event map
+ * reads only the locations inside its viewport ({@link #inCell}) instead of the whole
+ * subcollection. New events start with {@link #INDEXED_FIELD} set (see {@link OrganizerEvent});
+ * events whose locations were written before the field existed are indexed once by
+ * {@link #indexIfNeeded}, which then sets it.
+ */
+public final class RegistrationLocations {
+
+    private static final String TAG = "RegistrationLocations";
+
+    /** Subcollection of an event holding its registration locations, keyed by device ID. */
+    public static final String COLLECTION = "entrant_registration_location";
+
+    /** Geohash of the location, absent when the entrant shared no location. */
+    public static final String GEOHASH_FIELD = "geohash";
+
+    /** Event field set once every location of the event has its geohash. */
+    public static final String INDEXED_FIELD = "locationsGeohashed";
+
+    // Firestore limit on writes per batch
+    private static final int BATCH_SIZE = 500;
+
+    private RegistrationLocations() {
+    }
+
+    /** @return the registration locations of an event */
+    public static CollectionReference of(DocumentReference eventRef) {
+        return eventRef.collection(COLLECTION);
+    }
+
+    /**
+     * Builds a registration location document.
+     *
+     * @param deviceId  entrant's device ID
+     * @param joinedAt  when the entrant joined, in epoch milliseconds
+     * @param latitude  latitude, or null if the entrant shared no location
+     * @param longitude longitude, or null if the entrant shared no location
+     * @return the document data
+     */
+    public static Map<String, Object> dataOf(String deviceId, long joinedAt,
+                                             @Nullable Double latitude, @Nullable Double longitude) {
+        boolean hasLocation = latitude != null && longitude != null;
+        Map<String, Object> data = new HashMap<>();
+        data.put("deviceId", deviceId);
+        data.put("timestamp", new Timestamp(new Date(joinedAt)));
+        data.put("latitude", latitude);
+        data.put("longitude", longitude);
+        data.put("hasLocation", hasLocation);
+        if (hasLocation) {
+            data.put(GEOHASH_FIELD, Geohash.encode(latitude, longitude, Geohash.STORED_PRECISION));
+        }
+        return data;
+    }
+
+    /**
+     * @param eventRef document of the event
+     * @param cell     geohash cell from {@link Geohash#cover}
+     * @param limit    most locations to read
+     * @return query for the event's locations inside {@code cell}
+     */
+    public static Query inCell(DocumentReference eventRef, String cell, int limit) {
+        return of(eventRef)
+                .orderBy(GEOHASH_FIELD)
+                .startAt(cell)
+                .endAt(Geohash.rangeEnd(cell))
+                .limit(limit);
+    }
+
+    /**
+     * Adds the geohash to locations written before it was stored, once per event.
+     * Reads the whole subcollection, so it only runs while {@link #INDEXED_FIELD} is unset.
+     *
+     * @param event the event document
+     * @return task completing when every location of the event can be found by {@link #inCell}
+     */
+    public static Task<Void> indexIfNeeded(DocumentSnapshot event) {
+        if (Boolean.TRUE.equals(event.getBoolean(INDEXED_FIELD))) return Tasks.forResult(null);
+
+        DocumentReference eventRef = event.getReference();
+        return of(eventRef).get().onSuccessTask(snapshots -> {
+            List<Task<Void>> commits = new ArrayList<>();
+            WriteBatch batch = eventRef.getFirestore().batch();
+            int pending = 0;
+            for (DocumentSnapshot doc : snapshots.getDocuments()) {
+                Double latitude = doc.getDouble("latitude");
+                Double longitude = doc.getDouble("longitude");
+                if (doc.contains(GEOHASH_FIELD) || latitude == null || longitude == null) continue;
+                batch.update(doc.getReference(), GEOHASH_FIELD,
+                        Geohash.encode(latitude, longitude, Geohash.STORED_PRECISION));
+                if (++pending == BATCH_SIZE) {
+                    commits.add(batch.commit());
+                    batch = eventRef.getFirestore().batch();
+                    pending = 0;
+                }
+            }
+            batch.update(eventRef, INDEXED_FIELD, true);
+            commits.add(batch.commit());
+            Log.d(TAG, "Indexed " + snapshots.size() + " locations of " + eventRef.getId());
+            return Tasks.whenAll(commits);
+        });
+    }
+}
@@ -2,28 +2,44 @@ package com.example.sulfurevents;
 
 import android.util.Log;
 
-import com.google.android.gms.tasks.Task;
-import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.WriteBatch;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Handles the lottery-style selection of entrants from an event's waiting list.
  * This class randomly selects a specified number of users from the waiting list,
  * stores them in the selected_users collection, and sends notifications to all
  * entrants (both selected and not selected).
+ * <p>
+ * Writes are grouped into batch commits with a bounded number in flight, so drawing from
+ * a very large waiting list does not queue thousands of individual writes at once.
  */
 public class SampleEntrants {
 
+    private static final String TAG = "SampleEntrants";
+
+    /** Largest batch Firestore accepts. */
+    public static final int MAX_BATCH_SIZE = 500;
+    /** Default number of writes per batch commit. */
+    public static final int DEFAULT_BATCH_SIZE = 400;
+    /** Default number of batch commits allowed to be outstanding at once. */
+    public static final int DEFAULT_MAX_IN_FLIGHT = 3;
+    /** Times a failed batch is re-committed before giving up on it. */
+    private static final int MAX_COMMIT_RETRIES = 2;
+
     private final FirebaseFirestore db;
     private final String eventId;
     private final Integer limit;
+    private int maxBatchSize = DEFAULT_BATCH_SIZE;
+    private int maxInFlightCommits = DEFAULT_MAX_IN_FLIGHT;
 
     /**
      * Constructs a SampleEntrants instance for a specific event.
@@ -37,6 +53,25 @@ public class SampleEntrants {
         this.limit = limit;
     }
 
+    /**
+     * Sets how many writes go into each batch commit.
+     *
+     * @param maxBatchSize writes per batch, clamped to 1..{@link #MAX_BATCH_SIZE}
+     */
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = Math.max(1, Math.min(MAX_BATCH_SIZE, maxBatchSize));
+    }
+
+    /**
+     * Sets how many batch commits may be outstanding at once. Lower values put less
+     * pressure on the client's write queue; higher values finish large draws sooner.
+     *
+     * @param maxInFlightCommits concurrent commits, at least 1
+     */
+    public void setMaxInFlightCommits(int maxInFlightCommits) {
+        this.maxInFlightCommits = Math.max(1, maxInFlightCommits);
+    }
+
     /**
      * Callback interface for handling the result of the entrant selection process.
      */
@@ -54,6 +89,17 @@ public class SampleEntrants {
          * @param e The exception that occurred
          */
         void onError(Exception e);
+
+        /**
+         * Called after each batch of selected_users and notification writes settles.
+         * The fan-out is finished when {@code written + lost == total}.
+         *
+         * @param written Number of writes committed so far
+         * @param lost    Number of notification writes whose batch failed after every retry
+         * @param total   Total number of writes for this draw
+         */
+        default void onProgress(int written, int lost, int total) {
+        }
     }
 
     /**
@@ -94,11 +140,19 @@ public class SampleEntrants {
      * 4. Stores selected users in the selected_users collection
      * 5. Sends notifications to all entrants (invited or not selected)
      *
+     * <p>Steps 4 and 5 are written as one pipeline of {@link WriteBatch} commits of at most
+     * {@link #setMaxBatchSize(int) maxBatchSize} writes, with at most
+     * {@link #setMaxInFlightCommits(int) maxInFlightCommits} commits outstanding at a time.
+     * Every selected user is stored before the first notification batch is sent, so a
+     * failed selected_users batch stops the draw before anyone is notified;
+     * {@code onSelectionComplete} is called once they are all stored, and {@code onProgress}
+     * reports every batch until the last notification has been written or given up on.</p>
+     *
      * @param listener Callback to handle success or failure of the selection process
      */
     public void selectEntrants(OnSelectionCompleteListener listener) {
         // Step 1: Get the event document to retrieve the event name
-        db.collection("Events").document(eventId).get()
+        EventRepository.getInstance().getEvent(eventId)
                 .addOnSuccessListener(eventDoc -> {
                     // Extract event name from the document
                     String eventName = null;
@@ -136,66 +190,173 @@ public class SampleEntrants {
                                 if (limit == null || limit <= 0) {
                                     // No limit set — select all entrants
                                     selectedUsers = new ArrayList<>(entrants);
-                                    Log.d("SampleEntrants", "No limit set — selecting all entrants.");
+                                    Log.d(TAG, "No limit set — selecting all entrants.");
                                 } else {
-                                    // Shuffle the list for random selection
-                                    Collections.shuffle(entrants);
+                                    // Draw only the winners instead of shuffling the whole list
                                     int numToSelect = Math.min(limit, entrants.size());
-                                    selectedUsers = entrants.subList(0, numToSelect);
-                                    Log.d("SampleEntrants", "Selecting " + numToSelect + " entrants out of " + entrants.size());
+                                    selectedUsers = new WinnerSampler().sample(entrants, numToSelect);
+                                    Log.d(TAG, "Selecting " + numToSelect + " entrants out of " + entrants.size());
                                 }
 
-                                // Step 4: Write selected users to Firestore
-                                List<Task<Void>> tasks = new ArrayList<>();
-                                for (String userId : selectedUsers) {
-                                    // Add each selected user to the selected_users collection
-                                    tasks.add(
-                                            db.collection("Events")
-                                                    .document(eventId)
-                                                    .collection("selected_users")
-                                                    .document(userId)
-                                                    .set(new SelectedUser(userId))
-                                                    .addOnFailureListener(e ->
-                                                            Log.e("Firestore", "Failed to add selected user: " + userId, e))
-                                    );
-                                }
+                                // Steps 4 + 5: selected_users documents, then notifications for ALL entrants
+                                new FanOut(entrants, selectedUsers, finalEventName, listener).start();
+                            })
+                            .addOnFailureListener(listener::onError);
+                })
+                .addOnFailureListener(listener::onError);
+    }
+
+    /**
+     * Writes the selected_users documents and the notifications of one draw as a bounded
+     * pipeline of batch commits, in two phases: batches never mix the two kinds of write,
+     * and no notification batch starts until every selected_users batch has committed.
+     * All callbacks run on the main thread, so no locking is needed.
+     */
+    private final class FanOut {
+        private final List<String> entrants;
+        private final List<String> selectedUsers;
+        private final Set<String> selectedSet;
+        private final String eventName;
+        private final OnSelectionCompleteListener listener;
+        private final int batchSize = maxBatchSize;
+        private final int inFlightLimit = maxInFlightCommits;
+        private final long timestamp = System.currentTimeMillis();
 
-                                // Step 5: After all writes complete, create notifications for ALL entrants
-                                Tasks.whenAllComplete(tasks)
-                                        .addOnSuccessListener(done -> {
-                                            // Notify the callback that selection is complete
-                                            listener.onSelectionComplete(selectedUsers);
-
-                                            // Create and send notifications to all entrants
-                                            for (String entrantId : entrants) {
-                                                boolean wasSelected = selectedUsers.contains(entrantId);
-
-                                                // Build notification document
-                                                Map<String, Object> notif = new HashMap<>();
-                                                notif.put("eventId", eventId);
-                                                notif.put("eventName", finalEventName);
-                                                notif.put("timestamp", System.currentTimeMillis());
-                                                notif.put("read", false);
-
-                                                if (wasSelected) {
-                                                    // User was selected — send invitation notification
-                                                    notif.put("type", "INVITED");
-                                                    notif.put("message", "You were selected for " + finalEventName + ". Open it to accept or decline.");
-                                                } else {
-                                                    // User was not selected — send rejection notification
-                                                    notif.put("type", "NOT_SELECTED");
-                                                    notif.put("message", "You were not selected for " + finalEventName + " in the first draw.");
-                                                }
-
-                                                // Add notification to user's notifications subcollection
-                                                db.collection("Profiles")
-                                                        .document(entrantId)
-                                                        .collection("notifications")
-                                                        .add(notif);
-                                            }
-                                        })
-                                        .addOnFailureListener(listener::onError);
-                            });
-                });
+        // Writes [0, selectedUsers.size()) are selected_users docs, the rest are notifications
+        private final int totalWrites;
+        private int nextWrite = 0;
+        private int committedWrites = 0;
+        private int lostWrites = 0;
+        private int selectionWritesCommitted = 0;
+        private int inFlight = 0;
+        private boolean selectionReported = false;
+        private boolean failed = false;
+
+        FanOut(List<String> entrants, List<String> selectedUsers, String eventName,
+               OnSelectionCompleteListener listener) {
+            this.entrants = entrants;
+            this.selectedUsers = selectedUsers;
+            this.selectedSet = new HashSet<>(selectedUsers);
+            this.eventName = eventName;
+            this.listener = listener;
+            this.totalWrites = selectedUsers.size() + entrants.size();
+        }
+
+        void start() {
+            while (inFlight < inFlightLimit && nextWrite < totalWrites && !failed) {
+                // Notifications wait until every winner is stored
+                if (nextWrite >= selectedUsers.size() && selectionWritesCommitted < selectedUsers.size()) {
+                    return;
+                }
+                commitNext();
+            }
+        }
+
+        /** Builds and commits the next batch, retrying it a few times on failure. */
+        private void commitNext() {
+            int from = nextWrite;
+            int to = from + 1;
+            int writes = costOf(from);
+            // A batch holds only selected_users writes or only notifications
+            int end = from < selectedUsers.size() ? selectedUsers.size() : totalWrites;
+            while (to < end && writes + costOf(to) <= batchSize) {
+                writes += costOf(to);
+                to++;
+            }
+            nextWrite = to;
+            inFlight++;
+            commit(from, to, 0);
+        }
+
+        /** Firestore writes needed for item {@code index}: a notification also bumps the unread counter. */
+        private int costOf(int index) {
+            return index < selectedUsers.size() ? 1 : 2;
+        }
+
+        private void commit(int from, int to, int attempt) {
+            WriteBatch batch = db.batch();
+            for (int i = from; i < to; i++) {
+                addWrite(batch, i);
+            }
+
+            batch.commit()
+                    .addOnSuccessListener(unused -> {
+                        inFlight--;
+                        onCommitted(from, to);
+                    })
+                    .addOnFailureListener(e -> {
+                        if (attempt < MAX_COMMIT_RETRIES) {
+                            Log.w(TAG, "Retrying writes " + from + "-" + to + " after failure", e);
+                            commit(from, to, attempt + 1);
+                            return;
+                        }
+                        Log.e(TAG, "Failed to commit writes " + from + "-" + to, e);
+                        inFlight--;
+                        if (from < selectedUsers.size()) {
+                            // Winners could not be stored; stop instead of notifying them
+                            if (!failed) {
+                                failed = true;
+                                listener.onError(e);
+                            }
+                            return;
+                        }
+                        // A lost notification batch does not undo the draw
+                        lostWrites += to - from;
+                        onSettled();
+                    });
+        }
+
+        private void addWrite(WriteBatch batch, int index) {
+            if (index < selectedUsers.size()) {
+                // Add each selected user to the selected_users collection
+                String userId = selectedUsers.get(index);
+                batch.set(db.collection("Events")
+                        .document(eventId)
+                        .collection("selected_users")
+                        .document(userId), new SelectedUser(userId));
+                return;
+            }
+
+            String entrantId = entrants.get(index - selectedUsers.size());
+
+            // Build notification document
+            Map<String, Object> notif = new HashMap<>();
+            notif.put("eventId", eventId);
+            notif.put("eventName", eventName);
+            notif.put("timestamp", timestamp);
+            notif.put("read", false);
+
+            if (selectedSet.contains(entrantId)) {
+                // User was selected — send invitation notification
+                notif.put("type", "INVITED");
+                notif.put("message", "You were selected for " + eventName + ". Open it to accept or decline.");
+            } else {
+                // User was not selected — send rejection notification
+                notif.put("type", "NOT_SELECTED");
+                notif.put("message", "You were not selected for " + eventName + " in the first draw.");
+            }
+
+            // Add notification to user's notifications subcollection
+            NotificationCounters.addNotification(batch, entrantId, notif);
+        }
+
+        private void onCommitted(int from, int to) {
+            if (failed) return;
+            committedWrites += to - from;
+            selectionWritesCommitted += Math.max(0, Math.min(to, selectedUsers.size()) - from);
+
+            if (!selectionReported && selectionWritesCommitted == selectedUsers.size()) {
+                selectionReported = true;
+                listener.onSelectionComplete(selectedUsers);
+            }
+            onSettled();
+        }
+
+        /** Reports progress after a batch committed or was given up on, and keeps the pipeline full. */
+        private void onSettled() {
+            if (failed) return;
+            listener.onProgress(committedWrites, lostWrites, totalWrites);
+            start();
+        }
     }
-}
\ No newline at end of file
+}
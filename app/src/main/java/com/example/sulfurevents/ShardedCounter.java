@@ -0,0 +1,131 @@
+package com.example.sulfurevents;
+
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.Transaction;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * A set of named counters spread over several shard documents.
+ * <p>
+ * A single counter document accepts only about one write per second, so counters bumped
+ * by many clients at once (e.g. the waiting list of a popular event) would contend on it.
+ * Each increment here goes to one randomly chosen shard, {@code {shards}/{0..n-1}}, and a
+ * read sums the fields of all shards, which costs one read per shard.
+ */
+public final class ShardedCounter {
+
+    private static final Random RANDOM = new Random();
+
+    private final CollectionReference shards;
+    private final int numShards;
+
+    /**
+     * @param shards    collection holding the shard documents
+     * @param numShards number of shards increments are spread over
+     */
+    public ShardedCounter(CollectionReference shards, int numShards) {
+        this.shards = shards;
+        this.numShards = numShards;
+    }
+
+    /**
+     * @param index shard number, from 0 to {@code numShards - 1}
+     * @return the shard document
+     */
+    public DocumentReference shard(int index) {
+        return shards.document(String.valueOf(index));
+    }
+
+    private DocumentReference randomShard() {
+        return shard(RANDOM.nextInt(numShards));
+    }
+
+    /**
+     * Adds increments of one or more counters to a batch. All of them go to the same shard.
+     *
+     * @param deltas amount to add per counter name; zero entries are skipped
+     */
+    public void add(WriteBatch batch, Map<String, Long> deltas) {
+        Map<String, Object> update = increments(deltas);
+        if (!update.isEmpty()) batch.set(randomShard(), update, SetOptions.merge());
+    }
+
+    /**
+     * Adds increments of one or more counters to a transaction. Nothing is read, so
+     * concurrent transactions do not conflict on the shard.
+     *
+     * @param deltas amount to add per counter name; zero entries are skipped
+     */
+    public void add(Transaction transaction, Map<String, Long> deltas) {
+        Map<String, Object> update = increments(deltas);
+        if (!update.isEmpty()) transaction.set(randomShard(), update, SetOptions.merge());
+    }
+
+    /**
+     * Sets the counters to exact values: shard 0 holds them and the others are zeroed.
+     *
+     * @param values value per counter name
+     */
+    public void reset(Transaction transaction, Map<String, Long> values) {
+        Map<String, Object> zeros = new HashMap<>();
+        for (String name : values.keySet()) zeros.put(name, 0L);
+        transaction.set(shard(0), new HashMap<String, Object>(values), SetOptions.merge());
+        for (int i = 1; i < numShards; i++) {
+            transaction.set(shard(i), zeros, SetOptions.merge());
+        }
+    }
+
+    /**
+     * Reads every shard and sums them.
+     *
+     * @return task completing with the fields of the shards, summed by name
+     */
+    public Task<Map<String, Long>> read() {
+        return shards.get().continueWith(task -> {
+            if (!task.isSuccessful()) throw task.getException();
+            List<Map<String, Object>> data = new ArrayList<>();
+            for (DocumentSnapshot doc : task.getResult().getDocuments()) {
+                if (doc.getData() != null) data.add(doc.getData());
+            }
+            return EntrantCounts.sumShards(data);
+        });
+    }
+
+    /**
+     * Reads every shard inside a transaction and sums them. The transaction then conflicts
+     * with any increment committed before it, so use this only where the exact value
+     * decides what the transaction writes.
+     *
+     * @return the fields of the shards, summed by name
+     */
+    public Map<String, Long> read(Transaction transaction) throws FirebaseFirestoreException {
+        List<Map<String, Object>> data = new ArrayList<>();
+        for (int i = 0; i < numShards; i++) {
+            DocumentSnapshot doc = transaction.get(shard(i));
+            if (doc.getData() != null) data.add(doc.getData());
+        }
+        return EntrantCounts.sumShards(data);
+    }
+
+    private static Map<String, Object> increments(Map<String, Long> deltas) {
+        Map<String, Object> update = new HashMap<>();
+        for (Map.Entry<String, Long> e : deltas.entrySet()) {
+            if (e.getValue() != null && e.getValue() != 0) {
+                update.put(e.getKey(), FieldValue.increment(e.getValue()));
+            }
+        }
+        return update;
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.sulfurevents;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.bumptech.glide.GlideBuilder;
+import com.bumptech.glide.annotation.GlideModule;
+import com.bumptech.glide.load.engine.bitmap_recycle.LruBitmapPool;
+import com.bumptech.glide.load.engine.cache.InternalCacheDiskCacheFactory;
+import com.bumptech.glide.load.engine.cache.LruResourceCache;
+import com.bumptech.glide.load.engine.cache.MemorySizeCalculator;
+import com.bumptech.glide.module.AppGlideModule;
+
+/**
+ * Glide configuration for the app's poster images.
+ * <p>
+ * Lists show posters as 240 px thumbnails and 720 px cards (see {@link PosterVariants}),
+ * and {@link PosterPreloader} keeps a few rows ahead of the screen in memory. The caches
+ * are sized for that:
+ * <ul>
+ *   <li>Memory cache and bitmap pool: {@link #MEMORY_CACHE_SCREENS} and
+ *       {@link #BITMAP_POOL_SCREENS} screens of pixels, so the visible rows plus the
+ *       preloaded ones fit and scrolled-away posters are reused rather than garbage
+ *       collected.</li>
+ *   <li>Disk cache: {@link #DISK_CACHE_BYTES} in the app's cache directory. Variants are
+ *       small, so this holds every poster of a typical feed across restarts.</li>
+ * </ul>
+ * Also generates the {@code GlideApp} API through the annotation processor.
+ */
+@GlideModule
+public final class SulfurGlideModule extends AppGlideModule {
+
+    /** Screens of pixels held by the memory cache. */
+    static final float MEMORY_CACHE_SCREENS = 3;
+
+    /** Screens of pixels held by the bitmap pool. */
+    static final float BITMAP_POOL_SCREENS = 3;
+
+    /** Disk cache size in bytes. */
+    static final long DISK_CACHE_BYTES = 100L * 1024 * 1024;
+
+    private static final String DISK_CACHE_DIR = "poster_cache";
+
+    @Override
+    public void applyOptions(@NonNull Context context, @NonNull GlideBuilder builder) {
+        MemorySizeCalculator sizes = new MemorySizeCalculator.Builder(context)
+                .setMemoryCacheScreens(MEMORY_CACHE_SCREENS)
+                .setBitmapPoolScreens(BITMAP_POOL_SCREENS)
+                .build();
+        builder.setMemoryCache(new LruResourceCache(sizes.getMemoryCacheSize()));
+        builder.setBitmapPool(new LruBitmapPool(sizes.getBitmapPoolSize()));
+        builder.setDiskCache(new InternalCacheDiskCacheFactory(context, DISK_CACHE_DIR, DISK_CACHE_BYTES));
+        builder.setLogLevel(Log.ERROR);
+    }
+
+    /** Only this module configures Glide; skip the slow legacy manifest scan. */
+    @Override
+    public boolean isManifestParsingEnabled() {
+        return false;
+    }
+}
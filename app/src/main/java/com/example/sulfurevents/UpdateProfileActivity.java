@@ -152,6 +152,7 @@ public class UpdateProfileActivity extends AppCompatActivity {
             db.collection("Profiles").document(deviceId)
                     .set(currentProfile, SetOptions.merge())
                     .addOnSuccessListener(unused -> {
+                        ProfileBatchLoader.getInstance().invalidate(deviceId);
                         // Navigate back to ProfileActivity after successful update
                         Intent intent = new Intent(UpdateProfileActivity.this, ProfileActivity.class);
                         intent.putExtra("deviceId", deviceId);
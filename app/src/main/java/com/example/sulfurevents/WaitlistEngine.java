@@ -0,0 +1,251 @@
+package com.example.sulfurevents;
+
+import androidx.annotation.Nullable;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.Transaction;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Joins and leaves an event's waiting list (US 01.01.01 / US 01.01.02).
+ * <p>
+ * Each call is <b>one Firestore transaction</b>: it reads the event, checks the entrant's
+ * place and the {@code waitingListLimit}, and writes the list entry, the entrant counter,
+ * the membership index and the optional registration location together. Joins racing for
+ * the last free place are retried against the new state, so the waiting list never goes
+ * over its limit, and the result carries the counts as committed, so the screen needs no
+ * second read.
+ * <p>
+ * In sharded storage (see {@link EntrantStore}) reading every counter shard inside the
+ * transaction would make each join conflict with every other join to the event. A join to a
+ * limited waiting list therefore first reads the counter outside the transaction, and only
+ * re-reads the shards inside it when that count is within {@link #SAFETY_MARGIN} of the
+ * limit. Far from the limit, joins do not conflict and their result has no counts; near it,
+ * they are serialized so the last places are never overbooked. The list can only go over its
+ * limit if more than {@link #SAFETY_MARGIN} joins commit between one join's first read and its
+ * transaction. Joins to events without a limit never read the shards.
+ */
+public final class WaitlistEngine {
+
+    /** What a join or leave did. */
+    public enum Outcome {
+        /** The entrant was added to the waiting list. */
+        JOINED,
+        /** The entrant was already on the waiting list; nothing was written. */
+        ALREADY_JOINED,
+        /** The waiting list is at its limit; nothing was written. */
+        FULL,
+        /** The entrant was removed from the waiting list. */
+        LEFT,
+        /** The entrant was not on the waiting list; nothing was written. */
+        NOT_JOINED
+    }
+
+    /**
+     * Outcome of a committed join or leave.
+     */
+    public static final class Result {
+        /** What happened. */
+        public final Outcome outcome;
+        /** Entrant counts after the transaction, or null if they were not read. */
+        @Nullable
+        public final EntrantCounts counts;
+
+        Result(Outcome outcome, @Nullable EntrantCounts counts) {
+            this.outcome = outcome;
+            this.counts = counts;
+        }
+    }
+
+    /**
+     * How close to the limit a sharded waiting list may be, by its count read outside the
+     * transaction, before joins re-read the exact count inside it.
+     */
+    static final int SAFETY_MARGIN = 25;
+
+    private final FirebaseFirestore db;
+
+    /**
+     * @param db Firestore instance holding the event
+     */
+    public WaitlistEngine(FirebaseFirestore db) {
+        this.db = db;
+    }
+
+    /**
+     * Parses a {@code waitingListLimit} value.
+     *
+     * @param str field value as stored on the event
+     * @return the limit, or -1 if not set or invalid
+     */
+    public static int parseLimit(@Nullable String str) {
+        try {
+            return str != null ? Integer.parseInt(str.trim()) : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Adds an entrant to the waiting list if it has room.
+     *
+     * @param eventId  Firestore document ID of the event
+     * @param deviceId entrant joining
+     * @param location registration location document to store with the join, or null
+     * @return task completing with the result, or failing if the event does not exist
+     */
+    public Task<Result> join(String eventId, String deviceId, @Nullable Map<String, Object> location) {
+        DocumentReference eventRef = db.collection("Events").document(eventId);
+        return estimateWaiting(eventId).continueWithTask(estimate -> db.runTransaction(transaction -> {
+            DocumentSnapshot event = transaction.get(eventRef);
+            if (!event.exists()) {
+                throw new IllegalStateException("Event not found.");
+            }
+            int limit = parseLimit(event.getString("waitingListLimit"));
+            return EntrantStore.isSharded(event)
+                    ? joinSharded(transaction, event, deviceId, limit, estimate.getResult(), location)
+                    : joinArrays(transaction, event, deviceId, limit, location);
+        })).addOnCompleteListener(done -> EventRepository.getInstance().invalidate(eventId));
+    }
+
+    /**
+     * Counts a sharded, limited waiting list outside any transaction.
+     *
+     * @return task completing with the count, or null if the event is not sharded, has no
+     *         limit or could not be read; the join then decides inside its transaction
+     */
+    private Task<Integer> estimateWaiting(String eventId) {
+        return EventRepository.getInstance().getEvent(eventId).continueWithTask(task -> {
+            DocumentSnapshot event = task.isSuccessful() ? task.getResult() : null;
+            if (event == null || !event.exists() || !EntrantStore.isSharded(event)
+                    || parseLimit(event.getString("waitingListLimit")) <= 0) {
+                return Tasks.<Integer>forResult(null);
+            }
+            return EntrantStore.counter(db, eventId).read().continueWith(read ->
+                    read.isSuccessful() ? EntrantCounts.of(read.getResult()).waiting() : null);
+        });
+    }
+
+    /**
+     * Removes an entrant from the waiting list, together with their registration location.
+     *
+     * @param eventId  Firestore document ID of the event
+     * @param deviceId entrant leaving
+     * @return task completing with the result, or failing if the event does not exist
+     */
+    public Task<Result> leave(String eventId, String deviceId) {
+        DocumentReference eventRef = db.collection("Events").document(eventId);
+        return db.runTransaction(transaction -> {
+            DocumentSnapshot event = transaction.get(eventRef);
+            if (!event.exists()) {
+                throw new IllegalStateException("Event not found.");
+            }
+            return EntrantStore.isSharded(event)
+                    ? leaveSharded(transaction, event, deviceId)
+                    : leaveArrays(transaction, event, deviceId);
+        }).addOnCompleteListener(done -> EventRepository.getInstance().invalidate(eventId));
+    }
+
+    private Result joinArrays(Transaction transaction, DocumentSnapshot event, String deviceId,
+                              int limit, @Nullable Map<String, Object> location) {
+        EntrantCounts counts = arrayCounts(event);
+        if (EntrantStore.arrayOf(event, Memberships.WAITING).contains(deviceId)) {
+            return new Result(Outcome.ALREADY_JOINED, counts);
+        }
+        if (!counts.hasRoomOnWaitingList(limit)) {
+            return new Result(Outcome.FULL, counts);
+        }
+
+        Map<String, Object> update = new HashMap<>();
+        update.put(Memberships.listField(Memberships.WAITING), FieldValue.arrayUnion(deviceId));
+        Map<String, Long> deltas = Collections.singletonMap(Memberships.WAITING, 1L);
+        EntrantStore.countArrayChange(transaction, event, deltas, update);
+        transaction.update(event.getReference(), update);
+        writeMembership(transaction, event, deviceId, null, Memberships.WAITING, location);
+        return new Result(Outcome.JOINED, counts.plus(deltas));
+    }
+
+    private Result leaveArrays(Transaction transaction, DocumentSnapshot event, String deviceId) {
+        EntrantCounts counts = arrayCounts(event);
+        if (!EntrantStore.arrayOf(event, Memberships.WAITING).contains(deviceId)) {
+            return new Result(Outcome.NOT_JOINED, counts);
+        }
+
+        Map<String, Object> update = new HashMap<>();
+        update.put(Memberships.listField(Memberships.WAITING), FieldValue.arrayRemove(deviceId));
+        Map<String, Long> deltas = Collections.singletonMap(Memberships.WAITING, -1L);
+        EntrantStore.countArrayChange(transaction, event, deltas, update);
+        transaction.update(event.getReference(), update);
+        writeMembership(transaction, event, deviceId, Memberships.WAITING, null, null);
+        return new Result(Outcome.LEFT, counts.plus(deltas));
+    }
+
+    private Result joinSharded(Transaction transaction, DocumentSnapshot event, String deviceId,
+                               int limit, @Nullable Integer estimate,
+                               @Nullable Map<String, Object> location)
+            throws FirebaseFirestoreException {
+        ShardedCounter counter = EntrantStore.counter(db, event.getId());
+        DocumentSnapshot entry = transaction.get(
+                EntrantStore.entrants(db, event.getId(), Memberships.WAITING).document(deviceId));
+        // Only a limit close at hand needs the exact count; see the class comment
+        boolean exact = limit > 0 && (estimate == null || estimate >= limit - SAFETY_MARGIN);
+        EntrantCounts counts = exact ? EntrantCounts.of(counter.read(transaction)) : null;
+
+        if (entry.exists()) {
+            return new Result(Outcome.ALREADY_JOINED, counts);
+        }
+        if (counts != null && !counts.hasRoomOnWaitingList(limit)) {
+            return new Result(Outcome.FULL, counts);
+        }
+
+        Map<String, Long> deltas = Collections.singletonMap(Memberships.WAITING, 1L);
+        transaction.set(entry.getReference(), EntrantStore.entry(deviceId, System.currentTimeMillis()));
+        counter.add(transaction, deltas);
+        writeMembership(transaction, event, deviceId, null, Memberships.WAITING, location);
+        return new Result(Outcome.JOINED, counts != null ? counts.plus(deltas) : null);
+    }
+
+    private Result leaveSharded(Transaction transaction, DocumentSnapshot event, String deviceId)
+            throws FirebaseFirestoreException {
+        DocumentSnapshot entry = transaction.get(
+                EntrantStore.entrants(db, event.getId(), Memberships.WAITING).document(deviceId));
+        if (!entry.exists()) {
+            return new Result(Outcome.NOT_JOINED, null);
+        }
+
+        transaction.delete(entry.getReference());
+        EntrantStore.counter(db, event.getId())
+                .add(transaction, Collections.singletonMap(Memberships.WAITING, -1L));
+        writeMembership(transaction, event, deviceId, Memberships.WAITING, null, null);
+        return new Result(Outcome.LEFT, null);
+    }
+
+    /** Writes the membership index entry and sets or deletes the registration location. */
+    private void writeMembership(Transaction transaction, DocumentSnapshot event, String deviceId,
+                                 @Nullable String from, @Nullable String to,
+                                 @Nullable Map<String, Object> location) {
+        Memberships.record(transaction, db, deviceId, event.getId(), from, to);
+        DocumentReference locationRef = RegistrationLocations.of(event.getReference()).document(deviceId);
+        if (location != null) {
+            transaction.set(locationRef, location);
+        } else if (to == null) {
+            transaction.delete(locationRef);
+        }
+    }
+
+    private static EntrantCounts arrayCounts(DocumentSnapshot event) {
+        Map<String, List<String>> lists = new HashMap<>();
+        for (String status : Memberships.STATUSES) lists.put(status, EntrantStore.arrayOf(event, status));
+        return EntrantCounts.fromLists(lists);
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.sulfurevents;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+/**
+ * Picks lottery winners uniformly at random from a waiting list (US 02.05.02).
+ * <p>
+ * Draws used to copy the whole waiting list and {@code Collections.shuffle()} it just to
+ * take the first {@code k} entries. This sampler runs only the first {@code k} steps of a
+ * Fisher–Yates shuffle over a <em>virtual</em> copy of the list: positions that have been
+ * swapped are remembered in a small map, and every other position is read straight from
+ * the source list. Drawing {@code k} winners therefore costs O(k) time and memory however
+ * long the list is, and the source list is never modified.
+ *
+ * <p>The random source is pluggable; the default is a {@link SecureRandom} so draws cannot
+ * be predicted from earlier ones. Tests can pass a seeded source for repeatable results.
+ * The source list should support fast random access (e.g. {@link ArrayList}).
+ */
+public final class WinnerSampler {
+
+    /**
+     * Supplies uniformly distributed random indices.
+     */
+    public interface RandomSource {
+        /**
+         * @param bound exclusive upper bound, always positive
+         * @return a random value in {@code [0, bound)}
+         */
+        int nextInt(int bound);
+    }
+
+    private final RandomSource random;
+
+    /** Creates a sampler backed by a new {@link SecureRandom}. */
+    public WinnerSampler() {
+        this(new SecureRandom());
+    }
+
+    /**
+     * Creates a sampler backed by any {@link Random}, including {@link SecureRandom}.
+     *
+     * @param random source of randomness
+     */
+    public WinnerSampler(Random random) {
+        this((RandomSource) random::nextInt);
+    }
+
+    /**
+     * Creates a sampler backed by a {@link SplittableRandom}, e.g. for fast seeded simulations.
+     *
+     * @param random source of randomness
+     */
+    public WinnerSampler(SplittableRandom random) {
+        this((RandomSource) random::nextInt);
+    }
+
+    /**
+     * Creates a sampler backed by a custom source.
+     *
+     * @param random source of randomness
+     */
+    public WinnerSampler(RandomSource random) {
+        this.random = random;
+    }
+
+    /**
+     * Selects {@code k} distinct positions of {@code source} uniformly at random and returns
+     * the elements at those positions, in draw order. If {@code k} is at least the size of
+     * the list, every element is returned in random order.
+     *
+     * @param source list to draw from; not modified
+     * @param k      number of winners to draw; values below 1 give an empty result
+     * @return a new list of the drawn elements
+     */
+    public <T> List<T> sample(List<T> source, int k) {
+        Draw<T> draw = draw(source);
+        int count = Math.max(0, Math.min(k, source.size()));
+        List<T> winners = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            winners.add(draw.next());
+        }
+        return winners;
+    }
+
+    /**
+     * Starts a draw that hands out elements one at a time, for callers that do not know
+     * up front how many they need, e.g. when some drawn entrants turn out to have left.
+     * Every {@link Draw#next()} runs one more step of the same partial shuffle as
+     * {@link #sample}, so {@code k} calls cost O(k) however long the list is.
+     *
+     * @param source list to draw from; not modified while the draw is in use
+     * @return a new draw over {@code source}
+     */
+    public <T> Draw<T> draw(List<T> source) {
+        return new Draw<>(source, random);
+    }
+
+    /**
+     * Elements of a list in uniformly random order, drawn lazily.
+     */
+    public static final class Draw<T> {
+        private final List<T> source;
+        private final RandomSource random;
+        // Virtual array of indices: position p holds swapped.get(p) if present, otherwise p
+        private final Map<Integer, Integer> swapped = new HashMap<>();
+        private int drawn = 0;
+
+        Draw(List<T> source, RandomSource random) {
+            this.source = source;
+            this.random = random;
+        }
+
+        /** @return true if some element has not been drawn yet */
+        public boolean hasNext() {
+            return drawn < source.size();
+        }
+
+        /**
+         * @return the next element in random order
+         * @throws NoSuchElementException if every element was drawn
+         */
+        public T next() {
+            int n = source.size();
+            if (drawn >= n) throw new NoSuchElementException();
+            int i = drawn++;
+            int j = i + random.nextInt(n - i);
+
+            Integer atJ = swapped.get(j);
+            Integer atI = swapped.remove(i); // position i is never looked at again
+            int chosen = atJ != null ? atJ : j;
+            if (j != i) {
+                swapped.put(j, atI != null ? atI : i);
+            }
+            return source.get(chosen);
+        }
+    }
+}